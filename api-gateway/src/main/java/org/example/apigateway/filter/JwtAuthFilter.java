@@ -42,9 +42,18 @@ public class JwtAuthFilter implements GlobalFilter {
             "/ws",
             "/swagger-ui");
 
+    // Nằm dưới prefix public nhưng cần token (service phía sau kiểm tra quyền VIP / admin theo X-User-Id)
+    public static final List<String> securedApiEndpoints = List.of(
+            "/api/prices/backtests",
+            "/api/prices/replays",
+            "/api/prices/audit");
+
     // Fixed: Use startsWith for prefix matching instead of contains with wildcards
     private Predicate<ServerHttpRequest> isSecured = request -> {
         String path = request.getURI().getPath();
+        if (securedApiEndpoints.stream().anyMatch(path::startsWith)) {
+            return true;
+        }
         return openApiEndpoints.stream()
                 .noneMatch(endpoint -> path.startsWith(endpoint) || path.equals(endpoint));
     };
@@ -91,6 +100,18 @@ public class JwtAuthFilter implements GlobalFilter {
             } catch (Exception e) {
                 return this.onError(exchange, "Token parsing error", HttpStatus.INTERNAL_SERVER_ERROR);
             }
+        } else {
+            // Route public: bỏ X-User-Id do client tự gửi, service phía sau chỉ tin header do gateway đặt.
+            // Handshake WebSocket có token hợp lệ vẫn được gắn X-User-Id (user destination như /user/queue/alerts)
+            String userId = path.startsWith("/ws") ? optionalUserId(request) : null;
+            request = request.mutate()
+                    .headers(headers -> {
+                        headers.remove("X-User-Id");
+                        if (userId != null) {
+                            headers.set("X-User-Id", userId);
+                        }
+                    })
+                    .build();
         }
 
         // 4. Cho đi tiếp (nếu là route public, hoặc nếu là route private và token hợp
@@ -99,6 +120,30 @@ public class JwtAuthFilter implements GlobalFilter {
 
     }
 
+    /**
+     * Trình duyệt không đặt được header cho WebSocket nên token có thể nằm ở query access_token;
+     * không có hoặc không hợp lệ -> null (kết nối ẩn danh)
+     */
+    private String optionalUserId(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst("Authorization");
+        String token = authHeader != null && authHeader.startsWith("Bearer ")
+                ? authHeader.substring(7)
+                : request.getQueryParams().getFirst("access_token");
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            return Jwts.parserBuilder()
+                    .setSigningKey(SECRET_KEY.getBytes())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody()
+                    .get("user_id", String.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
         ServerHttpResponse response = exchange.getResponse();
         response.setStatusCode(httpStatus);
@@ -0,0 +1,24 @@
+package org.example.priceservice.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.example.priceservice.service.CandlePopularityTracker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/candlecache: danh sách hot key (top-K đang được pin) và trạng thái admission
+ */
+@Component
+@Endpoint(id = "candlecache")
+@RequiredArgsConstructor
+public class CandleCacheEndpoint {
+    private final CandlePopularityTracker popularityTracker;
+
+    @ReadOperation
+    public Map<String, Object> candleCache() {
+        return popularityTracker.snapshot();
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.priceservice.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.example.priceservice.service.CandleCacheWarmupService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health "candleWarmup", nằm trong nhóm readiness: OUT_OF_SERVICE cho tới khi warm-up cache xong.
+ * Ở profile không có warm-up (collector) luôn UP.
+ */
+@Component
+@RequiredArgsConstructor
+public class CandleWarmupHealthIndicator implements HealthIndicator {
+    private final ObjectProvider<CandleCacheWarmupService> warmupService;
+
+    @Override
+    public Health health() {
+        CandleCacheWarmupService service = warmupService.getIfAvailable();
+        if (service == null) {
+            return Health.up().build();
+        }
+        Health.Builder builder = service.isCompleted() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("warmedSeries", service.getWarmedSeries())
+                .withDetail("failedSeries", service.getFailedSeries())
+                .build();
+    }
+}
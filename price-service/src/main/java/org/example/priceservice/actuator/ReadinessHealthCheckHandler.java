@@ -0,0 +1,31 @@
+package org.example.priceservice.actuator;
+
+import com.netflix.appinfo.HealthCheckHandler;
+import com.netflix.appinfo.InstanceInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Trạng thái Eureka chỉ theo readiness (readinessState + candleWarmup), không theo health đầy đủ:
+ * Redis / Mongo chập chờn không được gỡ instance khỏi Eureka. Thay EurekaHealthCheckHandler mặc định
+ * (auto-config chỉ tạo khi chưa có bean HealthCheckHandler).
+ */
+@Component
+@RequiredArgsConstructor
+public class ReadinessHealthCheckHandler implements HealthCheckHandler {
+    private final ApplicationAvailability availability;
+    private final CandleWarmupHealthIndicator warmupHealth;
+
+    @Override
+    public InstanceInfo.InstanceStatus getStatus(InstanceInfo.InstanceStatus currentStatus) {
+        if (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return InstanceInfo.InstanceStatus.OUT_OF_SERVICE;
+        }
+        return Status.UP.equals(warmupHealth.health().getStatus())
+                ? InstanceInfo.InstanceStatus.UP
+                : InstanceInfo.InstanceStatus.OUT_OF_SERVICE;
+    }
+}
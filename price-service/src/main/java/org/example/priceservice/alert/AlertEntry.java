@@ -0,0 +1,11 @@
+package org.example.priceservice.alert;
+
+/**
+ * Một price alert đã chuẩn hóa trong index (symbol uppercase, condition above/below)
+ */
+public record AlertEntry(String userId, String symbol, boolean above, double targetPrice) {
+
+    public String condition() {
+        return above ? "above" : "below";
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.priceservice.alert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index price alert theo symbol: hai cây sắp xếp theo targetPrice, một cho "above", một cho "below".
+ * Mỗi tick chỉ duyệt đoạn giá mà giá vừa đi qua (từ giá trước tới giá hiện tại), nên chi phí là
+ * O(log n + k) với k là số alert bị kích hoạt, không phụ thuộc tổng số alert.
+ * Alert kích hoạt theo cạnh (khi giá cắt qua ngưỡng), nên không bắn lặp lại khi giá đứng yên trên ngưỡng.
+ * Có hysteresis: alert đã bắn bị tắt cho tới khi giá quay lại phía bên kia ngưỡng quá rearmFraction
+ * (alert "above" 100 với 0.5%: bật lại khi giá <= 99.5), nên giá dao động quanh ngưỡng không bắn mỗi tick.
+ */
+public class PriceAlertIndex {
+    private final double rearmFraction;
+    private final Map<String, SymbolBook> books = new ConcurrentHashMap<>();
+
+    // userId -> alert hiện có, để thay / xóa toàn bộ alert của user khi settings đổi
+    private final Map<String, List<AlertEntry>> alertsByUser = new ConcurrentHashMap<>();
+
+    public PriceAlertIndex(double rearmFraction) {
+        this.rearmFraction = rearmFraction;
+    }
+
+    /**
+     * Thay toàn bộ alert của user bằng danh sách mới (danh sách rỗng = xóa)
+     */
+    public void replaceUser(String userId, Collection<AlertEntry> alerts) {
+        List<AlertEntry> previous = alerts.isEmpty()
+                ? alertsByUser.remove(userId)
+                : alertsByUser.put(userId, List.copyOf(alerts));
+        if (previous != null) {
+            for (AlertEntry alert : previous) {
+                bookOf(alert.symbol()).remove(alert);
+            }
+        }
+        for (AlertEntry alert : alerts) {
+            bookOf(alert.symbol()).add(alert);
+        }
+    }
+
+    /**
+     * Giá mới của symbol; trả về các alert có ngưỡng nằm trong đoạn giá vừa đi qua.
+     * Tick đầu tiên của symbol chỉ ghi nhận giá.
+     */
+    public List<AlertEntry> onPrice(String symbol, double price) {
+        return bookOf(symbol).onPrice(price);
+    }
+
+    /**
+     * Chép giá cuối của từng symbol và trạng thái tắt của alert vẫn còn từ index cũ, dùng khi dựng lại index
+     * để không bỏ lỡ tick tiếp theo và không bắn lại alert vừa bắn
+     */
+    public void copyState(PriceAlertIndex other) {
+        other.books.forEach((symbol, book) -> bookOf(symbol).copyState(book));
+    }
+
+    public int size() {
+        int size = 0;
+        for (List<AlertEntry> alerts : alertsByUser.values()) {
+            size += alerts.size();
+        }
+        return size;
+    }
+
+    public int userCount() {
+        return alertsByUser.size();
+    }
+
+    private SymbolBook bookOf(String symbol) {
+        return books.computeIfAbsent(symbol, k -> new SymbolBook(rearmFraction));
+    }
+
+    private static final class SymbolBook {
+        private final double rearmFraction;
+        private final NavigableMap<Double, AlertEntry[]> above = new ConcurrentSkipListMap<>();
+        private final NavigableMap<Double, AlertEntry[]> below = new ConcurrentSkipListMap<>();
+        // Alert đã bắn, theo giá bật lại: "above" bật khi giá <= key, "below" bật khi giá >= key
+        private final NavigableMap<Double, AlertEntry[]> disarmedAbove = new ConcurrentSkipListMap<>();
+        private final NavigableMap<Double, AlertEntry[]> disarmedBelow = new ConcurrentSkipListMap<>();
+        private double lastPrice = Double.NaN;
+
+        SymbolBook(double rearmFraction) {
+            this.rearmFraction = rearmFraction;
+        }
+
+        synchronized void add(AlertEntry alert) {
+            put(armedTreeOf(alert), alert.targetPrice(), alert);
+        }
+
+        synchronized void remove(AlertEntry alert) {
+            removeUser(armedTreeOf(alert), alert.targetPrice(), alert.userId());
+            removeUser(disarmedTreeOf(alert), rearmPrice(alert), alert.userId());
+        }
+
+        synchronized List<AlertEntry> onPrice(double price) {
+            double previous = lastPrice;
+            lastPrice = price;
+            if (Double.isNaN(previous) || price == previous) {
+                return List.of();
+            }
+            // Giá tăng: bật lại "below" có giá bật <= price, alert "above" có ngưỡng trong (previous, price];
+            // giá giảm: bật lại "above" có giá bật >= price, alert "below" có ngưỡng trong [price, previous)
+            NavigableMap<Double, AlertEntry[]> rearmed = price > previous
+                    ? disarmedBelow.headMap(price, true)
+                    : disarmedAbove.tailMap(price, true);
+            rearm(rearmed);
+            NavigableMap<Double, AlertEntry[]> crossed = price > previous
+                    ? above.subMap(previous, false, price, true)
+                    : below.subMap(price, true, previous, false);
+            if (crossed.isEmpty()) {
+                return List.of();
+            }
+            List<AlertEntry> triggered = new ArrayList<>();
+            for (AlertEntry[] entries : crossed.values()) {
+                triggered.addAll(Arrays.asList(entries));
+            }
+            crossed.clear();
+            for (AlertEntry alert : triggered) {
+                put(disarmedTreeOf(alert), rearmPrice(alert), alert);
+            }
+            return triggered;
+        }
+
+        synchronized void copyState(SymbolBook other) {
+            lastPrice = other.lastPrice;
+            List<AlertEntry> disarmed = new ArrayList<>();
+            synchronized (other) {
+                other.disarmedAbove.values().forEach(entries -> disarmed.addAll(Arrays.asList(entries)));
+                other.disarmedBelow.values().forEach(entries -> disarmed.addAll(Arrays.asList(entries)));
+            }
+            for (AlertEntry alert : disarmed) {
+                AlertEntry[] armed = armedTreeOf(alert).get(alert.targetPrice());
+                if (armed != null && Arrays.asList(armed).contains(alert)) {
+                    removeEntry(armedTreeOf(alert), alert.targetPrice(), alert);
+                    put(disarmedTreeOf(alert), rearmPrice(alert), alert);
+                }
+            }
+        }
+
+        private void rearm(NavigableMap<Double, AlertEntry[]> rearmed) {
+            if (rearmed.isEmpty()) {
+                return;
+            }
+            List<AlertEntry> alerts = new ArrayList<>();
+            rearmed.values().forEach(entries -> alerts.addAll(Arrays.asList(entries)));
+            rearmed.clear();
+            for (AlertEntry alert : alerts) {
+                put(armedTreeOf(alert), alert.targetPrice(), alert);
+            }
+        }
+
+        private double rearmPrice(AlertEntry alert) {
+            return alert.above()
+                    ? alert.targetPrice() * (1 - rearmFraction)
+                    : alert.targetPrice() * (1 + rearmFraction);
+        }
+
+        private NavigableMap<Double, AlertEntry[]> armedTreeOf(AlertEntry alert) {
+            return alert.above() ? above : below;
+        }
+
+        private NavigableMap<Double, AlertEntry[]> disarmedTreeOf(AlertEntry alert) {
+            return alert.above() ? disarmedAbove : disarmedBelow;
+        }
+
+        private static void put(NavigableMap<Double, AlertEntry[]> tree, double key, AlertEntry alert) {
+            tree.merge(key, new AlertEntry[] { alert }, SymbolBook::concat);
+        }
+
+        private static void removeUser(NavigableMap<Double, AlertEntry[]> tree, double key, String userId) {
+            tree.computeIfPresent(key, (price, entries) -> {
+                AlertEntry[] kept = Arrays.stream(entries)
+                        .filter(entry -> !entry.userId().equals(userId))
+                        .toArray(AlertEntry[]::new);
+                return kept.length == 0 ? null : kept;
+            });
+        }
+
+        private static void removeEntry(NavigableMap<Double, AlertEntry[]> tree, double key, AlertEntry alert) {
+            tree.computeIfPresent(key, (price, entries) -> {
+                AlertEntry[] kept = Arrays.stream(entries)
+                        .filter(entry -> !entry.equals(alert))
+                        .toArray(AlertEntry[]::new);
+                return kept.length == 0 ? null : kept;
+            });
+        }
+
+        private static AlertEntry[] concat(AlertEntry[] current, AlertEntry[] added) {
+            if (current.length == 0) {
+                return added;
+            }
+            AlertEntry[] merged = Arrays.copyOf(current, current.length + added.length);
+            System.arraycopy(added, 0, merged, current.length, added.length);
+            return merged;
+        }
+    }
+}
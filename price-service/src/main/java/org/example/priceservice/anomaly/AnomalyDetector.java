@@ -0,0 +1,200 @@
+package org.example.priceservice.anomaly;
+
+/**
+ * Phát hiện biến động bất thường của một symbol trên từng cập nhật nến (kể cả nến đang hình thành):
+ * - return spike: |lợi suất log so với close nến trước - mean| > returnSigma * σ của window nến đã đóng gần nhất
+ * - volume burst: volume tích lũy của nến hiện tại > mean + volumeSigma * σ volume của window
+ * Mean/variance cuộn theo Welford (thêm mới, bỏ cũ) trên ring buffer primitive, không cấp phát trên đường nóng.
+ * Mỗi loại chỉ báo một lần cho mỗi nến. Lợi suất chỉ tính khi nến liền kề nến đã đóng trước đó
+ * (openTime = trước + intervalMillis): sau khoảng trống (restart, mất kết nối, lịch sử thiếu) lợi suất
+ * trải nhiều kỳ nên bị bỏ qua, không kiểm tra và không đưa vào window.
+ * Không thread-safe: mỗi symbol chỉ một luồng ghi.
+ */
+public final class AnomalyDetector {
+    public static final int RETURN_SPIKE = 1;
+    public static final int VOLUME_BURST = 2;
+
+    private final long intervalMillis;
+    private final int window;
+    private final int minObservations;
+    private final double returnSigma;
+    private final double volumeSigma;
+
+    private final RollingStats returns;
+    private final RollingStats volumes;
+
+    private double previousClose = Double.NaN;
+    private long previousOpenTime = Long.MIN_VALUE;
+    private long currentOpenTime = Long.MIN_VALUE;
+    private int flaggedMask;
+
+    // Giá trị của lần cập nhật gần nhất, đọc khi dựng event
+    private double lastReturn;
+    private double lastReturnZ;
+    private double lastVolumeZ;
+
+    public AnomalyDetector(long intervalMillis, int window, int minObservations, double returnSigma, double volumeSigma) {
+        this.intervalMillis = intervalMillis;
+        this.window = window;
+        this.minObservations = Math.max(2, Math.min(minObservations, window));
+        this.returnSigma = returnSigma;
+        this.volumeSigma = volumeSigma;
+        this.returns = new RollingStats(window);
+        this.volumes = new RollingStats(window);
+    }
+
+    /**
+     * Một cập nhật nến; trả về bitmask loại bất thường mới phát hiện (0 trong trường hợp thường gặp).
+     * Nến đã đóng được đưa vào window sau khi kiểm tra.
+     */
+    public int onUpdate(long openTime, double close, double volume, boolean closed) {
+        if (openTime < currentOpenTime) {
+            return 0;
+        }
+        if (openTime != currentOpenTime) {
+            currentOpenTime = openTime;
+            flaggedMask = 0;
+        }
+
+        int detected = 0;
+        boolean contiguous = previousClose > 0 && close > 0 && openTime == previousOpenTime + intervalMillis;
+        if (contiguous) {
+            lastReturn = Math.log(close / previousClose);
+            if (returns.count >= minObservations) {
+                double sigma = returns.stddev();
+                lastReturnZ = sigma > 0 ? (lastReturn - returns.mean) / sigma : 0;
+                if (Math.abs(lastReturnZ) > returnSigma) {
+                    detected |= RETURN_SPIKE;
+                }
+            }
+        } else {
+            lastReturn = 0;
+            lastReturnZ = 0;
+        }
+        if (volumes.count >= minObservations) {
+            double sigma = volumes.stddev();
+            lastVolumeZ = sigma > 0 ? (volume - volumes.mean) / sigma : 0;
+            if (lastVolumeZ > volumeSigma) {
+                detected |= VOLUME_BURST;
+            }
+        } else {
+            lastVolumeZ = 0;
+        }
+        detected &= ~flaggedMask;
+        flaggedMask |= detected;
+
+        if (closed) {
+            if (contiguous) {
+                returns.add(lastReturn);
+            }
+            volumes.add(volume);
+            previousClose = close;
+            previousOpenTime = openTime;
+            // nến kế tiếp bắt đầu với mask rỗng dù có cùng openTime được gửi lại
+            currentOpenTime = openTime + 1;
+        }
+        return detected;
+    }
+
+    /**
+     * Nạp nến đã đóng từ lịch sử (tăng dần theo thời gian) trước khi nhận dữ liệu realtime
+     */
+    public void seed(long openTime, double close, double volume) {
+        onUpdate(openTime, close, volume, true);
+        flaggedMask = 0;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getObservations() {
+        return returns.count;
+    }
+
+    public double getLastReturn() {
+        return lastReturn;
+    }
+
+    public double getLastReturnZ() {
+        return lastReturnZ;
+    }
+
+    public double getLastVolumeZ() {
+        return lastVolumeZ;
+    }
+
+    public double getReturnMean() {
+        return returns.mean;
+    }
+
+    public double getReturnStddev() {
+        return returns.stddev();
+    }
+
+    public double getVolumeMean() {
+        return volumes.mean;
+    }
+
+    public double getVolumeStddev() {
+        return volumes.stddev();
+    }
+
+    /**
+     * Mean / variance của capacity giá trị gần nhất (Welford thêm + bỏ), tính lại từ đầu mỗi vòng ring
+     * để sai số làm tròn không tích lũy
+     */
+    static final class RollingStats {
+        private final double[] values;
+        private int next;
+        int count;
+        double mean;
+        private double m2;
+        private int sinceRecompute;
+        // cache: chỉ đổi khi thêm giá trị (nến đóng), đường nóng không phải tính sqrt
+        private double stddev;
+
+        RollingStats(int capacity) {
+            values = new double[capacity];
+        }
+
+        void add(double value) {
+            if (count == values.length) {
+                double old = values[next];
+                double oldMean = mean;
+                mean += (value - old) / count;
+                m2 += (value - old) * (value - mean + old - oldMean);
+            } else {
+                count++;
+                double delta = value - mean;
+                mean += delta / count;
+                m2 += delta * (value - mean);
+            }
+            values[next] = value;
+            next = next + 1 == values.length ? 0 : next + 1;
+            if (++sinceRecompute == values.length) {
+                recompute();
+            }
+            stddev = count > 1 ? Math.sqrt(Math.max(0, m2 / (count - 1))) : 0;
+        }
+
+        double stddev() {
+            return stddev;
+        }
+
+        private void recompute() {
+            sinceRecompute = 0;
+            double sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+            mean = sum / count;
+            double squares = 0;
+            for (int i = 0; i < count; i++) {
+                double d = values[i] - mean;
+                squares += d * d;
+            }
+            m2 = squares;
+        }
+    }
+}
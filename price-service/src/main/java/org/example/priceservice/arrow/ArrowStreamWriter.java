@@ -0,0 +1,250 @@
+package org.example.priceservice.arrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ghi Arrow IPC streaming format (schema, các record batch, marker kết thúc) cho cột primitive
+ * int64 / timestamp[ms, UTC] / float64, không cần thư viện Arrow phía server.
+ * pyarrow đọc được trực tiếp: pyarrow.ipc.open_stream(body).read_pandas().
+ * Null: NaN với cột float64 nullable, NULL_LONG với cột int64 nullable (ghi thành validity bitmap).
+ */
+public final class ArrowStreamWriter {
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+    public static final long NULL_LONG = Long.MIN_VALUE;
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_V5 = 4;
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short UNIT_MILLISECOND = 1;
+
+    public enum Type { TIMESTAMP_MILLIS, INT64, FLOAT64 }
+
+    public record Field(String name, Type type, boolean nullable) {
+    }
+
+    private final OutputStream out;
+    private final List<Field> fields;
+    private byte[] scratch = new byte[8192];
+    private boolean schemaWritten;
+
+    public ArrowStreamWriter(OutputStream out, List<Field> fields) {
+        this.out = out;
+        this.fields = List.copyOf(fields);
+    }
+
+    public void writeSchema() throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder(256 + 64 * fields.size());
+        int[] fieldOffsets = new int[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            fieldOffsets[i] = buildField(builder, fields.get(i));
+        }
+        int fieldVector = builder.createOffsetVector(fieldOffsets);
+        builder.startTable(4);
+        builder.addShort(0, 0); // little-endian
+        builder.addOffset(1, fieldVector);
+        int schema = builder.endTable();
+
+        writeMessage(builder, HEADER_SCHEMA, schema, 0);
+        schemaWritten = true;
+    }
+
+    /**
+     * Một record batch gồm rowCount dòng đầu của mỗi cột (long[] cho int64/timestamp, double[] cho float64),
+     * mảng có thể dài hơn rowCount để tái sử dụng giữa các batch
+     */
+    public void writeBatch(int rowCount, List<?> columns) throws IOException {
+        if (!schemaWritten) {
+            throw new IllegalStateException("Schema must be written before record batches");
+        }
+        if (columns.size() != fields.size()) {
+            throw new IllegalArgumentException("Expected " + fields.size() + " columns, got " + columns.size());
+        }
+
+        int columnCount = fields.size();
+        long[] nodes = new long[2 * columnCount];
+        long[] buffers = new long[4 * columnCount];
+        long bodyLength = 0;
+        for (int c = 0; c < columnCount; c++) {
+            int nullCount = countNulls(fields.get(c), columns.get(c), rowCount);
+            nodes[2 * c] = rowCount;
+            nodes[2 * c + 1] = nullCount;
+
+            long validityLength = nullCount > 0 ? padded((rowCount + 7) / 8) : 0;
+            buffers[4 * c] = bodyLength;
+            buffers[4 * c + 1] = validityLength;
+            bodyLength += validityLength;
+
+            long dataLength = padded(8L * rowCount);
+            buffers[4 * c + 2] = bodyLength;
+            buffers[4 * c + 3] = dataLength;
+            bodyLength += dataLength;
+        }
+
+        FlatBufferBuilder builder = new FlatBufferBuilder(128 + 48 * columnCount);
+        int nodeVector = builder.createLongPairVector(nodes, columnCount);
+        int bufferVector = builder.createLongPairVector(buffers, 2 * columnCount);
+        builder.startTable(3);
+        builder.addLong(0, rowCount);
+        builder.addOffset(1, nodeVector);
+        builder.addOffset(2, bufferVector);
+        int recordBatch = builder.endTable();
+        writeMessage(builder, HEADER_RECORD_BATCH, recordBatch, bodyLength);
+
+        for (int c = 0; c < columnCount; c++) {
+            if (nodes[2 * c + 1] > 0) {
+                writeValidity(columns.get(c), rowCount);
+            }
+            writeValues(columns.get(c), rowCount);
+        }
+    }
+
+    public void writeEnd() throws IOException {
+        writeIntLittleEndian(CONTINUATION);
+        writeIntLittleEndian(0);
+        out.flush();
+    }
+
+    private static int buildField(FlatBufferBuilder builder, Field field) {
+        int name = builder.createString(field.name());
+        int type;
+        byte typeTag;
+        switch (field.type()) {
+            case TIMESTAMP_MILLIS -> {
+                int timezone = builder.createString("UTC");
+                builder.startTable(2);
+                builder.addShort(0, UNIT_MILLISECOND);
+                builder.addOffset(1, timezone);
+                type = builder.endTable();
+                typeTag = TYPE_TIMESTAMP;
+            }
+            case INT64 -> {
+                builder.startTable(2);
+                builder.addInt(0, 64);
+                builder.addBoolean(1, true);
+                type = builder.endTable();
+                typeTag = TYPE_INT;
+            }
+            default -> {
+                builder.startTable(1);
+                builder.addShort(0, PRECISION_DOUBLE);
+                type = builder.endTable();
+                typeTag = TYPE_FLOATING_POINT;
+            }
+        }
+        // reader C++ yêu cầu children khác null kể cả với kiểu primitive
+        int children = builder.createOffsetVector(new int[0]);
+
+        builder.startTable(7);
+        builder.addOffset(0, name);
+        builder.addBoolean(1, field.nullable());
+        builder.addByte(2, typeTag);
+        builder.addOffset(3, type);
+        builder.addOffset(5, children);
+        return builder.endTable();
+    }
+
+    /**
+     * Khung message: 0xFFFFFFFF, độ dài metadata (đã pad để body bắt đầu ở bội số 8), flatbuffer Message
+     */
+    private void writeMessage(FlatBufferBuilder builder, byte headerType, int header, long bodyLength)
+            throws IOException {
+        builder.startTable(5);
+        builder.addShort(0, METADATA_V5);
+        builder.addByte(1, headerType);
+        builder.addOffset(2, header);
+        builder.addLong(3, bodyLength);
+        byte[] metadata = builder.finish(builder.endTable());
+
+        int paddedLength = (int) padded(metadata.length);
+        writeIntLittleEndian(CONTINUATION);
+        writeIntLittleEndian(paddedLength);
+        out.write(metadata);
+        writePadding(paddedLength - metadata.length);
+    }
+
+    private static int countNulls(Field field, Object column, int rowCount) {
+        if (!field.nullable()) {
+            return 0;
+        }
+        int nulls = 0;
+        if (column instanceof double[] values) {
+            for (int i = 0; i < rowCount; i++) {
+                if (Double.isNaN(values[i])) {
+                    nulls++;
+                }
+            }
+        } else {
+            long[] values = (long[]) column;
+            for (int i = 0; i < rowCount; i++) {
+                if (values[i] == NULL_LONG) {
+                    nulls++;
+                }
+            }
+        }
+        return nulls;
+    }
+
+    private void writeValidity(Object column, int rowCount) throws IOException {
+        int length = (int) padded((rowCount + 7) / 8);
+        byte[] bitmap = scratch(length);
+        Arrays.fill(bitmap, 0, length, (byte) 0);
+        for (int i = 0; i < rowCount; i++) {
+            boolean valid = column instanceof double[] values
+                    ? !Double.isNaN(values[i])
+                    : ((long[]) column)[i] != NULL_LONG;
+            if (valid) {
+                bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.write(bitmap, 0, length);
+    }
+
+    private void writeValues(Object column, int rowCount) throws IOException {
+        int chunkRows = scratch.length / 8;
+        for (int from = 0; from < rowCount; from += chunkRows) {
+            int to = Math.min(rowCount, from + chunkRows);
+            int position = 0;
+            for (int i = from; i < to; i++) {
+                long bits = column instanceof double[] values
+                        ? Double.doubleToRawLongBits(values[i])
+                        : ((long[]) column)[i];
+                for (int b = 0; b < 8; b++) {
+                    scratch[position++] = (byte) (bits >>> (8 * b));
+                }
+            }
+            out.write(scratch, 0, position);
+        }
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        return scratch;
+    }
+
+    private void writePadding(int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.write(0);
+        }
+    }
+
+    private void writeIntLittleEndian(int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static long padded(long length) {
+        return (length + 7) & ~7L;
+    }
+}
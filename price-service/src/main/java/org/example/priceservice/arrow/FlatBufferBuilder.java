@@ -0,0 +1,188 @@
+package org.example.priceservice.arrow;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bộ dựng FlatBuffers tối thiểu (đủ cho metadata Arrow IPC): ghi từ cuối buffer lên đầu,
+ * little-endian, mỗi table có vtable riêng (không dedup). Offset trả về tính từ cuối buffer.
+ */
+final class FlatBufferBuilder {
+    private byte[] buf;
+    private int space;
+    private int minAlign = 1;
+    private int[] vtable;
+    private int objectStart;
+
+    FlatBufferBuilder(int initialCapacity) {
+        buf = new byte[Math.max(64, initialCapacity)];
+        space = buf.length;
+    }
+
+    int offset() {
+        return buf.length - space;
+    }
+
+    // ---- bảng (table) ----
+
+    void startTable(int numFields) {
+        vtable = new int[numFields];
+        objectStart = offset();
+    }
+
+    void addByte(int field, int value) {
+        prep(1, 0);
+        putByte((byte) value);
+        vtable[field] = offset();
+    }
+
+    void addBoolean(int field, boolean value) {
+        addByte(field, value ? 1 : 0);
+    }
+
+    void addShort(int field, int value) {
+        prep(2, 0);
+        putShort((short) value);
+        vtable[field] = offset();
+    }
+
+    void addInt(int field, int value) {
+        prep(4, 0);
+        putInt(value);
+        vtable[field] = offset();
+    }
+
+    void addLong(int field, long value) {
+        prep(8, 0);
+        putLong(value);
+        vtable[field] = offset();
+    }
+
+    void addOffset(int field, int target) {
+        addOffset(target);
+        vtable[field] = offset();
+    }
+
+    int endTable() {
+        prep(4, 0);
+        putInt(0);
+        int tableOffset = offset();
+
+        int used = vtable.length;
+        while (used > 0 && vtable[used - 1] == 0) {
+            used--;
+        }
+        for (int i = used - 1; i >= 0; i--) {
+            prep(2, 0);
+            putShort((short) (vtable[i] != 0 ? tableOffset - vtable[i] : 0));
+        }
+        prep(2, 0);
+        putShort((short) (tableOffset - objectStart));
+        prep(2, 0);
+        putShort((short) ((used + 2) * 2));
+
+        // soffset đầu table: vị trí table - vị trí vtable
+        writeIntAt(buf.length - tableOffset, offset() - tableOffset);
+        vtable = null;
+        return tableOffset;
+    }
+
+    // ---- string / vector ----
+
+    int createString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        prep(4, bytes.length + 1);
+        putByte((byte) 0);
+        space -= bytes.length;
+        System.arraycopy(bytes, 0, buf, space, bytes.length);
+        putInt(bytes.length);
+        return offset();
+    }
+
+    int createOffsetVector(int[] targets) {
+        prep(4, 4 * targets.length);
+        for (int i = targets.length - 1; i >= 0; i--) {
+            addOffset(targets[i]);
+        }
+        putInt(targets.length);
+        return offset();
+    }
+
+    /**
+     * Vector struct gồm 2 trường long (FieldNode, Buffer của Arrow): pairs = [a0, b0, a1, b1, ...]
+     */
+    int createLongPairVector(long[] pairs, int count) {
+        prep(4, 16 * count);
+        prep(8, 16 * count);
+        for (int i = count - 1; i >= 0; i--) {
+            putLong(pairs[2 * i + 1]);
+            putLong(pairs[2 * i]);
+        }
+        putInt(count);
+        return offset();
+    }
+
+    byte[] finish(int root) {
+        prep(minAlign, 4);
+        addOffset(root);
+        return Arrays.copyOfRange(buf, space, buf.length);
+    }
+
+    // ---- ghi mức thấp ----
+
+    private void addOffset(int target) {
+        prep(4, 0);
+        putInt(offset() - target + 4);
+    }
+
+    /**
+     * Căn lề để sau khi ghi thêm additional byte, giá trị size byte kế tiếp nằm đúng bội số của size
+     */
+    private void prep(int size, int additional) {
+        minAlign = Math.max(minAlign, size);
+        int padding = -(offset() + additional) & (size - 1);
+        ensureSpace(padding + size + additional);
+        for (int i = 0; i < padding; i++) {
+            buf[--space] = 0;
+        }
+    }
+
+    private void ensureSpace(int needed) {
+        while (space < needed) {
+            int oldLength = buf.length;
+            byte[] grown = new byte[oldLength * 2];
+            System.arraycopy(buf, 0, grown, oldLength, oldLength);
+            space += oldLength;
+            buf = grown;
+        }
+    }
+
+    private void putByte(byte value) {
+        buf[--space] = value;
+    }
+
+    private void putShort(short value) {
+        space -= 2;
+        buf[space] = (byte) value;
+        buf[space + 1] = (byte) (value >>> 8);
+    }
+
+    private void putInt(int value) {
+        space -= 4;
+        writeIntAt(space, value);
+    }
+
+    private void putLong(long value) {
+        space -= 8;
+        for (int i = 0; i < 8; i++) {
+            buf[space + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private void writeIntAt(int index, int value) {
+        buf[index] = (byte) value;
+        buf[index + 1] = (byte) (value >>> 8);
+        buf[index + 2] = (byte) (value >>> 16);
+        buf[index + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.priceservice.audit;
+
+import lombok.Getter;
+import org.example.priceservice.entity.PriceCandle;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Kiểm tra một series (symbol, interval) khi đọc tuần tự theo openTime tăng dần từ cursor:
+ * slot openTime bị thiếu, bản ghi trùng openTime, nến có OHLC / closeTime không hợp lệ.
+ * Các bản trùng của một slot giữ lại đúng một bản, không phụ thuộc thứ tự cursor trả về: ưu tiên bản hợp lệ,
+ * rồi bản createdAt mới nhất, rồi id nhỏ nhất. Chỉ giữ nến của slot đang xét và các khoảng cần sửa (đã gộp liền kề).
+ */
+public class SeriesAuditor {
+    private static final Comparator<LocalDateTime> CREATED_AT_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final long intervalMillis;
+    private final long startTime;
+
+    @Getter
+    private final List<String> duplicateIds = new ArrayList<>();
+    // Các khoảng [start, end) cần tải lại từ Binance (thiếu hoặc sai), đã gộp liền kề
+    @Getter
+    private final List<long[]> repairRanges = new ArrayList<>();
+
+    @Getter
+    private long scanned;
+    @Getter
+    private long missing;
+    @Getter
+    private long inconsistent;
+
+    private long expectedOpenTime;
+
+    // Bản đang được giữ của slot hiện tại, chốt khi cursor sang slot khác
+    private PriceCandle kept;
+    private long keptOpenTime;
+    private boolean keptConsistent;
+
+    public SeriesAuditor(long intervalMillis, long startTime) {
+        this.intervalMillis = intervalMillis;
+        this.startTime = startTime;
+        this.expectedOpenTime = startTime;
+    }
+
+    public void accept(PriceCandle candle) {
+        scanned++;
+        long openTime = candle.getOpenTime().toEpochMilli();
+        if (openTime % intervalMillis != 0 || openTime < startTime) {
+            // openTime lệch lưới interval: coi như sai, xóa như bản trùng
+            duplicateIds.add(candle.getId());
+            return;
+        }
+        boolean consistent = isConsistent(candle, openTime);
+        if (kept != null && openTime == keptOpenTime) {
+            if (isPreferred(candle, consistent)) {
+                duplicateIds.add(kept.getId());
+                kept = candle;
+                keptConsistent = consistent;
+            } else {
+                duplicateIds.add(candle.getId());
+            }
+            return;
+        }
+        closeSlot();
+        kept = candle;
+        keptOpenTime = openTime;
+        keptConsistent = consistent;
+    }
+
+    /**
+     * Kết thúc scan: các slot từ nến cuối tới endTime (không gồm) cũng là thiếu
+     */
+    public void finish(long endTime) {
+        closeSlot();
+        if (endTime > expectedOpenTime) {
+            missing += (endTime - expectedOpenTime) / intervalMillis;
+            addRange(expectedOpenTime, endTime);
+            expectedOpenTime = endTime;
+        }
+    }
+
+    private void closeSlot() {
+        if (kept == null) {
+            return;
+        }
+        if (keptOpenTime > expectedOpenTime) {
+            missing += (keptOpenTime - expectedOpenTime) / intervalMillis;
+            addRange(expectedOpenTime, keptOpenTime);
+        }
+        if (!keptConsistent) {
+            inconsistent++;
+            addRange(keptOpenTime, keptOpenTime + intervalMillis);
+        }
+        expectedOpenTime = keptOpenTime + intervalMillis;
+        kept = null;
+    }
+
+    private boolean isPreferred(PriceCandle candidate, boolean candidateConsistent) {
+        if (candidateConsistent != keptConsistent) {
+            return candidateConsistent;
+        }
+        int byCreatedAt = CREATED_AT_ORDER.compare(candidate.getCreatedAt(), kept.getCreatedAt());
+        if (byCreatedAt != 0) {
+            return byCreatedAt > 0;
+        }
+        return candidate.getId() != null && (kept.getId() == null || candidate.getId().compareTo(kept.getId()) < 0);
+    }
+
+    private boolean isConsistent(PriceCandle candle, long openTime) {
+        BigDecimal open = candle.getOpen();
+        BigDecimal high = candle.getHigh();
+        BigDecimal low = candle.getLow();
+        BigDecimal close = candle.getClose();
+        if (open == null || high == null || low == null || close == null || candle.getVolume() == null) {
+            return false;
+        }
+        if (low.signum() <= 0 || candle.getVolume().signum() < 0) {
+            return false;
+        }
+        if (high.compareTo(open.max(close)) < 0 || low.compareTo(open.min(close)) > 0) {
+            return false;
+        }
+        return candle.getCloseTime() != null && candle.getCloseTime().toEpochMilli() == openTime + intervalMillis - 1;
+    }
+
+    private void addRange(long start, long end) {
+        long[] last = repairRanges.isEmpty() ? null : repairRanges.get(repairRanges.size() - 1);
+        if (last != null && last[1] >= start) {
+            last[1] = Math.max(last[1], end);
+        } else {
+            repairRanges.add(new long[] { start, end });
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.priceservice.backtest;
+
+import lombok.Getter;
+import org.example.priceservice.dto.BacktestJobStatus;
+import org.example.priceservice.dto.BacktestResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trạng thái một job backtest; kết quả được thêm dần nên có thể xem từng phần khi job đang chạy
+ */
+public class BacktestJob {
+    public enum Status { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    @Getter
+    private final String id;
+    @Getter
+    private final String userId;
+    private final int totalRuns;
+    private final long estimatedMemoryBytes;
+    private final long createdAt = System.currentTimeMillis();
+    private final AtomicInteger completedRuns = new AtomicInteger();
+    private final Queue<BacktestResult> results = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean cancelRequested;
+    @Getter
+    private volatile Status status = Status.RUNNING;
+    @Getter
+    private volatile Long finishedAt;
+    private volatile String error;
+
+    public BacktestJob(String id, String userId, int totalRuns, long estimatedMemoryBytes) {
+        this.id = id;
+        this.userId = userId;
+        this.totalRuns = totalRuns;
+        this.estimatedMemoryBytes = estimatedMemoryBytes;
+    }
+
+    public void addResult(BacktestResult result) {
+        results.add(result);
+        completedRuns.incrementAndGet();
+    }
+
+    /**
+     * Yêu cầu hủy: các task kiểm tra cờ này và dừng sớm (hủy hợp tác)
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void finish(Status finalStatus, String errorMessage) {
+        this.error = errorMessage;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = finalStatus;
+    }
+
+    public BacktestJobStatus toStatus() {
+        List<BacktestResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(BacktestResult::getTotalReturnPercent).reversed());
+        int completed = completedRuns.get();
+        return new BacktestJobStatus(id, status.name(), totalRuns, completed,
+                totalRuns > 0 ? (double) completed / totalRuns : 1.0, estimatedMemoryBytes,
+                createdAt, finishedAt, error, sorted);
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.priceservice.backtest;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Mô phỏng long-only, all-in: vào lệnh tại giá close của nến có tín hiệu entry khi đang không giữ vị thế,
+ * thoát tại close của nến có tín hiệu exit; vị thế còn mở ở nến cuối được đóng tại close cuối.
+ * Phí (basis points) tính ở cả hai chiều.
+ */
+public final class BacktestSimulator {
+    // Kiểm tra hủy sau mỗi CHECK_EVERY nến để không tốn chi phí ở vòng lặp trong
+    private static final int CHECK_EVERY = 4096;
+
+    private BacktestSimulator() {
+    }
+
+    public record Metrics(int trades, double winRate, double totalReturnPercent, double maxDrawdownPercent,
+                          double buyAndHoldReturnPercent) {
+    }
+
+    /**
+     * Chạy trên các nến [from, close.length); null nếu bị hủy giữa chừng
+     */
+    public static Metrics run(double[] close, int from, Expr entry, Expr exit, double feeBps, BooleanSupplier cancelled) {
+        int size = close.length;
+        if (from >= size) {
+            return new Metrics(0, 0, 0, 0, 0);
+        }
+        double feeFactor = 1 - feeBps / 10_000;
+        double equity = 1.0;
+        double peak = 1.0;
+        double maxDrawdown = 0;
+        boolean inPosition = false;
+        double entryPrice = 0;
+        double entryEquity = 0;
+        int trades = 0;
+        int wins = 0;
+
+        for (int i = from; i < size; i++) {
+            if ((i - from) % CHECK_EVERY == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+            double markToMarket = inPosition ? equity * close[i] / entryPrice : equity;
+            if (!inPosition && i < size - 1 && entry.at(i) != 0) {
+                inPosition = true;
+                entryPrice = close[i];
+                entryEquity = equity;
+                equity *= feeFactor;
+                markToMarket = equity;
+            } else if (inPosition && (exit.at(i) != 0 || i == size - 1)) {
+                inPosition = false;
+                equity = equity * close[i] / entryPrice * feeFactor;
+                markToMarket = equity;
+                trades++;
+                if (equity > entryEquity) {
+                    wins++;
+                }
+            }
+            peak = Math.max(peak, markToMarket);
+            maxDrawdown = Math.max(maxDrawdown, (peak - markToMarket) / peak);
+        }
+
+        return new Metrics(trades, trades > 0 ? (double) wins / trades : 0, (equity - 1) * 100,
+                maxDrawdown * 100, (close[size - 1] / close[from] - 1) * 100);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.priceservice.backtest;
+
+/**
+ * Biểu thức chiến lược đã gắn dữ liệu, giá trị tại nến thứ i
+ */
+@FunctionalInterface
+public interface Expr {
+    double at(int i);
+}
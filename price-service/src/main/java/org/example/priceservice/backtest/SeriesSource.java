@@ -0,0 +1,11 @@
+package org.example.priceservice.backtest;
+
+/**
+ * Cung cấp chuỗi giá / chỉ báo đã tính sẵn cho biểu thức chiến lược (dùng chung giữa các lần chạy của một symbol)
+ */
+public interface SeriesSource {
+    /**
+     * field: close, high, low (period bỏ qua) hoặc chỉ báo: sma, ema, rsi, atr
+     */
+    double[] series(String name, int period);
+}
@@ -0,0 +1,276 @@
+package org.example.priceservice.backtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DSL chiến lược tối giản, an toàn: chỉ có biểu thức (không biến, không vòng lặp, không gọi code tùy ý),
+ * độ dài và số node bị giới hạn. Ví dụ:
+ * <pre>
+ *   crossover(sma($fast), sma($slow)) and rsi(14) &lt; 70
+ *   close &lt; ema(50) * 0.98 or rsi(14) &gt; 80
+ * </pre>
+ * Giá trị logic là 1 / 0; so sánh với NaN (chưa đủ dữ liệu) luôn false.
+ * Hàm: sma(n), ema(n), rsi(n), atr(n), crossover(a, b), crossunder(a, b); trường: close, high, low;
+ * tham số grid: $ten.
+ */
+public final class StrategyParser {
+    public static final int MAX_LENGTH = 500;
+    public static final int MAX_NODES = 100;
+    public static final int MAX_PERIOD = 1000;
+
+    private static final Set<String> FIELDS = Set.of("close", "high", "low");
+    private static final Set<String> INDICATORS = Set.of("sma", "ema", "rsi", "atr");
+
+    private final List<String> tokens;
+    private final Map<String, Double> parameters;
+    private final SeriesSource source;
+    private int position;
+    private int nodes;
+
+    private StrategyParser(List<String> tokens, Map<String, Double> parameters, SeriesSource source) {
+        this.tokens = tokens;
+        this.parameters = parameters;
+        this.source = source;
+    }
+
+    /**
+     * Parse và gắn biểu thức vào dữ liệu; lỗi cú pháp / tham số -> IllegalArgumentException
+     */
+    public static Expr parse(String expression, Map<String, Double> parameters, SeriesSource source) {
+        if (expression == null || expression.isBlank() || expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Expression must be 1-" + MAX_LENGTH + " characters");
+        }
+        StrategyParser parser = new StrategyParser(tokenize(expression), parameters, source);
+        Expr expr = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected token: " + parser.tokens.get(parser.position));
+        }
+        return expr;
+    }
+
+    private Expr parseOr() {
+        Expr left = parseAnd();
+        while (accept("or")) {
+            Expr a = left;
+            Expr b = parseAnd();
+            left = node(i -> a.at(i) != 0 || b.at(i) != 0 ? 1 : 0);
+        }
+        return left;
+    }
+
+    private Expr parseAnd() {
+        Expr left = parseNot();
+        while (accept("and")) {
+            Expr a = left;
+            Expr b = parseNot();
+            left = node(i -> a.at(i) != 0 && b.at(i) != 0 ? 1 : 0);
+        }
+        return left;
+    }
+
+    private Expr parseNot() {
+        if (accept("not")) {
+            Expr a = parseNot();
+            return node(i -> a.at(i) != 0 ? 0 : 1);
+        }
+        return parseComparison();
+    }
+
+    private Expr parseComparison() {
+        Expr a = parseSum();
+        String op = peek();
+        if (op == null || !Set.of(">", "<", ">=", "<=", "==", "!=").contains(op)) {
+            return a;
+        }
+        position++;
+        Expr b = parseSum();
+        return switch (op) {
+            case ">" -> node(i -> a.at(i) > b.at(i) ? 1 : 0);
+            case "<" -> node(i -> a.at(i) < b.at(i) ? 1 : 0);
+            case ">=" -> node(i -> a.at(i) >= b.at(i) ? 1 : 0);
+            case "<=" -> node(i -> a.at(i) <= b.at(i) ? 1 : 0);
+            case "==" -> node(i -> a.at(i) == b.at(i) ? 1 : 0);
+            default -> node(i -> a.at(i) != b.at(i) ? 1 : 0);
+        };
+    }
+
+    private Expr parseSum() {
+        Expr left = parseTerm();
+        while (true) {
+            Expr a = left;
+            if (accept("+")) {
+                Expr b = parseTerm();
+                left = node(i -> a.at(i) + b.at(i));
+            } else if (accept("-")) {
+                Expr b = parseTerm();
+                left = node(i -> a.at(i) - b.at(i));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expr parseTerm() {
+        Expr left = parseUnary();
+        while (true) {
+            Expr a = left;
+            if (accept("*")) {
+                Expr b = parseUnary();
+                left = node(i -> a.at(i) * b.at(i));
+            } else if (accept("/")) {
+                Expr b = parseUnary();
+                left = node(i -> a.at(i) / b.at(i));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expr parseUnary() {
+        if (accept("-")) {
+            Expr a = parseUnary();
+            return node(i -> -a.at(i));
+        }
+        return parsePrimary();
+    }
+
+    private Expr parsePrimary() {
+        String token = next();
+        if (token.equals("(")) {
+            Expr inner = parseOr();
+            expect(")");
+            return inner;
+        }
+        if (Character.isDigit(token.charAt(0)) || token.startsWith("$")) {
+            double value = constant(token);
+            return node(i -> value);
+        }
+        if (FIELDS.contains(token)) {
+            double[] values = source.series(token, 0);
+            return node(i -> values[i]);
+        }
+        if (INDICATORS.contains(token)) {
+            expect("(");
+            int period = period(next());
+            expect(")");
+            double[] values = source.series(token, period);
+            return node(i -> values[i]);
+        }
+        if (token.equals("crossover") || token.equals("crossunder")) {
+            expect("(");
+            Expr a = parseSum();
+            expect(",");
+            Expr b = parseSum();
+            expect(")");
+            double[] values = token.equals("crossover") ? crosses(a, b) : crosses(b, a);
+            return node(i -> values[i]);
+        }
+        throw new IllegalArgumentException("Unknown identifier: " + token);
+    }
+
+    /**
+     * Tính sẵn cột tín hiệu up cắt lên down: mỗi toán hạng chỉ được đánh giá một lần mỗi nến,
+     * nếu không crossover lồng nhau sẽ đánh giá lại toán hạng theo cấp số mũ (2^độ sâu mỗi nến).
+     */
+    private double[] crosses(Expr up, Expr down) {
+        int size = source.series("close", 0).length;
+        double[] result = new double[size];
+        double previousUp = Double.NaN;
+        double previousDown = Double.NaN;
+        for (int i = 0; i < size; i++) {
+            double currentUp = up.at(i);
+            double currentDown = down.at(i);
+            result[i] = i > 0 && currentUp > currentDown && previousUp <= previousDown ? 1 : 0;
+            previousUp = currentUp;
+            previousDown = currentDown;
+        }
+        return result;
+    }
+
+    private double constant(String token) {
+        if (token.startsWith("$")) {
+            Double value = parameters.get(token.substring(1));
+            if (value == null) {
+                throw new IllegalArgumentException("Missing parameter: " + token);
+            }
+            return value;
+        }
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + token);
+        }
+    }
+
+    private int period(String token) {
+        double value = constant(token);
+        if (value != Math.rint(value) || value < 1 || value > MAX_PERIOD) {
+            throw new IllegalArgumentException("Period must be an integer between 1 and " + MAX_PERIOD + ": " + token);
+        }
+        return (int) value;
+    }
+
+    private Expr node(Expr expr) {
+        if (++nodes > MAX_NODES) {
+            throw new IllegalArgumentException("Expression is too complex");
+        }
+        return expr;
+    }
+
+    private String peek() {
+        return position < tokens.size() ? tokens.get(position) : null;
+    }
+
+    private String next() {
+        if (position >= tokens.size()) {
+            throw new IllegalArgumentException("Unexpected end of expression");
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean accept(String token) {
+        if (token.equals(peek())) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw new IllegalArgumentException("Expected '" + token + "' at token " + (position + 1));
+        }
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isLetterOrDigit(c) || c == '$' || c == '.' || c == '_') {
+                int start = i;
+                while (i < expression.length() && (Character.isLetterOrDigit(expression.charAt(i))
+                        || expression.charAt(i) == '$' || expression.charAt(i) == '.' || expression.charAt(i) == '_')) {
+                    i++;
+                }
+                String word = expression.substring(start, i);
+                tokens.add(word.startsWith("$") ? word : word.toLowerCase());
+            } else if ((c == '>' || c == '<' || c == '=' || c == '!')
+                    && i + 1 < expression.length() && expression.charAt(i + 1) == '=') {
+                tokens.add(expression.substring(i, i + 2));
+                i += 2;
+            } else if ("()+-*/<>,".indexOf(c) >= 0) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                throw new IllegalArgumentException("Unexpected character: " + c);
+            }
+        }
+        return tokens;
+    }
+}
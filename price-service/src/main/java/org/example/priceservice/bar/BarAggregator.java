@@ -0,0 +1,49 @@
+package org.example.priceservice.bar;
+
+import org.example.priceservice.dto.CandleDto;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Gom các builder của một symbol. Được gọi từ thread đọc WebSocket của symbol đó và từ thread quét
+ * {@link #closeExpired}; khóa theo aggregator (mỗi symbol một khóa, hầu như không tranh chấp).
+ */
+public class BarAggregator {
+    private final BarBuilder[] builders;
+    private final long formingPublishMillis;
+
+    public BarAggregator(List<BarBuilder> builders, long formingPublishMillis) {
+        this.builders = builders.toArray(new BarBuilder[0]);
+        this.formingPublishMillis = formingPublishMillis;
+    }
+
+    /**
+     * Cập nhật mọi builder; bar vừa đóng luôn được đẩy ra, bar đang hình thành thì bị giới hạn tần suất
+     */
+    public synchronized void onTrade(double price, double quantity, long tradeTime, long now, Consumer<CandleDto> sink) {
+        for (BarBuilder builder : builders) {
+            CandleDto completed = builder.onTrade(price, quantity, tradeTime);
+            if (completed != null) {
+                sink.accept(completed);
+            }
+            CandleDto forming = builder.formingIfDue(now, formingPublishMillis);
+            if (forming != null) {
+                sink.accept(forming);
+            }
+        }
+    }
+
+    /**
+     * Đóng và đẩy ra các bar theo thời gian có openTime + interval <= now; thị trường ít giao dịch thì
+     * bar vẫn đóng đúng ranh giới thay vì chờ giao dịch tiếp theo
+     */
+    public synchronized void closeExpired(long now, Consumer<CandleDto> sink) {
+        for (BarBuilder builder : builders) {
+            CandleDto completed = builder.closeIfExpired(now);
+            if (completed != null) {
+                sink.accept(completed);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.priceservice.bar;
+
+import org.example.priceservice.dto.CandleDto;
+
+import java.math.BigDecimal;
+
+/**
+ * Dựng bar từ từng giao dịch, state là các field primitive. Không tự đồng bộ: BarAggregator khóa
+ * khi gọi (thread WebSocket aggTrade của symbol và thread quét đóng bar theo thời gian).
+ */
+public abstract class BarBuilder {
+    protected final String symbol;
+    protected final String name; // vd. "1s", "tick100", "volume"
+
+    protected boolean hasBar;
+    protected long openTime;
+    protected long lastTradeTime;
+    protected double open;
+    protected double high;
+    protected double low;
+    protected double close;
+    protected double volume;
+    protected int trades;
+
+    // Thời điểm ngay sau bar đã đóng gần nhất; bar sau không mở sớm hơn (giao dịch đến trễ sau khi quét đóng bar)
+    protected long closedUntil = Long.MIN_VALUE;
+
+    private long lastFormingPublish;
+
+    protected BarBuilder(String symbol, String name) {
+        this.symbol = symbol;
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Thêm một giao dịch; trả về bar vừa đóng (nếu có), ngược lại null
+     */
+    public CandleDto onTrade(double price, double quantity, long tradeTime) {
+        CandleDto completed = null;
+        if (hasBar && closesBefore(tradeTime)) {
+            completed = complete();
+        }
+        if (!hasBar) {
+            hasBar = true;
+            openTime = barOpenTime(tradeTime);
+            open = price;
+            high = price;
+            low = price;
+            volume = 0.0;
+            trades = 0;
+        }
+        high = Math.max(high, price);
+        low = Math.min(low, price);
+        close = price;
+        volume += quantity;
+        trades++;
+        lastTradeTime = tradeTime;
+
+        if (closesAfter()) {
+            completed = complete();
+        }
+        return completed;
+    }
+
+    /**
+     * Đóng bar đang mở nếu đã qua ranh giới của nó tại thời điểm now, không cần chờ giao dịch tiếp theo
+     * (chỉ bar theo thời gian); trả về bar vừa đóng, ngược lại null
+     */
+    public CandleDto closeIfExpired(long now) {
+        return hasBar && closesBefore(now) ? complete() : null;
+    }
+
+    private CandleDto complete() {
+        CandleDto completed = toDto(true);
+        closedUntil = barCloseTime() + 1;
+        hasBar = false;
+        return completed;
+    }
+
+    /**
+     * Bar đang hình thành nếu đã quá minIntervalMillis kể từ lần trả về trước (giới hạn tần suất publish)
+     */
+    public CandleDto formingIfDue(long now, long minIntervalMillis) {
+        if (!hasBar || now - lastFormingPublish < minIntervalMillis) {
+            return null;
+        }
+        lastFormingPublish = now;
+        return toDto(false);
+    }
+
+    /**
+     * Bar hiện tại phải đóng trước khi nhận giao dịch tại tradeTime (bar theo thời gian)
+     */
+    protected boolean closesBefore(long tradeTime) {
+        return false;
+    }
+
+    /**
+     * Bar hiện tại đóng ngay sau giao dịch vừa thêm (bar theo số giao dịch / khối lượng)
+     */
+    protected boolean closesAfter() {
+        return false;
+    }
+
+    protected long barOpenTime(long tradeTime) {
+        return tradeTime;
+    }
+
+    protected long barCloseTime() {
+        return lastTradeTime;
+    }
+
+    private CandleDto toDto(boolean closed) {
+        CandleDto dto = new CandleDto();
+        dto.setSymbol(symbol);
+        dto.setInterval(name);
+        dto.setOpenTime(openTime);
+        dto.setCloseTime(barCloseTime());
+        dto.setOpen(BigDecimal.valueOf(open));
+        dto.setHigh(BigDecimal.valueOf(high));
+        dto.setLow(BigDecimal.valueOf(low));
+        dto.setClose(BigDecimal.valueOf(close));
+        dto.setVolume(BigDecimal.valueOf(volume));
+        dto.setClosed(closed);
+        dto.setEventTime(lastTradeTime);
+        return dto;
+    }
+
+    /**
+     * Bar theo thời gian (1s, 5s, ...), căn theo epoch như nến Binance.
+     * Giao dịch đến sau khi bar của nó đã bị quét đóng được gộp vào bar kế tiếp.
+     */
+    public static class Time extends BarBuilder {
+        private final long intervalMillis;
+
+        public Time(String symbol, String name, long intervalMillis) {
+            super(symbol, name);
+            this.intervalMillis = intervalMillis;
+        }
+
+        @Override
+        protected boolean closesBefore(long tradeTime) {
+            return tradeTime >= openTime + intervalMillis;
+        }
+
+        @Override
+        protected long barOpenTime(long tradeTime) {
+            return Math.max(Math.floorDiv(tradeTime, intervalMillis) * intervalMillis, closedUntil);
+        }
+
+        @Override
+        protected long barCloseTime() {
+            return openTime + intervalMillis - 1;
+        }
+    }
+
+    /**
+     * Bar đóng sau mỗi n giao dịch (aggTrade)
+     */
+    public static class Tick extends BarBuilder {
+        private final int tradesPerBar;
+
+        public Tick(String symbol, int tradesPerBar) {
+            super(symbol, "tick" + tradesPerBar);
+            this.tradesPerBar = tradesPerBar;
+        }
+
+        @Override
+        protected boolean closesAfter() {
+            return trades >= tradesPerBar;
+        }
+    }
+
+    /**
+     * Bar đóng khi khối lượng (base asset) đạt ngưỡng; ngưỡng cấu hình theo symbol
+     */
+    public static class Volume extends BarBuilder {
+        private final double volumePerBar;
+
+        public Volume(String symbol, double volumePerBar) {
+            super(symbol, "volume");
+            this.volumePerBar = volumePerBar;
+        }
+
+        @Override
+        protected boolean closesAfter() {
+            return volume >= volumePerBar;
+        }
+    }
+}
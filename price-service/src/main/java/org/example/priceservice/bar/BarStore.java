@@ -0,0 +1,39 @@
+package org.example.priceservice.bar;
+
+import org.example.priceservice.dto.CandleDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cửa sổ gần đây của các bar dưới 1 phút, chỉ giữ trong bộ nhớ (không lưu MongoDB).
+ * Mỗi series (symbol, loại bar) giữ tối đa price.aggtrade.max-bars bar đã đóng.
+ */
+@Component
+public class BarStore implements BarUpdateListener {
+    private final Map<String, RecentBarBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Value("${price.aggtrade.max-bars:1000}")
+    private int maxBars;
+
+    @Override
+    public void onBar(CandleDto bar) {
+        buffers.computeIfAbsent(key(bar.getSymbol(), bar.getInterval()), k -> new RecentBarBuffer(maxBars))
+                .add(bar);
+    }
+
+    /**
+     * Tối đa limit bar gần nhất (cũ -> mới), rỗng nếu chưa có dữ liệu
+     */
+    public List<CandleDto> getRecent(String symbol, String type, int limit) {
+        RecentBarBuffer buffer = buffers.get(key(symbol, type));
+        return buffer != null ? buffer.snapshot(limit) : List.of();
+    }
+
+    private String key(String symbol, String type) {
+        return symbol.toUpperCase() + ":" + type;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.priceservice.bar;
+
+import org.example.priceservice.dto.CandleDto;
+
+/**
+ * Nhận bar dưới 1 phút (time / tick / volume bar) dựng từ stream aggTrade
+ */
+public interface BarUpdateListener {
+    void onBar(CandleDto bar);
+}
@@ -0,0 +1,54 @@
+package org.example.priceservice.bar;
+
+import org.example.priceservice.dto.CandleDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Giữ N bar đã đóng gần nhất và bar đang hình thành của một series.
+ * Một thread ghi, nhiều thread đọc, không lock: bar được ghi vào slot trước rồi mới tăng
+ * bộ đếm volatile, nên reader không bao giờ thấy slot chưa ghi.
+ */
+public class RecentBarBuffer {
+    private final AtomicReferenceArray<CandleDto> closed;
+    private volatile long written;
+    private volatile CandleDto forming;
+
+    public RecentBarBuffer(int capacity) {
+        this.closed = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(CandleDto bar) {
+        if (bar.isClosed()) {
+            closed.lazySet((int) (written % closed.length()), bar);
+            written = written + 1;
+            CandleDto current = forming;
+            if (current != null && current.getOpenTime() <= bar.getOpenTime()) {
+                forming = null;
+            }
+        } else {
+            forming = bar;
+        }
+    }
+
+    /**
+     * Tối đa limit bar mới nhất (cũ -> mới), kèm bar đang hình thành ở cuối nếu có
+     */
+    public List<CandleDto> snapshot(int limit) {
+        long end = written;
+        // Chừa một slot: writer có thể đang ghi đè slot cũ nhất trong lúc đọc
+        int count = (int) Math.min(Math.min(end, closed.length() - 1L), Math.max(0, limit));
+        List<CandleDto> result = new ArrayList<>(count + 1);
+        for (long seq = end - count; seq < end; seq++) {
+            result.add(closed.get((int) (seq % closed.length())));
+        }
+        CandleDto current = forming;
+        if (current != null && (result.isEmpty()
+                || current.getOpenTime() > result.get(result.size() - 1).getOpenTime())) {
+            result.add(current);
+        }
+        return result;
+    }
+}
@@ -12,4 +12,12 @@ public interface BinanceApiClient {
     List<List<Object>> getAllCandles(@RequestParam(defaultValue = "BTCUSDT") String symbol,
                                      @RequestParam(defaultValue = "1m") String interval,
                                      @RequestParam(defaultValue = "20") int limit);
+
+    // Nến trong [startTime, endTime] (epoch millis), tối đa limit (<= 1000)
+    @GetMapping("/api/v3/klines")
+    List<List<Object>> getCandlesInRange(@RequestParam("symbol") String symbol,
+                                         @RequestParam("interval") String interval,
+                                         @RequestParam("startTime") long startTime,
+                                         @RequestParam("endTime") long endTime,
+                                         @RequestParam("limit") int limit);
 }
@@ -0,0 +1,20 @@
+package org.example.priceservice.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Exchange nhận AnomalyEvent; RabbitAdmin khai báo khi kết nối RabbitMQ được mở
+ */
+@Configuration
+@Profile("collector")
+public class AnomalyExchangeConfig {
+
+    @Bean
+    public TopicExchange anomalyExchange(@Value("${price.anomaly.exchange:price.anomalies}") String name) {
+        return new TopicExchange(name, true, false);
+    }
+}
@@ -18,4 +18,16 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    // Pool nhỏ, queue có giới hạn cho refresh nền của cache candles; quá tải thì bỏ qua lượt refresh
+    @Bean(name = "candleRefreshExecutor")
+    public Executor candleRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("Candle-Refresh-");
+        executor.initialize();
+        return executor;
+    }
 }
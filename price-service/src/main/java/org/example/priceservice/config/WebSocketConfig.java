@@ -1,15 +1,32 @@
 package org.example.priceservice.config;
 
+import lombok.RequiredArgsConstructor;
+import org.example.priceservice.websocket.CandleSnapshotInterceptor;
+import org.example.priceservice.websocket.IndexedSubscriptionRegistry;
+import org.example.priceservice.websocket.MarketFrameInterceptor;
+import org.example.priceservice.websocket.SlowConsumerHandlerDecorator;
+import org.example.priceservice.websocket.UserQueueInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private final CandleSnapshotInterceptor candleSnapshotInterceptor;
+    private final MarketFrameInterceptor marketFrameInterceptor;
+    private final SlowConsumerHandlerDecorator slowConsumerHandlerDecorator;
+    private final UserQueueInterceptor userQueueInterceptor;
+
     @Value("${spring.rabbitmq.host:localhost}")
     private String rabbitMqHost;
 
@@ -22,14 +39,49 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${spring.rabbitmq.password:guest}")
     private String rabbitMqPassword;
 
+    // relay: qua RabbitMQ STOMP (mặc định) | local: broker in-process, không cần RabbitMQ cho WebSocket
+    @Value("${price.websocket.broker:relay}")
+    private String brokerMode;
+
+    @Value("${price.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${price.websocket.send-buffer-size-kb:512}")
+    private int sendBufferSizeKb;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableStompBrokerRelay("/topic")
-                .setRelayHost(rabbitMqHost)
-                .setRelayPort(stompPort)
-                .setClientLogin(rabbitMqUsername)
-                .setClientPasscode(rabbitMqPassword);
+        // /queue chỉ dùng cho user destination (/user/queue/...), xem UserQueueInterceptor
+        if ("local".equalsIgnoreCase(brokerMode)) {
+            config.enableSimpleBroker("/topic", "/queue");
+        } else {
+            // User destination gửi từ instance không giữ session của user (vd. alert từ collector)
+            // được broadcast để instance đang giữ session resolve và gửi tiếp
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(rabbitMqHost)
+                    .setRelayPort(stompPort)
+                    .setClientLogin(rabbitMqUsername)
+                    .setClientPasscode(rabbitMqPassword)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        }
         config.setApplicationDestinationPrefixes("/app");
+        // Giữ thứ tự frame gửi tới từng session: snapshot luôn đi trước tick realtime
+        config.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Mỗi session có hàng đợi gửi giới hạn; vượt buffer hoặc một lần gửi kẹt quá lâu
+        // thì session bị đóng (slow consumer), không làm nghẽn fan-out cho các client khác
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeKb * 1024)
+                .addDecoratorFactory(slowConsumerHandlerDecorator);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(userQueueInterceptor, candleSnapshotInterceptor, marketFrameInterceptor);
     }
 
     @Override
@@ -37,4 +89,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws/prices")
                 .setAllowedOriginPatterns("*");
     }
+
+    /**
+     * Thay registry mặc định (duyệt toàn bộ subscription mỗi message) bằng index theo destination
+     */
+    @Bean
+    public static BeanPostProcessor indexedSubscriptionRegistryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof SimpleBrokerMessageHandler handler) {
+                    handler.setSubscriptionRegistry(new IndexedSubscriptionRegistry());
+                }
+                return bean;
+            }
+        };
+    }
 }
@@ -0,0 +1,60 @@
+package org.example.priceservice.controller;
+
+import org.example.priceservice.backtest.BacktestJob;
+import org.example.priceservice.dto.BacktestJobStatus;
+import org.example.priceservice.dto.BacktestRequest;
+import org.example.priceservice.service.BacktestService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Backtest bất đồng bộ: POST tạo job (202), GET xem tiến độ + kết quả từng phần, DELETE hủy.
+ * Chỉ user VIP (SecurityConfig), mỗi user chỉ thấy job của mình.
+ */
+@RestController
+@RequestMapping("/api/prices/backtests")
+public class BacktestController {
+    private final BacktestService backtestService;
+
+    public BacktestController(BacktestService backtestService) {
+        this.backtestService = backtestService;
+    }
+
+    private String getCurrentUserId() {
+        return (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody BacktestRequest request) {
+        try {
+            BacktestJob job = backtestService.submit(request, getCurrentUserId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BacktestJobStatus> get(@PathVariable String jobId) {
+        BacktestJob job = backtestService.get(jobId, getCurrentUserId());
+        return job != null ? ResponseEntity.ok(job.toStatus()) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<BacktestJobStatus> cancel(@PathVariable String jobId) {
+        BacktestJob job = backtestService.cancel(jobId, getCurrentUserId());
+        return job != null ? ResponseEntity.ok(job.toStatus()) : ResponseEntity.notFound().build();
+    }
+}
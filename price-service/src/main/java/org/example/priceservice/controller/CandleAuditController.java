@@ -0,0 +1,39 @@
+package org.example.priceservice.controller;
+
+import org.example.priceservice.dto.AuditReport;
+import org.example.priceservice.service.CandleAuditService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kiểm tra / sửa price_candles (chỉ instance collector): GET xem tiến độ lượt gần nhất, POST chạy ngay một lượt.
+ * Chỉ ROLE_ADMIN (SecurityConfig, price.security.admin-user-ids)
+ */
+@RestController
+@RequestMapping("/api/prices/audit")
+@Profile("collector")
+public class CandleAuditController {
+    private final CandleAuditService auditService;
+
+    public CandleAuditController(CandleAuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    @GetMapping
+    public ResponseEntity<AuditReport> getLastReport() {
+        AuditReport report = auditService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping
+    public ResponseEntity<Void> trigger() {
+        return auditService.trigger()
+                ? ResponseEntity.status(HttpStatus.ACCEPTED).build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
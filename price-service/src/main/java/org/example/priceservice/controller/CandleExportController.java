@@ -0,0 +1,64 @@
+package org.example.priceservice.controller;
+
+import org.example.priceservice.arrow.ArrowStreamWriter;
+import org.example.priceservice.service.CandleArrowExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Xuất nến dạng cột cho client phân tích (pandas/pyarrow)
+ */
+@RestController
+@RequestMapping("/api/prices/export")
+public class CandleExportController {
+    private final CandleArrowExportService arrowExportService;
+
+    public CandleExportController(CandleArrowExportService arrowExportService) {
+        this.arrowExportService = arrowExportService;
+    }
+
+    /**
+     * Arrow IPC stream của nến trong [startTime, endTime) (epoch millis), kèm các cột chỉ báo nếu có indicators
+     * (sma, ema, rsi, macd, bollinger, atr). Đọc: pyarrow.ipc.open_stream(response.content).read_pandas()
+     */
+    @GetMapping("/arrow")
+    public ResponseEntity<?> exportArrow(
+            @RequestParam(defaultValue = "BTCUSDT") String symbol,
+            @RequestParam(defaultValue = "1h") String interval,
+            @RequestParam long startTime,
+            @RequestParam long endTime,
+            @RequestParam(required = false) List<String> indicators
+    ) {
+        Set<String> requested = indicators == null ? Set.of() : indicators.stream()
+                .flatMap(s -> Arrays.stream(s.split(",")))
+                .map(s -> s.trim().toLowerCase())
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        CandleArrowExportService.Export export;
+        try {
+            export = arrowExportService.prepare(symbol, interval, startTime, endTime, requested);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        StreamingResponseBody body = export::writeTo;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowStreamWriter.MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\""
+                        + symbol.toUpperCase() + "-" + interval + ".arrows\"")
+                .body(body);
+    }
+}
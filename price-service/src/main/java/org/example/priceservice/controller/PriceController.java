@@ -1,33 +1,273 @@
 package org.example.priceservice.controller;
 
+import org.example.priceservice.bar.BarStore;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.CandleTile;
+import org.example.priceservice.dto.CorrelationMatrix;
+import org.example.priceservice.dto.IndicatorSeries;
+import org.example.priceservice.dto.IndicatorValues;
+import org.example.priceservice.dto.SeriesValidator;
+import org.example.priceservice.dto.TickerStats;
 import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.service.BatchIndicatorService;
+import org.example.priceservice.service.CandleDownsampleService;
+import org.example.priceservice.service.CandleResampleService;
+import org.example.priceservice.service.CandleTileService;
+import org.example.priceservice.service.CorrelationService;
+import org.example.priceservice.service.IndicatorService;
+import org.example.priceservice.service.LatestPriceSnapshotService;
+import org.example.priceservice.service.LiveCandleStore;
 import org.example.priceservice.service.PriceCandleService;
+import org.example.priceservice.service.TickerService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/prices")
 public class PriceController {
     private final PriceCandleService candleService;
+    private final CandleTileService tileService;
+    private final LiveCandleStore liveCandleStore;
+    private final IndicatorService indicatorService;
+    private final BatchIndicatorService batchIndicatorService;
+    private final TickerService tickerService;
+    private final BarStore barStore;
+    private final CandleDownsampleService downsampleService;
+    private final LatestPriceSnapshotService latestPriceService;
+    private final CorrelationService correlationService;
 
-    public PriceController( PriceCandleService candleService) {
+    public PriceController(PriceCandleService candleService, CandleTileService tileService,
+                           LiveCandleStore liveCandleStore, IndicatorService indicatorService,
+                           BatchIndicatorService batchIndicatorService, TickerService tickerService,
+                           BarStore barStore, CandleDownsampleService downsampleService,
+                           LatestPriceSnapshotService latestPriceService, CorrelationService correlationService) {
         this.candleService = candleService;
+        this.tileService = tileService;
+        this.liveCandleStore = liveCandleStore;
+        this.indicatorService = indicatorService;
+        this.batchIndicatorService = batchIndicatorService;
+        this.tickerService = tickerService;
+        this.barStore = barStore;
+        this.downsampleService = downsampleService;
+        this.latestPriceService = latestPriceService;
+        this.correlationService = correlationService;
     }
 
 
+    /**
+     * Nến lịch sử. Khi có maxPoints, khoảng [startTime, endTime) (mặc định: limit nến gần nhất) được rút gọn
+     * còn tối đa maxPoints điểm theo mode ohlc | lttb thay vì trả toàn bộ nến.
+     */
     @GetMapping("/historical")
     public ResponseEntity<List<PriceCandle>> getHistoricalCandles(
             @RequestParam(defaultValue = "BTCUSDT") String symbol,
             @RequestParam(defaultValue = "1h") String interval,
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Integer maxPoints,
+            @RequestParam(required = false) Long startTime,
+            @RequestParam(required = false) Long endTime,
+            @RequestParam(defaultValue = CandleDownsampleService.MODE_OHLC) String mode,
+            WebRequest webRequest
     ) {
+        long intervalMillis;
+        try {
+            intervalMillis = CandleResampleService.intervalMillis(interval);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (maxPoints != null) {
+            boolean validMode = CandleDownsampleService.MODE_OHLC.equals(mode) || CandleDownsampleService.MODE_LTTB.equals(mode);
+            if (!validMode || maxPoints < 3 || maxPoints > downsampleService.getMaxPointsLimit()) {
+                return ResponseEntity.badRequest().build();
+            }
+            long end = endTime != null ? endTime : System.currentTimeMillis();
+            long start = startTime != null ? startTime : end - limit * intervalMillis;
+            if (start >= end) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(downsampleService.downsample(symbol, interval, start, end, maxPoints, mode));
+        }
+
+        // Body có nến đang hình thành nên validator đổi theo cả nến đóng lẫn từng tick
+        long closedVersion = liveCandleStore.closedVersion(symbol, interval);
+        long liveVersion = liveCandleStore.liveVersion(symbol, interval);
+
+        // Request conditional: so với validator của series trước, khớp thì 304 không cần đọc candles
+        boolean conditional = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+        SeriesValidator validator = conditional ? candleService.getValidator(symbol, interval) : null;
+        if (validator != null && webRequest.checkNotModified(
+                validator.eTag(symbol, interval, limit, closedVersion, liveVersion),
+                validator.lastModified(closedVersion, liveVersion))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
         List<PriceCandle> candles = candleService.getCandles(symbol, interval, limit);
-        return ResponseEntity.ok(candles);
+        if (candles.isEmpty()) {
+            return ResponseEntity.ok(candleService.mergeLive(candles, symbol, interval, limit));
+        }
+
+        SeriesValidator served = candleService.toValidator(candles.get(candles.size() - 1));
+        if (conditional && validator == null) {
+            candleService.saveValidator(symbol, interval, served);
+        }
+        String eTag = served.eTag(symbol, interval, limit, closedVersion, liveVersion);
+        long lastModified = served.lastModified(closedVersion, liveVersion);
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache())
+                .body(candleService.mergeLive(candles, symbol, interval, limit));
+    }
+
+    /**
+     * Lịch sử nến theo tile cố định; không truyền index -> tile đầu (chứa nến hiện tại).
+     * Cuộn ngược lịch sử bằng index - 1; index phải trong [0, tile đầu]. Chỉ nhận interval gốc (1m..1h).
+     */
+    @GetMapping("/historical/tiles")
+    public ResponseEntity<CandleTile> getCandleTile(
+            @RequestParam(defaultValue = "BTCUSDT") String symbol,
+            @RequestParam(defaultValue = "1h") String interval,
+            @RequestParam(required = false) Long index,
+            WebRequest webRequest
+    ) {
+        long tileIndex;
+        try {
+            // Kiểm tra interval cùng helper với CandleTileService.getTile
+            long headIndex = tileService.headTileIndex(interval);
+            tileIndex = index != null ? index : headIndex;
+            // Chặn luôn tràn số khi tính startTime = index * span
+            if (tileIndex < 0 || tileIndex > headIndex) {
+                return ResponseEntity.badRequest().build();
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Tile đã đóng: ETag chỉ cần data revision, client giữ đúng bản thì trả 304 không đọc tile
+        boolean closed = tileService.isClosed(interval, tileIndex);
+        long revision = tileService.dataRevision(symbol, interval);
+        String closedETag = closed && revision >= 0
+                ? tileService.closedTileETag(symbol, interval, tileIndex, revision) : null;
+        if (closedETag != null && webRequest.checkNotModified(closedETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        CandleTile tile = tileService.getTile(symbol, interval, tileIndex, revision);
+        if (tile.isImmutable() && closedETag != null) {
+            return ResponseEntity.ok()
+                    .eTag(closedETag)
+                    .cacheControl(CacheControl.maxAge(tileService.getClosedMaxAge()).cachePublic())
+                    .body(tile);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(tile);
+    }
+
+    /**
+     * Chỉ báo kỹ thuật mới nhất của series (tính tăng dần phía server, client không cần tự tính lại)
+     */
+    @GetMapping("/indicators")
+    public ResponseEntity<IndicatorValues> getIndicators(
+            @RequestParam(defaultValue = "BTCUSDT") String symbol,
+            @RequestParam(defaultValue = "1h") String interval
+    ) {
+        IndicatorValues values = indicatorService.getIndicators(symbol, interval);
+        if (values == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(values);
+    }
+
+    /**
+     * Chuỗi chỉ báo cho khoảng [startTime, endTime) (epoch millis), vd. khi mở chart 50k nến 1m.
+     * indicators: sma, ema, rsi, macd, bollinger, atr (mặc định tất cả)
+     */
+    @GetMapping("/indicators/series")
+    public ResponseEntity<IndicatorSeries> getIndicatorSeries(
+            @RequestParam(defaultValue = "BTCUSDT") String symbol,
+            @RequestParam(defaultValue = "1h") String interval,
+            @RequestParam long startTime,
+            @RequestParam long endTime,
+            @RequestParam(required = false) List<String> indicators
+    ) {
+        Set<String> requested = indicators == null ? BatchIndicatorService.SUPPORTED : indicators.stream()
+                .flatMap(s -> Arrays.stream(s.split(",")))
+                .map(s -> s.trim().toLowerCase())
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (requested.isEmpty() || !BatchIndicatorService.SUPPORTED.containsAll(requested)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(batchIndicatorService.compute(symbol, interval, startTime, endTime, requested));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Thống kê 24h cuộn (đã tính sẵn): không truyền symbol -> tất cả symbol
+     */
+    @GetMapping("/ticker")
+    public ResponseEntity<?> getTicker(@RequestParam(required = false) String symbol) {
+        if (symbol == null) {
+            return ResponseEntity.ok(tickerService.getAll());
+        }
+        TickerStats stats = tickerService.get(symbol);
+        return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Ma trận tương quan lợi suất giữa các symbol; window (số nến) phải thuộc price.correlation.windows
+     */
+    @GetMapping("/correlation")
+    public ResponseEntity<CorrelationMatrix> getCorrelation(@RequestParam(required = false) Integer window) {
+        int requested = window != null ? window : correlationService.getWindows()[0];
+        CorrelationMatrix matrix = correlationService.getMatrix(requested);
+        return matrix != null ? ResponseEntity.ok(matrix) : ResponseEntity.badRequest().build();
+    }
+
+    /**
+     * Giá mới nhất + nến 1m hiện tại của mọi symbol trong một response (JSON đã serialize sẵn)
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<byte[]> getLatestPrices() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .body(latestPriceService.getSerialized());
+    }
+
+    /**
+     * Bar dưới 1 phút gần đây (chỉ trong bộ nhớ), type: 1s, 5s, 15s, tick100, volume...
+     */
+    @GetMapping("/bars")
+    public ResponseEntity<List<CandleDto>> getRecentBars(
+            @RequestParam(defaultValue = "BTCUSDT") String symbol,
+            @RequestParam(defaultValue = "1s") String type,
+            @RequestParam(defaultValue = "300") int limit
+    ) {
+        return ResponseEntity.ok(barStore.getRecent(symbol, type, limit));
     }
 
     @GetMapping("/symbols")
@@ -35,8 +275,11 @@ public class PriceController {
         return ResponseEntity.ok(List.of("btcusdt", "ethusdt", "bnbusdt"));
     }
 
+    /**
+     * Interval lưu sẵn + một số interval resample thông dụng; bội số bất kỳ của interval gốc (vd. 7m) cũng dùng được
+     */
     @GetMapping("/intervals")
     public ResponseEntity<List<String>> getAvailableIntervals() {
-        return ResponseEntity.ok(List.of("1m", "3m", "5m", "15m", "30m"));
+        return ResponseEntity.ok(List.of("1m", "3m", "5m", "15m", "30m", "1h", "2h", "4h", "6h", "12h", "1d", "1w"));
     }
 }
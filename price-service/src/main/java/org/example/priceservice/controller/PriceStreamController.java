@@ -0,0 +1,62 @@
+package org.example.priceservice.controller;
+
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.service.CandleStreamService;
+import org.example.priceservice.websocket.SlowConsumerHandlerDecorator;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/prices/stream")
+public class PriceStreamController {
+    private final CandleStreamService streamService;
+    private final SlowConsumerHandlerDecorator slowConsumerHandlerDecorator;
+
+    public PriceStreamController(CandleStreamService streamService,
+                                 SlowConsumerHandlerDecorator slowConsumerHandlerDecorator) {
+        this.streamService = streamService;
+        this.slowConsumerHandlerDecorator = slowConsumerHandlerDecorator;
+    }
+
+    /**
+     * SSE stream cập nhật nến, ví dụ: /api/prices/stream?symbols=btcusdt,ethusdt&intervals=1m,5m
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<CandleDto>> streamCandles(
+            @RequestParam(required = false) List<String> symbols,
+            @RequestParam(required = false) List<String> intervals
+    ) {
+        Set<String> symbolFilter = symbols == null ? Set.of() : symbols.stream()
+                .flatMap(s -> Arrays.stream(s.split(",")))
+                .map(s -> s.trim().toUpperCase())
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+        Set<String> intervalFilter = intervals == null ? Set.of() : intervals.stream()
+                .flatMap(s -> Arrays.stream(s.split(",")))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+        return streamService.subscribe(symbolFilter, intervalFilter);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStreamStats() {
+        return ResponseEntity.ok(Map.of(
+                "connectedClients", streamService.getConnectedClients(),
+                "droppedUpdates", streamService.getDroppedUpdates(),
+                "evictedWebSocketSessions", slowConsumerHandlerDecorator.getEvictedSessions()
+        ));
+    }
+}
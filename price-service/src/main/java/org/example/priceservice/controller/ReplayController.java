@@ -0,0 +1,61 @@
+package org.example.priceservice.controller;
+
+import org.example.priceservice.dto.ReplayRequest;
+import org.example.priceservice.dto.ReplayStatus;
+import org.example.priceservice.replay.ReplaySession;
+import org.example.priceservice.service.ReplayService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Phát lại nến lịch sử: POST tạo phiên (202, kèm destinationPrefix để subscribe), GET xem tiến độ, DELETE dừng.
+ * Nến được phát tới {destinationPrefix}.{interval}.{symbol}, trạng thái cuối tới /topic/replay.{id}.status.
+ * Cần ROLE_VIP (SecurityConfig); user chỉ thấy phiên của mình.
+ */
+@RestController
+@RequestMapping("/api/prices/replays")
+public class ReplayController {
+    private final ReplayService replayService;
+
+    public ReplayController(ReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    private String getCurrentUserId() {
+        return (String) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> start(@RequestBody ReplayRequest request) {
+        try {
+            ReplaySession session = replayService.start(request, getCurrentUserId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(session.toStatus());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<ReplayStatus> get(@PathVariable String sessionId) {
+        ReplaySession session = replayService.get(sessionId, getCurrentUserId());
+        return session != null ? ResponseEntity.ok(session.toStatus()) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<ReplayStatus> cancel(@PathVariable String sessionId) {
+        ReplaySession session = replayService.cancel(sessionId, getCurrentUserId());
+        return session != null ? ResponseEntity.ok(session.toStatus()) : ResponseEntity.notFound().build();
+    }
+}
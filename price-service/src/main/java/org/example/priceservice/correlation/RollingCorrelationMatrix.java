@@ -0,0 +1,162 @@
+package org.example.priceservice.correlation;
+
+import java.util.Arrays;
+
+/**
+ * Ma trận hiệp phương sai / tương quan cuộn của N chuỗi lợi suất trên nhiều cửa sổ (tính theo số quan sát).
+ * Mỗi quan sát là một hàng N lợi suất cùng thời điểm. Cập nhật kiểu Welford: thêm hàng mới và gỡ hàng
+ * rời cửa sổ, O(N^2) mỗi cửa sổ, chỉ dùng mảng primitive cấp phát sẵn (không cấp phát khi cập nhật).
+ * Sai số tích lũy của phép gỡ được xóa bằng cách tính lại từ ring mỗi khi cửa sổ quay hết một vòng.
+ * Không thread-safe: lớp gọi phải đồng bộ.
+ */
+public class RollingCorrelationMatrix {
+    private final int size;
+    private final int[] windows;
+    private final int capacity;
+
+    // Ring các hàng gần nhất (cửa sổ lớn nhất + hàng sắp bị gỡ): hàng thứ k nằm ở [(k % capacity) * size, ...)
+    private final double[] rows;
+    private long rowCount;
+
+    // Theo từng cửa sổ: số quan sát, trung bình, co-moment (size x size, chỉ dùng nửa trên đường chéo)
+    private final int[] counts;
+    private final double[][] means;
+    private final double[][] comoments;
+    private final int[] sinceRecompute;
+
+    // Bộ đệm độ lệch dùng lại giữa các lần cập nhật
+    private final double[] deltaOld;
+    private final double[] deltaNew;
+
+    public RollingCorrelationMatrix(int size, int[] windows) {
+        this.size = size;
+        this.windows = windows.clone();
+        int max = 2;
+        for (int window : windows) {
+            if (window < 2) {
+                throw new IllegalArgumentException("Window must be at least 2 observations");
+            }
+            max = Math.max(max, window);
+        }
+        this.capacity = max + 1;
+        this.rows = new double[capacity * size];
+        this.counts = new int[windows.length];
+        this.means = new double[windows.length][size];
+        this.comoments = new double[windows.length][size * size];
+        this.sinceRecompute = new int[windows.length];
+        this.deltaOld = new double[size];
+        this.deltaNew = new double[size];
+    }
+
+    public void addRow(double[] values) {
+        int slot = (int) (rowCount % capacity) * size;
+        System.arraycopy(values, 0, rows, slot, size);
+        rowCount++;
+
+        for (int w = 0; w < windows.length; w++) {
+            int window = windows[w];
+            if (counts[w] < window) {
+                add(w, slot);
+            } else if (++sinceRecompute[w] >= window) {
+                recompute(w);
+            } else {
+                remove(w, (int) ((rowCount - 1 - window) % capacity) * size);
+                add(w, slot);
+            }
+        }
+    }
+
+    /**
+     * Số quan sát hiện có trong cửa sổ thứ w
+     */
+    public int observations(int w) {
+        return counts[w];
+    }
+
+    /**
+     * Hệ số tương quan Pearson giữa chuỗi i và j trong cửa sổ w; NaN nếu chưa đủ dữ liệu hoặc phương sai bằng 0
+     */
+    public double correlation(int w, int i, int j) {
+        if (counts[w] < 2) {
+            return Double.NaN;
+        }
+        double[] c = comoments[w];
+        double varianceI = c[i * size + i];
+        double varianceJ = c[j * size + j];
+        if (varianceI <= 0 || varianceJ <= 0) {
+            return Double.NaN;
+        }
+        double covariance = i <= j ? c[i * size + j] : c[j * size + i];
+        return Math.max(-1, Math.min(1, covariance / Math.sqrt(varianceI * varianceJ)));
+    }
+
+    private void add(int w, int offset) {
+        double[] mean = means[w];
+        double[] c = comoments[w];
+        int n = ++counts[w];
+        // C_ij += (x_i - mean_i cũ) * (x_j - mean_j mới)
+        for (int i = 0; i < size; i++) {
+            deltaOld[i] = rows[offset + i] - mean[i];
+            mean[i] += deltaOld[i] / n;
+        }
+        for (int i = 0; i < size; i++) {
+            double di = deltaOld[i];
+            int base = i * size;
+            for (int j = i; j < size; j++) {
+                c[base + j] += di * (rows[offset + j] - mean[j]);
+            }
+        }
+    }
+
+    private void remove(int w, int offset) {
+        double[] mean = means[w];
+        double[] c = comoments[w];
+        int n = --counts[w];
+        // Đảo phép add: C_ij -= (x_i - mean_i mới) * (x_j - mean_j cũ)
+        for (int i = 0; i < size; i++) {
+            deltaOld[i] = rows[offset + i] - mean[i];
+            mean[i] -= deltaOld[i] / n;
+            deltaNew[i] = rows[offset + i] - mean[i];
+        }
+        for (int i = 0; i < size; i++) {
+            double di = deltaNew[i];
+            int base = i * size;
+            for (int j = i; j < size; j++) {
+                c[base + j] -= di * deltaOld[j];
+            }
+        }
+    }
+
+    /**
+     * Tính lại cửa sổ w từ các hàng còn trong ring (two-pass), xóa sai số tích lũy
+     */
+    private void recompute(int w) {
+        int window = windows[w];
+        double[] mean = means[w];
+        double[] c = comoments[w];
+        Arrays.fill(mean, 0);
+        Arrays.fill(c, 0);
+        long first = rowCount - window;
+        for (long k = first; k < rowCount; k++) {
+            int offset = (int) (k % capacity) * size;
+            for (int i = 0; i < size; i++) {
+                mean[i] += rows[offset + i];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            mean[i] /= window;
+        }
+        for (long k = first; k < rowCount; k++) {
+            int offset = (int) (k % capacity) * size;
+            for (int i = 0; i < size; i++) {
+                double di = rows[offset + i] - mean[i];
+                int base = i * size;
+                for (int j = i; j < size; j++) {
+                    c[base + j] += di * (rows[offset + j] - mean[j]);
+                }
+            }
+        }
+        counts[w] = window;
+        sinceRecompute[w] = 0;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Biến động bất thường phát hiện trên nến realtime, publish tới exchange price.anomalies
+ * với routing key anomaly.{type}.{symbol lowercase}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalyEvent {
+    public static final String RETURN_SPIKE = "return_spike";
+    public static final String VOLUME_BURST = "volume_burst";
+
+    private String symbol;
+    private String interval;
+    private String type; // return_spike | volume_burst
+    private long openTime; // nến đang xét
+    private long eventTime; // thời điểm của cập nhật nến gây ra phát hiện (Binance event time)
+    private long detectedAt;
+    private double price; // close tại thời điểm phát hiện
+    private double value; // return spike: log return so với close nến trước; volume burst: volume của nến
+    private double mean; // mean của window cùng đại lượng
+    private double stddev;
+    private double zScore;
+    private int window; // số nến đã đóng dùng làm nền so sánh
+}
@@ -0,0 +1,37 @@
+package org.example.priceservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tiến độ / kết quả một lượt kiểm tra price_candles
+ */
+@Data
+@NoArgsConstructor
+public class AuditReport {
+    private String status; // RUNNING, COMPLETED, FAILED
+    private long startedAt;
+    private Long finishedAt;
+    private long rangeStart; // epoch millis, bắt đầu khoảng được kiểm tra
+    private int totalPartitions;
+    private volatile int completedPartitions;
+    private List<PartitionReport> partitions = new CopyOnWriteArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class PartitionReport {
+        private String symbol;
+        private String interval;
+        private long scanned;
+        private long missing;
+        private long duplicates;
+        private long inconsistent;
+        private long mixedCase; // bản ghi symbol không viết hoa, đã chuẩn hóa
+        private long repaired; // nến tải lại từ Binance và upsert
+        private int repairRequests;
+        private String error;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestJobStatus {
+    private String jobId;
+    private String status; // RUNNING, COMPLETED, CANCELLED, FAILED
+    private int totalRuns;
+    private int completedRuns;
+    private double progress; // 0..1
+    private long estimatedMemoryBytes;
+    private long createdAt;
+    private Long finishedAt;
+    private String error;
+    private List<BacktestResult> results; // sắp xếp theo totalReturnPercent giảm dần, có cả kết quả từng phần
+}
@@ -0,0 +1,22 @@
+package org.example.priceservice.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Yêu cầu backtest: biểu thức entry / exit theo DSL của StrategyParser, grid tham số ($ten -> các giá trị)
+ * được chạy cho mọi tổ hợp x mọi symbol.
+ */
+@Data
+public class BacktestRequest {
+    private List<String> symbols;
+    private String interval = "1h";
+    private Long startTime; // epoch millis
+    private Long endTime;
+    private String entry; // vd. crossover(sma($fast), sma($slow))
+    private String exit; // vd. crossunder(sma($fast), sma($slow)) or rsi(14) > 75
+    private Map<String, List<Double>> parameters = Map.of();
+    private double feeBps = 10;
+}
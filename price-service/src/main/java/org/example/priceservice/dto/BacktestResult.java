@@ -0,0 +1,20 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestResult {
+    private String symbol;
+    private Map<String, Double> parameters;
+    private int trades;
+    private double winRate;
+    private double totalReturnPercent;
+    private double maxDrawdownPercent;
+    private double buyAndHoldReturnPercent;
+}
@@ -0,0 +1,18 @@
+package org.example.priceservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BinanceAggTradeEvent {
+    @JsonProperty("e") private String eventType; // "aggTrade"
+    @JsonProperty("E") private Long eventTime;
+    @JsonProperty("s") private String symbol;
+    @JsonProperty("a") private Long aggregateTradeId;
+    @JsonProperty("p") private String price;
+    @JsonProperty("q") private String quantity;
+    @JsonProperty("T") private Long tradeTime;
+    @JsonProperty("m") private boolean buyerMaker;
+}
@@ -0,0 +1,21 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.priceservice.entity.PriceCandle;
+
+import java.util.List;
+
+/**
+ * Giá trị lưu trong Redis cho một key candles: danh sách nến kèm thời điểm ghi cache,
+ * dùng để phân biệt soft TTL (stale) và hard TTL (Redis tự xóa).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedCandles {
+    private List<PriceCandle> candles;
+
+    private long cachedAt; // epoch millis
+}
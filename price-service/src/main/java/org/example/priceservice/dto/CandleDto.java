@@ -1,16 +1,64 @@
 package org.example.priceservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
+import org.example.priceservice.entity.PriceCandle;
 
 import java.math.BigDecimal;
 
 @Data
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class CandleDto {
     private String symbol;
+    private String interval;
     private long openTime;
+    private long closeTime;
     private BigDecimal open;
     private BigDecimal high;
     private BigDecimal low;
     private BigDecimal close;
     private BigDecimal volume;
+    private boolean closed; // true khi nến đã đóng
+    private long eventTime; // Binance event time, client dùng để bỏ qua bản cập nhật cũ hơn
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private IndicatorValues indicators; // chỉ báo kỹ thuật, chỉ có khi price.indicators.stream-enabled
+
+    public static CandleDto from(PriceCandle candle) {
+        CandleDto dto = new CandleDto();
+        dto.setSymbol(candle.getSymbol());
+        dto.setInterval(candle.getInterval());
+        dto.setOpenTime(candle.getOpenTime().toEpochMilli());
+        dto.setCloseTime(candle.getCloseTime() != null ? candle.getCloseTime().toEpochMilli() : 0L);
+        dto.setOpen(candle.getOpen());
+        dto.setHigh(candle.getHigh());
+        dto.setLow(candle.getLow());
+        dto.setClose(candle.getClose());
+        dto.setVolume(candle.getVolume());
+        dto.setClosed(dto.getCloseTime() < System.currentTimeMillis());
+        dto.setEventTime(dto.getCloseTime());
+        return dto;
+    }
+
+    /**
+     * Bản sao snapshot: CandleFeed phát bản này tới listener nên caller có thể tiếp tục sửa DTO của mình.
+     * Listener dùng chung một bản, không được sửa nó.
+     */
+    public CandleDto copy() {
+        CandleDto dto = new CandleDto();
+        dto.setSymbol(symbol);
+        dto.setInterval(interval);
+        dto.setOpenTime(openTime);
+        dto.setCloseTime(closeTime);
+        dto.setOpen(open);
+        dto.setHigh(high);
+        dto.setLow(low);
+        dto.setClose(close);
+        dto.setVolume(volume);
+        dto.setClosed(closed);
+        dto.setEventTime(eventTime);
+        dto.setIndicators(indicators);
+        return dto;
+    }
 }
@@ -0,0 +1,20 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Frame gửi riêng cho một subscription ngay khi SUBSCRIBE: N nến đã đóng gần nhất
+ * + nến đang hình thành (phần tử cuối, closed = false), theo thứ tự thời gian tăng dần.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandleSnapshot {
+    private String symbol;
+    private String interval;
+    private List<CandleDto> candles;
+}
@@ -0,0 +1,39 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.priceservice.entity.PriceCandle;
+
+import java.util.List;
+
+/**
+ * Một "tile" nến: pageSize nến liên tiếp, căn theo openTime
+ * (tile index = openTime / (interval * pageSize)).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandleTile {
+    private String symbol;
+
+    private String interval;
+
+    private int pageSize;
+
+    private long index;
+
+    private long startTime; // epoch millis, inclusive
+
+    private long endTime; // epoch millis, exclusive
+
+    // true khi mọi nến trong tile đã đóng và đủ pageSize nến -> nội dung chỉ đổi khi backfill/audit ghi lại
+    private boolean immutable;
+
+    // Data revision của (symbol, interval) lúc đọc tile; -1 nếu không đọc được từ Redis
+    private long revision;
+
+    private List<PriceCandle> candles;
+}
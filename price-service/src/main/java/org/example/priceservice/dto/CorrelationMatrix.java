@@ -0,0 +1,23 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ma trận tương quan lợi suất (log return) giữa các symbol trên cửa sổ window nến gần nhất.
+ * matrix[i][j] ứng với symbols[i], symbols[j]; null khi chưa đủ dữ liệu.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrelationMatrix {
+    private String interval;
+    private int window;
+    private int observations;
+    private long lastOpenTime;
+    private List<String> symbols;
+    private Double[][] matrix;
+}
@@ -0,0 +1,21 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Chuỗi giá trị chỉ báo theo từng nến trong một khoảng thời gian, dạng cột:
+ * series.get("rsi")[i] là RSI tại openTime[i]; null = chưa đủ dữ liệu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndicatorSeries {
+    private String symbol;
+    private String interval;
+    private long[] openTime;
+    private Map<String, Double[]> series;
+}
@@ -0,0 +1,24 @@
+package org.example.priceservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * Giá trị các chỉ báo kỹ thuật tại một nến. Trường null = chưa đủ dữ liệu để tính.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IndicatorValues {
+    private Long openTime;
+    private Boolean closed; // false: tính theo nến đang hình thành, sẽ thay đổi tới khi nến đóng
+    private Double sma;
+    private Double ema;
+    private Double rsi;
+    private Double macd;
+    private Double macdSignal;
+    private Double macdHistogram;
+    private Double bollingerMiddle;
+    private Double bollingerUpper;
+    private Double bollingerLower;
+    private Double atr;
+}
@@ -0,0 +1,25 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Giá mới nhất và nến 1m hiện tại của một symbol, dùng cho bảng giá
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatestPrice {
+    private String symbol;
+    private BigDecimal price; // giá khớp gần nhất (close của nến 1m đang hình thành)
+    private long eventTime;
+    private long openTime; // openTime của nến 1m hiện tại
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal volume;
+    private boolean closed;
+}
@@ -0,0 +1,19 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một frame gộp các cập nhật mới nhất của nhiều symbol trong một cửa sổ flush
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketFrame {
+    private String interval;
+    private long timestamp; // thời điểm flush, epoch millis
+    private List<CandleDto> candles; // chỉ các symbol có thay đổi từ frame trước
+}
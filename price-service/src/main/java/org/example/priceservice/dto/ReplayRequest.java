@@ -0,0 +1,17 @@
+package org.example.priceservice.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Yêu cầu phát lại nến lịch sử trong [startTime, endTime) với tốc độ speed (1 = thời gian thực, tối đa 1000)
+ */
+@Data
+public class ReplayRequest {
+    private List<String> symbols;
+    private String interval = "1m";
+    private Long startTime; // epoch millis
+    private Long endTime;
+    private double speed = 1;
+}
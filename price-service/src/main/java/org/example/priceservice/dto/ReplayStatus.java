@@ -0,0 +1,28 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayStatus {
+    private String sessionId;
+    private String status; // RUNNING, COMPLETED, CANCELLED, FAILED
+    private List<String> symbols;
+    private String interval;
+    private double speed;
+    private String destinationPrefix; // vd. /topic/replay.{id}.candles -> subscribe {prefix}.{interval}.{symbol}
+    private long startTime;
+    private long endTime;
+    private Long replayTime; // thời điểm thị trường của nến vừa phát (closeTime), null khi chưa phát nến nào
+    private long publishedCandles;
+    private long maxLagMs; // trễ lớn nhất so với lịch phát
+    private long stalls; // số lần đến hạn phát nhưng buffer đọc trước còn trống
+    private long createdAt;
+    private Long finishedAt;
+    private String error;
+}
@@ -0,0 +1,32 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Validator HTTP (ETag / Last-Modified) của một series symbol/interval, lấy từ nến mới nhất.
+ * Lưu riêng trong Redis (rất nhỏ) để trả 304 mà không cần đọc payload candles.
+ * ETag yếu, gồm cả phiên bản nến đang hình thành: response có nến đó nên mỗi tick phải đổi validator.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesValidator {
+    private long openTime; // epoch millis của nến mới nhất
+
+    private long closeTime; // epoch millis
+
+    /**
+     * @param closedVersion LiveCandleStore.closedVersion: openTime của nến mới nhất trong bộ nhớ (0 nếu không có)
+     * @param liveVersion   LiveCandleStore.liveVersion: eventTime của tick mới nhất (0 nếu không có)
+     */
+    public String eTag(String symbol, String interval, int limit, long closedVersion, long liveVersion) {
+        return "W/\"" + symbol.toUpperCase() + "-" + interval + "-" + limit + "-" + openTime + "-" + closeTime
+                + "-" + closedVersion + "-" + liveVersion + "\"";
+    }
+
+    public long lastModified(long closedVersion, long liveVersion) {
+        return Math.max(openTime, Math.max(closedVersion, liveVersion));
+    }
+}
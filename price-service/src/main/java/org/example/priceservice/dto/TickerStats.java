@@ -0,0 +1,27 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thống kê 24h cuộn của một symbol (tương tự /api/v3/ticker/24hr của Binance)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TickerStats {
+    private String symbol;
+    private double openPrice;
+    private double lastPrice;
+    private double highPrice;
+    private double lowPrice;
+    private double volume;
+    private double priceChange;
+    private double priceChangePercent;
+    private long openTime; // openTime của nến đầu cửa sổ
+    private long lastCandleOpenTime; // openTime của nến mới nhất (có thể đang hình thành)
+    private int candleCount;
+    // true khi cửa sổ chưa đủ 24h nến (vừa khởi động, lịch sử trong MongoDB thiếu hoặc cũ)
+    private boolean partial;
+}
@@ -0,0 +1,17 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TriggeredAlert {
+    private String userId;
+    private String symbol;
+    private String condition; // above, below
+    private double targetPrice;
+    private double price; // giá tại tick kích hoạt alert
+    private long triggeredAt; // epoch millis
+}
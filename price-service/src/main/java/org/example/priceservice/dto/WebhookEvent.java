@@ -0,0 +1,19 @@
+package org.example.priceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Một sự kiện gửi tới webhook của user. type: "price.alert" (data là TriggeredAlert)
+ * hoặc "candle.closed" (data là CandleDto)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEvent {
+    private String type;
+    private String userId;
+    private Object data;
+    private long createdAt; // epoch millis
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -19,7 +20,7 @@ import java.util.UUID;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class PriceCandle {
     @Id
     private String id;
@@ -45,4 +46,8 @@ public class PriceCandle {
     private Integer trades;
 
     private LocalDateTime createdAt;
+
+    // Không lưu vào MongoDB: chỉ dùng khi trả về API, false cho nến đang hình thành
+    @Transient
+    private Boolean isClosed;
 }
@@ -0,0 +1,46 @@
+package org.example.priceservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * View chỉ đọc của collection user_settings (do user-service quản lý), chỉ gồm các trường
+ * cần cho price alert và webhook
+ */
+@Document(collection = "user_settings")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserNotificationSettings {
+    @Id
+    private String id;
+
+    private String userId;
+
+    private Boolean priceAlerts; // công tắc nhận thông báo price alert của user
+
+    private List<PriceAlert> priceAlertList = new ArrayList<>();
+
+    private List<String> favoriteSymbols = new ArrayList<>();
+
+    private List<String> webhookUrls = new ArrayList<>(); // chỉ VIP có, user-service xóa khi hạ cấp
+
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceAlert {
+        private String symbol;
+        private String condition; // above, below
+        private Double targetPrice;
+        private Boolean enabled;
+    }
+}
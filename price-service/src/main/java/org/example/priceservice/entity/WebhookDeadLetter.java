@@ -0,0 +1,35 @@
+package org.example.priceservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Batch webhook không gửi được sau khi hết số lần retry; giữ nguyên body JSON để gửi lại thủ công
+ */
+@Document(collection = "webhook_dead_letters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDeadLetter {
+    @Id
+    private String id;
+
+    private String url;
+
+    private String payload;
+
+    private int eventCount;
+
+    private int attempts;
+
+    private String lastError;
+
+    private Instant failedAt;
+}
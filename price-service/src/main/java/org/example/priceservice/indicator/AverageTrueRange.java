@@ -0,0 +1,43 @@
+package org.example.priceservice.indicator;
+
+/**
+ * ATR(n) theo Wilder. True range = max(high - low, |high - close trước|, |low - close trước|)
+ */
+public class AverageTrueRange {
+    private final int period;
+    private double previousClose = Double.NaN;
+    private int count;
+    private double atr;
+
+    public AverageTrueRange(int period) {
+        this.period = period;
+    }
+
+    public void update(double high, double low, double close) {
+        atr = nextAverage(trueRange(high, low));
+        count++;
+        previousClose = close;
+    }
+
+    public double value() {
+        return count >= period ? atr : Double.NaN;
+    }
+
+    public double preview(double high, double low) {
+        return count + 1 >= period ? nextAverage(trueRange(high, low)) : Double.NaN;
+    }
+
+    private double trueRange(double high, double low) {
+        if (Double.isNaN(previousClose)) {
+            return high - low;
+        }
+        return Math.max(high - low, Math.max(Math.abs(high - previousClose), Math.abs(low - previousClose)));
+    }
+
+    private double nextAverage(double trueRange) {
+        if (count < period) {
+            return (atr * count + trueRange) / (count + 1);
+        }
+        return (atr * (period - 1) + trueRange) / period;
+    }
+}
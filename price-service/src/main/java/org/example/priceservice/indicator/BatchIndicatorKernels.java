@@ -0,0 +1,188 @@
+package org.example.priceservice.indicator;
+
+import java.util.Arrays;
+
+/**
+ * Kernel tính chỉ báo trên cả mảng nến một lần, cho kết quả giống {@link IndicatorSet} tại từng nến.
+ * Phần không phụ thuộc vòng lặp trước (hiệu prefix sum, gain/loss, true range) được viết thành vòng lặp
+ * phẳng trên mảng primitive để JIT C2 tự vector hóa (SIMD); chỉ phần đệ quy (EMA, Wilder) chạy tuần tự.
+ * Vị trí chưa đủ dữ liệu có giá trị NaN.
+ */
+public final class BatchIndicatorKernels {
+
+    private BatchIndicatorKernels() {
+    }
+
+    public static double[] sma(double[] values, int period) {
+        int n = values.length;
+        double[] out = nanArray(n);
+        if (n < period) {
+            return out;
+        }
+        // Trừ giá trị tham chiếu để prefix sum nhỏ, hạn chế mất chính xác khi trừ hai số lớn
+        double reference = values[0];
+        double[] prefix = prefixSums(values, reference);
+        double inverse = 1.0 / period;
+        for (int i = period - 1; i < n; i++) {
+            out[i] = (prefix[i + 1] - prefix[i + 1 - period]) * inverse + reference;
+        }
+        return out;
+    }
+
+    public static double[] ema(double[] values, int period) {
+        return ema(values, period, 0);
+    }
+
+    /**
+     * EMA bắt đầu từ vị trí from (các giá trị trước đó bị bỏ qua, vd. MACD chưa có giá trị)
+     */
+    public static double[] ema(double[] values, int period, int from) {
+        int n = values.length;
+        double[] out = nanArray(n);
+        int seedEnd = from + period - 1;
+        if (seedEnd >= n) {
+            return out;
+        }
+        double sum = 0.0;
+        for (int i = from; i <= seedEnd; i++) {
+            sum += values[i];
+        }
+        double ema = sum / period;
+        out[seedEnd] = ema;
+        double alpha = 2.0 / (period + 1);
+        for (int i = seedEnd + 1; i < n; i++) {
+            ema = alpha * values[i] + (1 - alpha) * ema;
+            out[i] = ema;
+        }
+        return out;
+    }
+
+    public static double[] rsi(double[] close, int period) {
+        int n = close.length;
+        double[] out = nanArray(n);
+        if (n <= period) {
+            return out;
+        }
+        double[] gains = new double[n];
+        double[] losses = new double[n];
+        for (int i = 1; i < n; i++) {
+            double change = close[i] - close[i - 1];
+            gains[i] = Math.max(change, 0.0);
+            losses[i] = Math.max(-change, 0.0);
+        }
+
+        double averageGain = 0.0;
+        double averageLoss = 0.0;
+        for (int i = 1; i <= period; i++) {
+            averageGain += gains[i];
+            averageLoss += losses[i];
+        }
+        averageGain /= period;
+        averageLoss /= period;
+        out[period] = rsi(averageGain, averageLoss);
+
+        for (int i = period + 1; i < n; i++) {
+            averageGain = (averageGain * (period - 1) + gains[i]) / period;
+            averageLoss = (averageLoss * (period - 1) + losses[i]) / period;
+            out[i] = rsi(averageGain, averageLoss);
+        }
+        return out;
+    }
+
+    /**
+     * {macd, signal, histogram}
+     */
+    public static double[][] macd(double[] close, int fastPeriod, int slowPeriod, int signalPeriod) {
+        int n = close.length;
+        double[] fast = ema(close, fastPeriod);
+        double[] slow = ema(close, slowPeriod);
+        double[] macd = new double[n];
+        for (int i = 0; i < n; i++) {
+            macd[i] = fast[i] - slow[i];
+        }
+        int firstMacd = Math.max(fastPeriod, slowPeriod) - 1;
+        double[] signal = ema(macd, signalPeriod, firstMacd);
+        double[] histogram = new double[n];
+        for (int i = 0; i < n; i++) {
+            histogram[i] = macd[i] - signal[i];
+        }
+        return new double[][] { macd, signal, histogram };
+    }
+
+    /**
+     * {middle, upper, lower}
+     */
+    public static double[][] bollinger(double[] close, int period, double multiplier) {
+        int n = close.length;
+        double[] middle = nanArray(n);
+        double[] upper = nanArray(n);
+        double[] lower = nanArray(n);
+        if (n < period) {
+            return new double[][] { middle, upper, lower };
+        }
+        double reference = close[0];
+        double[] prefix = prefixSums(close, reference);
+        double[] prefixSquares = new double[n + 1];
+        for (int i = 0; i < n; i++) {
+            double centered = close[i] - reference;
+            prefixSquares[i + 1] = prefixSquares[i] + centered * centered;
+        }
+        double inverse = 1.0 / period;
+        for (int i = period - 1; i < n; i++) {
+            double mean = (prefix[i + 1] - prefix[i + 1 - period]) * inverse;
+            double variance = (prefixSquares[i + 1] - prefixSquares[i + 1 - period]) * inverse - mean * mean;
+            double deviation = Math.sqrt(Math.max(0.0, variance));
+            middle[i] = mean + reference;
+            upper[i] = middle[i] + multiplier * deviation;
+            lower[i] = middle[i] - multiplier * deviation;
+        }
+        return new double[][] { middle, upper, lower };
+    }
+
+    public static double[] atr(double[] high, double[] low, double[] close, int period) {
+        int n = close.length;
+        double[] out = nanArray(n);
+        if (n < period) {
+            return out;
+        }
+        double[] trueRange = new double[n];
+        trueRange[0] = high[0] - low[0];
+        for (int i = 1; i < n; i++) {
+            double previousClose = close[i - 1];
+            trueRange[i] = Math.max(high[i] - low[i],
+                    Math.max(Math.abs(high[i] - previousClose), Math.abs(low[i] - previousClose)));
+        }
+        double atr = 0.0;
+        for (int i = 0; i < period; i++) {
+            atr += trueRange[i];
+        }
+        atr /= period;
+        out[period - 1] = atr;
+        for (int i = period; i < n; i++) {
+            atr = (atr * (period - 1) + trueRange[i]) / period;
+            out[i] = atr;
+        }
+        return out;
+    }
+
+    private static double[] prefixSums(double[] values, double reference) {
+        double[] prefix = new double[values.length + 1];
+        for (int i = 0; i < values.length; i++) {
+            prefix[i + 1] = prefix[i] + (values[i] - reference);
+        }
+        return prefix;
+    }
+
+    private static double[] nanArray(int size) {
+        double[] array = new double[size];
+        Arrays.fill(array, Double.NaN);
+        return array;
+    }
+
+    private static double rsi(double gain, double loss) {
+        if (loss == 0.0) {
+            return gain == 0.0 ? 50.0 : 100.0;
+        }
+        return 100.0 - 100.0 / (1.0 + gain / loss);
+    }
+}
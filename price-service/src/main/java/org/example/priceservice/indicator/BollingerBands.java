@@ -0,0 +1,42 @@
+package org.example.priceservice.indicator;
+
+/**
+ * Bollinger Bands(n, k): middle = SMA(n), upper/lower = middle ± k * độ lệch chuẩn tổng thể của cửa sổ
+ */
+public class BollingerBands {
+    private final RollingWindow window;
+    private final double multiplier;
+
+    public BollingerBands(int period, double multiplier) {
+        this.window = new RollingWindow(period);
+        this.multiplier = multiplier;
+    }
+
+    public void update(double close) {
+        window.add(close);
+    }
+
+    /**
+     * {middle, upper, lower}, hoặc null khi chưa đủ dữ liệu
+     */
+    public double[] value() {
+        return window.isFull() ? bands(window.sum(), window.sumOfSquares()) : null;
+    }
+
+    public double[] preview(double close) {
+        if (window.size() + 1 < window.capacity()) {
+            return null;
+        }
+        double evicted = window.nextEvicted();
+        return bands(window.sum() - evicted + close,
+                window.sumOfSquares() - evicted * evicted + close * close);
+    }
+
+    private double[] bands(double sum, double sumOfSquares) {
+        int n = window.capacity();
+        double mean = sum / n;
+        // max(0, ...) vì sai số float có thể làm phương sai âm rất nhỏ khi giá đi ngang
+        double deviation = Math.sqrt(Math.max(0.0, sumOfSquares / n - mean * mean));
+        return new double[] { mean, mean + multiplier * deviation, mean - multiplier * deviation };
+    }
+}
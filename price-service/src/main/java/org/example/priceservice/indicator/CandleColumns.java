@@ -0,0 +1,76 @@
+package org.example.priceservice.indicator;
+
+import org.example.priceservice.entity.PriceCandle;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dữ liệu nến dạng cột (mảng primitive liên tục) cho các kernel tính chỉ báo hàng loạt
+ */
+public record CandleColumns(long[] openTime, double[] high, double[] low, double[] close) {
+
+    public static CandleColumns from(List<PriceCandle> candles) {
+        int size = candles.size();
+        long[] openTime = new long[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        for (int i = 0; i < size; i++) {
+            PriceCandle candle = candles.get(i);
+            openTime[i] = candle.getOpenTime().toEpochMilli();
+            high[i] = candle.getHigh().doubleValue();
+            low[i] = candle.getLow().doubleValue();
+            close[i] = candle.getClose().doubleValue();
+        }
+        return new CandleColumns(openTime, high, low, close);
+    }
+
+    public int size() {
+        return openTime.length;
+    }
+
+    /**
+     * Ghi từng nến thẳng vào mảng cột khi đọc cursor, không giữ List&lt;PriceCandle&gt; trung gian
+     */
+    public static final class Builder {
+        private long[] openTime;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private int size;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            openTime = new long[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+        }
+
+        public void add(PriceCandle candle) {
+            if (size == openTime.length) {
+                resize(size + (size >> 1));
+            }
+            openTime[size] = candle.getOpenTime().toEpochMilli();
+            high[size] = candle.getHigh().doubleValue();
+            low[size] = candle.getLow().doubleValue();
+            close[size] = candle.getClose().doubleValue();
+            size++;
+        }
+
+        public CandleColumns build() {
+            if (size < openTime.length) {
+                resize(size);
+            }
+            return new CandleColumns(openTime, high, low, close);
+        }
+
+        private void resize(int capacity) {
+            openTime = Arrays.copyOf(openTime, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.priceservice.indicator;
+
+/**
+ * EMA(n) với alpha = 2 / (n + 1), khởi tạo bằng SMA của n giá trị đầu (giống TradingView / TA-Lib)
+ */
+public class ExponentialMovingAverage {
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double seedSum;
+    private double ema = Double.NaN;
+
+    public ExponentialMovingAverage(int period) {
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    public void update(double value) {
+        ema = preview(value);
+        if (count < period) {
+            seedSum += value;
+        }
+        count++;
+    }
+
+    public double value() {
+        return ema;
+    }
+
+    public double preview(double value) {
+        if (count >= period) {
+            return alpha * value + (1 - alpha) * ema;
+        }
+        return count + 1 == period ? (seedSum + value) / period : Double.NaN;
+    }
+}
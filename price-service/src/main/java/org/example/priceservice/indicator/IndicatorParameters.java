@@ -0,0 +1,22 @@
+package org.example.priceservice.indicator;
+
+/**
+ * Tham số chu kỳ các chỉ báo, mặc định theo giá trị phổ biến trên TradingView
+ */
+public record IndicatorParameters(int smaPeriod, int emaPeriod, int rsiPeriod,
+                                  int macdFast, int macdSlow, int macdSignal,
+                                  int bollingerPeriod, double bollingerMultiplier, int atrPeriod) {
+
+    public static IndicatorParameters defaults() {
+        return new IndicatorParameters(20, 20, 14, 12, 26, 9, 20, 2.0, 14);
+    }
+
+    /**
+     * Số nến đã đóng cần nạp để mọi chỉ báo có giá trị (EMA cần thêm nến để hội tụ)
+     */
+    public int requiredHistory() {
+        int longest = Math.max(Math.max(smaPeriod, emaPeriod), Math.max(rsiPeriod + 1, atrPeriod));
+        longest = Math.max(longest, Math.max(macdSlow + macdSignal, bollingerPeriod));
+        return longest;
+    }
+}
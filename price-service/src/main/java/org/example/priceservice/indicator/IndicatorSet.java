@@ -0,0 +1,100 @@
+package org.example.priceservice.indicator;
+
+import org.example.priceservice.dto.IndicatorValues;
+
+/**
+ * Toàn bộ chỉ báo của một series (symbol + interval). Nến đã đóng được commit vào state (O(1));
+ * nến đang hình thành chỉ được "preview" nên cập nhật tick liên tục không làm lệch state.
+ * Không thread-safe, caller đồng bộ theo series.
+ */
+public class IndicatorSet {
+    private final SimpleMovingAverage sma;
+    private final ExponentialMovingAverage ema;
+    private final RelativeStrengthIndex rsi;
+    private final MovingAverageConvergenceDivergence macd;
+    private final BollingerBands bollinger;
+    private final AverageTrueRange atr;
+
+    private long lastClosedOpenTime = Long.MIN_VALUE;
+
+    public IndicatorSet(IndicatorParameters parameters) {
+        this.sma = new SimpleMovingAverage(parameters.smaPeriod());
+        this.ema = new ExponentialMovingAverage(parameters.emaPeriod());
+        this.rsi = new RelativeStrengthIndex(parameters.rsiPeriod());
+        this.macd = new MovingAverageConvergenceDivergence(
+                parameters.macdFast(), parameters.macdSlow(), parameters.macdSignal());
+        this.bollinger = new BollingerBands(parameters.bollingerPeriod(), parameters.bollingerMultiplier());
+        this.atr = new AverageTrueRange(parameters.atrPeriod());
+    }
+
+    /**
+     * Commit một nến đã đóng. Nến cũ hơn hoặc trùng nến đã commit bị bỏ qua (nhận lại message).
+     */
+    public boolean commit(long openTime, double high, double low, double close) {
+        if (openTime <= lastClosedOpenTime) {
+            return false;
+        }
+        sma.update(close);
+        ema.update(close);
+        rsi.update(close);
+        macd.update(close);
+        bollinger.update(close);
+        atr.update(high, low, close);
+        lastClosedOpenTime = openTime;
+        return true;
+    }
+
+    public long getLastClosedOpenTime() {
+        return lastClosedOpenTime;
+    }
+
+    /**
+     * Giá trị tại nến đã đóng gần nhất
+     */
+    public IndicatorValues closedValues() {
+        IndicatorValues values = new IndicatorValues();
+        values.setOpenTime(lastClosedOpenTime == Long.MIN_VALUE ? null : lastClosedOpenTime);
+        values.setClosed(true);
+        values.setSma(orNull(sma.value()));
+        values.setEma(orNull(ema.value()));
+        values.setRsi(orNull(rsi.value()));
+        setMacd(values, macd.value());
+        setBollinger(values, bollinger.value());
+        values.setAtr(orNull(atr.value()));
+        return values;
+    }
+
+    /**
+     * Giá trị nếu nến đang hình thành đóng ở trạng thái hiện tại; không thay đổi state
+     */
+    public IndicatorValues previewValues(long openTime, double high, double low, double close) {
+        IndicatorValues values = new IndicatorValues();
+        values.setOpenTime(openTime);
+        values.setClosed(false);
+        values.setSma(orNull(sma.preview(close)));
+        values.setEma(orNull(ema.preview(close)));
+        values.setRsi(orNull(rsi.preview(close)));
+        setMacd(values, macd.preview(close));
+        setBollinger(values, bollinger.preview(close));
+        values.setAtr(orNull(atr.preview(high, low)));
+        return values;
+    }
+
+    private static void setMacd(IndicatorValues values, double[] macd) {
+        values.setMacd(orNull(macd[0]));
+        values.setMacdSignal(orNull(macd[1]));
+        values.setMacdHistogram(orNull(macd[2]));
+    }
+
+    private static void setBollinger(IndicatorValues values, double[] bands) {
+        if (bands != null) {
+            values.setBollingerMiddle(bands[0]);
+            values.setBollingerUpper(bands[1]);
+            values.setBollingerLower(bands[2]);
+        }
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+    }
+}
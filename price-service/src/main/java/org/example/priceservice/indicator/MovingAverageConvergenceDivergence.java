@@ -0,0 +1,43 @@
+package org.example.priceservice.indicator;
+
+/**
+ * MACD(fast, slow, signal): macd = EMA(fast) - EMA(slow), signal = EMA(signal) của macd,
+ * histogram = macd - signal
+ */
+public class MovingAverageConvergenceDivergence {
+    private final ExponentialMovingAverage fast;
+    private final ExponentialMovingAverage slow;
+    private final ExponentialMovingAverage signal;
+    private double macd = Double.NaN;
+
+    public MovingAverageConvergenceDivergence(int fastPeriod, int slowPeriod, int signalPeriod) {
+        this.fast = new ExponentialMovingAverage(fastPeriod);
+        this.slow = new ExponentialMovingAverage(slowPeriod);
+        this.signal = new ExponentialMovingAverage(signalPeriod);
+    }
+
+    public void update(double close) {
+        fast.update(close);
+        slow.update(close);
+        macd = fast.value() - slow.value();
+        if (!Double.isNaN(macd)) {
+            signal.update(macd);
+        }
+    }
+
+    /**
+     * {macd, signal, histogram}; signal/histogram là NaN cho tới khi đủ dữ liệu
+     */
+    public double[] value() {
+        return result(macd, signal.value());
+    }
+
+    public double[] preview(double close) {
+        double previewMacd = fast.preview(close) - slow.preview(close);
+        return result(previewMacd, Double.isNaN(previewMacd) ? Double.NaN : signal.preview(previewMacd));
+    }
+
+    private static double[] result(double macd, double signal) {
+        return new double[] { macd, signal, macd - signal };
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.priceservice.indicator;
+
+/**
+ * RSI(n) theo Wilder: trung bình lãi/lỗ khởi tạo bằng trung bình n biến động đầu,
+ * sau đó làm mượt avg = (avg * (n - 1) + x) / n
+ */
+public class RelativeStrengthIndex {
+    private final int period;
+    private double previousClose = Double.NaN;
+    private int changes;
+    private double averageGain;
+    private double averageLoss;
+
+    public RelativeStrengthIndex(int period) {
+        this.period = period;
+    }
+
+    public void update(double close) {
+        if (!Double.isNaN(previousClose)) {
+            double change = close - previousClose;
+            averageGain = nextAverage(averageGain, Math.max(change, 0.0));
+            averageLoss = nextAverage(averageLoss, Math.max(-change, 0.0));
+            changes++;
+        }
+        previousClose = close;
+    }
+
+    public double value() {
+        return changes >= period ? rsi(averageGain, averageLoss) : Double.NaN;
+    }
+
+    public double preview(double close) {
+        if (Double.isNaN(previousClose) || changes + 1 < period) {
+            return Double.NaN;
+        }
+        double change = close - previousClose;
+        return rsi(nextAverage(averageGain, Math.max(change, 0.0)), nextAverage(averageLoss, Math.max(-change, 0.0)));
+    }
+
+    private double nextAverage(double average, double value) {
+        if (changes < period) {
+            // Giai đoạn khởi tạo: trung bình cộng tích lũy
+            return (average * changes + value) / (changes + 1);
+        }
+        return (average * (period - 1) + value) / period;
+    }
+
+    private static double rsi(double gain, double loss) {
+        if (loss == 0.0) {
+            return gain == 0.0 ? 50.0 : 100.0;
+        }
+        return 100.0 - 100.0 / (1.0 + gain / loss);
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.priceservice.indicator;
+
+/**
+ * Ring buffer double cố định kích thước, giữ sẵn tổng và tổng bình phương của cửa sổ.
+ * Tổng được tính lại từ buffer sau mỗi vòng để không tích lũy sai số cộng/trừ float.
+ * Không thread-safe.
+ */
+public class RollingWindow {
+    private final double[] values;
+    private int head; // vị trí ghi tiếp theo
+    private int size;
+    private int sinceRecompute;
+    private double sum;
+    private double sumOfSquares;
+
+    public RollingWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Window capacity must be positive: " + capacity);
+        }
+        this.values = new double[capacity];
+    }
+
+    public void add(double value) {
+        if (size == values.length) {
+            double evicted = values[head];
+            sum -= evicted;
+            sumOfSquares -= evicted * evicted;
+        } else {
+            size++;
+        }
+        values[head] = value;
+        sum += value;
+        sumOfSquares += value * value;
+        head = (head + 1) % values.length;
+
+        if (++sinceRecompute >= values.length) {
+            recompute();
+        }
+    }
+
+    /**
+     * Giá trị sẽ bị đẩy ra nếu thêm một phần tử nữa (0 nếu cửa sổ chưa đầy)
+     */
+    public double nextEvicted() {
+        return size == values.length ? values[head] : 0.0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public double sumOfSquares() {
+        return sumOfSquares;
+    }
+
+    private void recompute() {
+        double s = 0.0;
+        double sq = 0.0;
+        for (int i = 0; i < size; i++) {
+            s += values[i];
+            sq += values[i] * values[i];
+        }
+        sum = s;
+        sumOfSquares = sq;
+        sinceRecompute = 0;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.priceservice.indicator;
+
+/**
+ * SMA(n), cập nhật O(1). {@link #preview(double)} tính giá trị nếu nến đang hình thành đóng ở giá x,
+ * không thay đổi state.
+ */
+public class SimpleMovingAverage {
+    private final RollingWindow window;
+
+    public SimpleMovingAverage(int period) {
+        this.window = new RollingWindow(period);
+    }
+
+    public void update(double value) {
+        window.add(value);
+    }
+
+    public double value() {
+        return window.isFull() ? window.sum() / window.capacity() : Double.NaN;
+    }
+
+    public double preview(double value) {
+        if (window.size() + 1 < window.capacity()) {
+            return Double.NaN;
+        }
+        return (window.sum() - window.nextEvicted() + value) / window.capacity();
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.priceservice.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.AnomalyEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publish AnomalyEvent tới exchange price.anomalies (topic) theo lô: luồng nhận nến chỉ offer vào hàng đợi
+ * giới hạn (đầy thì bỏ event, không chặn collector); một luồng riêng gom tối đa batch-size event mỗi lần
+ * và gửi trên cùng một channel. Consumer (alert, analysis-service) bind theo anomaly.{type}.{symbol}.
+ */
+@Component
+@Slf4j
+@Profile("collector")
+public class AnomalyEventPublisher {
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<AnomalyEvent> queue;
+    private final ScheduledExecutorService flushExecutor = new ScheduledThreadPoolExecutor(1);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    @Value("${price.anomaly.exchange:price.anomalies}")
+    private String exchange;
+
+    @Value("${price.anomaly.batch-size:100}")
+    private int batchSize;
+
+    @Value("${price.anomaly.flush-ms:20}")
+    private long flushMillis;
+
+    public AnomalyEventPublisher(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper,
+                                 @Value("${price.anomaly.queue-capacity:1000}") int queueCapacity) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    private void start() {
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    private void stop() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    /**
+     * Không chặn; false nếu hàng đợi đầy và event bị bỏ
+     */
+    public boolean offer(AnomalyEvent event) {
+        if (queue.offer(event)) {
+            return true;
+        }
+        if (dropped.incrementAndGet() % 100 == 1) {
+            log.warn("Anomaly event queue is full, {} events dropped so far", dropped.get());
+        }
+        return false;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    void flush() {
+        List<AnomalyEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                List<Message> messages = new ArrayList<>(batch.size());
+                for (AnomalyEvent event : batch) {
+                    MessageProperties properties = new MessageProperties();
+                    properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+                    messages.add(new Message(objectMapper.writeValueAsBytes(event), properties));
+                }
+                rabbitTemplate.invoke(operations -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        operations.send(exchange, routingKey(batch.get(i)), messages.get(i));
+                    }
+                    return null;
+                });
+                published.addAndGet(batch.size());
+            } catch (Exception e) {
+                dropped.addAndGet(batch.size());
+                log.warn("Failed to publish {} anomaly events: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    static String routingKey(AnomalyEvent event) {
+        return "anomaly." + event.getType() + "." + event.getSymbol().toLowerCase();
+    }
+}
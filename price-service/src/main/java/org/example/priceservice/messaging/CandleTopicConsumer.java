@@ -0,0 +1,67 @@
+package org.example.priceservice.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.bar.BarUpdateListener;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.service.CandleFeed;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Price-service (profile user) không nhận trực tiếp stream Binance: collector publish
+ * /topic/candles.{interval}.{symbol} qua STOMP relay, RabbitMQ chuyển thành amq.topic với
+ * routing key candles.{interval}.{symbol}. Mỗi instance bind một queue tạm (exclusive, auto-delete)
+ * để dựng lại state realtime trong bộ nhớ. Bar dưới 1 phút (bars.{loại}.{symbol}) đi cùng đường đó.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Profile("user")
+public class CandleTopicConsumer {
+    private final CandleFeed candleFeed;
+    private final List<BarUpdateListener> barListeners;
+    private final ObjectMapper objectMapper;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = "amq.topic", type = ExchangeTypes.TOPIC, declare = "false"),
+            key = "candles.*.*"))
+    public void onCandleMessage(Message message) {
+        try {
+            CandleDto candle = objectMapper.readValue(message.getBody(), CandleDto.class);
+            if (candle.getInterval() == null) {
+                // Message từ collector cũ chưa có interval: lấy từ routing key
+                String[] parts = message.getMessageProperties().getReceivedRoutingKey().split("\\.");
+                candle.setInterval(parts[1]);
+            }
+            candleFeed.publish(candle);
+        } catch (Exception e) {
+            log.warn("Failed to process candle message: {}", e.getMessage());
+        }
+    }
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = "amq.topic", type = ExchangeTypes.TOPIC, declare = "false"),
+            key = "bars.*.*"))
+    public void onBarMessage(Message message) {
+        try {
+            CandleDto bar = objectMapper.readValue(message.getBody(), CandleDto.class);
+            for (BarUpdateListener listener : barListeners) {
+                listener.onBar(bar);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to process bar message: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.example.priceservice.replay;
+
+import lombok.Getter;
+import org.example.priceservice.dto.ReplayStatus;
+import org.example.priceservice.entity.PriceCandle;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Trạng thái một phiên phát lại: buffer đọc trước (reader ghi, scheduler lấy ra), vị trí đọc tiếp theo
+ * và lịch phát. Nến được phát tại closeTime của nó trên trục thời gian đã nén theo speed, tính từ một mốc
+ * cố định (wallStartNanos) nên độ trễ của từng lần lập lịch không cộng dồn.
+ */
+public class ReplaySession {
+    public enum Status { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    @Getter
+    private final String id;
+    @Getter
+    private final String userId;
+    @Getter
+    private final List<String> symbols;
+    @Getter
+    private final String interval;
+    @Getter
+    private final long intervalMillis;
+    @Getter
+    private final long startTime;
+    @Getter
+    private final long endTime;
+    @Getter
+    private final double speed;
+    @Getter
+    private final String destinationPrefix;
+    private final long createdAt = System.currentTimeMillis();
+
+    // guarded by buffer
+    private final ArrayDeque<PriceCandle> buffer = new ArrayDeque<>();
+    private long nextOpenTime;
+    private boolean exhausted;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    // chỉ thread đang phát của phiên đọc/ghi (mỗi lúc tối đa một lần phát được lập lịch)
+    private long wallStartNanos;
+    private volatile Future<?> scheduled;
+
+    private volatile long publishedCandles;
+    private volatile long replayTime = -1;
+    private volatile long maxLagNanos;
+    private volatile long stalls;
+
+    @Getter
+    private volatile Status status = Status.RUNNING;
+    @Getter
+    private volatile Long finishedAt;
+    private volatile String error;
+
+    public ReplaySession(String id, String userId, List<String> symbols, String interval, long intervalMillis,
+                         long startTime, long endTime, double speed, String destinationPrefix) {
+        this.id = id;
+        this.userId = userId;
+        this.symbols = List.copyOf(symbols);
+        this.interval = interval;
+        this.intervalMillis = intervalMillis;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.speed = speed;
+        this.destinationPrefix = destinationPrefix;
+        this.nextOpenTime = startTime;
+    }
+
+    // ---- buffer đọc trước ----
+
+    /**
+     * Giành quyền đọc trang tiếp theo; false nếu đang có lần đọc khác hoặc đã đọc hết
+     */
+    public boolean tryStartRefill() {
+        synchronized (buffer) {
+            if (exhausted) {
+                return false;
+            }
+        }
+        return refilling.compareAndSet(false, true);
+    }
+
+    public long getNextOpenTime() {
+        synchronized (buffer) {
+            return nextOpenTime;
+        }
+    }
+
+    /**
+     * Thêm một trang nến (openTime tăng dần) và cập nhật vị trí đọc tiếp theo
+     */
+    public void appendPage(List<PriceCandle> candles, long nextOpenTime, boolean exhausted) {
+        synchronized (buffer) {
+            buffer.addAll(candles);
+            this.nextOpenTime = nextOpenTime;
+            this.exhausted = exhausted;
+        }
+        refilling.set(false);
+    }
+
+    public void refillFailed() {
+        refilling.set(false);
+    }
+
+    public PriceCandle peek() {
+        synchronized (buffer) {
+            return buffer.peekFirst();
+        }
+    }
+
+    public PriceCandle poll() {
+        synchronized (buffer) {
+            return buffer.pollFirst();
+        }
+    }
+
+    public int buffered() {
+        synchronized (buffer) {
+            return buffer.size();
+        }
+    }
+
+    /**
+     * Đã phát hết: không còn trang để đọc và buffer rỗng
+     */
+    public boolean isDrained() {
+        synchronized (buffer) {
+            return exhausted && buffer.isEmpty();
+        }
+    }
+
+    // ---- lịch phát ----
+
+    public void startClock(long nowNanos) {
+        wallStartNanos = nowNanos;
+    }
+
+    /**
+     * Thời điểm (System.nanoTime) phải phát nến: closeTime của nến trên trục thời gian đã chia cho speed
+     */
+    public long dueNanos(PriceCandle candle) {
+        long marketMillis = candle.getOpenTime().toEpochMilli() + intervalMillis - startTime;
+        return wallStartNanos + (long) (TimeUnit.MILLISECONDS.toNanos(marketMillis) / speed);
+    }
+
+    public void setScheduled(Future<?> scheduled) {
+        this.scheduled = scheduled;
+    }
+
+    public void recordPublished(PriceCandle candle, long lagNanos) {
+        publishedCandles++;
+        replayTime = candle.getOpenTime().toEpochMilli() + intervalMillis;
+        if (lagNanos > maxLagNanos) {
+            maxLagNanos = lagNanos;
+        }
+    }
+
+    public void recordStall() {
+        stalls++;
+    }
+
+    // ---- vòng đời ----
+
+    public boolean isActive() {
+        return status == Status.RUNNING;
+    }
+
+    public synchronized boolean finish(Status finalStatus, String errorMessage) {
+        if (status != Status.RUNNING) {
+            return false;
+        }
+        this.error = errorMessage;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = finalStatus;
+        Future<?> pending = scheduled;
+        if (pending != null && finalStatus != Status.COMPLETED) {
+            pending.cancel(false);
+        }
+        synchronized (buffer) {
+            buffer.clear();
+        }
+        return true;
+    }
+
+    public ReplayStatus toStatus() {
+        return new ReplayStatus(id, status.name(), symbols, interval, speed, destinationPrefix, startTime, endTime,
+                replayTime >= 0 ? replayTime : null, publishedCandles, TimeUnit.NANOSECONDS.toMillis(maxLagNanos),
+                stalls, createdAt, finishedAt, error);
+    }
+}
@@ -2,6 +2,7 @@ package org.example.priceservice.repository;
 
 import org.example.priceservice.entity.PriceCandle;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -15,6 +16,10 @@ public interface PriceCandleRepository extends MongoRepository<PriceCandle, Stri
     @Query("{ 'symbol': { $regex: ?0, $options: 'i' }, 'interval': ?1 }")
     List<PriceCandle> findBySymbolAndInterval(String symbol, String interval, Pageable pageable);
 
+    // Khoảng [startTime, endTime), symbol đã chuẩn hóa uppercase nên so sánh bằng để dùng index
+    @Query("{ 'symbol': ?0, 'interval': ?1, 'openTime': { $gte: ?2, $lt: ?3 } }")
+    List<PriceCandle> findRange(String symbol, String interval, Instant startTime, Instant endTime, Sort sort);
+
     List<PriceCandle> findBySymbolAndIntervalAndOpenTimeBetween(
             String symbol,
             String interval,
@@ -0,0 +1,9 @@
+package org.example.priceservice.repository;
+
+import org.example.priceservice.entity.WebhookDeadLetter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WebhookDeadLetterRepository extends MongoRepository<WebhookDeadLetter, String> {
+}
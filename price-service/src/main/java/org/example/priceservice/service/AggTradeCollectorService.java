@@ -0,0 +1,207 @@
+package org.example.priceservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.bar.BarAggregator;
+import org.example.priceservice.bar.BarBuilder;
+import org.example.priceservice.bar.BarStore;
+import org.example.priceservice.dto.BinanceAggTradeEvent;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.util.IntervalUtils;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nến dưới 1 phút dựng từ stream {symbol}@aggTrade (bật bằng price.aggtrade.enabled).
+ * Mỗi symbol một kết nối riêng, tách khỏi stream kline. Bar được publish lên
+ * /topic/bars.{loại}.{symbol}, vd. /topic/bars.1s.btcusdt, /topic/bars.tick100.btcusdt, /topic/bars.volume.btcusdt.
+ * Bar theo thời gian được quét đóng mỗi sweep-ms khi đã qua ranh giới close-grace-ms (bù lệch đồng hồ với Binance).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Profile("collector")
+@ConditionalOnProperty(name = "price.aggtrade.enabled", havingValue = "true")
+public class AggTradeCollectorService {
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final BarStore barStore;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(1);
+    private final Map<String, WebSocketClient> webSocketClientMap = new ConcurrentHashMap<>();
+
+    // symbol -> aggregator; thread WebSocket của symbol đó và thread quét gọi vào
+    private final Map<String, BarAggregator> aggregators = new ConcurrentHashMap<>();
+
+    @Value("${binance.ws.url:wss://stream.binance.com:9443/stream?streams=}")
+    private String binanceBaseUrl;
+
+    @Value("${price.aggtrade.symbols:${price.symbols:btcusdt,ethusdt}}")
+    private String symbolsConfig;
+
+    @Value("${price.aggtrade.time-bars:1s,5s,15s}")
+    private List<String> timeBars;
+
+    @Value("${price.aggtrade.tick-bars:100}")
+    private List<Integer> tickBars;
+
+    // symbol:khối lượng mỗi bar (base asset), vd. btcusdt:1,ethusdt:20
+    @Value("${price.aggtrade.volume-bars:}")
+    private List<String> volumeBars;
+
+    @Value("${price.aggtrade.forming-publish-ms:250}")
+    private long formingPublishMillis;
+
+    @Value("${price.aggtrade.sweep-ms:100}")
+    private long sweepMillis;
+
+    @Value("${price.aggtrade.close-grace-ms:200}")
+    private long closeGraceMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    private void init() {
+        Map<String, Double> volumePerBar = parseVolumeBars();
+        for (String symbol : symbolsConfig.split(",")) {
+            String normalized = symbol.trim().toUpperCase();
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            aggregators.put(normalized, new BarAggregator(
+                    createBuilders(normalized, volumePerBar.get(normalized)), formingPublishMillis));
+            connectToAggTradeStream(normalized);
+        }
+        executorService.scheduleAtFixedRate(this::closeExpiredBars, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void closeExpiredBars() {
+        try {
+            long now = System.currentTimeMillis() - closeGraceMillis;
+            aggregators.values().forEach(aggregator -> aggregator.closeExpired(now, this::publish));
+        } catch (Exception e) {
+            // Ngoại lệ làm scheduleAtFixedRate dừng hẳn
+            log.error("Error closing expired bars: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    private void cleanup() {
+        webSocketClientMap.forEach((symbol, client) -> {
+            if (client != null && client.isOpen()) {
+                client.close();
+            }
+        });
+        executorService.shutdown();
+    }
+
+    private List<BarBuilder> createBuilders(String symbol, Double volumePerBar) {
+        List<BarBuilder> builders = new ArrayList<>();
+        for (String timeBar : timeBars) {
+            String name = timeBar.trim();
+            if (!name.isEmpty()) {
+                builders.add(new BarBuilder.Time(symbol, name, IntervalUtils.toMillis(name)));
+            }
+        }
+        for (Integer trades : tickBars) {
+            if (trades != null && trades > 0) {
+                builders.add(new BarBuilder.Tick(symbol, trades));
+            }
+        }
+        if (volumePerBar != null && volumePerBar > 0) {
+            builders.add(new BarBuilder.Volume(symbol, volumePerBar));
+        }
+        return builders;
+    }
+
+    private Map<String, Double> parseVolumeBars() {
+        Map<String, Double> result = new HashMap<>();
+        for (String entry : volumeBars) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2) {
+                result.put(parts[0].trim().toUpperCase(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        return result;
+    }
+
+    private void connectToAggTradeStream(String symbol) {
+        if (webSocketClientMap.containsKey(symbol)) {
+            return;
+        }
+        String fullUrl = binanceBaseUrl + symbol.toLowerCase() + "@aggTrade";
+        log.info("connect binance aggTrade websocket: {}", fullUrl);
+
+        try {
+            WebSocketClient webSocketClient = new WebSocketClient(new URI(fullUrl)) {
+                @Override
+                public void onOpen(ServerHandshake handshake) {
+                    log.info("Connected to Binance aggTrade stream: {}", fullUrl);
+                }
+
+                @Override
+                public void onMessage(String message) {
+                    handleAggTradeMessage(symbol, message);
+                }
+
+                @Override
+                public void onClose(int code, String reason, boolean remote) {
+                    log.warn("Disconnected from Binance aggTrade stream {}: {}", symbol, reason);
+                    webSocketClientMap.remove(symbol);
+                    executorService.schedule(() -> connectToAggTradeStream(symbol), 5, TimeUnit.SECONDS);
+                }
+
+                @Override
+                public void onError(Exception ex) {
+                    log.error("aggTrade WebSocket error: {}", ex.getMessage());
+                }
+            };
+
+            webSocketClient.connect();
+            webSocketClientMap.put(symbol, webSocketClient);
+        } catch (Exception e) {
+            log.error("Failed to init aggTrade WebSocket: {}", e.getMessage());
+        }
+    }
+
+    private void handleAggTradeMessage(String symbol, String message) {
+        try {
+            // Parse một lần rồi map node "data", không serialize lại thành String
+            JsonNode data = objectMapper.readTree(message).get("data");
+            BinanceAggTradeEvent event = objectMapper.treeToValue(data, BinanceAggTradeEvent.class);
+            if (!"aggTrade".equals(event.getEventType())) {
+                return;
+            }
+            BarAggregator aggregator = aggregators.get(symbol);
+            if (aggregator != null) {
+                aggregator.onTrade(Double.parseDouble(event.getPrice()), Double.parseDouble(event.getQuantity()),
+                        event.getTradeTime(), System.currentTimeMillis(), this::publish);
+            }
+        } catch (Exception e) {
+            log.error("Error processing aggTrade message: {}", e.getMessage());
+        }
+    }
+
+    private void publish(CandleDto bar) {
+        barStore.onBar(bar);
+        simpMessagingTemplate.convertAndSend(
+                "/topic/bars." + bar.getInterval() + "." + bar.getSymbol().toLowerCase(), bar);
+    }
+}
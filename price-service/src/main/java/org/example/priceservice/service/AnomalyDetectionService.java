@@ -0,0 +1,150 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.anomaly.AnomalyDetector;
+import org.example.priceservice.dto.AnomalyEvent;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.messaging.AnomalyEventPublisher;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Chạy AnomalyDetector trên mọi cập nhật nến price.anomaly.interval của collector (kể cả nến chưa đóng),
+ * nên return spike / volume burst được phát hiện ngay khi tick tới thay vì chờ nến đóng.
+ * Detector của mỗi symbol được nạp window nến đã đóng từ MongoDB ở lần đầu gặp symbol, trên thread riêng
+ * (không chặn thread phân phối của CandleFeed); cập nhật tới trong lúc nạp bị bỏ qua.
+ * Đường nóng chỉ là phép tính trên state primitive; event (hiếm) được đẩy sang AnomalyEventPublisher.
+ */
+@Service
+@Slf4j
+@Profile("collector")
+public class AnomalyDetectionService implements CandleUpdateListener {
+    private final PriceCandleService candleService;
+    private final AnomalyEventPublisher publisher;
+    private final Map<String, SymbolDetector> detectors = new ConcurrentHashMap<>();
+
+    // Nạp lịch sử từ MongoDB, tách khỏi thread phân phối nến
+    private final ExecutorService seedExecutor = Executors.newSingleThreadExecutor();
+
+    @Value("${price.anomaly.enabled:true}")
+    private boolean enabled;
+
+    @Value("${price.anomaly.interval:1m}")
+    private String interval;
+
+    @Value("${price.anomaly.window:60}")
+    private int window;
+
+    @Value("${price.anomaly.min-observations:30}")
+    private int minObservations;
+
+    @Value("${price.anomaly.return-sigma:3}")
+    private double returnSigma;
+
+    @Value("${price.anomaly.volume-sigma:4}")
+    private double volumeSigma;
+
+    public AnomalyDetectionService(PriceCandleService candleService, AnomalyEventPublisher publisher) {
+        this.candleService = candleService;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        if (!enabled || !interval.equals(candle.getInterval())) {
+            return;
+        }
+        SymbolDetector symbolDetector = detectors.get(candle.getSymbol());
+        if (symbolDetector == null) {
+            symbolDetector = detectors.computeIfAbsent(candle.getSymbol(),
+                    symbol -> createDetector(symbol, candle.getOpenTime()));
+        }
+        if (!symbolDetector.ready) {
+            return;
+        }
+        AnomalyDetector detector = symbolDetector.detector;
+        double close = candle.getClose().doubleValue();
+        double volume = candle.getVolume().doubleValue();
+        int detected;
+        synchronized (detector) {
+            detected = detector.onUpdate(candle.getOpenTime(), close, volume, candle.isClosed());
+            if (detected != 0) {
+                report(detector, candle, close, volume, detected);
+            }
+        }
+    }
+
+    private void report(AnomalyDetector detector, CandleDto candle, double close, double volume, int detected) {
+        long now = System.currentTimeMillis();
+        if ((detected & AnomalyDetector.RETURN_SPIKE) != 0) {
+            publisher.offer(new AnomalyEvent(candle.getSymbol(), interval, AnomalyEvent.RETURN_SPIKE,
+                    candle.getOpenTime(), candle.getEventTime(), now, close, detector.getLastReturn(),
+                    detector.getReturnMean(), detector.getReturnStddev(), detector.getLastReturnZ(),
+                    detector.getObservations()));
+        }
+        if ((detected & AnomalyDetector.VOLUME_BURST) != 0) {
+            publisher.offer(new AnomalyEvent(candle.getSymbol(), interval, AnomalyEvent.VOLUME_BURST,
+                    candle.getOpenTime(), candle.getEventTime(), now, close, volume,
+                    detector.getVolumeMean(), detector.getVolumeStddev(), detector.getLastVolumeZ(),
+                    detector.getObservations()));
+        }
+        log.info("Anomaly detected for {} {}: mask={}, return z={}, volume z={}", candle.getSymbol(), interval,
+                detected, detector.getLastReturnZ(), detector.getLastVolumeZ());
+    }
+
+    private SymbolDetector createDetector(String symbol, long beforeOpenTime) {
+        SymbolDetector symbolDetector = new SymbolDetector(new AnomalyDetector(IntervalUtils.toMillis(interval),
+                window, minObservations, returnSigma, volumeSigma));
+        seedExecutor.execute(() -> seed(symbol, symbolDetector, beforeOpenTime));
+        return symbolDetector;
+    }
+
+    private void seed(String symbol, SymbolDetector symbolDetector, long beforeOpenTime) {
+        try {
+            long now = System.currentTimeMillis();
+            int seeded = 0;
+            synchronized (symbolDetector.detector) {
+                for (PriceCandle candle : candleService.loadFromDatabase(symbol.toUpperCase(), interval, window + 1)) {
+                    boolean closed = candle.getCloseTime() != null && candle.getCloseTime().toEpochMilli() < now;
+                    if (closed && candle.getOpenTime().toEpochMilli() < beforeOpenTime) {
+                        symbolDetector.detector.seed(candle.getOpenTime().toEpochMilli(),
+                                candle.getClose().doubleValue(), candle.getVolume().doubleValue());
+                        seeded++;
+                    }
+                }
+            }
+            log.info("Anomaly detector for {} {} seeded with {} candles", symbol, interval, seeded);
+        } catch (Exception e) {
+            log.warn("Failed to seed anomaly detector for {}: {}", symbol, e.getMessage());
+        }
+        symbolDetector.ready = true;
+    }
+
+    boolean isReady(String symbol) {
+        SymbolDetector symbolDetector = detectors.get(symbol);
+        return symbolDetector != null && symbolDetector.ready;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        seedExecutor.shutdownNow();
+    }
+
+    private static final class SymbolDetector {
+        private final AnomalyDetector detector;
+        private volatile boolean ready;
+
+        private SymbolDetector(AnomalyDetector detector) {
+            this.detector = detector;
+        }
+    }
+}
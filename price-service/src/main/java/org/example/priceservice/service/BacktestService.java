@@ -0,0 +1,336 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.backtest.BacktestJob;
+import org.example.priceservice.backtest.BacktestSimulator;
+import org.example.priceservice.backtest.Expr;
+import org.example.priceservice.backtest.SeriesSource;
+import org.example.priceservice.backtest.StrategyParser;
+import org.example.priceservice.dto.BacktestRequest;
+import org.example.priceservice.dto.BacktestResult;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.indicator.BatchIndicatorKernels;
+import org.example.priceservice.indicator.CandleColumns;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Backtest chiến lược đơn giản trên nến đã lưu. Mỗi job: một task fork-join cho mỗi symbol (nạp nến dạng cột),
+ * mỗi symbol fork một task cho mỗi tổ hợp tham số; chuỗi chỉ báo được tính một lần / symbol và dùng chung.
+ * Nến được stream thẳng từ cursor vào mảng cột (không giữ List&lt;PriceCandle&gt;), nên job bị từ chối trước khi chạy
+ * nếu ước lượng bộ nhớ (cột nến + chuỗi chỉ báo) vượt price.backtest.max-job-memory-mb.
+ * Job chỉ nằm trong bộ nhớ của instance nhận request và chỉ user tạo job mới xem / hủy được.
+ */
+@Service
+@Slf4j
+public class BacktestService {
+    private static final int MAX_VALUES_PER_PARAMETER = 50;
+
+    private final MongoTemplate mongoTemplate;
+    private final ForkJoinPool backtestPool;
+    private final Map<String, BacktestJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${price.backtest.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${price.backtest.max-jobs-per-user:1}")
+    private int maxJobsPerUser;
+
+    @Value("${price.backtest.max-runs:2000}")
+    private int maxRuns;
+
+    @Value("${price.backtest.max-symbols:20}")
+    private int maxSymbols;
+
+    @Value("${price.backtest.max-job-memory-mb:256}")
+    private long maxJobMemoryMb;
+
+    @Value("${price.backtest.retention-minutes:30}")
+    private long retentionMinutes;
+
+    @Value("${price.indicators.warmup-candles:300}")
+    private int warmupCandles;
+
+    @Value("${price.backtest.cursor-batch-size:2000}")
+    private int cursorBatchSize;
+
+    public BacktestService(MongoTemplate mongoTemplate,
+                           @Value("${price.backtest.parallelism:2}") int parallelism) {
+        this.mongoTemplate = mongoTemplate;
+        this.backtestPool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /**
+     * Kiểm tra request, ước lượng bộ nhớ rồi chạy nền; IllegalArgumentException nếu request không hợp lệ,
+     * IllegalStateException nếu đã đủ số job đang chạy (toàn instance hoặc của user)
+     */
+    public BacktestJob submit(BacktestRequest request, String userId) {
+        Set<String> symbols = new LinkedHashSet<>();
+        if (request.getSymbols() != null) {
+            request.getSymbols().forEach(s -> {
+                if (s != null && !s.isBlank()) {
+                    symbols.add(s.trim().toUpperCase());
+                }
+            });
+        }
+        if (symbols.isEmpty() || symbols.size() > maxSymbols) {
+            throw new IllegalArgumentException("symbols must contain 1-" + maxSymbols + " symbols");
+        }
+        if (!CandleResampleService.isNative(request.getInterval())) {
+            throw new IllegalArgumentException("interval must be one of " + CandleResampleService.NATIVE_INTERVALS);
+        }
+        if (request.getStartTime() == null || request.getEndTime() == null
+                || request.getEndTime() <= request.getStartTime()) {
+            throw new IllegalArgumentException("startTime and endTime are required, startTime < endTime");
+        }
+        if (request.getFeeBps() < 0 || request.getFeeBps() > 1000) {
+            throw new IllegalArgumentException("feeBps must be between 0 and 1000");
+        }
+
+        List<Map<String, Double>> grid = expandGrid(request.getParameters());
+        int totalRuns = grid.size() * symbols.size();
+        if (totalRuns > maxRuns) {
+            throw new IllegalArgumentException("Too many runs: " + totalRuns + " > " + maxRuns);
+        }
+
+        // Parse thử mọi tổ hợp: bắt lỗi cú pháp sớm và đếm số chuỗi chỉ báo khác nhau để ước lượng bộ nhớ
+        Set<String> seriesKeys = new HashSet<>();
+        int maxPeriod = 1;
+        for (Map<String, Double> parameters : grid) {
+            RecordingSource recorder = new RecordingSource();
+            StrategyParser.parse(request.getEntry(), parameters, recorder);
+            StrategyParser.parse(request.getExit(), parameters, recorder);
+            seriesKeys.addAll(recorder.keys);
+            maxPeriod = Math.max(maxPeriod, recorder.maxPeriod);
+        }
+
+        long intervalMillis = IntervalUtils.toMillis(request.getInterval());
+        int lookback = Math.max(warmupCandles, 3 * maxPeriod);
+        long candlesPerSymbol = (request.getEndTime() - request.getStartTime()) / intervalMillis + lookback;
+        // openTime + high/low/close (tính hai lần: lúc cắt mảng về đúng số nến) + mỗi chuỗi chỉ báo: 8 byte / nến
+        long estimatedBytes = symbols.size() * candlesPerSymbol * 8L * (2 * 4 + seriesKeys.size());
+        if (estimatedBytes > maxJobMemoryMb * 1024 * 1024) {
+            throw new IllegalArgumentException("Job needs ~" + estimatedBytes / (1024 * 1024)
+                    + " MB, limit is " + maxJobMemoryMb + " MB; shorten the range or the parameter grid");
+        }
+
+        BacktestJob job;
+        synchronized (jobs) {
+            evictExpired();
+            List<BacktestJob> running = jobs.values().stream()
+                    .filter(j -> j.getStatus() == BacktestJob.Status.RUNNING)
+                    .toList();
+            if (running.size() >= maxConcurrentJobs) {
+                throw new IllegalStateException("Too many running backtests");
+            }
+            if (running.stream().filter(j -> j.getUserId().equals(userId)).count() >= maxJobsPerUser) {
+                throw new IllegalStateException("You already have " + maxJobsPerUser + " running backtest(s)");
+            }
+            job = new BacktestJob(UUID.randomUUID().toString(), userId, totalRuns, estimatedBytes);
+            jobs.put(job.getId(), job);
+        }
+
+        BacktestJob submitted = job;
+        int expectedCandles = (int) candlesPerSymbol;
+        backtestPool.execute(() -> runJob(submitted, request, symbols, grid, lookback * intervalMillis, expectedCandles));
+        log.info("Backtest {} submitted by user {}: {} symbols x {} parameter sets, ~{} KB", job.getId(), userId,
+                symbols.size(), grid.size(), estimatedBytes / 1024);
+        return job;
+    }
+
+    /**
+     * null nếu không có job hoặc job của user khác (không lộ jobId của người khác)
+     */
+    public BacktestJob get(String jobId, String userId) {
+        BacktestJob job = jobs.get(jobId);
+        return job != null && job.getUserId().equals(userId) ? job : null;
+    }
+
+    public BacktestJob cancel(String jobId, String userId) {
+        BacktestJob job = get(jobId, userId);
+        if (job != null) {
+            job.cancel();
+        }
+        return job;
+    }
+
+    private void runJob(BacktestJob job, BacktestRequest request, Set<String> symbols,
+                        List<Map<String, Double>> grid, long lookbackMillis, int expectedCandles) {
+        long start = System.currentTimeMillis();
+        try {
+            List<ForkJoinTask<?>> symbolTasks = new ArrayList<>();
+            for (String symbol : symbols) {
+                symbolTasks.add(ForkJoinTask.adapt(() -> runSymbol(job, request, symbol, grid, lookbackMillis, expectedCandles)));
+            }
+            ForkJoinTask.invokeAll(symbolTasks);
+            job.finish(job.isCancelRequested() ? BacktestJob.Status.CANCELLED : BacktestJob.Status.COMPLETED, null);
+        } catch (Exception e) {
+            log.warn("Backtest {} failed: {}", job.getId(), e.getMessage());
+            job.finish(BacktestJob.Status.FAILED, e.getMessage());
+        }
+        log.info("Backtest {} finished with status {} in {} ms", job.getId(), job.getStatus(),
+                System.currentTimeMillis() - start);
+    }
+
+    private void runSymbol(BacktestJob job, BacktestRequest request, String symbol,
+                           List<Map<String, Double>> grid, long lookbackMillis, int expectedCandles) {
+        if (job.isCancelRequested()) {
+            return;
+        }
+        CandleColumns columns = loadColumns(symbol, request.getInterval(),
+                request.getStartTime() - lookbackMillis, request.getEndTime(), expectedCandles);
+        int from = 0;
+        while (from < columns.size() && columns.openTime()[from] < request.getStartTime()) {
+            from++;
+        }
+
+        SeriesCache cache = new SeriesCache(columns);
+        int firstBar = from;
+        List<ForkJoinTask<?>> runs = new ArrayList<>(grid.size());
+        for (Map<String, Double> parameters : grid) {
+            runs.add(ForkJoinTask.adapt(() -> {
+                if (job.isCancelRequested()) {
+                    return;
+                }
+                Expr entry = StrategyParser.parse(request.getEntry(), parameters, cache);
+                Expr exit = StrategyParser.parse(request.getExit(), parameters, cache);
+                BacktestSimulator.Metrics metrics = BacktestSimulator.run(columns.close(), firstBar, entry, exit,
+                        request.getFeeBps(), job::isCancelRequested);
+                if (metrics != null) {
+                    job.addResult(new BacktestResult(symbol, parameters, metrics.trades(), metrics.winRate(),
+                            metrics.totalReturnPercent(), metrics.maxDrawdownPercent(),
+                            metrics.buyAndHoldReturnPercent()));
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(runs);
+    }
+
+    private CandleColumns loadColumns(String symbol, String interval, long startTime, long endTime, int expectedCandles) {
+        Query query = new Query(Criteria.where("symbol").is(symbol)
+                .and("interval").is(interval)
+                .and("openTime").gte(Instant.ofEpochMilli(startTime)).lt(Instant.ofEpochMilli(endTime)))
+                .with(Sort.by(Sort.Direction.ASC, "openTime"))
+                .cursorBatchSize(cursorBatchSize);
+        query.fields().include("openTime", "high", "low", "close");
+
+        CandleColumns.Builder builder = new CandleColumns.Builder(expectedCandles);
+        try (Stream<PriceCandle> candles = mongoTemplate.stream(query, PriceCandle.class)) {
+            candles.forEach(builder::add);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tích Descartes của grid tham số; không có tham số -> một lần chạy với map rỗng
+     */
+    static List<Map<String, Double>> expandGrid(Map<String, List<Double>> parameters) {
+        List<Map<String, Double>> grid = new ArrayList<>();
+        grid.add(Map.of());
+        if (parameters == null) {
+            return grid;
+        }
+        for (Map.Entry<String, List<Double>> parameter : parameters.entrySet()) {
+            List<Double> values = parameter.getValue();
+            if (values == null || values.isEmpty() || values.size() > MAX_VALUES_PER_PARAMETER) {
+                throw new IllegalArgumentException("Parameter " + parameter.getKey() + " needs 1-"
+                        + MAX_VALUES_PER_PARAMETER + " values");
+            }
+            List<Map<String, Double>> expanded = new ArrayList<>(grid.size() * values.size());
+            for (Map<String, Double> partial : grid) {
+                for (Double value : values) {
+                    Map<String, Double> combination = new LinkedHashMap<>(partial);
+                    combination.put(parameter.getKey(), value);
+                    expanded.add(combination);
+                }
+                if (expanded.size() > 100_000) {
+                    throw new IllegalArgumentException("Parameter grid is too large");
+                }
+            }
+            grid = expanded;
+        }
+        return grid;
+    }
+
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt() < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(BacktestJob::cancel);
+        backtestPool.shutdown();
+    }
+
+    /**
+     * Chuỗi chỉ báo của một symbol, tính một lần và dùng chung giữa các tổ hợp tham số
+     */
+    private static class SeriesCache implements SeriesSource {
+        private final CandleColumns columns;
+        private final Map<String, double[]> series = new ConcurrentHashMap<>();
+
+        SeriesCache(CandleColumns columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public double[] series(String name, int period) {
+            return switch (name) {
+                case "close" -> columns.close();
+                case "high" -> columns.high();
+                case "low" -> columns.low();
+                default -> series.computeIfAbsent(name + ":" + period, key -> compute(name, period));
+            };
+        }
+
+        private double[] compute(String name, int period) {
+            return switch (name) {
+                case "sma" -> BatchIndicatorKernels.sma(columns.close(), period);
+                case "ema" -> BatchIndicatorKernels.ema(columns.close(), period);
+                case "rsi" -> BatchIndicatorKernels.rsi(columns.close(), period);
+                case "atr" -> BatchIndicatorKernels.atr(columns.high(), columns.low(), columns.close(), period);
+                default -> throw new IllegalArgumentException("Unsupported series: " + name);
+            };
+        }
+    }
+
+    /**
+     * Chỉ ghi lại các chuỗi mà biểu thức cần (dùng khi kiểm tra request)
+     */
+    private static class RecordingSource implements SeriesSource {
+        private static final double[] EMPTY = new double[0];
+        private final Set<String> keys = new HashSet<>();
+        private int maxPeriod = 1;
+
+        @Override
+        public double[] series(String name, int period) {
+            if (period > 0) {
+                keys.add(name + ":" + period);
+                maxPeriod = Math.max(maxPeriod, period);
+            }
+            return EMPTY;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.IndicatorSeries;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.indicator.BatchIndicatorKernels;
+import org.example.priceservice.indicator.CandleColumns;
+import org.example.priceservice.indicator.IndicatorParameters;
+import org.example.priceservice.repository.PriceCandleRepository;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Tính chỉ báo cho khoảng lịch sử dài (hàng chục nghìn nến) một lần bằng kernel dạng cột,
+ * mỗi chỉ báo là một task fork-join chạy song song.
+ */
+@Service
+@Slf4j
+public class BatchIndicatorService {
+    public static final Set<String> SUPPORTED = Set.of("sma", "ema", "rsi", "macd", "bollinger", "atr");
+
+    private final PriceCandleRepository priceCandleRepository;
+    private final IndicatorParameters parameters = IndicatorParameters.defaults();
+    private final ForkJoinPool indicatorPool;
+
+    @Value("${price.indicators.batch.max-candles:100000}")
+    private int maxCandles;
+
+    @Value("${price.indicators.warmup-candles:300}")
+    private int warmupCandles;
+
+    public BatchIndicatorService(PriceCandleRepository priceCandleRepository,
+                                 @Value("${price.indicators.batch.parallelism:4}") int parallelism) {
+        this.priceCandleRepository = priceCandleRepository;
+        this.indicatorPool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /**
+     * Chỉ báo cho các nến có openTime trong [start, end). Nạp thêm warmupCandles nến trước start
+     * để EMA/RSI/ATR tại đầu khoảng đã hội tụ giống giá trị realtime.
+     */
+    public IndicatorSeries compute(String symbol, String interval, long start, long end, Set<String> indicators) {
+        ComputedRange range = computeRange(symbol, interval, start, end, indicators);
+        CandleColumns columns = range.columns();
+
+        Map<String, Double[]> series = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> entry : range.values().entrySet()) {
+            series.put(entry.getKey(), toBoxed(entry.getValue(), range.from()));
+        }
+        return new IndicatorSeries(symbol.toUpperCase(), interval,
+                Arrays.copyOfRange(columns.openTime(), range.from(), columns.size()), series);
+    }
+
+    /**
+     * Như compute nhưng giữ dạng mảng primitive (NaN = chưa đủ dữ liệu) kèm nến gốc, gồm cả phần warmup:
+     * chỉ số từ from trở đi thuộc khoảng [start, end)
+     */
+    public ComputedRange computeRange(String symbol, String interval, long start, long end, Set<String> indicators) {
+        String normalizedSymbol = symbol.toUpperCase();
+        long intervalMillis = IntervalUtils.toMillis(interval);
+        if (end <= start || (end - start) / intervalMillis > maxCandles) {
+            throw new IllegalArgumentException("Range must contain between 1 and " + maxCandles + " candles");
+        }
+        int lookback = Math.max(warmupCandles, parameters.requiredHistory());
+
+        List<PriceCandle> candles = priceCandleRepository.findRange(normalizedSymbol, interval,
+                Instant.ofEpochMilli(start - lookback * intervalMillis), Instant.ofEpochMilli(end),
+                Sort.by(Sort.Direction.ASC, "openTime"));
+        CandleColumns columns = CandleColumns.from(candles);
+
+        int from = 0;
+        while (from < columns.size() && columns.openTime()[from] < start) {
+            from++;
+        }
+        return new ComputedRange(candles, columns, from, computeParallel(columns, indicators));
+    }
+
+    public record ComputedRange(List<PriceCandle> candles, CandleColumns columns, int from,
+                                Map<String, double[]> values) {
+    }
+
+    Map<String, double[]> computeParallel(CandleColumns columns, Set<String> indicators) {
+        List<ForkJoinTask<Map<String, double[]>>> tasks = new ArrayList<>();
+        for (String indicator : indicators) {
+            tasks.add(indicatorPool.submit(() -> computeOne(columns, indicator)));
+        }
+
+        Map<String, double[]> result = new LinkedHashMap<>();
+        for (ForkJoinTask<Map<String, double[]>> task : tasks) {
+            result.putAll(task.join());
+        }
+        return result;
+    }
+
+    private Map<String, double[]> computeOne(CandleColumns columns, String indicator) {
+        double[] close = columns.close();
+        Map<String, double[]> result = new LinkedHashMap<>();
+        switch (indicator) {
+            case "sma" -> result.put("sma", BatchIndicatorKernels.sma(close, parameters.smaPeriod()));
+            case "ema" -> result.put("ema", BatchIndicatorKernels.ema(close, parameters.emaPeriod()));
+            case "rsi" -> result.put("rsi", BatchIndicatorKernels.rsi(close, parameters.rsiPeriod()));
+            case "macd" -> {
+                double[][] macd = BatchIndicatorKernels.macd(close,
+                        parameters.macdFast(), parameters.macdSlow(), parameters.macdSignal());
+                result.put("macd", macd[0]);
+                result.put("macdSignal", macd[1]);
+                result.put("macdHistogram", macd[2]);
+            }
+            case "bollinger" -> {
+                double[][] bands = BatchIndicatorKernels.bollinger(close,
+                        parameters.bollingerPeriod(), parameters.bollingerMultiplier());
+                result.put("bollingerMiddle", bands[0]);
+                result.put("bollingerUpper", bands[1]);
+                result.put("bollingerLower", bands[2]);
+            }
+            case "atr" -> result.put("atr", BatchIndicatorKernels.atr(
+                    columns.high(), columns.low(), close, parameters.atrPeriod()));
+            default -> throw new IllegalArgumentException("Unsupported indicator: " + indicator);
+        }
+        return result;
+    }
+
+    private static Double[] toBoxed(double[] values, int from) {
+        Double[] boxed = new Double[values.length - from];
+        for (int i = from; i < values.length; i++) {
+            boxed[i - from] = Double.isNaN(values[i]) ? null : values[i];
+        }
+        return boxed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indicatorPool.shutdown();
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.arrow.ArrowStreamWriter;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Xuất nến dạng cột theo Arrow IPC stream (openTime, open, high, low, close, volume, trades [+ chỉ báo])
+ * để analysis-service nạp thẳng vào pandas thay vì tự query price_candles và đổi Decimal128 từng dòng.
+ * - Không có chỉ báo: đọc tuần tự từ cursor MongoDB, mỗi batchRows nến ghi một record batch (bộ nhớ cố định)
+ * - Có chỉ báo: tính một lần qua BatchIndicatorService (giới hạn max-candles của nó) rồi ghi theo batch
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleArrowExportService {
+    private static final List<ArrowStreamWriter.Field> CANDLE_FIELDS = List.of(
+            new ArrowStreamWriter.Field("openTime", ArrowStreamWriter.Type.TIMESTAMP_MILLIS, false),
+            new ArrowStreamWriter.Field("open", ArrowStreamWriter.Type.FLOAT64, false),
+            new ArrowStreamWriter.Field("high", ArrowStreamWriter.Type.FLOAT64, false),
+            new ArrowStreamWriter.Field("low", ArrowStreamWriter.Type.FLOAT64, false),
+            new ArrowStreamWriter.Field("close", ArrowStreamWriter.Type.FLOAT64, false),
+            new ArrowStreamWriter.Field("volume", ArrowStreamWriter.Type.FLOAT64, false),
+            new ArrowStreamWriter.Field("trades", ArrowStreamWriter.Type.INT64, true));
+
+    private final MongoTemplate mongoTemplate;
+    private final BatchIndicatorService batchIndicatorService;
+
+    @Value("${price.export.max-candles:2000000}")
+    private long maxCandles;
+
+    @Value("${price.export.batch-rows:65536}")
+    private int batchRows;
+
+    @Value("${price.downsample.cursor-batch-size:2000}")
+    private int cursorBatchSize;
+
+    /**
+     * Ghi kết quả export vào response; lỗi đầu vào đã được kiểm tra trong prepare trước khi bắt đầu ghi
+     */
+    @FunctionalInterface
+    public interface Export {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Kiểm tra tham số (IllegalArgumentException nếu sai) và chuẩn bị export nến trong [startTime, endTime).
+     * Chỉ hỗ trợ interval lưu sẵn; khi có chỉ báo, phần tính toán chạy ngay tại đây.
+     */
+    public Export prepare(String symbol, String interval, long startTime, long endTime, Set<String> indicators) {
+        if (!CandleResampleService.isNative(interval)) {
+            throw new IllegalArgumentException("Only stored intervals can be exported: " + interval);
+        }
+        if (!BatchIndicatorService.SUPPORTED.containsAll(indicators)) {
+            throw new IllegalArgumentException("Unsupported indicators: " + indicators);
+        }
+        long intervalMillis = IntervalUtils.toMillis(interval);
+        if (endTime <= startTime || (endTime - startTime) / intervalMillis > maxCandles) {
+            throw new IllegalArgumentException("Range must contain between 1 and " + maxCandles + " candles");
+        }
+        String normalizedSymbol = symbol.toUpperCase();
+
+        if (indicators.isEmpty()) {
+            return out -> streamCandles(normalizedSymbol, interval, startTime, endTime, out);
+        }
+        BatchIndicatorService.ComputedRange range =
+                batchIndicatorService.computeRange(normalizedSymbol, interval, startTime, endTime, indicators);
+        return out -> writeComputed(normalizedSymbol, interval, range, out);
+    }
+
+    private void streamCandles(String symbol, String interval, long startTime, long endTime, OutputStream out)
+            throws IOException {
+        Query query = new Query(Criteria.where("symbol").is(symbol)
+                .and("interval").is(interval)
+                .and("openTime").gte(Instant.ofEpochMilli(startTime)).lt(Instant.ofEpochMilli(endTime)))
+                .with(Sort.by(Sort.Direction.ASC, "openTime"))
+                .cursorBatchSize(cursorBatchSize);
+        query.fields().include("openTime", "open", "high", "low", "close", "volume", "trades");
+
+        ArrowStreamWriter writer = new ArrowStreamWriter(out, CANDLE_FIELDS);
+        writer.writeSchema();
+        ColumnBatch batch = new ColumnBatch(batchRows, 0);
+        long rows = 0;
+        try (Stream<PriceCandle> candles = mongoTemplate.stream(query, PriceCandle.class)) {
+            for (PriceCandle candle : (Iterable<PriceCandle>) candles::iterator) {
+                batch.add(candle);
+                if (batch.size == batchRows) {
+                    writer.writeBatch(batch.size, batch.columns());
+                    rows += batch.size;
+                    batch.size = 0;
+                }
+            }
+        }
+        if (batch.size > 0) {
+            writer.writeBatch(batch.size, batch.columns());
+            rows += batch.size;
+        }
+        writer.writeEnd();
+        log.info("Exported {} {} {} candles as Arrow stream", rows, symbol, interval);
+    }
+
+    private void writeComputed(String symbol, String interval, BatchIndicatorService.ComputedRange range,
+                               OutputStream out) throws IOException {
+        List<ArrowStreamWriter.Field> fields = new ArrayList<>(CANDLE_FIELDS);
+        for (String name : range.values().keySet()) {
+            fields.add(new ArrowStreamWriter.Field(name, ArrowStreamWriter.Type.FLOAT64, true));
+        }
+        ArrowStreamWriter writer = new ArrowStreamWriter(out, fields);
+        writer.writeSchema();
+
+        List<PriceCandle> candles = range.candles();
+        int rows = candles.size() - range.from();
+        ColumnBatch batch = new ColumnBatch(Math.max(1, Math.min(batchRows, rows)), range.values().size());
+        for (int offset = range.from(); offset < candles.size(); offset += batchRows) {
+            int end = Math.min(candles.size(), offset + batchRows);
+            batch.size = 0;
+            for (int i = offset; i < end; i++) {
+                batch.add(candles.get(i));
+            }
+            int column = 0;
+            for (Map.Entry<String, double[]> entry : range.values().entrySet()) {
+                System.arraycopy(entry.getValue(), offset, batch.indicators[column++], 0, end - offset);
+            }
+            writer.writeBatch(batch.size, batch.columns());
+        }
+        writer.writeEnd();
+        log.info("Exported {} {} {} candles with {} indicator columns as Arrow stream",
+                rows, symbol, interval, range.values().size());
+    }
+
+    /**
+     * Mảng cột tái sử dụng giữa các record batch
+     */
+    private static final class ColumnBatch {
+        final long[] openTime;
+        final double[] open;
+        final double[] high;
+        final double[] low;
+        final double[] close;
+        final double[] volume;
+        final long[] trades;
+        final double[][] indicators;
+        int size;
+
+        ColumnBatch(int capacity, int indicatorCount) {
+            openTime = new long[capacity];
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            volume = new double[capacity];
+            trades = new long[capacity];
+            indicators = new double[indicatorCount][capacity];
+        }
+
+        void add(PriceCandle candle) {
+            openTime[size] = candle.getOpenTime().toEpochMilli();
+            open[size] = candle.getOpen().doubleValue();
+            high[size] = candle.getHigh().doubleValue();
+            low[size] = candle.getLow().doubleValue();
+            close[size] = candle.getClose().doubleValue();
+            volume[size] = candle.getVolume().doubleValue();
+            trades[size] = candle.getTrades() != null ? candle.getTrades() : ArrowStreamWriter.NULL_LONG;
+            size++;
+        }
+
+        List<Object> columns() {
+            List<Object> columns = new ArrayList<>(7 + indicators.length);
+            columns.addAll(List.of(openTime, open, high, low, close, volume, trades));
+            columns.addAll(List.of((Object[]) indicators));
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.audit.SeriesAuditor;
+import org.example.priceservice.client.BinanceApiClient;
+import org.example.priceservice.dto.AuditReport;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Kiểm tra định kỳ price_candles: mỗi (symbol, interval) là một partition, quét song song bằng một cursor riêng.
+ * Chuẩn hóa bản ghi symbol viết thường, xóa bản trùng openTime, tìm slot thiếu / OHLC sai rồi tải lại đúng
+ * các khoảng đó qua BinanceApiClient. Quét và sửa đều bị giới hạn tốc độ để không tranh tài nguyên với
+ * luồng ghi realtime; nến gần nhất (chưa đóng / vừa đóng) không được kiểm tra.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Profile("collector")
+public class CandleAuditService {
+    private static final int BINANCE_MAX_LIMIT = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final BinanceApiClient binanceApiClient;
+    private final CandleMapper candleMapper;
+    private final CandlesSaving candlesSaving;
+    private final PriceCandleCacheService cacheService;
+
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Object repairThrottle = new Object();
+    private long nextRepairAt;
+    private volatile AuditReport lastReport;
+
+    @Value("${price.symbols:btcusdt,ethusdt}")
+    private String symbolsConfig;
+
+    @Value("${price.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${price.audit.initial-delay-minutes:10}")
+    private long initialDelayMinutes;
+
+    @Value("${price.audit.period-hours:6}")
+    private long periodHours;
+
+    @Value("${price.audit.lookback-days:30}")
+    private long lookbackDays;
+
+    @Value("${price.audit.parallelism:2}")
+    private int parallelism;
+
+    // Sau mỗi scan-batch bản ghi nghỉ scan-pause-ms
+    @Value("${price.audit.scan-batch:5000}")
+    private int scanBatch;
+
+    @Value("${price.audit.scan-pause-ms:50}")
+    private long scanPauseMillis;
+
+    @Value("${price.audit.repair-requests-per-minute:30}")
+    private int repairRequestsPerMinute;
+
+    @Value("${price.audit.repair:true}")
+    private boolean repairEnabled;
+
+    private final String[] supportedInterval = { "1m", "3m", "5m", "15m", "30m", "1h" };
+
+    @EventListener(ApplicationReadyEvent.class)
+    private void schedule() {
+        if (enabled) {
+            scheduler.scheduleWithFixedDelay(this::runQuietly, TimeUnit.MINUTES.toMillis(initialDelayMinutes),
+                    TimeUnit.HOURS.toMillis(periodHours), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    private void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Chạy một lượt ở nền; false nếu đang có lượt khác chạy
+     */
+    public boolean trigger() {
+        if (running.get()) {
+            return false;
+        }
+        scheduler.execute(this::runQuietly);
+        return true;
+    }
+
+    public AuditReport getLastReport() {
+        return lastReport;
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (Exception e) {
+            // Không để exception làm dừng lịch chạy
+            log.warn("Candle audit failed: {}", e.getMessage());
+        }
+    }
+
+    void run() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        AuditReport report = new AuditReport();
+        report.setStatus("RUNNING");
+        report.setStartedAt(System.currentTimeMillis());
+        report.setRangeStart(report.getStartedAt() - Duration.ofDays(lookbackDays).toMillis());
+        lastReport = report;
+
+        ExecutorService partitionExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (String symbol : symbolsConfig.split(",")) {
+                for (String interval : supportedInterval) {
+                    String normalized = symbol.trim().toUpperCase();
+                    futures.add(CompletableFuture.runAsync(
+                            () -> auditPartition(report, normalized, interval), partitionExecutor));
+                }
+            }
+            report.setTotalPartitions(futures.size());
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            report.setStatus("COMPLETED");
+        } catch (Exception e) {
+            report.setStatus("FAILED");
+            throw e;
+        } finally {
+            partitionExecutor.shutdown();
+            report.setFinishedAt(System.currentTimeMillis());
+            running.set(false);
+            log.info("Candle audit {} in {} ms", report.getStatus(), report.getFinishedAt() - report.getStartedAt());
+        }
+    }
+
+    private void auditPartition(AuditReport report, String symbol, String interval) {
+        AuditReport.PartitionReport partition = new AuditReport.PartitionReport();
+        partition.setSymbol(symbol);
+        partition.setInterval(interval);
+        try {
+            long intervalMillis = IntervalUtils.toMillis(interval);
+            long start = IntervalUtils.alignToInterval(report.getRangeStart(), intervalMillis);
+            // Bỏ nến đang hình thành và nến vừa đóng (có thể chưa được ghi)
+            long end = IntervalUtils.alignToInterval(System.currentTimeMillis(), intervalMillis) - intervalMillis;
+
+            partition.setMixedCase(normalizeSymbolCase(symbol, interval, start, end));
+
+            SeriesAuditor auditor = new SeriesAuditor(intervalMillis, start);
+            Query query = new Query(Criteria.where("symbol").is(symbol).and("interval").is(interval)
+                    .and("openTime").gte(Instant.ofEpochMilli(start)).lt(Instant.ofEpochMilli(end)))
+                    .with(Sort.by(Sort.Direction.ASC, "openTime"))
+                    .cursorBatchSize(Math.min(scanBatch, 1000));
+            query.fields().include("openTime", "closeTime", "open", "high", "low", "close", "volume", "createdAt");
+            try (Stream<PriceCandle> candles = mongoTemplate.stream(query, PriceCandle.class)) {
+                Iterator<PriceCandle> iterator = candles.iterator();
+                while (iterator.hasNext()) {
+                    auditor.accept(iterator.next());
+                    if (auditor.getScanned() % scanBatch == 0) {
+                        Thread.sleep(scanPauseMillis);
+                    }
+                }
+            }
+            auditor.finish(end);
+
+            partition.setScanned(auditor.getScanned());
+            partition.setMissing(auditor.getMissing());
+            partition.setInconsistent(auditor.getInconsistent());
+            partition.setDuplicates(auditor.getDuplicateIds().size());
+            if (!auditor.getDuplicateIds().isEmpty()) {
+                mongoTemplate.remove(new Query(Criteria.where("_id").in(auditor.getDuplicateIds())), PriceCandle.class);
+            }
+            if (repairEnabled) {
+                repair(partition, symbol, interval, intervalMillis, auditor.getRepairRanges());
+            }
+            if (partition.getDuplicates() + partition.getRepaired() + partition.getMixedCase() > 0) {
+                cacheService.invalidateCache(symbol, interval);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            partition.setError("interrupted");
+        } catch (Exception e) {
+            log.warn("Audit of {} {} failed: {}", symbol, interval, e.getMessage());
+            partition.setError(e.getMessage());
+        } finally {
+            synchronized (report) {
+                report.getPartitions().add(partition);
+                report.setCompletedPartitions(report.getCompletedPartitions() + 1);
+            }
+        }
+    }
+
+    /**
+     * Bản ghi cũ có symbol không viết hoa: chép sang bản chuẩn nếu slot đó chưa có rồi xóa.
+     * Đọc bằng cursor và xóa theo lô scanBatch id, không nạp hết bản ghi cũ vào bộ nhớ
+     */
+    private long normalizeSymbolCase(String symbol, String interval, long start, long end) throws InterruptedException {
+        Query query = new Query(Criteria.where("symbol").regex("^" + Pattern.quote(symbol) + "$", "i").ne(symbol)
+                .and("interval").is(interval)
+                .and("openTime").gte(Instant.ofEpochMilli(start)).lt(Instant.ofEpochMilli(end)))
+                .cursorBatchSize(Math.min(scanBatch, 1000));
+        long normalized = 0;
+        List<String> batch = new ArrayList<>();
+        try (Stream<PriceCandle> legacy = mongoTemplate.stream(query, PriceCandle.class)) {
+            Iterator<PriceCandle> iterator = legacy.iterator();
+            while (iterator.hasNext()) {
+                PriceCandle candle = iterator.next();
+                copyToCanonical(candle, symbol, interval);
+                batch.add(candle.getId());
+                normalized++;
+                if (batch.size() >= scanBatch) {
+                    removeByIds(batch);
+                    Thread.sleep(scanPauseMillis);
+                }
+            }
+        }
+        removeByIds(batch);
+        if (normalized > 0) {
+            log.info("Normalized {} mixed-case {} {} candles", normalized, symbol, interval);
+        }
+        return normalized;
+    }
+
+    private void copyToCanonical(PriceCandle candle, String symbol, String interval) {
+        Query slot = new Query(Criteria.where("symbol").is(symbol).and("interval").is(interval)
+                .and("openTime").is(candle.getOpenTime()));
+        Update update = new Update()
+                .setOnInsert("open", candle.getOpen())
+                .setOnInsert("high", candle.getHigh())
+                .setOnInsert("low", candle.getLow())
+                .setOnInsert("close", candle.getClose())
+                .setOnInsert("volume", candle.getVolume())
+                .setOnInsert("closeTime", candle.getCloseTime())
+                .setOnInsert("trades", candle.getTrades())
+                .setOnInsert("createdAt", candle.getCreatedAt());
+        mongoTemplate.upsert(slot, update, PriceCandle.class);
+    }
+
+    private void removeByIds(List<String> ids) {
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), PriceCandle.class);
+            ids.clear();
+        }
+    }
+
+    private void repair(AuditReport.PartitionReport partition, String symbol, String interval, long intervalMillis,
+                        List<long[]> ranges) throws InterruptedException {
+        for (long[] range : ranges) {
+            for (long chunkStart = range[0]; chunkStart < range[1]; chunkStart += BINANCE_MAX_LIMIT * intervalMillis) {
+                long chunkEnd = Math.min(range[1], chunkStart + BINANCE_MAX_LIMIT * intervalMillis);
+                awaitRepairSlot();
+                partition.setRepairRequests(partition.getRepairRequests() + 1);
+                List<List<Object>> raw = binanceApiClient.getCandlesInRange(symbol, interval, chunkStart, chunkEnd - 1,
+                        BINANCE_MAX_LIMIT);
+                if (raw == null || raw.isEmpty()) {
+                    // Binance cũng không có dữ liệu (vd. sàn bảo trì): để nguyên khoảng trống
+                    continue;
+                }
+                List<PriceCandle> candles = new ArrayList<>(raw.size());
+                for (List<Object> row : raw) {
+                    candles.add(candleMapper.map(row, symbol, interval));
+                }
+                candlesSaving.bulkUpsert(candles);
+                partition.setRepaired(partition.getRepaired() + candles.size());
+            }
+        }
+        if (partition.getRepaired() > 0) {
+            log.info("Repaired {} {} {} candles with {} requests", partition.getRepaired(), symbol, interval,
+                    partition.getRepairRequests());
+        }
+    }
+
+    /**
+     * Giới hạn số request sửa tới Binance (dùng chung cho mọi partition)
+     */
+    private void awaitRepairSlot() throws InterruptedException {
+        long spacing = TimeUnit.MINUTES.toMillis(1) / Math.max(1, repairRequestsPerMinute);
+        long waitMillis;
+        synchronized (repairThrottle) {
+            long now = System.currentTimeMillis();
+            long slot = Math.max(now, nextRepairAt);
+            nextRepairAt = slot + spacing;
+            waitMillis = slot - now;
+        }
+        if (waitMillis > 0) {
+            Thread.sleep(waitMillis);
+        }
+    }
+}
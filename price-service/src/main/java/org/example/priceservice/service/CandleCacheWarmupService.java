@@ -0,0 +1,114 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.entity.PriceCandle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nạp sẵn Redis cache cho các symbol cấu hình x interval x các limit phổ biến ngay sau khi
+ * service khởi động, để đợt request đầu tiên sau deploy / flush Redis không dồn hết xuống MongoDB.
+ * Readiness (health "candleWarmup") báo OUT_OF_SERVICE cho tới khi warm-up xong.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Profile("user")
+public class CandleCacheWarmupService {
+    private final PriceCandleService candleService;
+    private final PriceCandleCacheService cacheService;
+
+    @Value("${price.symbols:btcusdt,ethusdt}")
+    private String symbolsConfig;
+
+    @Value("${cache.candle.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.candle.warmup.limits:100,500}")
+    private int[] limits;
+
+    @Value("${cache.candle.warmup.concurrency:4}")
+    private int concurrency;
+
+    private final String[] supportedInterval = { "1m", "3m", "5m", "15m", "30m", "1h" };
+
+    private volatile boolean completed = false;
+    private final AtomicInteger warmedSeries = new AtomicInteger();
+    private final AtomicInteger failedSeries = new AtomicInteger();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            completed = true;
+            return;
+        }
+        // Các series chạy trên pool riêng có kích thước = concurrency, giới hạn số query MongoDB song song
+        ExecutorService warmupExecutor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        long start = System.currentTimeMillis();
+        int maxLimit = Arrays.stream(limits).max().orElse(100);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (String symbol : symbolsConfig.split(",")) {
+            for (String interval : supportedInterval) {
+                futures.add(CompletableFuture.runAsync(
+                        () -> warmSeries(symbol.trim().toUpperCase(), interval, maxLimit), warmupExecutor));
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, ex) -> {
+                    warmupExecutor.shutdown();
+                    completed = true;
+                    log.info("Candle cache warm-up finished in {} ms: {} series warmed, {} failed",
+                            System.currentTimeMillis() - start, warmedSeries.get(), failedSeries.get());
+                });
+    }
+
+    private void warmSeries(String symbol, String interval, int maxLimit) {
+        try {
+            // Một query lấy limit lớn nhất, các limit nhỏ hơn là phần đuôi (mới nhất) của cùng danh sách
+            List<PriceCandle> candles = candleService.loadFromDatabase(symbol, interval, maxLimit);
+            if (candles.isEmpty()) {
+                return;
+            }
+
+            Map<Integer, List<PriceCandle>> candlesByLimit = new LinkedHashMap<>();
+            for (int limit : limits) {
+                int from = Math.max(0, candles.size() - limit);
+                candlesByLimit.put(limit, new ArrayList<>(candles.subList(from, candles.size())));
+            }
+
+            cacheService.saveAllToCache(symbol, interval, candlesByLimit);
+            warmedSeries.incrementAndGet();
+        } catch (Exception e) {
+            failedSeries.incrementAndGet();
+            log.warn("Warm-up failed for {} {}: {}", symbol, interval, e.getMessage());
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public int getWarmedSeries() {
+        return warmedSeries.get();
+    }
+
+    public int getFailedSeries() {
+        return failedSeries.get();
+    }
+}
@@ -0,0 +1,315 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.entity.PriceCandle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Rút gọn khoảng nến rất dài (vd. 1 năm nến 1m = 525k nến) xuống tối đa maxPoints điểm cho chart.
+ * Nến được đọc tuần tự từ cursor MongoDB và gộp ngay, bộ nhớ O(maxPoints) bất kể độ dài khoảng:
+ * - ohlc: gộp theo bucket thời gian căn theo lưới interval (epoch), giữ nguyên open/high/low/close/volume
+ *   của mỗi bucket (không mất râu nến)
+ * - lttb: Largest-Triangle-Three-Buckets trên giá close, trả về các nến gốc được chọn; đọc cursor hai lượt
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleDownsampleService {
+    public static final String MODE_OHLC = "ohlc";
+    public static final String MODE_LTTB = "lttb";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${price.downsample.max-points:5000}")
+    private int maxPointsLimit;
+
+    @Value("${price.downsample.cursor-batch-size:2000}")
+    private int cursorBatchSize;
+
+    public int getMaxPointsLimit() {
+        return maxPointsLimit;
+    }
+
+    /**
+     * Nến trong [startTime, endTime) rút gọn còn tối đa maxPoints điểm, tăng dần theo openTime.
+     * Interval không lưu sẵn được đọc từ interval gốc (kết quả ohlc vẫn đúng vì gộp lại theo bucket).
+     */
+    public List<PriceCandle> downsample(String symbol, String interval, long startTime, long endTime,
+                                        int maxPoints, String mode) {
+        String normalizedSymbol = symbol.toUpperCase();
+        String sourceInterval = CandleResampleService.isNative(interval)
+                ? interval
+                : CandleResampleService.baseInterval(CandleResampleService.intervalMillis(interval));
+        Reducer reducer = MODE_LTTB.equals(mode)
+                ? new LttbReducer(startTime, endTime, maxPoints)
+                : new OhlcBucketReducer(normalizedSymbol, interval, startTime, endTime, maxPoints,
+                        CandleResampleService.intervalMillis(interval));
+
+        if (reducer.needsPrepass()) {
+            Query prepass = rangeQuery(normalizedSymbol, sourceInterval, startTime, endTime);
+            prepass.fields().include("openTime", "close");
+            try (Stream<PriceCandle> candles = mongoTemplate.stream(prepass, PriceCandle.class)) {
+                for (PriceCandle candle : (Iterable<PriceCandle>) candles::iterator) {
+                    reducer.prepass(candle);
+                }
+            }
+            reducer.endPrepass();
+        }
+
+        Query query = rangeQuery(normalizedSymbol, sourceInterval, startTime, endTime);
+        query.fields().include("symbol", "interval", "openTime", "closeTime", "open", "high", "low", "close",
+                "volume", "trades");
+
+        long scanned = 0;
+        try (Stream<PriceCandle> candles = mongoTemplate.stream(query, PriceCandle.class)) {
+            for (PriceCandle candle : (Iterable<PriceCandle>) candles::iterator) {
+                reducer.accept(candle);
+                scanned++;
+            }
+        }
+        List<PriceCandle> result = reducer.finish();
+        log.info("Downsampled {} {} candles of {} {} to {} points ({})",
+                scanned, sourceInterval, normalizedSymbol, interval, result.size(), mode);
+        return result;
+    }
+
+    private Query rangeQuery(String symbol, String interval, long startTime, long endTime) {
+        return new Query(Criteria.where("symbol").is(symbol)
+                .and("interval").is(interval)
+                .and("openTime").gte(Instant.ofEpochMilli(startTime)).lt(Instant.ofEpochMilli(endTime)))
+                .with(Sort.by(Sort.Direction.ASC, "openTime"))
+                .cursorBatchSize(cursorBatchSize);
+    }
+
+    interface Reducer {
+        /**
+         * true: cần một lượt đọc trước (chỉ openTime, close) qua prepass rồi endPrepass, trước các lượt accept
+         */
+        default boolean needsPrepass() {
+            return false;
+        }
+
+        default void prepass(PriceCandle candle) {
+        }
+
+        default void endPrepass() {
+        }
+
+        void accept(PriceCandle candle);
+
+        List<PriceCandle> finish();
+    }
+
+    /**
+     * Bucket thời gian có độ rộng là bội số của interval, căn theo lưới epoch (không theo startTime của request)
+     * nên cùng độ rộng thì biên bucket giống nhau giữa các request; mỗi bucket thành một nến OHLC
+     */
+    static class OhlcBucketReducer implements Reducer {
+        private final String symbol;
+        private final String interval;
+        private final long bucketMillis;
+        private final List<PriceCandle> result;
+        private PriceCandle bucket;
+        private long bucketIndex = -1;
+
+        OhlcBucketReducer(String symbol, String interval, long startTime, long endTime, int maxPoints,
+                          long intervalMillis) {
+            this.symbol = symbol;
+            this.interval = interval;
+            // maxPoints - 1: khoảng không căn lưới có thể chạm thêm một bucket lẻ ở đầu
+            long buckets = Math.max(1, maxPoints - 1);
+            long width = Math.max(1, (endTime - startTime + buckets - 1) / buckets);
+            // Làm tròn lên bội số của interval để một nến gốc không bị chia đôi
+            this.bucketMillis = (width + intervalMillis - 1) / intervalMillis * intervalMillis;
+            this.result = new ArrayList<>(maxPoints);
+        }
+
+        @Override
+        public void accept(PriceCandle candle) {
+            long index = Math.floorDiv(candle.getOpenTime().toEpochMilli(), bucketMillis);
+            if (bucket == null || index != bucketIndex) {
+                bucketIndex = index;
+                long bucketOpen = index * bucketMillis;
+                bucket = PriceCandle.builder()
+                        .symbol(symbol)
+                        .interval(interval)
+                        .openTime(Instant.ofEpochMilli(bucketOpen))
+                        .closeTime(Instant.ofEpochMilli(bucketOpen + bucketMillis - 1))
+                        .open(candle.getOpen())
+                        .high(candle.getHigh())
+                        .low(candle.getLow())
+                        .close(candle.getClose())
+                        .volume(candle.getVolume())
+                        .trades(candle.getTrades())
+                        .build();
+                result.add(bucket);
+                return;
+            }
+            bucket.setHigh(bucket.getHigh().max(candle.getHigh()));
+            bucket.setLow(bucket.getLow().min(candle.getLow()));
+            bucket.setClose(candle.getClose());
+            bucket.setVolume(bucket.getVolume().add(candle.getVolume()));
+            if (candle.getTrades() != null) {
+                bucket.setTrades(bucket.getTrades() != null ? bucket.getTrades() + candle.getTrades() : candle.getTrades());
+            }
+        }
+
+        @Override
+        public List<PriceCandle> finish() {
+            return result;
+        }
+    }
+
+    /**
+     * LTTB hai lượt: điểm đầu và cuối luôn được giữ, phần giữa chia thành maxPoints - 2 bucket theo thời gian.
+     * Lượt đầu (prepass) chỉ cộng dồn tổng x, y và số điểm của từng bucket; lượt hai chọn điểm của bucket k
+     * theo điểm đã chọn ở bucket trước và trung bình (đã biết) của bucket sau, nên chỉ giữ ứng viên tốt nhất
+     * của bucket đang đọc: bộ nhớ O(maxPoints), không phụ thuộc số nến mỗi bucket.
+     * Nến mới ghi vào giữa hai lượt (sau nến cuối của lượt đầu) bị bỏ qua.
+     */
+    static class LttbReducer implements Reducer {
+        private final long startTime;
+        private final long span;
+        private final int bucketCount;
+        private final List<PriceCandle> result;
+
+        // Lượt đầu
+        private final double[] sumX;
+        private final double[] sumY;
+        private final int[] counts;
+        private long firstOpenTime = Long.MIN_VALUE;
+        private long lastOpenTime = Long.MIN_VALUE;
+        private double lastY;
+
+        // Trung bình của bucket không rỗng kế sau mỗi bucket (đỉnh c của tam giác)
+        private double[] nextX;
+        private double[] nextY;
+
+        // Lượt hai
+        private PriceCandle selected;   // điểm đã chọn ở bucket trước (đỉnh a của tam giác)
+        private PriceCandle best;       // ứng viên tốt nhất của bucket đang đọc
+        private double bestArea;
+        private int currentBucket = -1;
+        private boolean done;
+
+        LttbReducer(long startTime, long endTime, int maxPoints) {
+            this.startTime = startTime;
+            this.span = Math.max(1, endTime - startTime);
+            this.bucketCount = Math.max(1, maxPoints - 2);
+            this.result = new ArrayList<>(maxPoints);
+            this.sumX = new double[bucketCount];
+            this.sumY = new double[bucketCount];
+            this.counts = new int[bucketCount];
+        }
+
+        @Override
+        public boolean needsPrepass() {
+            return true;
+        }
+
+        @Override
+        public void prepass(PriceCandle candle) {
+            long openTime = candle.getOpenTime().toEpochMilli();
+            if (firstOpenTime == Long.MIN_VALUE) {
+                firstOpenTime = openTime;
+                return;
+            }
+            // Điểm trước đó không phải điểm cuối: đưa vào bucket của nó
+            if (lastOpenTime != Long.MIN_VALUE) {
+                int index = bucketOf(lastOpenTime);
+                sumX[index] += lastOpenTime;
+                sumY[index] += lastY;
+                counts[index]++;
+            }
+            lastOpenTime = openTime;
+            lastY = y(candle);
+        }
+
+        @Override
+        public void endPrepass() {
+            nextX = new double[bucketCount];
+            nextY = new double[bucketCount];
+            double cx = lastOpenTime;
+            double cy = lastY;
+            for (int i = bucketCount - 1; i >= 0; i--) {
+                nextX[i] = cx;
+                nextY[i] = cy;
+                if (counts[i] > 0) {
+                    cx = sumX[i] / counts[i];
+                    cy = sumY[i] / counts[i];
+                }
+            }
+        }
+
+        @Override
+        public void accept(PriceCandle candle) {
+            long openTime = candle.getOpenTime().toEpochMilli();
+            if (done || openTime < firstOpenTime || (lastOpenTime != Long.MIN_VALUE && openTime > lastOpenTime)) {
+                return;
+            }
+            if (selected == null) {
+                selected = candle;
+                result.add(candle);
+                done = lastOpenTime == Long.MIN_VALUE;
+                return;
+            }
+            if (openTime == lastOpenTime) {
+                closeBucket();
+                result.add(candle);
+                done = true;
+                return;
+            }
+            int index = bucketOf(openTime);
+            if (index != currentBucket) {
+                closeBucket();
+                currentBucket = index;
+            }
+            double ax = x(selected);
+            double ay = y(selected);
+            double cx = nextX[index];
+            double cy = nextY[index];
+            double area = Math.abs((ax - cx) * (y(candle) - ay) - (ax - x(candle)) * (cy - ay));
+            if (best == null || area > bestArea) {
+                best = candle;
+                bestArea = area;
+            }
+        }
+
+        @Override
+        public List<PriceCandle> finish() {
+            closeBucket();
+            return result;
+        }
+
+        private void closeBucket() {
+            if (best != null) {
+                result.add(best);
+                selected = best;
+                best = null;
+            }
+        }
+
+        private int bucketOf(long openTime) {
+            return (int) Math.max(0, Math.min(bucketCount - 1, (openTime - startTime) * bucketCount / span));
+        }
+
+        private static double x(PriceCandle candle) {
+            return candle.getOpenTime().toEpochMilli();
+        }
+
+        private static double y(PriceCandle candle) {
+            return candle.getClose().doubleValue();
+        }
+    }
+}
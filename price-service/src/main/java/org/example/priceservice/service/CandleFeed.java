@@ -0,0 +1,90 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Điểm phân phối cập nhật nến trong process. Ở profile collector nguồn là PriceCollectorService,
+ * ở profile user nguồn là CandleTopicConsumer (đọc lại /topic/candles.* từ RabbitMQ).
+ * Listener chạy trên một thread riêng theo đúng thứ tự publish, nên thread nhận stream
+ * (Binance WS / Rabbit listener) không chờ listener chậm.
+ */
+@Component
+@Slf4j
+public class CandleFeed {
+    // Hàng đợi đầy: nến đã đóng chờ tối đa chừng này trước khi bị bỏ
+    private static final long CLOSED_CANDLE_OFFER_TIMEOUT_MS = 1000;
+
+    private final List<CandleUpdateListener> listeners;
+    private final BlockingQueue<CandleDto> queue;
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+    private final AtomicLong droppedUpdates = new AtomicLong();
+
+    public CandleFeed(List<CandleUpdateListener> listeners,
+                      @Value("${price.feed.queue-capacity:10000}") int queueCapacity) {
+        this.listeners = listeners;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        dispatcher.execute(this::dispatchLoop);
+    }
+
+    /**
+     * Không chặn thread gọi; listener nhận bản sao nên caller có thể tiếp tục dùng DTO của mình.
+     * Khi listener không theo kịp: cập nhật nến đang hình thành bị bỏ (tick sau thay thế),
+     * nến đã đóng được chờ tối đa CLOSED_CANDLE_OFFER_TIMEOUT_MS.
+     */
+    public void publish(CandleDto candle) {
+        CandleDto snapshot = candle.copy();
+        boolean accepted;
+        try {
+            accepted = snapshot.isClosed()
+                    ? queue.offer(snapshot, CLOSED_CANDLE_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    : queue.offer(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted && droppedUpdates.incrementAndGet() % 1000 == 1) {
+            log.warn("Candle feed queue is full, dropped {} updates so far (latest {} {} closed={})",
+                    droppedUpdates.get(), snapshot.getSymbol(), snapshot.getInterval(), snapshot.isClosed());
+        }
+    }
+
+    public long getDroppedUpdates() {
+        return droppedUpdates.get();
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            CandleDto candle;
+            try {
+                candle = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (CandleUpdateListener listener : listeners) {
+                try {
+                    listener.onCandle(candle);
+                } catch (Exception e) {
+                    // Một listener lỗi không được chặn các listener khác
+                    log.warn("Candle listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.priceservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Theo dõi độ phổ biến của các cache key candles bằng count-min sketch.
+ * - Admission kiểu TinyLFU: khi số key đã cache chạm giới hạn, key mới chỉ được cache
+ *   nếu tần suất của nó lớn hơn key "nạn nhân" ít phổ biến nhất.
+ * - Top-K key phổ biến nhất được pin (TTL dài, không bao giờ bị chọn làm nạn nhân).
+ * record / isPinned / admit key đã có chạy trên mọi lượt đọc nên không lấy lock chung; chỉ admit key mới
+ * khi đã đầy (quét chọn nạn nhân) và thay đổi top-K là khóa, hai việc này hiếm.
+ */
+@Component
+@Slf4j
+public class CandlePopularityTracker {
+
+    @Value("${cache.candle.popularity.max-keys:500}")
+    private int maxKeys;
+
+    @Value("${cache.candle.popularity.top-k:10}")
+    private int topK;
+
+    private final CountMinSketch sketch;
+
+    // key đã được admit vào Redis -> thời điểm hết hạn (epoch millis)
+    private final Map<String, Long> admittedUntil = new ConcurrentHashMap<>();
+
+    // Các key top-K đang được pin; chỉ sửa khi giữ topKeys
+    private final Set<String> topKeys = ConcurrentHashMap.newKeySet();
+
+    // Key lạnh nhất trong top-K ở lần cập nhật trước; key không phổ biến hơn nó thì không cần vào vùng khóa
+    private volatile String coldestTopKey;
+
+    private final Object admissionLock = new Object();
+
+    public CandlePopularityTracker(@Value("${cache.candle.popularity.sketch-width:4096}") int sketchWidth) {
+        // Sample size 10 * width như TinyLFU gốc
+        this.sketch = new CountMinSketch(sketchWidth, sketchWidth * 10);
+    }
+
+    /**
+     * Ghi nhận một lượt request cho key (cả hit lẫn miss)
+     */
+    public void record(String cacheKey) {
+        sketch.increment(cacheKey);
+        if (topK <= 0 || topKeys.contains(cacheKey)) {
+            return;
+        }
+        int frequency = sketch.estimate(cacheKey);
+        String coldest = coldestTopKey;
+        if (topKeys.size() < topK || coldest == null || frequency > sketch.estimate(coldest)) {
+            updateTopKeys(cacheKey, frequency);
+        }
+    }
+
+    public boolean isPinned(String cacheKey) {
+        return topKeys.contains(cacheKey);
+    }
+
+    /**
+     * Quên các key đã admit bắt đầu bằng prefix (Redis vừa xóa chúng khi invalidate), để chúng không
+     * chiếm chỗ tới hết TTL và không bị chọn làm nạn nhân vô ích
+     */
+    public void invalidate(String keyPrefix) {
+        admittedUntil.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    /**
+     * Quyết định có cache key này không. Nếu phải loại một key khác để nhường chỗ,
+     * evictionListener được gọi với key bị loại để xóa khỏi Redis.
+     */
+    public boolean admit(String cacheKey, Duration ttl, Consumer<String> evictionListener) {
+        Admission admission = decideAdmission(cacheKey, ttl);
+        // Gọi listener ngoài lock vì nó thao tác với Redis
+        if (admission.victim() != null) {
+            evictionListener.accept(admission.victim());
+        }
+        return admission.admitted();
+    }
+
+    private Admission decideAdmission(String cacheKey, Duration ttl) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl.toMillis();
+
+        // Key đã có chỗ (hoặc đang pin): chỉ gia hạn, không khóa
+        if (admittedUntil.computeIfPresent(cacheKey, (key, until) -> expiresAt) != null) {
+            return new Admission(true, null);
+        }
+        if (topKeys.contains(cacheKey)) {
+            admittedUntil.put(cacheKey, expiresAt);
+            return new Admission(true, null);
+        }
+
+        synchronized (admissionLock) {
+            return admitNewKey(cacheKey, now, expiresAt);
+        }
+    }
+
+    private Admission admitNewKey(String cacheKey, long now, long expiresAt) {
+        if (admittedUntil.size() < maxKeys) {
+            admittedUntil.put(cacheKey, expiresAt);
+            return new Admission(true, null);
+        }
+        admittedUntil.values().removeIf(until -> until <= now);
+        if (admittedUntil.size() < maxKeys) {
+            admittedUntil.put(cacheKey, expiresAt);
+            return new Admission(true, null);
+        }
+
+        String victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (String key : admittedUntil.keySet()) {
+            if (topKeys.contains(key)) {
+                continue;
+            }
+            int frequency = sketch.estimate(key);
+            if (frequency < victimFrequency) {
+                victim = key;
+                victimFrequency = frequency;
+            }
+        }
+
+        int candidateFrequency = sketch.estimate(cacheKey);
+        if (victim == null || candidateFrequency <= victimFrequency) {
+            log.debug("Rejected cache admission for key {} (freq {} <= victim freq {})",
+                    cacheKey, candidateFrequency, victimFrequency);
+            return new Admission(false, null);
+        }
+
+        admittedUntil.remove(victim);
+        admittedUntil.put(cacheKey, expiresAt);
+        log.debug("Admitted key {} (freq {}) evicting {} (freq {})",
+                cacheKey, candidateFrequency, victim, victimFrequency);
+        return new Admission(true, victim);
+    }
+
+    /**
+     * Snapshot phục vụ actuator endpoint, sắp xếp theo tần suất giảm dần
+     */
+    public Map<String, Object> snapshot() {
+        List<Map<String, Object>> hotKeys = new ArrayList<>();
+        topKeys.stream()
+                .sorted(Comparator.comparingInt(sketch::estimate).reversed())
+                .forEach(key -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("key", key);
+                    entry.put("estimatedFrequency", sketch.estimate(key));
+                    hotKeys.add(entry);
+                });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hotKeys", hotKeys);
+        result.put("admittedKeys", admittedUntil.size());
+        result.put("maxKeys", maxKeys);
+        result.put("topK", topK);
+        result.put("sketchWidth", sketch.getWidth());
+        result.put("sketchDepth", sketch.getDepth());
+        return result;
+    }
+
+    private synchronized void updateTopKeys(String cacheKey, int frequency) {
+        if (topKeys.contains(cacheKey) || topKeys.size() < topK) {
+            topKeys.add(cacheKey);
+            coldestTopKey = topKeys.size() < topK ? null : coldestOf(topKeys);
+            return;
+        }
+
+        // Key top-K có tần suất thấp nhất (giá trị sketch có thể đã giảm do aging)
+        String coldest = coldestOf(topKeys);
+        if (frequency > sketch.estimate(coldest)) {
+            topKeys.remove(coldest);
+            topKeys.add(cacheKey);
+            coldest = coldestOf(topKeys);
+        }
+        coldestTopKey = coldest;
+    }
+
+    private String coldestOf(Set<String> keys) {
+        String coldest = null;
+        int coldestFrequency = Integer.MAX_VALUE;
+        for (String key : keys) {
+            int estimate = sketch.estimate(key);
+            if (estimate < coldestFrequency) {
+                coldest = key;
+                coldestFrequency = estimate;
+            }
+        }
+        return coldest;
+    }
+
+    private record Admission(boolean admitted, String victim) {
+    }
+}
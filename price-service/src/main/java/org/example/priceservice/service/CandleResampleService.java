@@ -0,0 +1,196 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.repository.PriceCandleRepository;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Dựng nến cho interval không lưu sẵn (2h, 4h, 1d, 7m, 1w...) từ interval gốc lớn nhất chia hết cho nó.
+ * Khoảng nhỏ (ít nến gốc) gộp trong bộ nhớ; khoảng lớn đẩy xuống aggregation pipeline của MongoDB
+ * để không kéo hàng trăm nghìn nến gốc về service.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleResampleService {
+    // Các interval collector lưu vào price_candles, sắp xếp tăng dần
+    public static final List<String> NATIVE_INTERVALS = List.of("1m", "3m", "5m", "15m", "30m", "1h");
+
+    private static final long WEEK_MILLIS = TimeUnit.DAYS.toMillis(7);
+    // Nến tuần của Binance mở vào thứ Hai 00:00 UTC; 1970-01-01 là thứ Năm
+    private static final long WEEK_OFFSET_MILLIS = TimeUnit.DAYS.toMillis(4);
+
+    private static final Pattern INTERVAL_PATTERN = Pattern.compile("[1-9][0-9]{0,3}[mhdw]");
+    private static final long MAX_INTERVAL_MILLIS = 4 * WEEK_MILLIS;
+
+    private final PriceCandleRepository priceCandleRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${price.resample.in-memory-max-candles:5000}")
+    private int inMemoryMaxCandles;
+
+    public static boolean isNative(String interval) {
+        return NATIVE_INTERVALS.contains(interval);
+    }
+
+    /**
+     * {@code limit} nến mới nhất của interval đã resample, tăng dần theo openTime (nến cuối có thể chưa đóng)
+     */
+    public List<PriceCandle> resample(String normalizedSymbol, String interval, int limit) {
+        long size = intervalMillis(interval);
+        String base = baseInterval(size);
+        long offset = bucketOffset(size);
+
+        long currentBucket = bucketOpen(System.currentTimeMillis(), size, offset);
+        long start = currentBucket - (limit - 1) * size;
+        long end = currentBucket + size;
+        long baseCandles = (end - start) / intervalMillis(base);
+
+        List<PriceCandle> result = baseCandles <= inMemoryMaxCandles
+                ? resampleInMemory(normalizedSymbol, interval, base, start, end, size, offset)
+                : resampleInDatabase(normalizedSymbol, interval, base, start, end, size, offset);
+        log.info("Resampled {} {} candles from {} ({} base candles, {})", result.size(), interval, base,
+                baseCandles, baseCandles <= inMemoryMaxCandles ? "in memory" : "aggregation");
+        return result;
+    }
+
+    private List<PriceCandle> resampleInMemory(String symbol, String interval, String base,
+                                               long start, long end, long size, long offset) {
+        List<PriceCandle> source = priceCandleRepository.findRange(symbol, base,
+                Instant.ofEpochMilli(start), Instant.ofEpochMilli(end), Sort.by(Sort.Direction.ASC, "openTime"));
+        List<PriceCandle> result = new ArrayList<>();
+        PriceCandle bucket = null;
+        for (PriceCandle candle : source) {
+            long bucketOpen = bucketOpen(candle.getOpenTime().toEpochMilli(), size, offset);
+            if (bucket == null || bucket.getOpenTime().toEpochMilli() != bucketOpen) {
+                bucket = PriceCandle.builder()
+                        .symbol(symbol)
+                        .interval(interval)
+                        .openTime(Instant.ofEpochMilli(bucketOpen))
+                        .closeTime(Instant.ofEpochMilli(bucketOpen + size - 1))
+                        .open(candle.getOpen())
+                        .high(candle.getHigh())
+                        .low(candle.getLow())
+                        .close(candle.getClose())
+                        .volume(candle.getVolume())
+                        .trades(candle.getTrades())
+                        .build();
+                result.add(bucket);
+                continue;
+            }
+            bucket.setHigh(bucket.getHigh().max(candle.getHigh()));
+            bucket.setLow(bucket.getLow().min(candle.getLow()));
+            bucket.setClose(candle.getClose());
+            bucket.setVolume(bucket.getVolume().add(candle.getVolume()));
+            if (candle.getTrades() != null) {
+                bucket.setTrades(bucket.getTrades() != null ? bucket.getTrades() + candle.getTrades() : candle.getTrades());
+            }
+        }
+        return result;
+    }
+
+    private List<PriceCandle> resampleInDatabase(String symbol, String interval, String base,
+                                                 long start, long end, long size, long offset) {
+        // openTime (Date) -> millis, làm tròn xuống đầu bucket: t - ((t - offset) mod size)
+        Document openMillis = new Document("$toLong", "$openTime");
+        Document bucketId = new Document("$subtract", List.of(openMillis,
+                new Document("$mod", List.of(new Document("$subtract", List.of(openMillis, offset)), size))));
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("symbol", symbol)
+                        .append("interval", base)
+                        .append("openTime", new Document("$gte", new Date(start)).append("$lt", new Date(end)))),
+                new Document("$sort", new Document("openTime", 1)),
+                new Document("$group", new Document("_id", bucketId)
+                        .append("open", new Document("$first", decimal("$open")))
+                        .append("high", new Document("$max", decimal("$high")))
+                        .append("low", new Document("$min", decimal("$low")))
+                        .append("close", new Document("$last", decimal("$close")))
+                        .append("volume", new Document("$sum", decimal("$volume")))
+                        .append("trades", new Document("$sum", "$trades"))),
+                new Document("$sort", new Document("_id", 1)));
+
+        List<PriceCandle> result = new ArrayList<>();
+        for (Document row : mongoTemplate.getCollection(mongoTemplate.getCollectionName(PriceCandle.class))
+                .aggregate(pipeline).allowDiskUse(true)) {
+            long bucketOpen = ((Number) row.get("_id")).longValue();
+            result.add(PriceCandle.builder()
+                    .symbol(symbol)
+                    .interval(interval)
+                    .openTime(Instant.ofEpochMilli(bucketOpen))
+                    .closeTime(Instant.ofEpochMilli(bucketOpen + size - 1))
+                    .open(toBigDecimal(row.get("open")))
+                    .high(toBigDecimal(row.get("high")))
+                    .low(toBigDecimal(row.get("low")))
+                    .close(toBigDecimal(row.get("close")))
+                    .volume(toBigDecimal(row.get("volume")))
+                    .trades(((Number) row.get("trades")).intValue())
+                    .build());
+        }
+        return result;
+    }
+
+    // Giá có thể lưu dạng Decimal128 hoặc String tùy cấu hình BigDecimal của Spring Data
+    private static Document decimal(String field) {
+        return new Document("$toDecimal", field);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        return value != null ? new BigDecimal(value.toString()) : null;
+    }
+
+    /**
+     * Interval gốc lớn nhất chia hết interval cần dựng
+     */
+    public static String baseInterval(long sizeMillis) {
+        for (int i = NATIVE_INTERVALS.size() - 1; i >= 0; i--) {
+            long baseMillis = intervalMillis(NATIVE_INTERVALS.get(i));
+            if (sizeMillis > baseMillis && sizeMillis % baseMillis == 0) {
+                return NATIVE_INTERVALS.get(i);
+            }
+        }
+        throw new IllegalArgumentException("Interval is not a multiple of a stored interval");
+    }
+
+    static long bucketOffset(long sizeMillis) {
+        return sizeMillis % WEEK_MILLIS == 0 ? WEEK_OFFSET_MILLIS : 0L;
+    }
+
+    static long bucketOpen(long time, long sizeMillis, long offset) {
+        return time - Math.floorMod(time - offset, sizeMillis);
+    }
+
+    /**
+     * "7m", "4h", "1d", "1w" -> millis. Chỉ nhận đúng một cách viết cho mỗi interval (không dấu,
+     * không số 0 đầu) và tối đa MAX_INTERVAL_MILLIS, để không tràn số và không nhân bản cache key.
+     */
+    public static long intervalMillis(String interval) {
+        if (interval == null || !INTERVAL_PATTERN.matcher(interval).matches()) {
+            throw new IllegalArgumentException("Unsupported interval: " + interval);
+        }
+        long millis = IntervalUtils.toMillis(interval);
+        if (millis > MAX_INTERVAL_MILLIS) {
+            throw new IllegalArgumentException("Unsupported interval: " + interval);
+        }
+        return millis;
+    }
+}
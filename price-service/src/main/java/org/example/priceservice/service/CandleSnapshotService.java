@@ -0,0 +1,43 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.CandleSnapshot;
+import org.example.priceservice.entity.PriceCandle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleSnapshotService {
+    private final RecentCandleStore recentCandleStore;
+    private final PriceCandleService candleService;
+
+    @Value("${price.stream.snapshot.max-size:500}")
+    private int maxSize;
+
+    /**
+     * Snapshot từ bộ nhớ; nếu buffer chưa đủ (vừa khởi động) thì nạp lịch sử một lần qua cache
+     * rồi các lần sau chỉ đọc bộ nhớ
+     */
+    public CandleSnapshot getSnapshot(String symbol, String interval, int size) {
+        int boundedSize = Math.max(1, Math.min(size, maxSize));
+
+        if (recentCandleStore.closedCount(symbol, interval) < boundedSize) {
+            try {
+                // Luôn nạp maxSize để mọi snapshot của series dùng chung một cache key
+                List<PriceCandle> history = candleService.getCandles(symbol, interval, maxSize);
+                recentCandleStore.seed(symbol, interval, history.stream().map(CandleDto::from).toList());
+            } catch (Exception e) {
+                log.warn("Failed to seed snapshot history for {} {}: {}", symbol, interval, e.getMessage());
+            }
+        }
+
+        return new CandleSnapshot(symbol.toUpperCase(), interval,
+                recentCandleStore.snapshot(symbol, interval, boundedSize));
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.priceservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream nến qua Server-Sent Events cho client không dùng STOMP.
+ * Mỗi subscriber có buffer riêng giới hạn theo số series, gộp theo (symbol, interval) và chỉ giữ
+ * bản mới nhất (latest-value conflation). Feed chỉ ghi vào buffer rồi trả về ngay, việc ghi ra socket
+ * chạy trên scheduler riêng theo demand của client, nên client chậm không chặn được collector
+ * và bộ nhớ không tăng vô hạn.
+ */
+@Service
+@Slf4j
+public class CandleStreamService implements CandleUpdateListener {
+    private final Set<CandleSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedUpdates = new AtomicLong();
+
+    // Số series tối đa một subscriber đang chờ gửi
+    @Value("${price.stream.sse.max-pending:64}")
+    private int maxPending;
+
+    // Số event đã lấy khỏi buffer nhưng chưa ghi xong ra socket
+    @Value("${price.stream.sse.prefetch:8}")
+    private int prefetch;
+
+    @Value("${price.stream.sse.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        for (CandleSubscriber subscriber : subscribers) {
+            if (subscriber.accepts(candle)) {
+                subscriber.offer(candle);
+            }
+        }
+    }
+
+    /**
+     * @param symbols   symbol lowercase/uppercase đều được; rỗng = tất cả
+     * @param intervals rỗng = tất cả
+     */
+    public Flux<ServerSentEvent<CandleDto>> subscribe(Set<String> symbols, Set<String> intervals) {
+        Flux<ServerSentEvent<CandleDto>> candles = Flux.<CandleDto>create(sink -> {
+                    CandleSubscriber subscriber = new CandleSubscriber(symbols, intervals, sink);
+                    subscribers.add(subscriber);
+                    sink.onRequest(n -> subscriber.drain());
+                    sink.onDispose(() -> subscribers.remove(subscriber));
+                    log.debug("SSE client connected, total {}", subscribers.size());
+                })
+                .publishOn(Schedulers.boundedElastic(), prefetch)
+                .map(candle -> ServerSentEvent.<CandleDto>builder(candle)
+                        .event("candle")
+                        .id(String.valueOf(candle.getEventTime()))
+                        .build());
+
+        // Heartbeat giữ kết nối qua proxy / gateway khi thị trường không có tick
+        Flux<ServerSentEvent<CandleDto>> heartbeats = Flux.interval(Duration.ofSeconds(heartbeatSeconds))
+                .map(tick -> ServerSentEvent.<CandleDto>builder().comment("heartbeat").build());
+
+        return Flux.merge(candles, heartbeats);
+    }
+
+    public int getConnectedClients() {
+        return subscribers.size();
+    }
+
+    public long getDroppedUpdates() {
+        return droppedUpdates.get();
+    }
+
+    private class CandleSubscriber {
+        private final Set<String> symbols;
+        private final Set<String> intervals;
+        private final FluxSink<CandleDto> sink;
+        // key series -> bản mới nhất chưa gửi; guarded by this
+        private final LinkedHashMap<String, CandleDto> pending = new LinkedHashMap<>();
+
+        CandleSubscriber(Set<String> symbols, Set<String> intervals, FluxSink<CandleDto> sink) {
+            this.symbols = symbols;
+            this.intervals = intervals;
+            this.sink = sink;
+        }
+
+        boolean accepts(CandleDto candle) {
+            return (symbols.isEmpty() || symbols.contains(candle.getSymbol().toUpperCase()))
+                    && (intervals.isEmpty() || intervals.contains(candle.getInterval()));
+        }
+
+        void offer(CandleDto candle) {
+            synchronized (this) {
+                CandleDto replaced = pending.put(candle.getSymbol().toUpperCase() + ":" + candle.getInterval(), candle);
+                if (replaced != null) {
+                    // Bản cũ chưa kịp gửi bị gộp vào bản mới
+                    droppedUpdates.incrementAndGet();
+                } else if (pending.size() > maxPending) {
+                    Iterator<Map.Entry<String, CandleDto>> eldest = pending.entrySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    droppedUpdates.incrementAndGet();
+                }
+            }
+            drain();
+        }
+
+        synchronized void drain() {
+            // sink.next chỉ đẩy vào queue của publishOn (tối đa prefetch phần tử), không ghi socket
+            Iterator<Map.Entry<String, CandleDto>> it = pending.entrySet().iterator();
+            while (it.hasNext() && sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                CandleDto candle = it.next().getValue();
+                it.remove();
+                sink.next(candle);
+            }
+        }
+    }
+}
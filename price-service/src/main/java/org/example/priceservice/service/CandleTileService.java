@@ -0,0 +1,126 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleTile;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.repository.PriceCandleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Chia lịch sử nến thành các tile cố định pageSize nến, căn theo openTime.
+ * Tile đã đóng hoàn toàn (mọi nến đã close và đủ pageSize nến) chỉ đổi khi backfill / audit ghi lại nến cũ,
+ * lúc đó data revision của (symbol, interval) tăng (PriceCandleCacheService.invalidateCache). Tile được cache
+ * trong Redis kèm revision và trả về với ETag mạnh chứa revision + max-age ngắn (không immutable),
+ * nên client nhận bản sửa sau tối đa closed-max-age-minutes.
+ * Chỉ có tile cho interval collector lưu trực tiếp (CandleResampleService.NATIVE_INTERVALS, đều căn theo epoch);
+ * interval resample (4h, 1d, 1w...) không có series trong price_candles.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CandleTileService {
+    private final PriceCandleRepository priceCandleRepository;
+    private final PriceCandleCacheService cacheService;
+
+    @Value("${price.tiles.page-size:500}")
+    private int pageSize;
+
+    @Value("${price.tiles.closed-max-age-minutes:10}")
+    private long closedMaxAgeMinutes;
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public Duration getClosedMaxAge() {
+        return Duration.ofMinutes(closedMaxAgeMinutes);
+    }
+
+    /**
+     * Độ dài tile; IllegalArgumentException nếu interval không phải interval gốc
+     */
+    public long tileSpanMillis(String interval) {
+        if (!CandleResampleService.isNative(interval)) {
+            throw new IllegalArgumentException("Tiles are only available for stored intervals: " + interval);
+        }
+        return CandleResampleService.intervalMillis(interval) * pageSize;
+    }
+
+    /**
+     * Index của tile chứa nến đang hình thành (tile đầu); IllegalArgumentException nếu interval không có tile
+     */
+    public long headTileIndex(String interval) {
+        return Math.floorDiv(System.currentTimeMillis(), tileSpanMillis(interval));
+    }
+
+    /**
+     * Tile đã qua hết thời gian: nến cuối cùng của tile đã đóng
+     */
+    public boolean isClosed(String interval, long index) {
+        return (index + 1) * tileSpanMillis(interval) <= System.currentTimeMillis();
+    }
+
+    /**
+     * Revision hiện tại của dữ liệu (symbol, interval); -1 nếu Redis lỗi
+     */
+    public long dataRevision(String symbol, String interval) {
+        return cacheService.getDataRevision(symbol, interval);
+    }
+
+    /**
+     * ETag mạnh cho tile đã đóng, chỉ phụ thuộc vào định danh tile và data revision nên kiểm tra được
+     * If-None-Match mà không cần đọc tile từ Redis/MongoDB
+     */
+    public String closedTileETag(String symbol, String interval, long index, long revision) {
+        return "\"" + symbol.toUpperCase() + "-" + interval + "-" + pageSize + "-" + index + "-r" + revision + "\"";
+    }
+
+    /**
+     * revision: giá trị dataRevision đọc trước khi đọc tile; bản cache của revision khác bị bỏ qua
+     */
+    public CandleTile getTile(String symbol, String interval, long index, long revision) {
+        String normalizedSymbol = symbol.toUpperCase();
+
+        CandleTile cached = revision >= 0
+                ? cacheService.getTileFromCache(normalizedSymbol, interval, pageSize, index) : null;
+        if (cached != null && cached.getRevision() == revision) {
+            log.debug("Tile cache HIT for {} {} #{}", normalizedSymbol, interval, index);
+            return cached;
+        }
+
+        long span = tileSpanMillis(interval);
+        long startTime = index * span;
+        long endTime = startTime + span;
+
+        List<PriceCandle> candles = priceCandleRepository.findRange(normalizedSymbol, interval,
+                Instant.ofEpochMilli(startTime), Instant.ofEpochMilli(endTime),
+                Sort.by(Sort.Direction.ASC, "openTime"));
+
+        // Tile thiếu nến (gap dữ liệu hoặc collector chưa ghi kịp) chưa được coi là immutable
+        boolean immutable = isClosed(interval, index) && candles.size() == pageSize;
+
+        CandleTile tile = CandleTile.builder()
+                .symbol(normalizedSymbol)
+                .interval(interval)
+                .pageSize(pageSize)
+                .index(index)
+                .startTime(startTime)
+                .endTime(endTime)
+                .immutable(immutable)
+                .revision(revision)
+                .candles(candles)
+                .build();
+
+        if (revision >= 0) {
+            cacheService.saveTileToCache(tile);
+        }
+        return tile;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.dto.CandleDto;
+
+/**
+ * Nhận mọi cập nhật nến realtime (cả nến đang hình thành lẫn nến vừa đóng) từ {@link CandleFeed}
+ */
+public interface CandleUpdateListener {
+    void onCandle(CandleDto candle);
+}
@@ -94,7 +94,7 @@ public class CandlesSaving {
         }
     }
 
-    private void bulkUpsert(List<PriceCandle> candles) {
+    public void bulkUpsert(List<PriceCandle> candles) {
         if (candles.isEmpty())
             return;
 
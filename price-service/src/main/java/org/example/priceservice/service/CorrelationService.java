@@ -0,0 +1,196 @@
+package org.example.priceservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.correlation.RollingCorrelationMatrix;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.CorrelationMatrix;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tương quan lợi suất cuộn giữa các symbol trong price.symbols, cập nhật từ nến đã đóng của CandleFeed.
+ * Lợi suất của cùng một openTime được gom thành một hàng; hàng chỉ được đưa vào ma trận khi đủ mọi symbol.
+ * Lợi suất của một symbol chỉ tính khi nến liền kề nến trước của nó (openTime = trước + interval); sau khoảng
+ * trống (restart, mất kết nối, lịch sử thiếu) lợi suất trải nhiều kỳ nên bị bỏ, hàng đó thiếu symbol và bị bỏ
+ * khi nến của openTime sau tới.
+ */
+@Service
+@Slf4j
+public class CorrelationService implements CandleUpdateListener {
+    private final PriceCandleService candleService;
+    private final String interval;
+    private final long intervalMillis;
+    private final int[] windows;
+    private final List<String> symbols = new ArrayList<>();
+    private final Map<String, Integer> symbolIndex = new HashMap<>();
+    private final RollingCorrelationMatrix matrix;
+
+    // State gom hàng, chỉ truy cập trong synchronized (this)
+    private final double[] previousClose;
+    private final long[] previousOpenTime;
+    private final double[] pendingReturns;
+    private final boolean[] reported;
+    private int reportedCount;
+    private long pendingOpenTime = -1;
+    // openTime của hàng đã chốt (đưa vào ma trận hoặc bị bỏ) gần nhất
+    private long closedOpenTime = -1;
+    private long lastOpenTime = -1;
+    private long droppedRows;
+    private boolean seeded;
+
+    public CorrelationService(PriceCandleService candleService,
+                              @Value("${price.symbols:btcusdt,ethusdt}") String symbolsConfig,
+                              @Value("${price.correlation.interval:1h}") String interval,
+                              @Value("${price.correlation.windows:24,168,720}") int[] windows) {
+        this.candleService = candleService;
+        this.interval = interval;
+        this.intervalMillis = IntervalUtils.toMillis(interval);
+        this.windows = windows.clone();
+        for (String symbol : symbolsConfig.split(",")) {
+            String normalized = symbol.trim().toUpperCase();
+            if (!normalized.isEmpty() && !symbolIndex.containsKey(normalized)) {
+                symbolIndex.put(normalized, symbols.size());
+                symbols.add(normalized);
+            }
+        }
+        this.matrix = new RollingCorrelationMatrix(symbols.size(), this.windows);
+        this.previousClose = new double[symbols.size()];
+        this.previousOpenTime = new long[symbols.size()];
+        Arrays.fill(previousOpenTime, Long.MIN_VALUE);
+        this.pendingReturns = new double[symbols.size()];
+        this.reported = new boolean[symbols.size()];
+    }
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        if (!candle.isClosed() || !interval.equals(candle.getInterval())) {
+            return;
+        }
+        Integer index = symbolIndex.get(candle.getSymbol().toUpperCase());
+        if (index == null) {
+            return;
+        }
+        synchronized (this) {
+            if (!seeded) {
+                seeded = true;
+                seed(candle.getOpenTime());
+            }
+            accept(index, candle.getOpenTime(), candle.getClose().doubleValue());
+        }
+    }
+
+    /**
+     * Ma trận của cửa sổ window (số nến); null nếu window không nằm trong price.correlation.windows
+     */
+    public synchronized CorrelationMatrix getMatrix(int window) {
+        int w = -1;
+        for (int i = 0; i < windows.length; i++) {
+            if (windows[i] == window) {
+                w = i;
+            }
+        }
+        if (w < 0) {
+            return null;
+        }
+        int size = symbols.size();
+        Double[][] values = new Double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                double value = matrix.correlation(w, i, j);
+                values[i][j] = Double.isNaN(value) ? null : value;
+            }
+        }
+        return new CorrelationMatrix(interval, window, matrix.observations(w), lastOpenTime, List.copyOf(symbols), values);
+    }
+
+    public int[] getWindows() {
+        return windows.clone();
+    }
+
+    private void accept(int index, long openTime, double close) {
+        if (openTime <= previousOpenTime[index]) {
+            return;
+        }
+        if (openTime <= closedOpenTime || (pendingOpenTime >= 0 && openTime < pendingOpenTime)) {
+            // Nến đến trễ của hàng đã chốt: chỉ cập nhật giá để lợi suất kế tiếp đúng một kỳ
+            updatePrevious(index, openTime, close);
+            return;
+        }
+        if (pendingOpenTime >= 0 && openTime > pendingOpenTime) {
+            dropPending();
+        }
+        pendingOpenTime = openTime;
+        if (previousClose[index] > 0 && close > 0 && openTime == previousOpenTime[index] + intervalMillis
+                && !reported[index]) {
+            reported[index] = true;
+            reportedCount++;
+            pendingReturns[index] = Math.log(close / previousClose[index]);
+        }
+        updatePrevious(index, openTime, close);
+        if (reportedCount == symbols.size()) {
+            matrix.addRow(pendingReturns);
+            lastOpenTime = pendingOpenTime;
+            resetPending();
+        }
+    }
+
+    private void updatePrevious(int index, long openTime, double close) {
+        previousClose[index] = close;
+        previousOpenTime[index] = openTime;
+    }
+
+    /**
+     * Hàng thiếu symbol (nến trễ, mất nến hoặc lợi suất qua khoảng trống) không được đưa vào ma trận
+     */
+    private void dropPending() {
+        if (droppedRows++ % 100 == 0) {
+            log.debug("Dropped incomplete correlation row {} ({}/{} symbols), {} rows dropped so far",
+                    pendingOpenTime, reportedCount, symbols.size(), droppedRows);
+        }
+        resetPending();
+    }
+
+    private void resetPending() {
+        closedOpenTime = pendingOpenTime;
+        Arrays.fill(pendingReturns, 0);
+        Arrays.fill(reported, false);
+        reportedCount = 0;
+        pendingOpenTime = -1;
+    }
+
+    /**
+     * Nạp lịch sử nến đã đóng (trước beforeOpenTime) của mọi symbol, phát lại theo thứ tự thời gian
+     */
+    private void seed(long beforeOpenTime) {
+        int maxWindow = Arrays.stream(windows).max().orElse(0);
+        List<PriceCandle> history = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String symbol : symbols) {
+            try {
+                for (PriceCandle candle : candleService.loadFromDatabase(symbol, interval, maxWindow + 1)) {
+                    boolean closed = candle.getCloseTime() != null && candle.getCloseTime().toEpochMilli() < now;
+                    if (closed && candle.getOpenTime().toEpochMilli() < beforeOpenTime) {
+                        history.add(candle);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to seed correlation history for {}: {}", symbol, e.getMessage());
+            }
+        }
+        history.sort(Comparator.comparing(PriceCandle::getOpenTime));
+        for (PriceCandle candle : history) {
+            accept(symbolIndex.get(candle.getSymbol().toUpperCase()), candle.getOpenTime().toEpochMilli(),
+                    candle.getClose().doubleValue());
+        }
+        log.info("Correlation matrix seeded with {} {} candles for {} symbols", history.size(), interval, symbols.size());
+    }
+}
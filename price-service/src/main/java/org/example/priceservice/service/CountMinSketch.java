@@ -0,0 +1,76 @@
+package org.example.priceservice.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch ước lượng tần suất truy cập của cache key với bộ nhớ cố định.
+ * Có cơ chế "aging" kiểu TinyLFU: sau sampleSize lần tăng, mọi counter bị chia đôi
+ * để tần suất phản ánh độ phổ biến gần đây thay vì tích lũy mãi mãi.
+ * Thread-safe không cần lock: counter là AtomicIntegerArray; aging chạy song song với increment
+ * nên có thể lệch vài đơn vị, chấp nhận được với một ước lượng.
+ */
+public class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final AtomicIntegerArray[] table;
+    private final int widthMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    public CountMinSketch(int width, int sampleSize) {
+        // Làm tròn width lên lũy thừa của 2 để thay phép mod bằng phép AND
+        int capacity = Integer.highestOneBit(Math.max(16, width - 1) << 1);
+        this.table = new AtomicIntegerArray[SEEDS.length];
+        for (int i = 0; i < SEEDS.length; i++) {
+            table[i] = new AtomicIntegerArray(capacity);
+        }
+        this.widthMask = capacity - 1;
+        this.sampleSize = sampleSize;
+    }
+
+    public void increment(String key) {
+        int hash = key.hashCode();
+        for (int i = 0; i < SEEDS.length; i++) {
+            table[i].getAndUpdate(indexOf(hash, i), count -> count < Integer.MAX_VALUE ? count + 1 : count);
+        }
+        // Đúng một thread chạm mốc sampleSize thực hiện aging
+        if (additions.incrementAndGet() == sampleSize) {
+            reset();
+        }
+    }
+
+    public int estimate(String key) {
+        int hash = key.hashCode();
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            min = Math.min(min, table[i].get(indexOf(hash, i)));
+        }
+        return min;
+    }
+
+    public int getWidth() {
+        return widthMask + 1;
+    }
+
+    public int getDepth() {
+        return SEEDS.length;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 32;
+        return (int) h & widthMask;
+    }
+
+    private void reset() {
+        for (AtomicIntegerArray row : table) {
+            for (int j = 0; j < row.length(); j++) {
+                row.getAndUpdate(j, count -> count >>> 1);
+            }
+        }
+        additions.addAndGet(-(sampleSize - sampleSize / 2));
+    }
+}
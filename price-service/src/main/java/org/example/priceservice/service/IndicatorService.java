@@ -0,0 +1,142 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.IndicatorValues;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.indicator.IndicatorParameters;
+import org.example.priceservice.indicator.IndicatorSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tính chỉ báo kỹ thuật (SMA, EMA, RSI, MACD, Bollinger, ATR) tăng dần theo từng cập nhật nến từ CandleFeed.
+ * Lần đầu gặp một series trên feed, state được nạp từ lịch sử nến đã đóng trong MongoDB.
+ * Chỉ feed tạo state; đọc qua HTTP không tạo series mới (symbol / interval tùy ý của client).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class IndicatorService implements CandleUpdateListener {
+    private final PriceCandleService candleService;
+    private final IndicatorParameters parameters = IndicatorParameters.defaults();
+    private final Map<String, SeriesState> states = new ConcurrentHashMap<>();
+
+    @Value("${price.indicators.warmup-candles:300}")
+    private int warmupCandles;
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        String symbol = candle.getSymbol().toUpperCase();
+        SeriesState state = stateOf(symbol, candle.getInterval(), candle.getOpenTime());
+
+        synchronized (state) {
+            // Mất message đóng nến: nến đang hình thành cũ hơn nến mới -> coi như đã đóng
+            if (state.forming != null && state.forming.getOpenTime() < candle.getOpenTime()) {
+                commit(state.indicators, state.forming);
+                state.forming = null;
+            }
+            if (candle.isClosed()) {
+                commit(state.indicators, candle);
+                state.forming = null;
+            } else if (candle.getOpenTime() > state.indicators.getLastClosedOpenTime()) {
+                state.forming = candle;
+            }
+        }
+    }
+
+    /**
+     * Chỉ báo mới nhất của series: tính theo nến đang hình thành nếu có, ngược lại theo nến đã đóng gần nhất.
+     * Null nếu series chưa có trên feed hoặc chưa có dữ liệu.
+     */
+    public IndicatorValues getIndicators(String symbol, String interval) {
+        SeriesState state = states.get(symbol.toUpperCase() + ":" + interval);
+        if (state == null || !state.seeded) {
+            return null;
+        }
+        synchronized (state) {
+            if (state.forming != null) {
+                CandleDto forming = state.forming;
+                return state.indicators.previewValues(forming.getOpenTime(), forming.getHigh().doubleValue(),
+                        forming.getLow().doubleValue(), forming.getClose().doubleValue());
+            }
+            IndicatorValues values = state.indicators.closedValues();
+            return values.getOpenTime() != null ? values : null;
+        }
+    }
+
+    /**
+     * Chỉ báo nếu nến này được áp dụng, không đổi state (dùng để gửi kèm nến trước khi CandleFeed
+     * cập nhật state). Null nếu series chưa được nạp lịch sử, để không chặn thread gọi bằng truy vấn MongoDB.
+     */
+    public IndicatorValues previewIndicators(CandleDto candle) {
+        SeriesState state = states.get(candle.getSymbol().toUpperCase() + ":" + candle.getInterval());
+        if (state == null || !state.seeded) {
+            return null;
+        }
+        synchronized (state) {
+            long lastClosed = state.indicators.getLastClosedOpenTime();
+            if (candle.getOpenTime() == lastClosed) {
+                return state.indicators.closedValues();
+            }
+            if (candle.getOpenTime() < lastClosed) {
+                return null;
+            }
+            return state.indicators.previewValues(candle.getOpenTime(), candle.getHigh().doubleValue(),
+                    candle.getLow().doubleValue(), candle.getClose().doubleValue());
+        }
+    }
+
+    private SeriesState stateOf(String symbol, String interval, long beforeOpenTime) {
+        SeriesState state = states.computeIfAbsent(symbol + ":" + interval, k -> new SeriesState(parameters));
+        if (!state.seeded) {
+            synchronized (state) {
+                if (!state.seeded) {
+                    seed(state, symbol, interval, beforeOpenTime);
+                    state.seeded = true;
+                }
+            }
+        }
+        return state;
+    }
+
+    private void seed(SeriesState state, String symbol, String interval, long beforeOpenTime) {
+        try {
+            long now = System.currentTimeMillis();
+            List<PriceCandle> history = candleService.loadFromDatabase(symbol, interval,
+                    Math.max(warmupCandles, parameters.requiredHistory()));
+            for (PriceCandle candle : history) {
+                long openTime = candle.getOpenTime().toEpochMilli();
+                boolean closed = candle.getCloseTime() != null && candle.getCloseTime().toEpochMilli() < now;
+                if (closed && openTime < beforeOpenTime) {
+                    state.indicators.commit(openTime, candle.getHigh().doubleValue(),
+                            candle.getLow().doubleValue(), candle.getClose().doubleValue());
+                }
+            }
+            log.info("Seeded indicators for {} {} from {} candles", symbol, interval, history.size());
+        } catch (Exception e) {
+            // Không chặn luồng realtime, chỉ báo sẽ có giá trị khi đủ nến realtime
+            log.warn("Failed to seed indicators for {} {}: {}", symbol, interval, e.getMessage());
+        }
+    }
+
+    private static void commit(IndicatorSet indicators, CandleDto candle) {
+        indicators.commit(candle.getOpenTime(), candle.getHigh().doubleValue(),
+                candle.getLow().doubleValue(), candle.getClose().doubleValue());
+    }
+
+    private static final class SeriesState {
+        private final IndicatorSet indicators;
+        private volatile boolean seeded;
+        private CandleDto forming;
+
+        private SeriesState(IndicatorParameters parameters) {
+            this.indicators = new IndicatorSet(parameters);
+        }
+    }
+}
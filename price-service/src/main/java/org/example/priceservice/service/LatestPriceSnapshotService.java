@@ -0,0 +1,107 @@
+package org.example.priceservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.LatestPrice;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Snapshot giá mới nhất của mọi symbol cho /api/prices/latest.
+ * Map được thay thế copy-on-write mỗi tick 1m (số symbol nhỏ nên bản sao rẻ), còn JSON được serialize
+ * sẵn thành byte[] và dựng lại tối đa một lần mỗi price.latest.rebuild-ms; request chỉ đọc một reference
+ * nên chi phí không phụ thuộc số symbol.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class LatestPriceSnapshotService implements CandleUpdateListener {
+    private static final String SOURCE_INTERVAL = "1m";
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<Snapshot> snapshot =
+            new AtomicReference<>(new Snapshot(Collections.emptyMap(), 0L));
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Serialized serialized =
+            new Serialized(0L, 0L, "{\"generatedAt\":0,\"prices\":[]}".getBytes(StandardCharsets.UTF_8));
+
+    @Value("${price.latest.rebuild-ms:250}")
+    private long rebuildMillis;
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        if (!SOURCE_INTERVAL.equals(candle.getInterval())) {
+            return;
+        }
+        String symbol = candle.getSymbol().toUpperCase();
+        LatestPrice latest = toLatestPrice(symbol, candle);
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            LatestPrice previous = current.prices().get(symbol);
+            if (previous != null && !isNewer(latest, previous)) {
+                return;
+            }
+            Map<String, LatestPrice> copy = new TreeMap<>(current.prices());
+            copy.put(symbol, latest);
+            next = new Snapshot(Collections.unmodifiableMap(copy), current.version() + 1);
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    public Map<String, LatestPrice> getPrices() {
+        return snapshot.get().prices();
+    }
+
+    /**
+     * JSON {"generatedAt": ..., "prices": [...]} đã serialize; có thể trễ tối đa rebuild-ms so với state
+     */
+    public byte[] getSerialized() {
+        Serialized cached = serialized;
+        Snapshot current = snapshot.get();
+        long now = System.currentTimeMillis();
+        // Chỉ một thread dựng lại, các request khác dùng bản hiện có
+        if (cached.version() != current.version() && now - cached.builtAt() >= rebuildMillis && rebuilding.compareAndSet(false, true)) {
+            try {
+                Map<String, Object> body = new LinkedHashMap<>();
+                body.put("generatedAt", now);
+                body.put("prices", current.prices().values());
+                cached = new Serialized(current.version(), now, objectMapper.writeValueAsBytes(body));
+                serialized = cached;
+            } catch (Exception e) {
+                log.warn("Failed to serialize latest price snapshot: {}", e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        }
+        return cached.bytes();
+    }
+
+    private boolean isNewer(LatestPrice candidate, LatestPrice current) {
+        if (candidate.getOpenTime() != current.getOpenTime()) {
+            return candidate.getOpenTime() > current.getOpenTime();
+        }
+        return candidate.getEventTime() >= current.getEventTime();
+    }
+
+    private LatestPrice toLatestPrice(String symbol, CandleDto candle) {
+        return new LatestPrice(symbol, candle.getClose(), candle.getEventTime(), candle.getOpenTime(),
+                candle.getOpen(), candle.getHigh(), candle.getLow(), candle.getVolume(), candle.isClosed());
+    }
+
+    private record Snapshot(Map<String, LatestPrice> prices, long version) {
+    }
+
+    private record Serialized(long version, long builtAt, byte[] bytes) {
+    }
+}
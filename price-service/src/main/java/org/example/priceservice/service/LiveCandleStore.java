@@ -0,0 +1,68 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.dto.CandleDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Trạng thái mới nhất của nến đang hình thành cho mỗi (symbol, interval).
+ * Cập nhật lock-free bằng CAS: chỉ ghi đè khi bản mới hơn (openTime lớn hơn, hoặc cùng openTime
+ * nhưng eventTime không nhỏ hơn), nên thứ tự đến lệch giữa các thread không làm state đi lùi.
+ */
+@Component
+public class LiveCandleStore implements CandleUpdateListener {
+    private final Map<String, AtomicReference<CandleDto>> latest = new ConcurrentHashMap<>();
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        AtomicReference<CandleDto> ref = latest.computeIfAbsent(
+                seriesKey(candle.getSymbol(), candle.getInterval()), k -> new AtomicReference<>());
+        CandleDto current;
+        do {
+            current = ref.get();
+            if (current != null && !isNewer(candle, current)) {
+                return;
+            }
+        } while (!ref.compareAndSet(current, candle));
+    }
+
+    /**
+     * Nến mới nhất của series (có thể đang hình thành hoặc vừa đóng), null nếu chưa nhận tick nào
+     */
+    public CandleDto get(String symbol, String interval) {
+        AtomicReference<CandleDto> ref = latest.get(seriesKey(symbol, interval));
+        return ref != null ? ref.get() : null;
+    }
+
+    /**
+     * Phiên bản phần nến đã đóng của series: openTime của nến mới nhất, 0 nếu chưa có.
+     * Chỉ đổi khi nến đóng và nến mới bắt đầu, không đổi theo từng tick; dùng làm một phần của ETag
+     */
+    public long closedVersion(String symbol, String interval) {
+        CandleDto candle = get(symbol, interval);
+        return candle != null ? candle.getOpenTime() : 0L;
+    }
+
+    /**
+     * Phiên bản nến đang hình thành: eventTime của bản cập nhật mới nhất, 0 nếu chưa có.
+     * Đổi theo từng tick, giống nhau giữa các instance vì lấy từ Binance event time
+     */
+    public long liveVersion(String symbol, String interval) {
+        CandleDto candle = get(symbol, interval);
+        return candle != null ? candle.getEventTime() : 0L;
+    }
+
+    private boolean isNewer(CandleDto candidate, CandleDto current) {
+        if (candidate.getOpenTime() != current.getOpenTime()) {
+            return candidate.getOpenTime() > current.getOpenTime();
+        }
+        return candidate.getEventTime() >= current.getEventTime();
+    }
+
+    private String seriesKey(String symbol, String interval) {
+        return symbol.toUpperCase() + ":" + interval;
+    }
+}
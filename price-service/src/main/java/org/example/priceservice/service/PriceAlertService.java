@@ -0,0 +1,123 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.alert.AlertEntry;
+import org.example.priceservice.alert.PriceAlertIndex;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.TriggeredAlert;
+import org.example.priceservice.entity.UserNotificationSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đánh giá UserSettings.priceAlertList trên mỗi tick giá của collector (chạy một instance duy nhất
+ * nên mỗi alert chỉ bắn một lần). Index được dựng và cập nhật tăng dần bởi {@link UserSettingsSyncService}.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@Profile("collector")
+public class PriceAlertService implements CandleUpdateListener, UserSettingsListener {
+    private final List<TriggeredAlertListener> alertListeners;
+
+    // Chỉ dùng giá của một interval: các stream interval khác nhau có thể lệch nhau vài ms và làm bắn lặp
+    @Value("${price.alerts.source-interval:1m}")
+    private String sourceInterval;
+
+    // Alert đã bắn chỉ bật lại khi giá quay lại phía bên kia ngưỡng quá chừng này (%)
+    @Value("${price.alerts.rearm-percent:0.5}")
+    private double rearmPercent;
+
+    private volatile PriceAlertIndex index;
+
+    // Index đang dựng lại, chỉ truy cập từ thread sync
+    private PriceAlertIndex rebuilding;
+
+    @PostConstruct
+    void init() {
+        index = newIndex();
+    }
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        if (!sourceInterval.equals(candle.getInterval()) || candle.getClose() == null) {
+            return;
+        }
+        double price = candle.getClose().doubleValue();
+        List<AlertEntry> crossed = index.onPrice(candle.getSymbol().toUpperCase(), price);
+        if (crossed.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<TriggeredAlert> triggered = new ArrayList<>(crossed.size());
+        for (AlertEntry alert : crossed) {
+            triggered.add(new TriggeredAlert(alert.userId(), alert.symbol(), alert.condition(),
+                    alert.targetPrice(), price, now));
+        }
+        log.info("{} price alerts triggered for {} at {}", triggered.size(), candle.getSymbol(), price);
+        for (TriggeredAlertListener listener : alertListeners) {
+            try {
+                listener.onAlertsTriggered(triggered);
+            } catch (Exception e) {
+                log.warn("Alert listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void beginRebuild() {
+        rebuilding = newIndex();
+    }
+
+    @Override
+    public void apply(UserNotificationSettings settings) {
+        if (settings.getUserId() != null) {
+            (rebuilding != null ? rebuilding : index).replaceUser(settings.getUserId(), toEntries(settings));
+        }
+    }
+
+    @Override
+    public void endRebuild(boolean completed) {
+        if (completed) {
+            rebuilding.copyState(index);
+            index = rebuilding;
+            log.info("Price alert index rebuilt: {} alerts of {} users", index.size(), index.userCount());
+        }
+        rebuilding = null;
+    }
+
+    private PriceAlertIndex newIndex() {
+        return new PriceAlertIndex(rearmPercent / 100);
+    }
+
+    public int getAlertCount() {
+        return index.size();
+    }
+
+    static List<AlertEntry> toEntries(UserNotificationSettings settings) {
+        if (!Boolean.TRUE.equals(settings.getPriceAlerts()) || settings.getPriceAlertList() == null) {
+            return List.of();
+        }
+        List<AlertEntry> entries = new ArrayList<>();
+        for (UserNotificationSettings.PriceAlert alert : settings.getPriceAlertList()) {
+            if (alert == null || Boolean.FALSE.equals(alert.getEnabled()) || alert.getSymbol() == null
+                    || alert.getTargetPrice() == null || alert.getCondition() == null) {
+                continue;
+            }
+            String condition = alert.getCondition().trim().toLowerCase();
+            if (!condition.equals("above") && !condition.equals("below")) {
+                continue;
+            }
+            entries.add(new AlertEntry(settings.getUserId(), alert.getSymbol().toUpperCase(),
+                    condition.equals("above"), alert.getTargetPrice()));
+        }
+        return entries;
+    }
+}
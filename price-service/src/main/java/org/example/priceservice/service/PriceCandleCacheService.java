@@ -2,13 +2,24 @@ package org.example.priceservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CachedCandles;
+import org.example.priceservice.dto.CandleTile;
+import org.example.priceservice.dto.SeriesValidator;
 import org.example.priceservice.entity.PriceCandle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -17,8 +28,32 @@ public class PriceCandleCacheService {
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final Duration cacheTtl;
+    private final CandlePopularityTracker popularityTracker;
 
     private static final String CACHE_KEY_PREFIX = "candles:";
+    // Ngoài CACHE_KEY_PREFIX để invalidateCache / clearAllCache không đưa revision về 0
+    private static final String REVISION_KEY_PREFIX = "candle-revision:";
+
+    // Sau soft TTL entry vẫn được trả về nhưng sẽ được refresh nền; hard TTL (cacheTtl) là lúc Redis xóa key
+    @Value("${cache.candle.soft-ttl-minutes:1}")
+    private long softTtlMinutes;
+
+    // Key "nóng" được refresh trước khi chạm soft TTL, khi tuổi entry vượt factor * soft TTL
+    @Value("${cache.candle.refresh-ahead.factor:0.75}")
+    private double refreshAheadFactor;
+
+    @Value("${cache.candle.refresh-ahead.hit-threshold:20}")
+    private long hotHitThreshold;
+
+    @Value("${cache.candle.refresh-ahead.window-seconds:60}")
+    private long hitWindowSeconds;
+
+    // Key top-K được giữ lâu hơn trong Redis
+    @Value("${cache.candle.popularity.pinned-ttl-minutes:60}")
+    private long pinnedTtlMinutes;
+
+    private final Map<String, AtomicLong> recentHits = new ConcurrentHashMap<>();
+    private volatile long hitWindowStart = System.currentTimeMillis();
 
     /**
      * Tạo cache key dựa trên symbol, interval và limit
@@ -31,14 +66,28 @@ public class PriceCandleCacheService {
      * Lấy candles từ Redis cache
      * @return List candles nếu có trong cache, null nếu không có
      */
-    @SuppressWarnings("unchecked")
     public List<PriceCandle> getFromCache(String symbol, String interval, int limit) {
+        CachedCandles entry = getEntry(symbol, interval, limit);
+        return entry != null ? entry.getCandles() : null;
+    }
+
+    /**
+     * Lấy entry từ Redis cache kèm thời điểm ghi cache
+     * @return entry nếu có trong cache, null nếu không có
+     */
+    @SuppressWarnings("unchecked")
+    public CachedCandles getEntry(String symbol, String interval, int limit) {
         String cacheKey = generateCacheKey(symbol, interval, limit);
         try {
             Object cached = redisTemplate.opsForValue().get(cacheKey);
-            if (cached != null) {
+            if (cached instanceof CachedCandles entry) {
                 log.debug("Cache HIT for key: {}", cacheKey);
-                return (List<PriceCandle>) cached;
+                return entry;
+            }
+            if (cached instanceof List<?> legacy) {
+                // Entry ghi bởi phiên bản cũ (không có cachedAt) -> coi như đã stale
+                log.debug("Cache HIT (legacy entry) for key: {}", cacheKey);
+                return new CachedCandles((List<PriceCandle>) legacy, 0L);
             }
             log.debug("Cache MISS for key: {}", cacheKey);
             return null;
@@ -49,7 +98,49 @@ public class PriceCandleCacheService {
     }
 
     /**
-     * Lưu candles vào Redis cache với TTL
+     * Entry đã quá soft TTL: vẫn dùng được nhưng cần refresh nền
+     */
+    public boolean isStale(CachedCandles entry) {
+        return ageMillis(entry) >= Duration.ofMinutes(softTtlMinutes).toMillis();
+    }
+
+    /**
+     * Key nóng (nhiều hit gần đây) và entry sắp chạm soft TTL -> refresh trước khi hết hạn
+     */
+    public boolean shouldRefreshAhead(String cacheKey, CachedCandles entry) {
+        long threshold = (long) (Duration.ofMinutes(softTtlMinutes).toMillis() * refreshAheadFactor);
+        boolean hot = getRecentHits(cacheKey) >= hotHitThreshold || popularityTracker.isPinned(cacheKey);
+        return ageMillis(entry) >= threshold && hot;
+    }
+
+    /**
+     * Đếm hit theo cửa sổ thời gian cố định, dùng để nhận diện key nóng
+     */
+    public long recordHit(String cacheKey) {
+        rollHitWindow();
+        return recentHits.computeIfAbsent(cacheKey, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    public long getRecentHits(String cacheKey) {
+        rollHitWindow();
+        AtomicLong hits = recentHits.get(cacheKey);
+        return hits != null ? hits.get() : 0;
+    }
+
+    private void rollHitWindow() {
+        long now = System.currentTimeMillis();
+        if (now - hitWindowStart >= Duration.ofSeconds(hitWindowSeconds).toMillis()) {
+            hitWindowStart = now;
+            recentHits.clear();
+        }
+    }
+
+    private long ageMillis(CachedCandles entry) {
+        return System.currentTimeMillis() - entry.getCachedAt();
+    }
+
+    /**
+     * Lưu candles vào Redis cache với TTL, nếu key vượt qua admission policy
      */
     public void saveToCache(String symbol, String interval, int limit, List<PriceCandle> candles) {
         if (candles == null || candles.isEmpty()) {
@@ -57,19 +148,144 @@ public class PriceCandleCacheService {
         }
 
         String cacheKey = generateCacheKey(symbol, interval, limit);
+        Duration ttl = popularityTracker.isPinned(cacheKey) ? Duration.ofMinutes(pinnedTtlMinutes) : cacheTtl;
+        if (!popularityTracker.admit(cacheKey, ttl, this::evict)) {
+            log.debug("Key {} not admitted to cache", cacheKey);
+            return;
+        }
+
         try {
-            redisTemplate.opsForValue().set(cacheKey, candles, cacheTtl);
-            log.debug("Saved {} candles to cache with key: {}, TTL: {}", candles.size(), cacheKey, cacheTtl);
+            redisTemplate.opsForValue().set(cacheKey, new CachedCandles(candles, System.currentTimeMillis()), ttl);
+            log.debug("Saved {} candles to cache with key: {}, TTL: {}", candles.size(), cacheKey, ttl);
         } catch (Exception e) {
             log.warn("Error saving to Redis cache for key {}: {}", cacheKey, e.getMessage());
         }
     }
 
     /**
-     * Xóa cache cho một symbol và interval cụ thể (invalidate khi có data mới)
+     * Ghi nhiều entry của cùng một symbol/interval (khác limit) trong một lần pipeline Redis,
+     * dùng cho warm-up lúc khởi động
+     */
+    public void saveAllToCache(String symbol, String interval, Map<Integer, List<PriceCandle>> candlesByLimit) {
+        long now = System.currentTimeMillis();
+        Map<String, CachedCandles> entries = new LinkedHashMap<>();
+        Map<String, Duration> ttls = new HashMap<>();
+
+        candlesByLimit.forEach((limit, candles) -> {
+            if (candles == null || candles.isEmpty()) {
+                return;
+            }
+            String cacheKey = generateCacheKey(symbol, interval, limit);
+            Duration ttl = popularityTracker.isPinned(cacheKey) ? Duration.ofMinutes(pinnedTtlMinutes) : cacheTtl;
+            if (popularityTracker.admit(cacheKey, ttl, this::evict)) {
+                entries.put(cacheKey, new CachedCandles(candles, now));
+                ttls.put(cacheKey, ttl);
+            }
+        });
+
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    entries.forEach((key, entry) -> ops.opsForValue().set(key, entry, ttls.get(key)));
+                    return null;
+                }
+            });
+            log.debug("Pipelined {} cache entries for {} {}", entries.size(), symbol, interval);
+        } catch (Exception e) {
+            log.warn("Error pipelining cache entries for {} {}: {}", symbol, interval, e.getMessage());
+        }
+    }
+
+    /**
+     * Key của tile nằm dưới prefix của symbol/interval để invalidateCache xóa luôn khi backfill
+     */
+    public String generateTileKey(String symbol, String interval, int pageSize, long index) {
+        return CACHE_KEY_PREFIX + symbol.toUpperCase() + ":" + interval + ":tile:" + pageSize + ":" + index;
+    }
+
+    public CandleTile getTileFromCache(String symbol, String interval, int pageSize, long index) {
+        String tileKey = generateTileKey(symbol, interval, pageSize, index);
+        try {
+            Object cached = redisTemplate.opsForValue().get(tileKey);
+            return cached instanceof CandleTile tile ? tile : null;
+        } catch (Exception e) {
+            log.warn("Error reading tile from Redis cache for key {}: {}", tileKey, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Tile immutable được lưu không TTL, tile đầu (đang thay đổi) dùng TTL thường
+     */
+    public void saveTileToCache(CandleTile tile) {
+        if (tile.getCandles() == null || tile.getCandles().isEmpty()) {
+            return;
+        }
+        String tileKey = generateTileKey(tile.getSymbol(), tile.getInterval(), tile.getPageSize(), tile.getIndex());
+        try {
+            if (tile.isImmutable()) {
+                redisTemplate.opsForValue().set(tileKey, tile);
+            } else {
+                redisTemplate.opsForValue().set(tileKey, tile, cacheTtl);
+            }
+            log.debug("Saved tile {} ({} candles, immutable={})", tileKey, tile.getCandles().size(), tile.isImmutable());
+        } catch (Exception e) {
+            log.warn("Error saving tile to Redis cache for key {}: {}", tileKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Validator của series sống bằng soft TTL: hết hạn thì request conditional tiếp theo
+     * đi đường đầy đủ và validator được tạo lại từ dữ liệu mới
+     */
+    public SeriesValidator getValidator(String symbol, String interval) {
+        String validatorKey = generateValidatorKey(symbol, interval);
+        try {
+            Object cached = redisTemplate.opsForValue().get(validatorKey);
+            return cached instanceof SeriesValidator validator ? validator : null;
+        } catch (Exception e) {
+            log.warn("Error reading validator from Redis for key {}: {}", validatorKey, e.getMessage());
+            return null;
+        }
+    }
+
+    public void saveValidator(String symbol, String interval, SeriesValidator validator) {
+        String validatorKey = generateValidatorKey(symbol, interval);
+        try {
+            redisTemplate.opsForValue().set(validatorKey, validator, Duration.ofMinutes(softTtlMinutes));
+        } catch (Exception e) {
+            log.warn("Error saving validator to Redis for key {}: {}", validatorKey, e.getMessage());
+        }
+    }
+
+    private String generateValidatorKey(String symbol, String interval) {
+        return CACHE_KEY_PREFIX + symbol.toUpperCase() + ":" + interval + ":validator";
+    }
+
+    private void evict(String cacheKey) {
+        try {
+            redisTemplate.delete(cacheKey);
+            log.debug("Evicted cache key {} to make room for a more popular key", cacheKey);
+        } catch (Exception e) {
+            log.warn("Error evicting cache key {}: {}", cacheKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Xóa cache cho một symbol và interval cụ thể (invalidate khi có data mới) rồi tăng data revision,
+     * để ETag của tile đã đóng đổi theo và bản tile cũ còn sót trong Redis không được dùng lại
      */
     public void invalidateCache(String symbol, String interval) {
-        String pattern = CACHE_KEY_PREFIX + symbol.toUpperCase() + ":" + interval + ":*";
+        String keyPrefix = CACHE_KEY_PREFIX + symbol.toUpperCase() + ":" + interval + ":";
+        String pattern = keyPrefix + "*";
+        popularityTracker.invalidate(keyPrefix);
         try {
             var keys = redisTemplate.keys(pattern);
             if (keys != null && !keys.isEmpty()) {
@@ -79,6 +295,29 @@ public class PriceCandleCacheService {
         } catch (Exception e) {
             log.warn("Error invalidating cache for pattern {}: {}", pattern, e.getMessage());
         }
+        try {
+            redisTemplate.opsForValue().increment(generateRevisionKey(symbol, interval));
+        } catch (Exception e) {
+            log.warn("Error bumping data revision for {} {}: {}", symbol, interval, e.getMessage());
+        }
+    }
+
+    /**
+     * Revision dữ liệu của (symbol, interval), tăng mỗi lần invalidateCache; -1 nếu Redis lỗi
+     */
+    public long getDataRevision(String symbol, String interval) {
+        try {
+            // INCRBY 0: đọc dạng số, không qua value serializer
+            Long revision = redisTemplate.opsForValue().increment(generateRevisionKey(symbol, interval), 0);
+            return revision != null ? revision : -1;
+        } catch (Exception e) {
+            log.warn("Error reading data revision for {} {}: {}", symbol, interval, e.getMessage());
+            return -1;
+        }
+    }
+
+    private String generateRevisionKey(String symbol, String interval) {
+        return REVISION_KEY_PREFIX + symbol.toUpperCase() + ":" + interval;
     }
 
     /**
@@ -86,6 +325,7 @@ public class PriceCandleCacheService {
      */
     public void clearAllCache() {
         String pattern = CACHE_KEY_PREFIX + "*";
+        popularityTracker.invalidate(CACHE_KEY_PREFIX);
         try {
             var keys = redisTemplate.keys(pattern);
             if (keys != null && !keys.isEmpty()) {
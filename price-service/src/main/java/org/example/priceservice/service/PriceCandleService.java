@@ -2,15 +2,24 @@ package org.example.priceservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CachedCandles;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.SeriesValidator;
 import org.example.priceservice.entity.PriceCandle;
 import org.example.priceservice.repository.PriceCandleRepository;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 @Service
 @Slf4j
@@ -18,21 +27,99 @@ import java.util.List;
 public class PriceCandleService {
     private final PriceCandleRepository priceCandleRepository;
     private final PriceCandleCacheService cacheService;
+    private final Executor candleRefreshExecutor;
+    private final CandlePopularityTracker popularityTracker;
+    private final LiveCandleStore liveCandleStore;
+    private final CandleResampleService resampleService;
+
+    // Các key đang được refresh nền, tránh nhiều request cùng reload một key
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
 
     public List<PriceCandle> getCandles(String symbol, String interval, int limit) {
         String normalizedSymbol = symbol.toUpperCase();
 
         log.info("Fetching candles for symbol={}, interval={}, limit={}", normalizedSymbol, interval, limit);
 
+        String cacheKey = cacheService.generateCacheKey(normalizedSymbol, interval, limit);
+        popularityTracker.record(cacheKey);
+
         // 1. Kiểm tra Redis cache trước
-        List<PriceCandle> cachedCandles = cacheService.getFromCache(normalizedSymbol, interval, limit);
-        if (cachedCandles != null && !cachedCandles.isEmpty()) {
-            log.info("Returning {} candles from Redis cache", cachedCandles.size());
-            return cachedCandles;
+        CachedCandles cached = cacheService.getEntry(normalizedSymbol, interval, limit);
+        if (cached != null && cached.getCandles() != null && !cached.getCandles().isEmpty()) {
+            cacheService.recordHit(cacheKey);
+
+            // Stale-while-revalidate: trả ngay giá trị cũ, reload ở background
+            if (cacheService.isStale(cached) || cacheService.shouldRefreshAhead(cacheKey, cached)) {
+                scheduleRefresh(cacheKey, normalizedSymbol, interval, limit);
+            }
+
+            log.info("Returning {} candles from Redis cache", cached.getCandles().size());
+            return cached.getCandles();
         }
 
         // 2. Cache miss -> Query từ MongoDB
         log.info("Cache miss, querying from MongoDB");
+        return loadAndCache(normalizedSymbol, interval, limit);
+    }
+
+    /**
+     * Ghép nến đang hình thành (từ LiveCandleStore) vào cuối danh sách lịch sử, giữ tối đa {@code limit} nến.
+     * Không sửa list đầu vào lẫn các phần tử của nó.
+     */
+    public List<PriceCandle> mergeLive(List<PriceCandle> history, String symbol, String interval, int limit) {
+        long now = System.currentTimeMillis();
+        List<PriceCandle> result = new ArrayList<>(history.size() + 1);
+        for (PriceCandle candle : history) {
+            // Bản sao: history có thể là list trong cache, không ghi isClosed vào payload dùng chung
+            PriceCandle copy = candle.toBuilder().build();
+            copy.setIsClosed(candle.getCloseTime() != null && candle.getCloseTime().toEpochMilli() < now);
+            result.add(copy);
+        }
+
+        CandleDto live = liveCandleStore.get(symbol, interval);
+        if (live == null) {
+            return result;
+        }
+
+        PriceCandle liveCandle = toEntity(live);
+        PriceCandle last = result.isEmpty() ? null : result.get(result.size() - 1);
+        if (last == null || live.getOpenTime() > last.getOpenTime().toEpochMilli()) {
+            result.add(liveCandle);
+            if (result.size() > limit) {
+                result.remove(0);
+            }
+        } else if (live.getOpenTime() == last.getOpenTime().toEpochMilli()) {
+            // Bản trong DB/cache của nến này cũ hơn state realtime
+            liveCandle.setId(last.getId());
+            liveCandle.setTrades(last.getTrades());
+            result.set(result.size() - 1, liveCandle);
+        }
+        return result;
+    }
+
+    private PriceCandle toEntity(CandleDto live) {
+        return PriceCandle.builder()
+                .symbol(live.getSymbol().toUpperCase())
+                .interval(live.getInterval())
+                .openTime(Instant.ofEpochMilli(live.getOpenTime()))
+                .closeTime(Instant.ofEpochMilli(live.getCloseTime()))
+                .open(live.getOpen())
+                .high(live.getHigh())
+                .low(live.getLow())
+                .close(live.getClose())
+                .volume(live.getVolume())
+                .isClosed(live.isClosed())
+                .build();
+    }
+
+    /**
+     * Lấy {@code limit} nến mới nhất từ MongoDB, trả về theo thứ tự thời gian tăng dần.
+     * Interval không lưu sẵn được resample từ interval gốc (cache như interval thường ở tầng trên).
+     */
+    public List<PriceCandle> loadFromDatabase(String normalizedSymbol, String interval, int limit) {
+        if (!CandleResampleService.isNative(interval)) {
+            return resampleService.resample(normalizedSymbol, interval, limit);
+        }
         Pageable pageable = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "openTime"));
 
         List<PriceCandle> candles = priceCandleRepository.findBySymbolAndInterval(normalizedSymbol, interval, pageable);
@@ -46,11 +133,59 @@ public class PriceCandleService {
 
             // Reverse để trả về theo thứ tự thời gian tăng dần (cũ -> mới) cho FE
             Collections.reverse(candles);
+        }
+
+        return candles;
+    }
 
-            // 3. Lưu vào Redis cache cho lần request tiếp theo
-            cacheService.saveToCache(normalizedSymbol, interval, limit, candles);
+    private List<PriceCandle> loadAndCache(String normalizedSymbol, String interval, int limit) {
+        List<PriceCandle> candles = loadFromDatabase(normalizedSymbol, interval, limit);
+
+        // 3. Lưu vào Redis cache cho lần request tiếp theo
+        cacheService.saveToCache(normalizedSymbol, interval, limit, candles);
+        if (!candles.isEmpty()) {
+            cacheService.saveValidator(normalizedSymbol, interval, toValidator(candles.get(candles.size() - 1)));
         }
 
         return candles;
     }
+
+    /**
+     * Validator đã lưu của series, null nếu chưa có / đã hết hạn
+     */
+    public SeriesValidator getValidator(String symbol, String interval) {
+        return cacheService.getValidator(symbol.toUpperCase(), interval);
+    }
+
+    public void saveValidator(String symbol, String interval, SeriesValidator validator) {
+        cacheService.saveValidator(symbol.toUpperCase(), interval, validator);
+    }
+
+    public SeriesValidator toValidator(PriceCandle latest) {
+        long openTime = latest.getOpenTime() != null ? latest.getOpenTime().toEpochMilli() : 0L;
+        long closeTime = latest.getCloseTime() != null ? latest.getCloseTime().toEpochMilli() : 0L;
+        return new SeriesValidator(openTime, closeTime);
+    }
+
+    private void scheduleRefresh(String cacheKey, String normalizedSymbol, String interval, int limit) {
+        if (!refreshesInFlight.add(cacheKey)) {
+            return;
+        }
+        try {
+            candleRefreshExecutor.execute(() -> {
+                try {
+                    loadAndCache(normalizedSymbol, interval, limit);
+                    log.debug("Background refresh done for key: {}", cacheKey);
+                } catch (Exception e) {
+                    log.warn("Background refresh failed for key {}: {}", cacheKey, e.getMessage());
+                } finally {
+                    refreshesInFlight.remove(cacheKey);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Executor đầy -> giữ giá trị stale, lần hit sau sẽ thử lại
+            refreshesInFlight.remove(cacheKey);
+            log.debug("Refresh executor saturated, skip refresh for key: {}", cacheKey);
+        }
+    }
 }
@@ -41,6 +41,8 @@ public class PriceCollectorService {
     private final ObjectMapper objectMapper;
     private final SimpMessagingTemplate simpMessagingTemplate;
     private final PriceCandleRepository priceCandleRepository;
+    private final CandleFeed candleFeed;
+    private final IndicatorService indicatorService;
     private final ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(1);
     private final String[] supportedInterval = { "1m", "3m", "5m", "15m", "30m", "1h" };
     private final Map<String, WebSocketClient> webSocketClientMap = new ConcurrentHashMap<>();
@@ -52,6 +54,9 @@ public class PriceCollectorService {
     @Value("${price.symbols:btcusdt,ethusdt}")
     private String symbolsConfig;
 
+    @Value("${price.indicators.stream-enabled:true}")
+    private boolean indicatorsOnStream;
+
     @EventListener(ApplicationReadyEvent.class)
     private void init() {
         List<String> symbols = List.of(symbolsConfig.split(","));
@@ -150,11 +155,23 @@ public class PriceCollectorService {
         candleDto.setClose(new BigDecimal(kline.getClose())); // Giá realtime là Close
         candleDto.setVolume(new BigDecimal(kline.getVolume()));
         candleDto.setOpenTime(kline.getOpenTime());
+        candleDto.setInterval(interval);
+        candleDto.setCloseTime(kline.getCloseTime());
+        candleDto.setClosed(kline.isClosed());
+        candleDto.setEventTime(event.getEventTime() != null ? event.getEventTime() : System.currentTimeMillis());
+
+        if (indicatorsOnStream) {
+            // Preview không đổi state chỉ báo; state được cập nhật khi CandleFeed giao nến cho IndicatorService
+            candleDto.setIndicators(indicatorService.previewIndicators(candleDto));
+        }
 
         // Topic: /topic/candles/1m/btcusdt
         String destination = "/topic/candles." + interval + "." + symbol.toLowerCase();
         simpMessagingTemplate.convertAndSend(destination, candleDto);
 
+        // Gửi xong mới phân phối cho các state store trong process (bất đồng bộ, bản sao chỉ đọc)
+        candleFeed.publish(candleDto);
+
         // 2. Nếu nến đã đóng (isClosed = true) -> Lưu vào DB
         if (kline.isClosed()) {
             saveClosedCandle(kline, symbol);
@@ -0,0 +1,127 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.priceservice.dto.CandleDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Giữ trong bộ nhớ N nến đã đóng gần nhất của mỗi (symbol, interval), cộng với nến đang hình thành
+ * từ {@link LiveCandleStore}, dùng để dựng snapshot khi client SUBSCRIBE mà không phải gọi REST.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecentCandleStore implements CandleUpdateListener {
+    private final LiveCandleStore liveCandleStore;
+
+    @Value("${price.stream.snapshot.max-size:500}")
+    private int capacity;
+
+    private final Map<String, SeriesBuffer> buffers = new ConcurrentHashMap<>();
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        // Nến đang hình thành do LiveCandleStore giữ, ở đây chỉ lưu nến đã đóng
+        if (!candle.isClosed()) {
+            return;
+        }
+        SeriesBuffer buffer = buffers.computeIfAbsent(seriesKey(candle.getSymbol(), candle.getInterval()),
+                k -> new SeriesBuffer());
+        synchronized (buffer) {
+            buffer.appendClosed(candle, capacity);
+        }
+    }
+
+    /**
+     * Tối đa {@code size} nến đã đóng gần nhất + nến đang hình thành (nếu có), tăng dần theo openTime
+     */
+    public List<CandleDto> snapshot(String symbol, String interval, int size) {
+        SeriesBuffer buffer = buffers.get(seriesKey(symbol, interval));
+        CandleDto live = liveCandleStore.get(symbol, interval);
+        if (buffer == null) {
+            List<CandleDto> result = new ArrayList<>();
+            if (live != null && !live.isClosed()) {
+                result.add(live);
+            }
+            return result;
+        }
+        synchronized (buffer) {
+            List<CandleDto> result = new ArrayList<>(Math.min(size, buffer.closed.size()) + 1);
+            int skip = Math.max(0, buffer.closed.size() - size);
+            Iterator<CandleDto> it = buffer.closed.iterator();
+            for (int i = 0; it.hasNext(); i++) {
+                CandleDto candle = it.next();
+                if (i >= skip) {
+                    result.add(candle);
+                }
+            }
+            if (live != null && !live.isClosed() && buffer.isNewerThanClosed(live)) {
+                result.add(live);
+            }
+            return result;
+        }
+    }
+
+    public int closedCount(String symbol, String interval) {
+        SeriesBuffer buffer = buffers.get(seriesKey(symbol, interval));
+        if (buffer == null) {
+            return 0;
+        }
+        synchronized (buffer) {
+            return buffer.closed.size();
+        }
+    }
+
+    /**
+     * Bổ sung lịch sử (tăng dần theo openTime) vào phía trước buffer, chỉ lấy các nến đã đóng
+     * cũ hơn nến đầu tiên đang có trong bộ nhớ
+     */
+    public void seed(String symbol, String interval, List<CandleDto> history) {
+        SeriesBuffer buffer = buffers.computeIfAbsent(seriesKey(symbol, interval), k -> new SeriesBuffer());
+        synchronized (buffer) {
+            long firstOpenTime = buffer.closed.isEmpty() ? Long.MAX_VALUE : buffer.closed.peekFirst().getOpenTime();
+            for (int i = history.size() - 1; i >= 0 && buffer.closed.size() < capacity; i--) {
+                CandleDto candle = history.get(i);
+                if (candle.isClosed() && candle.getOpenTime() < firstOpenTime) {
+                    buffer.closed.addFirst(candle);
+                    firstOpenTime = candle.getOpenTime();
+                }
+            }
+        }
+    }
+
+    private String seriesKey(String symbol, String interval) {
+        return symbol.toUpperCase() + ":" + interval;
+    }
+
+    private static class SeriesBuffer {
+        private final ArrayDeque<CandleDto> closed = new ArrayDeque<>();
+
+        void appendClosed(CandleDto candle, int capacity) {
+            CandleDto last = closed.peekLast();
+            if (last != null && last.getOpenTime() >= candle.getOpenTime()) {
+                if (last.getOpenTime() == candle.getOpenTime()) {
+                    closed.pollLast();
+                    closed.addLast(candle);
+                }
+                return;
+            }
+            closed.addLast(candle);
+            while (closed.size() > capacity) {
+                closed.pollFirst();
+            }
+        }
+
+        boolean isNewerThanClosed(CandleDto candle) {
+            CandleDto last = closed.peekLast();
+            return last == null || candle.getOpenTime() > last.getOpenTime();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.ReplayRequest;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.replay.ReplaySession;
+import org.example.priceservice.util.IntervalUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phát lại nến lịch sử qua STOMP với tốc độ 1x-1000x, trên prefix riêng /topic/{prefix}.{sessionId}.candles.*
+ * để không lẫn với luồng realtime (CandleTopicConsumer chỉ bind candles.*.*).
+ * - Đọc: mỗi phiên đọc trước theo trang (keyset trên openTime) trên pool reader giới hạn, nạp thêm khi buffer
+ *   còn dưới một nửa; không giữ cursor MongoDB mở giữa các trang vì ở tốc độ 1x cursor rảnh sẽ bị server timeout.
+ * - Phát: mọi phiên dùng chung một ScheduledThreadPoolExecutor nhỏ; mỗi phiên tối đa một lần phát được lập lịch,
+ *   hạn phát tính từ mốc cố định nên không trôi lịch, đến hạn nhiều nến thì phát dồn (tối đa max-burst mỗi lượt).
+ * Phiên chỉ nằm trong bộ nhớ của instance nhận request; mỗi user tối đa max-sessions-per-user phiên đang chạy
+ * và chỉ xem / dừng được phiên của mình.
+ */
+@Service
+@Slf4j
+public class ReplayService {
+    private static final long STALL_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ExecutorService readerPool;
+    private final Map<String, ReplaySession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${price.replay.topic-prefix:replay}")
+    private String topicPrefix;
+
+    @Value("${price.replay.max-sessions:50}")
+    private int maxSessions;
+
+    @Value("${price.replay.max-sessions-per-user:2}")
+    private int maxSessionsPerUser;
+
+    @Value("${price.replay.max-symbols:20}")
+    private int maxSymbols;
+
+    @Value("${price.replay.max-speed:1000}")
+    private double maxSpeed;
+
+    @Value("${price.replay.read-ahead:2000}")
+    private int readAhead;
+
+    @Value("${price.replay.max-burst:500}")
+    private int maxBurst;
+
+    @Value("${price.replay.retention-minutes:30}")
+    private long retentionMinutes;
+
+    public ReplayService(MongoTemplate mongoTemplate, SimpMessagingTemplate messagingTemplate,
+                         @Value("${price.replay.scheduler-threads:2}") int schedulerThreads,
+                         @Value("${price.replay.reader-threads:2}") int readerThreads) {
+        this.mongoTemplate = mongoTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.scheduler = new ScheduledThreadPoolExecutor(Math.max(1, schedulerThreads));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.readerPool = Executors.newFixedThreadPool(Math.max(1, readerThreads));
+    }
+
+    /**
+     * Tạo phiên và bắt đầu đọc trang đầu; đồng hồ phát bắt đầu khi trang đầu đã vào buffer.
+     * IllegalArgumentException nếu request không hợp lệ, IllegalStateException nếu đã đủ số phiên đang chạy
+     * (toàn instance hoặc của user)
+     */
+    public ReplaySession start(ReplayRequest request, String userId) {
+        Set<String> symbols = new LinkedHashSet<>();
+        if (request.getSymbols() != null) {
+            request.getSymbols().forEach(s -> {
+                if (s != null && !s.isBlank()) {
+                    symbols.add(s.trim().toUpperCase());
+                }
+            });
+        }
+        if (symbols.isEmpty() || symbols.size() > maxSymbols) {
+            throw new IllegalArgumentException("symbols must contain 1-" + maxSymbols + " symbols");
+        }
+        if (!CandleResampleService.isNative(request.getInterval())) {
+            throw new IllegalArgumentException("interval must be one of " + CandleResampleService.NATIVE_INTERVALS);
+        }
+        if (request.getStartTime() == null || request.getEndTime() == null
+                || request.getEndTime() <= request.getStartTime()) {
+            throw new IllegalArgumentException("startTime and endTime are required, startTime < endTime");
+        }
+        if (!(request.getSpeed() >= 1 && request.getSpeed() <= maxSpeed)) {
+            throw new IllegalArgumentException("speed must be between 1 and " + maxSpeed);
+        }
+
+        ReplaySession session;
+        synchronized (sessions) {
+            evictExpired();
+            List<ReplaySession> running = sessions.values().stream().filter(ReplaySession::isActive).toList();
+            if (running.size() >= maxSessions) {
+                throw new IllegalStateException("Too many running replay sessions");
+            }
+            if (running.stream().filter(s -> s.getUserId().equals(userId)).count() >= maxSessionsPerUser) {
+                throw new IllegalStateException("You already have " + maxSessionsPerUser + " running replay session(s)");
+            }
+            String id = UUID.randomUUID().toString().replace("-", "");
+            session = new ReplaySession(id, userId, new ArrayList<>(symbols), request.getInterval(),
+                    IntervalUtils.toMillis(request.getInterval()), request.getStartTime(), request.getEndTime(),
+                    request.getSpeed(), "/topic/" + topicPrefix + "." + id + ".candles");
+            sessions.put(id, session);
+        }
+
+        ReplaySession started = session;
+        if (started.tryStartRefill()) {
+            readerPool.execute(() -> {
+                if (refill(started, readAhead)) {
+                    started.startClock(System.nanoTime());
+                    schedule(started, 0);
+                }
+            });
+        }
+        log.info("Replay {} started by user {}: {} {} from {} to {} at {}x", session.getId(), userId, symbols,
+                request.getInterval(), Instant.ofEpochMilli(request.getStartTime()),
+                Instant.ofEpochMilli(request.getEndTime()), request.getSpeed());
+        return session;
+    }
+
+    public ReplaySession get(String sessionId, String userId) {
+        ReplaySession session = sessions.get(sessionId);
+        return session != null && session.getUserId().equals(userId) ? session : null;
+    }
+
+    public ReplaySession cancel(String sessionId, String userId) {
+        ReplaySession session = get(sessionId, userId);
+        if (session != null && session.finish(ReplaySession.Status.CANCELLED, null)) {
+            publishStatus(session);
+        }
+        return session;
+    }
+
+    /**
+     * Đọc một trang tối đa pageSize nến từ vị trí hiện tại. Trang đầy thì bỏ các nến có openTime bằng openTime
+     * cuối trang (có thể thiếu symbol) và đọc lại từ openTime đó ở trang sau, nên không trùng cũng không sót.
+     */
+    boolean refill(ReplaySession session, int pageSize) {
+        try {
+            if (!session.isActive()) {
+                session.refillFailed();
+                return false;
+            }
+            // Trang phải chứa trọn ít nhất một openTime của mọi symbol
+            int limit = Math.max(pageSize, 2 * session.getSymbols().size());
+            long from = session.getNextOpenTime();
+            Query query = new Query(Criteria.where("symbol").in(session.getSymbols())
+                    .and("interval").is(session.getInterval())
+                    .and("openTime").gte(Instant.ofEpochMilli(from)).lt(Instant.ofEpochMilli(session.getEndTime())))
+                    .with(Sort.by(Sort.Direction.ASC, "openTime"))
+                    .limit(limit);
+            query.fields().include("symbol", "interval", "openTime", "closeTime", "open", "high", "low", "close",
+                    "volume", "trades");
+            List<PriceCandle> page = mongoTemplate.find(query, PriceCandle.class);
+
+            if (page.size() < limit) {
+                session.appendPage(page, from, true);
+                return true;
+            }
+            long lastOpenTime = page.get(page.size() - 1).getOpenTime().toEpochMilli();
+            int complete = page.size();
+            while (complete > 0 && page.get(complete - 1).getOpenTime().toEpochMilli() == lastOpenTime) {
+                complete--;
+            }
+            if (complete == 0) {
+                // Cả trang cùng một openTime (bản ghi trùng): phát hết và đi tiếp để không đọc lặp mãi
+                session.appendPage(page, lastOpenTime + 1, false);
+            } else {
+                session.appendPage(page.subList(0, complete), lastOpenTime, false);
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Replay {} failed to read candles: {}", session.getId(), e.getMessage());
+            session.refillFailed();
+            if (session.finish(ReplaySession.Status.FAILED, e.getMessage())) {
+                publishStatus(session);
+            }
+            return false;
+        }
+    }
+
+    private void schedule(ReplaySession session, long delayNanos) {
+        if (session.isActive()) {
+            session.setScheduled(scheduler.schedule(() -> emit(session), delayNanos, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Phát mọi nến đã đến hạn (tối đa maxBurst) rồi lập lịch lần phát kế tiếp theo hạn của nến đầu buffer
+     */
+    void emit(ReplaySession session) {
+        try {
+            for (int sent = 0; session.isActive(); sent++) {
+                if (session.buffered() <= readAhead / 2 && session.tryStartRefill()) {
+                    readerPool.execute(() -> refill(session, readAhead / 2));
+                }
+                PriceCandle next = session.peek();
+                if (next == null) {
+                    if (session.isDrained()) {
+                        if (session.finish(ReplaySession.Status.COMPLETED, null)) {
+                            publishStatus(session);
+                            log.info("Replay {} completed: {} candles", session.getId(),
+                                    session.toStatus().getPublishedCandles());
+                        }
+                    } else {
+                        // Reader chưa kịp nạp trang kế tiếp
+                        session.recordStall();
+                        schedule(session, STALL_RETRY_NANOS);
+                    }
+                    return;
+                }
+                long now = System.nanoTime();
+                long due = session.dueNanos(next);
+                if (due > now) {
+                    schedule(session, due - now);
+                    return;
+                }
+                if (sent >= maxBurst) {
+                    // Nhường thread cho phiên khác rồi phát tiếp ngay
+                    schedule(session, 0);
+                    return;
+                }
+                session.poll();
+                publish(session, next);
+                session.recordPublished(next, now - due);
+            }
+        } catch (Exception e) {
+            log.warn("Replay {} failed: {}", session.getId(), e.getMessage());
+            if (session.finish(ReplaySession.Status.FAILED, e.getMessage())) {
+                publishStatus(session);
+            }
+        }
+    }
+
+    private void publish(ReplaySession session, PriceCandle candle) {
+        CandleDto dto = CandleDto.from(candle);
+        dto.setClosed(true);
+        messagingTemplate.convertAndSend(session.getDestinationPrefix() + "." + session.getInterval() + "."
+                + candle.getSymbol().toLowerCase(), dto);
+    }
+
+    private void publishStatus(ReplaySession session) {
+        try {
+            messagingTemplate.convertAndSend("/topic/" + topicPrefix + "." + session.getId() + ".status",
+                    session.toStatus());
+        } catch (Exception e) {
+            log.debug("Failed to publish replay {} status: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        sessions.values().removeIf(session -> session.getFinishedAt() != null && session.getFinishedAt() < cutoff);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(session -> session.finish(ReplaySession.Status.CANCELLED, "Shutting down"));
+        scheduler.shutdownNow();
+        readerPool.shutdownNow();
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.priceservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.TickerStats;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.ticker.RollingTickerWindow;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thống kê 24h cuộn theo symbol, cập nhật tăng dần từ stream nến 1m của CandleFeed.
+ * Mỗi cập nhật tính lại bản thống kê của symbol (O(1)) nên đọc chỉ là lấy bản đã tính sẵn.
+ * Lịch sử nạp từ MongoDB có thể cũ hoặc thủng (collector dừng, chưa backfill): chỉ nhận nến trong 24h trước
+ * nến realtime đầu tiên, và thống kê được đánh dấu partial cho tới khi cửa sổ đủ nến.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class TickerService implements CandleUpdateListener {
+    private static final String SOURCE_INTERVAL = "1m";
+    private static final long WINDOW_MILLIS = Duration.ofHours(24).toMillis();
+    private static final long INTERVAL_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int WINDOW_CANDLES = (int) (WINDOW_MILLIS / INTERVAL_MILLIS);
+
+    private final PriceCandleService candleService;
+
+    private final Map<String, RollingTickerWindow> windows = new ConcurrentHashMap<>();
+    private final Map<String, TickerStats> latest = new ConcurrentHashMap<>();
+
+    // Tăng mỗi khi có thống kê mới, publisher dùng để bỏ qua lượt không có thay đổi
+    private final AtomicLong version = new AtomicLong();
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        if (!SOURCE_INTERVAL.equals(candle.getInterval())) {
+            return;
+        }
+        String symbol = candle.getSymbol().toUpperCase();
+        RollingTickerWindow window = windows.get(symbol);
+        if (window == null) {
+            // Nạp lịch sử ngoài computeIfAbsent để không giữ lock của map trong lúc query MongoDB
+            RollingTickerWindow seeded = seed(symbol, candle.getOpenTime());
+            window = windows.putIfAbsent(symbol, seeded);
+            window = window != null ? window : seeded;
+        }
+
+        synchronized (window) {
+            double open = candle.getOpen().doubleValue();
+            double high = candle.getHigh().doubleValue();
+            double low = candle.getLow().doubleValue();
+            double close = candle.getClose().doubleValue();
+            double volume = candle.getVolume().doubleValue();
+            if (candle.isClosed()) {
+                window.addClosed(candle.getOpenTime(), open, high, low, close, volume);
+            } else {
+                window.updateForming(candle.getOpenTime(), open, high, low, close, volume);
+            }
+            TickerStats stats = window.stats(symbol);
+            if (stats != null) {
+                latest.put(symbol, stats);
+                version.incrementAndGet();
+            }
+        }
+    }
+
+    public Collection<TickerStats> getAll() {
+        return latest.values();
+    }
+
+    public TickerStats get(String symbol) {
+        return latest.get(symbol.toUpperCase());
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Cửa sổ mới cho symbol, nạp sẵn nến 1m đã đóng trong [beforeOpenTime - 24h, beforeOpenTime) từ MongoDB
+     */
+    private RollingTickerWindow seed(String symbol, long beforeOpenTime) {
+        RollingTickerWindow window = new RollingTickerWindow(WINDOW_MILLIS, INTERVAL_MILLIS);
+        try {
+            List<PriceCandle> history = candleService.loadFromDatabase(symbol, SOURCE_INTERVAL, WINDOW_CANDLES);
+            long now = System.currentTimeMillis();
+            long windowStart = beforeOpenTime - WINDOW_MILLIS;
+            int seeded = 0;
+            for (PriceCandle candle : history) {
+                long openTime = candle.getOpenTime().toEpochMilli();
+                boolean closed = candle.getCloseTime() != null && candle.getCloseTime().toEpochMilli() < now;
+                if (closed && openTime > windowStart && openTime < beforeOpenTime) {
+                    seeded++;
+                    window.addClosed(openTime, candle.getOpen().doubleValue(), candle.getHigh().doubleValue(),
+                            candle.getLow().doubleValue(), candle.getClose().doubleValue(),
+                            candle.getVolume().doubleValue());
+                }
+            }
+            if (seeded < WINDOW_CANDLES - 1) {
+                log.info("24h ticker for {} seeded with {} of {} candles, reported as partial",
+                        symbol, seeded, WINDOW_CANDLES - 1);
+            }
+        } catch (Exception e) {
+            // Cửa sổ sẽ đầy dần theo dữ liệu realtime
+            log.warn("Failed to seed 24h ticker for {}: {}", symbol, e.getMessage());
+        }
+        return window;
+    }
+}
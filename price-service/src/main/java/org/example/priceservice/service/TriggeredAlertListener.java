@@ -0,0 +1,12 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.dto.TriggeredAlert;
+
+import java.util.List;
+
+/**
+ * Nhận các price alert vừa kích hoạt trong một tick từ {@link PriceAlertService}
+ */
+public interface TriggeredAlertListener {
+    void onAlertsTriggered(List<TriggeredAlert> alerts);
+}
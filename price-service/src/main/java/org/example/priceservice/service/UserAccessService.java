@@ -0,0 +1,72 @@
+package org.example.priceservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Quyền của user đã được gateway xác thực (header X-User-Id). Gói VIP đọc từ collection users
+ * của user-service (cùng database), lỗi đọc -> chỉ có ROLE_USER. user-service chưa có role quản trị
+ * nên ROLE_ADMIN (endpoint vận hành như /api/prices/audit) lấy từ price.security.admin-user-ids.
+ */
+@Service
+@Slf4j
+public class UserAccessService {
+    private static final String USERS_COLLECTION = "users";
+
+    private final MongoTemplate mongoTemplate;
+    private final Set<String> adminUserIds;
+
+    public UserAccessService(MongoTemplate mongoTemplate,
+                             @Value("${price.security.admin-user-ids:}") String adminUserIdsConfig) {
+        this.mongoTemplate = mongoTemplate;
+        this.adminUserIds = Arrays.stream(adminUserIdsConfig.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public List<GrantedAuthority> authorities(String userId) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        if (isVip(userId)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_VIP"));
+        }
+        if (adminUserIds.contains(userId)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return authorities;
+    }
+
+    /**
+     * Giống User.hasActiveVipSubscription bên user-service: gói VIP và chưa hết hạn (null = vĩnh viễn)
+     */
+    boolean isVip(String userId) {
+        Query query = new Query(Criteria.where("_id").is(userId));
+        query.fields().include("subscriptionType", "subscriptionEndDate");
+        try {
+            Document user = mongoTemplate.findOne(query, Document.class, USERS_COLLECTION);
+            if (user == null || !"VIP".equals(user.getString("subscriptionType"))) {
+                return false;
+            }
+            Date endDate = user.getDate("subscriptionEndDate");
+            return endDate == null || endDate.after(new Date());
+        } catch (RuntimeException e) {
+            log.warn("Failed to load subscription of user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.entity.UserNotificationSettings;
+
+/**
+ * Nhận dữ liệu user_settings từ {@link UserSettingsSyncService}.
+ * Dựng lại toàn bộ: beginRebuild -> apply cho mọi document -> endRebuild(true);
+ * endRebuild(false) khi lần dựng lại thất bại giữa chừng (bỏ dữ liệu đang dựng).
+ * Ngoài lần dựng lại, apply nhận từng document vừa thay đổi.
+ * Mọi lời gọi đến từ cùng một thread.
+ */
+public interface UserSettingsListener {
+    void beginRebuild();
+
+    void apply(UserNotificationSettings settings);
+
+    void endRebuild(boolean completed);
+}
@@ -0,0 +1,123 @@
+package org.example.priceservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.entity.UserNotificationSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Đồng bộ user_settings (do user-service ghi) vào các state trong bộ nhớ của collector:
+ * - Khởi động: đọc toàn bộ collection (cursor, không nạp hết vào bộ nhớ).
+ * - Tăng dần: định kỳ đọc các document có updatedAt mới hơn watermark (user-service cập nhật updatedAt
+ *   mỗi lần lưu settings).
+ * - Định kỳ dựng lại toàn bộ để loại dữ liệu của settings đã bị xóa.
+ * MongoDB chạy standalone nên không dùng được change stream.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@Profile("collector")
+public class UserSettingsSyncService {
+    private final MongoTemplate mongoTemplate;
+    private final List<UserSettingsListener> listeners;
+    private final ScheduledExecutorService syncExecutor = new ScheduledThreadPoolExecutor(1);
+
+    @Value("${price.user-settings.sync-ms:5000}")
+    private long syncMillis;
+
+    @Value("${price.user-settings.full-resync-minutes:10}")
+    private long fullResyncMinutes;
+
+    private volatile LocalDateTime watermark;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        syncExecutor.execute(this::rebuild);
+        syncExecutor.scheduleWithFixedDelay(this::syncChanges, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+        syncExecutor.scheduleWithFixedDelay(this::rebuild, fullResyncMinutes, fullResyncMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    private void stop() {
+        syncExecutor.shutdown();
+    }
+
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        listeners.forEach(UserSettingsListener::beginRebuild);
+        try {
+            // Polling theo updatedAt cần index, collection do user-service tạo nên đảm bảo ở đây
+            mongoTemplate.indexOps(UserNotificationSettings.class)
+                    .createIndex(new Index().on("updatedAt", Sort.Direction.ASC));
+
+            LocalDateTime latest = null;
+            int count = 0;
+            try (Stream<UserNotificationSettings> settings = mongoTemplate.stream(query(new Criteria()),
+                    UserNotificationSettings.class)) {
+                for (UserNotificationSettings userSettings : (Iterable<UserNotificationSettings>) settings::iterator) {
+                    listeners.forEach(listener -> listener.apply(userSettings));
+                    latest = max(latest, userSettings.getUpdatedAt());
+                    count++;
+                }
+            }
+            listeners.forEach(listener -> listener.endRebuild(true));
+            if (latest != null && (watermark == null || latest.isAfter(watermark))) {
+                watermark = latest;
+            }
+            log.info("User settings rebuilt from {} documents in {} ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            listeners.forEach(listener -> listener.endRebuild(false));
+            log.error("Failed to rebuild user settings state: {}", e.getMessage());
+        }
+    }
+
+    void syncChanges() {
+        if (watermark == null) {
+            return;
+        }
+        try {
+            // >= watermark: nhiều document có thể cùng updatedAt; áp dụng lại một user là idempotent
+            List<UserNotificationSettings> changed = mongoTemplate.find(
+                    query(Criteria.where("updatedAt").gte(watermark)), UserNotificationSettings.class);
+            LocalDateTime latest = watermark;
+            for (UserNotificationSettings userSettings : changed) {
+                listeners.forEach(listener -> listener.apply(userSettings));
+                latest = max(latest, userSettings.getUpdatedAt());
+            }
+            watermark = latest;
+        } catch (Exception e) {
+            log.warn("Failed to sync user settings changes: {}", e.getMessage());
+        }
+    }
+
+    private Query query(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("userId", "priceAlerts", "priceAlertList", "favoriteSymbols", "webhookUrls",
+                "updatedAt");
+        return query;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+}
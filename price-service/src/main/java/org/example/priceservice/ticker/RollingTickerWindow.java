@@ -0,0 +1,177 @@
+package org.example.priceservice.ticker;
+
+import org.example.priceservice.dto.TickerStats;
+
+/**
+ * Cửa sổ trượt (mặc định 24h) trên các nến 1m của một symbol, cập nhật O(1) khấu hao:
+ * - ring buffer mảng primitive cho các nến đã đóng,
+ * - deque đơn điệu (lưu số thứ tự nến) cho max(high) / min(low),
+ * - tổng chạy cho volume.
+ * Nến đang hình thành được giữ riêng và gộp vào kết quả khi đọc.
+ * Không thread-safe, caller tự đồng bộ.
+ */
+public class RollingTickerWindow {
+    private final long windowMillis;
+    private final int capacity;
+
+    // Nến đã đóng, nến số thứ tự seq nằm ở slot seq % capacity; cửa sổ là [head, tail)
+    private final long[] openTimes;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private long head;
+    private long tail;
+
+    // Deque đơn điệu chứa số thứ tự nến: high giảm dần / low tăng dần từ đầu tới cuối
+    private final long[] maxDeque;
+    private long maxHead;
+    private long maxTail;
+    private final long[] minDeque;
+    private long minHead;
+    private long minTail;
+
+    private double volumeSum;
+    private int evictionsSinceRecompute;
+
+    private boolean hasForming;
+    private long formingOpenTime;
+    private double formingOpen;
+    private double formingHigh;
+    private double formingLow;
+    private double formingClose;
+    private double formingVolume;
+
+    public RollingTickerWindow(long windowMillis, long intervalMillis) {
+        this.windowMillis = windowMillis;
+        this.capacity = (int) Math.max(1, windowMillis / intervalMillis);
+        this.openTimes = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.volumes = new double[capacity];
+        this.maxDeque = new long[capacity];
+        this.minDeque = new long[capacity];
+    }
+
+    /**
+     * Thêm nến đã đóng; nến không mới hơn nến đã đóng cuối cùng bị bỏ qua
+     */
+    public void addClosed(long openTime, double open, double high, double low, double close, double volume) {
+        if (tail > head && openTime <= openTimes[slot(tail - 1)]) {
+            return;
+        }
+        if (hasForming && formingOpenTime <= openTime) {
+            hasForming = false;
+        }
+        if (tail - head == capacity) {
+            evictOldest();
+        }
+
+        int slot = slot(tail);
+        openTimes[slot] = openTime;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+        volumeSum += volume;
+
+        while (maxTail > maxHead && highs[slot(maxDeque[slot(maxTail - 1)])] <= high) {
+            maxTail--;
+        }
+        maxDeque[slot(maxTail++)] = tail;
+        while (minTail > minHead && lows[slot(minDeque[slot(minTail - 1)])] >= low) {
+            minTail--;
+        }
+        minDeque[slot(minTail++)] = tail;
+
+        tail++;
+        evictExpired(openTime);
+    }
+
+    /**
+     * Cập nhật nến đang hình thành (mỗi tick)
+     */
+    public void updateForming(long openTime, double open, double high, double low, double close, double volume) {
+        if (tail > head && openTime <= openTimes[slot(tail - 1)]) {
+            return;
+        }
+        hasForming = true;
+        formingOpenTime = openTime;
+        formingOpen = open;
+        formingHigh = high;
+        formingLow = low;
+        formingClose = close;
+        formingVolume = volume;
+        evictExpired(openTime);
+    }
+
+    public boolean isEmpty() {
+        return tail == head && !hasForming;
+    }
+
+    public int size() {
+        return (int) (tail - head) + (hasForming ? 1 : 0);
+    }
+
+    /**
+     * Thống kê hiện tại của cửa sổ, null nếu chưa có dữ liệu; partial nếu cửa sổ thiếu nến
+     */
+    public TickerStats stats(String symbol) {
+        if (isEmpty()) {
+            return null;
+        }
+        boolean hasClosed = tail > head;
+        double open = hasClosed ? opens[slot(head)] : formingOpen;
+        double last = hasForming ? formingClose : closes[slot(tail - 1)];
+        double high = hasClosed ? highs[slot(maxDeque[slot(maxHead)])] : Double.NEGATIVE_INFINITY;
+        double low = hasClosed ? lows[slot(minDeque[slot(minHead)])] : Double.POSITIVE_INFINITY;
+        double volume = volumeSum;
+        if (hasForming) {
+            high = Math.max(high, formingHigh);
+            low = Math.min(low, formingLow);
+            volume += formingVolume;
+        }
+        long firstOpenTime = hasClosed ? openTimes[slot(head)] : formingOpenTime;
+        long lastOpenTime = hasForming ? formingOpenTime : openTimes[slot(tail - 1)];
+        double change = last - open;
+        double changePercent = open != 0.0 ? change / open * 100.0 : 0.0;
+        return new TickerStats(symbol, open, last, high, low, volume, change, changePercent,
+                firstOpenTime, lastOpenTime, size(), size() < capacity);
+    }
+
+    private void evictExpired(long latestOpenTime) {
+        // Cửa sổ gồm các nến có openTime > latest - window (vd. 1440 nến 1m kể cả nến mới nhất)
+        while (tail > head && openTimes[slot(head)] <= latestOpenTime - windowMillis) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        volumeSum -= volumes[slot(head)];
+        if (maxTail > maxHead && maxDeque[slot(maxHead)] == head) {
+            maxHead++;
+        }
+        if (minTail > minHead && minDeque[slot(minHead)] == head) {
+            minHead++;
+        }
+        head++;
+
+        // Tính lại tổng sau mỗi vòng để không tích lũy sai số cộng/trừ float
+        if (++evictionsSinceRecompute >= capacity) {
+            double sum = 0.0;
+            for (long seq = head; seq < tail; seq++) {
+                sum += volumes[slot(seq)];
+            }
+            volumeSum = sum;
+            evictionsSinceRecompute = 0;
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % capacity);
+    }
+}
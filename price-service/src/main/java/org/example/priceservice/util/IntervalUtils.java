@@ -0,0 +1,46 @@
+package org.example.priceservice.util;
+
+/**
+ * Chuyển interval kiểu Binance (1m, 15m, 1h, 4h, 1d, 1w) sang milliseconds
+ */
+public final class IntervalUtils {
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final long WEEK = 7 * DAY;
+
+    private IntervalUtils() {
+    }
+
+    public static long toMillis(String interval) {
+        if (interval == null || interval.length() < 2) {
+            throw new IllegalArgumentException("Invalid interval: " + interval);
+        }
+        char unit = interval.charAt(interval.length() - 1);
+        long amount;
+        try {
+            amount = Long.parseLong(interval.substring(0, interval.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid interval: " + interval);
+        }
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Invalid interval: " + interval);
+        }
+        return switch (unit) {
+            case 's' -> amount * SECOND;
+            case 'm' -> amount * MINUTE;
+            case 'h' -> amount * HOUR;
+            case 'd' -> amount * DAY;
+            case 'w' -> amount * WEEK;
+            default -> throw new IllegalArgumentException("Invalid interval: " + interval);
+        };
+    }
+
+    /**
+     * openTime (epoch millis) của nến chứa thời điểm timestamp
+     */
+    public static long alignToInterval(long timestamp, long intervalMillis) {
+        return Math.floorDiv(timestamp, intervalMillis) * intervalMillis;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.priceservice.webhook;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Chống SSRF: webhook chỉ được trỏ tới địa chỉ public. Lúc đăng ký chỉ kiểm tra cú pháp và host là IP literal
+ * (không resolve DNS); hostname được kiểm tra trên địa chỉ mà HTTP client thực sự kết nối, vì DNS có thể
+ * đổi sang địa chỉ nội bộ sau khi đăng ký (DNS rebinding).
+ */
+public final class WebhookAddressPolicy {
+    private static final Pattern IPV4_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private WebhookAddressPolicy() {
+    }
+
+    /**
+     * Từ chối loopback, link-local (kể cả 169.254.169.254 metadata), site-local, any-local, multicast
+     * và IPv6 unique-local fc00::/7 (Java không coi là site-local)
+     */
+    public static boolean isPublic(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        return !(address instanceof Inet6Address) || (address.getAddress()[0] & 0xfe) != 0xfc;
+    }
+
+    /**
+     * URL http(s) có host; host là IP literal / localhost thì phải public. Không resolve DNS: lỗi DNS tạm thời
+     * không làm URL bị gỡ, hostname được kiểm tra lúc gửi qua {@link #requirePublic}
+     */
+    public static boolean isAllowedUrl(String url) {
+        String host;
+        try {
+            URI uri = URI.create(url.trim());
+            if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+                return false;
+            }
+            host = uri.getHost();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (host == null) {
+            return false;
+        }
+        if ("localhost".equalsIgnoreCase(host) || host.toLowerCase(Locale.ROOT).endsWith(".localhost")) {
+            return false;
+        }
+        if (!host.startsWith("[") && !IPV4_LITERAL.matcher(host).matches()) {
+            return true;
+        }
+        try {
+            // IP literal: getByName chỉ parse, không tra DNS
+            return isPublic(InetAddress.getByName(host));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Dùng làm resolvedAddressesSelector của HTTP client: chạy sau khi resolve (kể cả host là IP literal),
+     * ngay trước khi kết nối; ném {@link NonPublicAddressException} nếu có địa chỉ không public
+     */
+    public static List<? extends SocketAddress> requirePublic(List<? extends SocketAddress> addresses) {
+        for (SocketAddress address : addresses) {
+            if (address instanceof InetSocketAddress inet
+                    && (inet.getAddress() == null || !isPublic(inet.getAddress()))) {
+                throw new NonPublicAddressException(inet);
+            }
+        }
+        return addresses;
+    }
+
+    public static final class NonPublicAddressException extends IllegalStateException {
+        NonPublicAddressException(InetSocketAddress address) {
+            super("Webhook host " + address.getHostString() + " resolves to non-public address "
+                    + (address.getAddress() != null ? address.getAddress().getHostAddress() : "(unresolved)"));
+        }
+    }
+}
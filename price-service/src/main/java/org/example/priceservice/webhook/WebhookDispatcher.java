@@ -0,0 +1,337 @@
+package org.example.priceservice.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.WebhookEvent;
+import org.example.priceservice.entity.WebhookDeadLetter;
+import org.example.priceservice.repository.WebhookDeadLetterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gửi sự kiện tới webhook của user, bất đồng bộ và không chặn thread:
+ * - Mỗi endpoint có hàng đợi giới hạn; sự kiện được gom trong cửa sổ linger thành một batch
+ *   (body {"events": [...]}), mỗi endpoint tối đa một batch đang gửi để giữ thứ tự.
+ * - HTTP client non-blocking (reactor-netty): hàng nghìn endpoint chậm chỉ chiếm connection,
+ *   không chiếm thread; connection pool giới hạn số kết nối đồng thời tới mỗi host.
+ * - Lỗi mạng / 408 / 429 / 5xx được retry với exponential backoff + jitter; hết lượt retry, lỗi 4xx khác
+ *   hoặc host trỏ tới địa chỉ nội bộ thì batch được lưu vào dead-letter (MongoDB). Sự kiện tràn hàng đợi
+ *   được gom trong cửa sổ linger, ghi dead-letter theo batch; URL bị hủy đăng ký cũng vậy với sự kiện còn chờ.
+ * - Mọi kết nối đi qua {@link WebhookAddressPolicy#requirePublic}: địa chỉ được kiểm tra lúc resolve khi gửi,
+ *   không chỉ lúc đăng ký URL.
+ */
+@Component
+@Slf4j
+@Profile("collector")
+public class WebhookDispatcher {
+    private final WebhookDeadLetterRepository deadLetterRepository;
+    private final ObjectMapper objectMapper;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+
+    // Chỉ lên lịch flush / retry, không làm I/O
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1);
+
+    // Ghi dead-letter là blocking, không chạy trên event loop của netty
+    private final ExecutorService deadLetterExecutor = Executors.newSingleThreadExecutor();
+
+    private final Map<String, EndpointQueue> endpoints = new ConcurrentHashMap<>();
+
+    private final int batchSize;
+    private final long lingerMillis;
+    private final int maxPendingPerEndpoint;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final AtomicLong deliveredEvents = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong deadLetteredEvents = new AtomicLong();
+
+    public WebhookDispatcher(WebhookDeadLetterRepository deadLetterRepository, ObjectMapper objectMapper,
+                             @Value("${price.webhooks.max-connections-per-host:4}") int maxConnectionsPerHost,
+                             @Value("${price.webhooks.timeout-ms:5000}") long timeoutMillis,
+                             @Value("${price.webhooks.batch-size:50}") int batchSize,
+                             @Value("${price.webhooks.linger-ms:200}") long lingerMillis,
+                             @Value("${price.webhooks.max-pending-per-endpoint:1000}") int maxPendingPerEndpoint,
+                             @Value("${price.webhooks.max-attempts:5}") int maxAttempts,
+                             @Value("${price.webhooks.base-backoff-ms:500}") long baseBackoffMillis,
+                             @Value("${price.webhooks.max-backoff-ms:60000}") long maxBackoffMillis,
+                             @Value("${price.webhooks.allow-private-addresses:false}") boolean allowPrivateAddresses) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.maxPendingPerEndpoint = maxPendingPerEndpoint;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+
+        // Pool của reactor-netty tách theo địa chỉ remote -> maxConnections là giới hạn đồng thời mỗi host
+        this.connectionProvider = ConnectionProvider.builder("webhooks")
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireMaxCount(maxPendingPerEndpoint)
+                .pendingAcquireTimeout(Duration.ofMillis(timeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient client = HttpClient.create(connectionProvider)
+                .responseTimeout(Duration.ofMillis(timeoutMillis))
+                .headers(headers -> headers.set("Content-Type", "application/json"));
+        if (!allowPrivateAddresses) {
+            client = client.resolvedAddressesSelector((config, addresses) -> WebhookAddressPolicy.requirePublic(addresses));
+        }
+        this.httpClient = client;
+    }
+
+    public void enqueue(String url, WebhookEvent event) {
+        EndpointQueue endpoint = endpoints.computeIfAbsent(url, EndpointQueue::new);
+        if (endpoint.size.incrementAndGet() > maxPendingPerEndpoint) {
+            endpoint.size.decrementAndGet();
+            // Endpoint không theo kịp: không giữ thêm để gửi, gom lại rồi ghi dead-letter theo batch
+            endpoint.overflow.add(event);
+            if (endpoint.overflowScheduled.compareAndSet(false, true)) {
+                scheduler.schedule(() -> flushOverflow(endpoint), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        endpoint.pending.add(event);
+        if (endpoint.evicted) {
+            // Đua với evict: endpoint vừa bị gỡ sau khi lấy ra khỏi map
+            scheduler.execute(() -> deadLetterEvicted(endpoint));
+            return;
+        }
+        if (endpoint.busy.compareAndSet(false, true)) {
+            scheduler.schedule(() -> sendNextBatch(endpoint), lingerMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Bỏ endpoint của URL không còn được đăng ký: không gửi tiếp / không retry, sự kiện đang chờ,
+     * sự kiện tràn và batch đang gửi mà lỗi đều được ghi dead-letter thay vì bị hủy
+     */
+    public void evict(String url) {
+        EndpointQueue endpoint = endpoints.remove(url);
+        if (endpoint != null) {
+            endpoint.evicted = true;
+            scheduler.execute(() -> deadLetterEvicted(endpoint));
+        }
+    }
+
+    private void deadLetterEvicted(EndpointQueue endpoint) {
+        int drained = drainToDeadLetter(endpoint.url, endpoint.pending, "endpoint unregistered");
+        endpoint.size.addAndGet(-drained);
+        drainToDeadLetter(endpoint.url, endpoint.overflow, "endpoint queue full");
+    }
+
+    private void flushOverflow(EndpointQueue endpoint) {
+        endpoint.overflowScheduled.set(false);
+        drainToDeadLetter(endpoint.url, endpoint.overflow, "endpoint queue full");
+    }
+
+    /**
+     * Ghi dead-letter mọi sự kiện trong queue theo batch, trả về số sự kiện đã lấy ra
+     */
+    private int drainToDeadLetter(String url, Queue<WebhookEvent> queue, String reason) {
+        int drained = 0;
+        List<WebhookEvent> batch = new ArrayList<>(batchSize);
+        WebhookEvent event;
+        while ((event = queue.poll()) != null) {
+            drained++;
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                deadLetterBatch(url, batch, reason);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            deadLetterBatch(url, batch, reason);
+        }
+        return drained;
+    }
+
+    private void deadLetterBatch(String url, List<WebhookEvent> batch, String reason) {
+        try {
+            deadLetter(url, serialize(batch), batch.size(), 0, reason);
+        } catch (RuntimeException e) {
+            log.warn("Failed to serialize webhook batch for {} ({}): {}", url, reason, e.getMessage());
+        }
+    }
+
+    private void sendNextBatch(EndpointQueue endpoint) {
+        if (endpoint.evicted) {
+            // Phần còn lại do deadLetterEvicted xử lý
+            endpoint.busy.set(false);
+            return;
+        }
+        List<WebhookEvent> batch = new ArrayList<>(batchSize);
+        WebhookEvent event;
+        while (batch.size() < batchSize && (event = endpoint.pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            endpoint.busy.set(false);
+            // Sự kiện đến giữa lúc poll rỗng và lúc bỏ cờ busy
+            if (!endpoint.pending.isEmpty() && endpoint.busy.compareAndSet(false, true)) {
+                scheduler.schedule(() -> sendNextBatch(endpoint), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        endpoint.size.addAndGet(-batch.size());
+        String body;
+        try {
+            body = serialize(batch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to serialize webhook batch for {}: {}", endpoint.url, e.getMessage());
+            scheduler.execute(() -> sendNextBatch(endpoint));
+            return;
+        }
+        deliver(endpoint, body, batch.size(), 1);
+    }
+
+    private void deliver(EndpointQueue endpoint, String body, int eventCount, int attempt) {
+        httpClient.post()
+                .uri(endpoint.url)
+                .send(ByteBufFlux.fromString(Mono.just(body)))
+                .responseSingle((response, content) -> Mono.just(response.status().code()))
+                .subscribe(
+                        status -> onResponse(endpoint, body, eventCount, attempt, status, null),
+                        error -> onResponse(endpoint, body, eventCount, attempt, 0, error));
+    }
+
+    private void onResponse(EndpointQueue endpoint, String body, int eventCount, int attempt,
+                            int status, Throwable error) {
+        if (error == null && status >= 200 && status < 300) {
+            deliveredEvents.addAndGet(eventCount);
+            scheduler.execute(() -> sendNextBatch(endpoint));
+            return;
+        }
+
+        String reason = error != null ? error.getClass().getSimpleName() + ": " + error.getMessage() : "HTTP " + status;
+        if (endpoint.evicted) {
+            deadLetter(endpoint.url, body, eventCount, attempt, reason + " (endpoint unregistered)");
+            return;
+        }
+        boolean retryable = (error != null && !isNonPublicAddress(error))
+                || status == 408 || status == 429 || status >= 500;
+        if (retryable && attempt < maxAttempts) {
+            retries.incrementAndGet();
+            long delay = backoffMillis(attempt);
+            log.debug("Webhook delivery to {} failed ({}), retry {} in {} ms", endpoint.url, reason, attempt, delay);
+            scheduler.schedule(() -> deliver(endpoint, body, eventCount, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        log.warn("Webhook delivery to {} failed after {} attempts: {}", endpoint.url, attempt, reason);
+        deadLetter(endpoint.url, body, eventCount, attempt, reason);
+        scheduler.execute(() -> sendNextBatch(endpoint));
+    }
+
+    private static boolean isNonPublicAddress(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebhookAddressPolicy.NonPublicAddressException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exponential backoff có trần, cộng "equal jitter": ngẫu nhiên trong [exp/2, exp]
+     * để các endpoint lỗi cùng lúc không retry cùng nhịp
+     */
+    long backoffMillis(int attempt) {
+        long exponential = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(exponential / 2, exponential + 1);
+    }
+
+    private void deadLetter(String url, String payload, int eventCount, int attempts, String reason) {
+        deadLetteredEvents.addAndGet(eventCount);
+        deadLetterExecutor.execute(() -> {
+            try {
+                deadLetterRepository.save(WebhookDeadLetter.builder()
+                        .url(url)
+                        .payload(payload)
+                        .eventCount(eventCount)
+                        .attempts(attempts)
+                        .lastError(reason)
+                        .failedAt(Instant.now())
+                        .build());
+            } catch (Exception e) {
+                log.error("Failed to persist webhook dead letter for {}: {}", url, e.getMessage());
+            }
+        });
+    }
+
+    private String serialize(List<WebhookEvent> events) {
+        try {
+            return objectMapper.writeValueAsString(Map.of("events", events));
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot serialize webhook events", e);
+        }
+    }
+
+    public long getDeliveredEvents() {
+        return deliveredEvents.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getDeadLetteredEvents() {
+        return deadLetteredEvents.get();
+    }
+
+    public int getEndpointCount() {
+        return endpoints.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        deadLetterExecutor.shutdown();
+        connectionProvider.dispose();
+    }
+
+    private static final class EndpointQueue {
+        private final String url;
+        private final Queue<WebhookEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final Queue<WebhookEvent> overflow = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean overflowScheduled = new AtomicBoolean();
+
+        // true khi đã có flush được lên lịch hoặc một batch đang gửi / chờ retry
+        private final AtomicBoolean busy = new AtomicBoolean();
+
+        // URL đã bị hủy đăng ký: không gửi tiếp / không retry
+        private volatile boolean evicted;
+
+        private EndpointQueue(String url) {
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.priceservice.webhook;
+
+import lombok.RequiredArgsConstructor;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.TriggeredAlert;
+import org.example.priceservice.dto.WebhookEvent;
+import org.example.priceservice.service.CandleUpdateListener;
+import org.example.priceservice.service.TriggeredAlertListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chuyển alert đã kích hoạt (tới webhook của chính user đó) và sự kiện đóng nến
+ * (tới webhook của user có symbol trong favoriteSymbols) vào {@link WebhookDispatcher}
+ */
+@Component
+@RequiredArgsConstructor
+@Profile("collector")
+public class WebhookEventRouter implements TriggeredAlertListener, CandleUpdateListener {
+    private final WebhookSubscriptionRegistry subscriptionRegistry;
+    private final WebhookDispatcher dispatcher;
+
+    @Value("${price.webhooks.candle-intervals:1h}")
+    private Set<String> candleIntervals;
+
+    @Override
+    public void onAlertsTriggered(List<TriggeredAlert> alerts) {
+        for (TriggeredAlert alert : alerts) {
+            WebhookEvent event = new WebhookEvent("price.alert", alert.getUserId(), alert, alert.getTriggeredAt());
+            for (String url : subscriptionRegistry.urlsOf(alert.getUserId())) {
+                dispatcher.enqueue(url, event);
+            }
+        }
+    }
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        if (!candle.isClosed() || !candleIntervals.contains(candle.getInterval())) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (String userId : subscriptionRegistry.subscribersOf(candle.getSymbol().toUpperCase())) {
+            WebhookEvent event = new WebhookEvent("candle.closed", userId, candle, now);
+            for (String url : subscriptionRegistry.urlsOf(userId)) {
+                dispatcher.enqueue(url, event);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.priceservice.webhook;
+
+import org.example.priceservice.entity.UserNotificationSettings;
+import org.example.priceservice.service.UserSettingsListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Webhook URL của user VIP và symbol họ theo dõi (favoriteSymbols), dựng từ user_settings.
+ * URL có host là IP nội bộ bị bỏ qua, không resolve DNS ở đây (xem {@link WebhookAddressPolicy});
+ * URL không còn ai đăng ký được gỡ khỏi {@link WebhookDispatcher}.
+ */
+@Component
+@Profile("collector")
+public class WebhookSubscriptionRegistry implements UserSettingsListener {
+    private final WebhookDispatcher dispatcher;
+    private final boolean allowPrivateAddresses;
+
+    private volatile Subscriptions current = new Subscriptions();
+
+    // Bản đang dựng lại, chỉ truy cập từ thread sync
+    private Subscriptions rebuilding;
+
+    public WebhookSubscriptionRegistry(WebhookDispatcher dispatcher,
+                                       @Value("${price.webhooks.allow-private-addresses:false}") boolean allowPrivateAddresses) {
+        this.dispatcher = dispatcher;
+        this.allowPrivateAddresses = allowPrivateAddresses;
+    }
+
+    public List<String> urlsOf(String userId) {
+        return current.urlsByUser.getOrDefault(userId, List.of());
+    }
+
+    public Set<String> subscribersOf(String symbol) {
+        return current.usersBySymbol.getOrDefault(symbol, Set.of());
+    }
+
+    public int endpointUserCount() {
+        return current.urlsByUser.size();
+    }
+
+    @Override
+    public void beginRebuild() {
+        rebuilding = new Subscriptions();
+    }
+
+    @Override
+    public void apply(UserNotificationSettings settings) {
+        if (settings.getUserId() == null) {
+            return;
+        }
+        List<String> urls = settings.getWebhookUrls() == null ? List.of() : settings.getWebhookUrls().stream()
+                .filter(this::isAllowedUrl)
+                .distinct()
+                .toList();
+        Set<String> symbols = urls.isEmpty() || settings.getFavoriteSymbols() == null ? Set.of()
+                : Set.copyOf(settings.getFavoriteSymbols().stream().map(String::toUpperCase).toList());
+        if (rebuilding != null) {
+            rebuilding.put(settings.getUserId(), urls, symbols);
+            return;
+        }
+        List<String> previous = current.put(settings.getUserId(), urls, symbols);
+        evictUnregistered(previous.stream().filter(url -> !urls.contains(url)).toList());
+    }
+
+    @Override
+    public void endRebuild(boolean completed) {
+        if (completed) {
+            Subscriptions previous = current;
+            current = rebuilding;
+            List<String> previousUrls = previous.urlsByUser.values().stream().flatMap(List::stream).toList();
+            evictUnregistered(previousUrls);
+        }
+        rebuilding = null;
+    }
+
+    private void evictUnregistered(Collection<String> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Set<String> active = new HashSet<>();
+        current.urlsByUser.values().forEach(active::addAll);
+        for (String url : candidates) {
+            if (!active.contains(url)) {
+                dispatcher.evict(url);
+            }
+        }
+    }
+
+    // Không resolve DNS trên thread sync: hostname được kiểm tra lúc gửi
+    private boolean isAllowedUrl(String url) {
+        return allowPrivateAddresses ? isHttpUrl(url) : WebhookAddressPolicy.isAllowedUrl(url);
+    }
+
+    private static boolean isHttpUrl(String url) {
+        try {
+            URI uri = URI.create(url.trim());
+            return ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                    && uri.getHost() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static final class Subscriptions {
+        private final Map<String, List<String>> urlsByUser = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> symbolsByUser = new ConcurrentHashMap<>();
+        private final Map<String, Set<String>> usersBySymbol = new ConcurrentHashMap<>();
+
+        /**
+         * Trả về URL cũ của user (rỗng nếu chưa có)
+         */
+        List<String> put(String userId, List<String> urls, Set<String> symbols) {
+            Set<String> previous = symbolsByUser.remove(userId);
+            if (previous != null) {
+                for (String symbol : previous) {
+                    usersBySymbol.computeIfPresent(symbol, (k, users) -> {
+                        users.remove(userId);
+                        return users.isEmpty() ? null : users;
+                    });
+                }
+            }
+            if (urls.isEmpty()) {
+                List<String> previousUrls = urlsByUser.remove(userId);
+                return previousUrls != null ? previousUrls : List.of();
+            }
+            List<String> previousUrls = urlsByUser.put(userId, urls);
+            symbolsByUser.put(userId, symbols);
+            for (String symbol : symbols) {
+                usersBySymbol.computeIfAbsent(symbol, k -> ConcurrentHashMap.newKeySet()).add(userId);
+            }
+            return previousUrls != null ? previousUrls : List.of();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.priceservice.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleSnapshot;
+import org.example.priceservice.service.CandleSnapshotService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Khi client SUBSCRIBE /topic/candles.{interval}.{symbol} kèm header "snapshot" (số nến, hoặc
+ * "true" để lấy mặc định), gửi riêng cho subscription đó một frame snapshot trước các tick realtime.
+ * Snapshot được dựng sau khi broker đã nhận SUBSCRIBE nên không có khoảng trống; phần chồng lấn
+ * (nếu có) được client loại bằng openTime + eventTime.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CandleSnapshotInterceptor implements ExecutorChannelInterceptor {
+    private static final String CANDLE_TOPIC_PREFIX = "/topic/candles.";
+    private static final String SNAPSHOT_HEADER = "snapshot";
+
+    private final CandleSnapshotService snapshotService;
+    private final SessionMessageSender sessionMessageSender;
+    private final ObjectMapper objectMapper;
+
+    @Value("${price.stream.snapshot.default-size:100}")
+    private int defaultSize;
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        // Inbound channel có nhiều handler, chỉ xử lý sau khi broker (relay) đã nhận SUBSCRIBE
+        if (ex != null || !(handler instanceof AbstractBrokerMessageHandler)) {
+            return;
+        }
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return;
+        }
+        String destination = accessor.getDestination();
+        String snapshotHeader = accessor.getFirstNativeHeader(SNAPSHOT_HEADER);
+        if (destination == null || snapshotHeader == null || !destination.startsWith(CANDLE_TOPIC_PREFIX)) {
+            return;
+        }
+
+        // /topic/candles.1m.btcusdt -> interval = 1m, symbol = btcusdt
+        String[] parts = destination.substring(CANDLE_TOPIC_PREFIX.length()).split("\\.");
+        if (parts.length != 2) {
+            return;
+        }
+
+        try {
+            CandleSnapshot snapshot = snapshotService.getSnapshot(parts[1], parts[0], parseSize(snapshotHeader));
+            sessionMessageSender.send(accessor.getSessionId(), accessor.getSubscriptionId(), destination,
+                    objectMapper.writeValueAsBytes(snapshot), Map.of(SNAPSHOT_HEADER, "true"));
+        } catch (Exception e) {
+            log.warn("Failed to send candle snapshot for {}: {}", destination, e.getMessage());
+        }
+    }
+
+    private int parseSize(String header) {
+        try {
+            return Integer.parseInt(header.trim());
+        } catch (NumberFormatException e) {
+            return defaultSize;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.priceservice.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Subscription registry cho broker in-process: index destination -> (sessionId -> subscriptionIds)
+ * bằng map concurrent theo từng destination. SUBSCRIBE/UNSUBSCRIBE chỉ sửa entry của một session (O(1),
+ * không chép lại cả danh sách subscriber của topic), fan-out mỗi message là một lần lookup, không cấp phát.
+ * Chỉ hỗ trợ destination chính xác (không wildcard / pattern) như các topic của price-service.
+ */
+public class IndexedSubscriptionRegistry extends AbstractSubscriptionRegistry {
+    private static final MultiValueMap<String, String> EMPTY =
+            CollectionUtils.unmodifiableMultiValueMap(new LinkedMultiValueMap<>());
+
+    private final Map<String, Subscribers> index = new ConcurrentHashMap<>();
+
+    // sessionId -> subscriptionId -> destination, để gỡ khi UNSUBSCRIBE (frame không mang destination)
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    protected void addSubscriptionInternal(String sessionId, String subscriptionId, String destination,
+                                           Message<?> message) {
+        if (destination.indexOf('*') >= 0 || destination.indexOf('{') >= 0) {
+            logger.warn("Pattern destinations are not supported by the in-process broker: " + destination);
+            return;
+        }
+        sessions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+        // compute khóa entry của destination: không đua với removeFromIndex gỡ destination vừa rỗng
+        index.compute(destination, (key, current) -> {
+            Subscribers subscribers = current != null ? current : new Subscribers();
+            subscribers.bySession.computeIfAbsent(sessionId, k -> new CopyOnWriteArrayList<>()).add(subscriptionId);
+            return subscribers;
+        });
+    }
+
+    @Override
+    protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+        Map<String, String> subscriptions = sessions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        String destination = subscriptions.remove(subscriptionId);
+        if (destination != null) {
+            removeFromIndex(destination, sessionId, subscriptionId);
+        }
+    }
+
+    @Override
+    public void unregisterAllSubscriptions(String sessionId) {
+        Map<String, String> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, destination) ->
+                    removeFromIndex(destination, sessionId, subscriptionId));
+        }
+    }
+
+    @Override
+    protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+        Subscribers subscribers = index.get(destination);
+        return subscribers != null ? subscribers.view : EMPTY;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void removeFromIndex(String destination, String sessionId, String subscriptionId) {
+        index.computeIfPresent(destination, (key, subscribers) -> {
+            subscribers.bySession.computeIfPresent(sessionId, (k, ids) -> {
+                ids.remove(subscriptionId);
+                return ids.isEmpty() ? null : ids;
+            });
+            return subscribers.bySession.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Subscriber của một destination; view là MultiValueMap bọc trực tiếp map (không chép),
+     * broker duyệt nó theo kiểu weakly consistent của ConcurrentHashMap
+     */
+    private static final class Subscribers {
+        private final Map<String, List<String>> bySession = new ConcurrentHashMap<>();
+        private final MultiValueMap<String, String> view =
+                CollectionUtils.unmodifiableMultiValueMap(CollectionUtils.toMultiValueMap(bySession));
+    }
+}
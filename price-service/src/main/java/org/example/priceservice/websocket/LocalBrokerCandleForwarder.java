@@ -0,0 +1,33 @@
+package org.example.priceservice.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.example.priceservice.bar.BarUpdateListener;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.service.CandleUpdateListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ở chế độ broker local, RabbitMQ không còn fan-out /topic/candles.* (và /topic/bars.*) tới client của
+ * instance này, nên cập nhật nến nhận từ CandleFeed được publish lại lên broker in-process.
+ */
+@Component
+@RequiredArgsConstructor
+@Profile("user")
+@ConditionalOnProperty(name = "price.websocket.broker", havingValue = "local")
+public class LocalBrokerCandleForwarder implements CandleUpdateListener, BarUpdateListener {
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        String destination = "/topic/candles." + candle.getInterval() + "." + candle.getSymbol().toLowerCase();
+        messagingTemplate.convertAndSend(destination, candle);
+    }
+
+    @Override
+    public void onBar(CandleDto bar) {
+        messagingTemplate.convertAndSend("/topic/bars." + bar.getInterval() + "." + bar.getSymbol().toLowerCase(), bar);
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.priceservice.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Theo dõi SUBSCRIBE /app/market.{interval}, UNSUBSCRIBE và DISCONNECT để đăng ký / gỡ market frame
+ */
+@Component
+@RequiredArgsConstructor
+public class MarketFrameInterceptor implements ChannelInterceptor {
+    private static final String SYMBOLS_HEADER = "symbols";
+
+    private final MarketFrameService marketFrameService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case SUBSCRIBE -> {
+                String destination = accessor.getDestination();
+                String symbols = accessor.getFirstNativeHeader(SYMBOLS_HEADER);
+                if (destination != null && symbols != null && destination.startsWith(MarketFrameService.DESTINATION_PREFIX)) {
+                    String interval = destination.substring(MarketFrameService.DESTINATION_PREFIX.length());
+                    marketFrameService.subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), interval, symbols);
+                }
+            }
+            case UNSUBSCRIBE -> marketFrameService.unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+            case DISCONNECT -> marketFrameService.disconnect(accessor.getSessionId());
+            default -> {
+            }
+        }
+        return message;
+    }
+}
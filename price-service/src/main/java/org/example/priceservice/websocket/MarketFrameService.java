@@ -0,0 +1,183 @@
+package org.example.priceservice.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.MarketFrame;
+import org.example.priceservice.service.CandleUpdateListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Market frame": gộp cập nhật của cả watchlist (20-50 symbol) thành một frame mỗi cửa sổ flush
+ * thay vì một frame cho mỗi tick của mỗi symbol.
+ * Client SUBSCRIBE /app/market.{interval} kèm header "symbols: btcusdt,ethusdt,...". Destination /app
+ * không đi qua relay; frame được gửi thẳng tới subscription, các subscription cùng (interval, tập symbol)
+ * dùng chung một lần serialize.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MarketFrameService implements CandleUpdateListener {
+    public static final String DESTINATION_PREFIX = "/app/market.";
+
+    private final SessionMessageSender sessionMessageSender;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService flushExecutor = new ScheduledThreadPoolExecutor(1);
+
+    @Value("${price.stream.market-frame.flush-ms:100}")
+    private long flushMillis;
+
+    @Value("${price.stream.market-frame.max-symbols:100}")
+    private int maxSymbols;
+
+    // interval -> symbol -> bản mới nhất kể từ lần flush trước
+    private final Map<String, Map<String, CandleDto>> dirty = new ConcurrentHashMap<>();
+
+    // groupKey (interval + tập symbol đã sắp xếp) -> group
+    private final Map<String, MarketGroup> groups = new ConcurrentHashMap<>();
+
+    // sessionId -> subscriptionId -> groupKey, để gỡ khi UNSUBSCRIBE / DISCONNECT
+    private final Map<String, Map<String, String>> sessionSubscriptions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void start() {
+        flushExecutor.scheduleAtFixedRate(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    private void stop() {
+        flushExecutor.shutdown();
+    }
+
+    @Override
+    public void onCandle(CandleDto candle) {
+        if (groups.isEmpty()) {
+            return;
+        }
+        // compute nguyên tử với remove() trong flush nên không mất cập nhật giữa hai cửa sổ
+        dirty.compute(candle.getInterval(), (interval, updates) -> {
+            Map<String, CandleDto> target = updates != null ? updates : new ConcurrentHashMap<>();
+            target.put(candle.getSymbol().toUpperCase(), candle);
+            return target;
+        });
+    }
+
+    public void subscribe(String sessionId, String subscriptionId, String interval, String symbolsHeader) {
+        Set<String> symbols = new TreeSet<>();
+        for (String symbol : symbolsHeader.split(",")) {
+            if (!symbol.isBlank() && symbols.size() < maxSymbols) {
+                symbols.add(symbol.trim().toUpperCase());
+            }
+        }
+        if (symbols.isEmpty()) {
+            return;
+        }
+
+        String groupKey = interval + ":" + String.join(",", symbols);
+        groups.compute(groupKey, (key, group) -> {
+            MarketGroup target = group != null ? group : new MarketGroup(interval, symbols);
+            target.subscriptions.put(sessionId + ":" + subscriptionId, new String[] { sessionId, subscriptionId });
+            return target;
+        });
+        sessionSubscriptions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>()).put(subscriptionId, groupKey);
+        log.debug("Market frame subscription {} {} -> {}", sessionId, subscriptionId, groupKey);
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = sessionSubscriptions.get(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        String groupKey = subscriptions.remove(subscriptionId);
+        if (groupKey != null) {
+            removeFromGroup(groupKey, sessionId, subscriptionId);
+        }
+    }
+
+    public void disconnect(String sessionId) {
+        Map<String, String> subscriptions = sessionSubscriptions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, groupKey) -> removeFromGroup(groupKey, sessionId, subscriptionId));
+        }
+    }
+
+    private void removeFromGroup(String groupKey, String sessionId, String subscriptionId) {
+        groups.computeIfPresent(groupKey, (key, group) -> {
+            group.subscriptions.remove(sessionId + ":" + subscriptionId);
+            return group.subscriptions.isEmpty() ? null : group;
+        });
+    }
+
+    private void flush() {
+        try {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            // Lấy ra bản chụp các cập nhật của cửa sổ vừa qua
+            Map<String, Map<String, CandleDto>> window = new ConcurrentHashMap<>();
+            for (String interval : dirty.keySet()) {
+                Map<String, CandleDto> updates = dirty.remove(interval);
+                if (updates != null && !updates.isEmpty()) {
+                    window.put(interval, updates);
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            for (MarketGroup group : groups.values()) {
+                Map<String, CandleDto> updates = window.get(group.interval);
+                if (updates == null) {
+                    continue;
+                }
+                List<CandleDto> candles = new ArrayList<>();
+                for (String symbol : group.symbols) {
+                    CandleDto candle = updates.get(symbol);
+                    if (candle != null) {
+                        candles.add(candle);
+                    }
+                }
+                if (candles.isEmpty()) {
+                    continue;
+                }
+
+                byte[] payload = objectMapper.writeValueAsBytes(new MarketFrame(group.interval, now, candles));
+                String destination = DESTINATION_PREFIX + group.interval;
+                for (String[] subscription : group.subscriptions.values()) {
+                    sessionMessageSender.send(subscription[0], subscription[1], destination, payload, Map.of());
+                }
+            }
+        } catch (Exception e) {
+            // Không để exception làm dừng scheduleAtFixedRate
+            log.warn("Failed to flush market frames: {}", e.getMessage());
+        }
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    private static class MarketGroup {
+        private final String interval;
+        private final Set<String> symbols;
+        // "sessionId:subscriptionId" -> [sessionId, subscriptionId]
+        private final Map<String, String[]> subscriptions = new ConcurrentHashMap<>();
+
+        MarketGroup(String interval, Set<String> symbols) {
+            this.interval = interval;
+            this.symbols = symbols;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.priceservice.websocket;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+
+/**
+ * Gửi MESSAGE frame thẳng tới một subscription của một session qua clientOutboundChannel,
+ * không đi qua broker (RabbitMQ)
+ */
+@Component
+public class SessionMessageSender {
+    private final MessageChannel clientOutboundChannel;
+
+    public SessionMessageSender(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    public void send(String sessionId, String subscriptionId, String destination, byte[] jsonPayload,
+                     Map<String, String> nativeHeaders) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        nativeHeaders.forEach(accessor::setNativeHeader);
+        accessor.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(jsonPayload, accessor.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.priceservice.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ghi nhận các session bị đóng vì là slow consumer (vượt send-buffer-size hoặc send-time-limit,
+ * Spring đóng với SESSION_NOT_RELIABLE) để theo dõi qua /api/prices/stream/stats.
+ */
+@Component
+@Slf4j
+public class SlowConsumerHandlerDecorator implements WebSocketHandlerDecoratorFactory {
+    private final AtomicLong evictedSessions = new AtomicLong();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    evictedSessions.incrementAndGet();
+                    log.warn("Evicted slow WebSocket consumer {}", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public long getEvictedSessions() {
+        return evictedSessions.get();
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.priceservice.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.example.priceservice.dto.TriggeredAlert;
+import org.example.priceservice.service.TriggeredAlertListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Đẩy alert đã kích hoạt tới đúng user qua user destination: client SUBSCRIBE /user/queue/alerts,
+ * user của session là principal của request handshake (X-User-Id do gateway đặt).
+ * Collector không giữ session của user thì message được broadcast cho instance đang giữ (WebSocketConfig).
+ */
+@Component
+@RequiredArgsConstructor
+@Profile("collector")
+public class StompAlertNotifier implements TriggeredAlertListener {
+    private static final String ALERTS_DESTINATION = "/queue/alerts";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Override
+    public void onAlertsTriggered(List<TriggeredAlert> alerts) {
+        for (TriggeredAlert alert : alerts) {
+            messagingTemplate.convertAndSendToUser(alert.getUserId(), ALERTS_DESTINATION, alert);
+        }
+    }
+}
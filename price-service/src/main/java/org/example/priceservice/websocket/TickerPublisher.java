@@ -0,0 +1,68 @@
+package org.example.priceservice.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.priceservice.service.TickerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đẩy thống kê 24h của mọi symbol lên /topic/ticker theo chu kỳ (một frame cho tất cả symbol),
+ * chỉ khi có thay đổi. Chạy ở process sở hữu việc fan-out STOMP: collector (qua relay)
+ * hoặc instance user ở chế độ broker local.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TickerPublisher {
+    public static final String DESTINATION = "/topic/ticker";
+
+    private final TickerService tickerService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Environment environment;
+    private final ScheduledExecutorService publishExecutor = new ScheduledThreadPoolExecutor(1);
+
+    @Value("${price.ticker.publish-ms:1000}")
+    private long publishMillis;
+
+    @Value("${price.websocket.broker:relay}")
+    private String brokerMode;
+
+    private long publishedVersion = -1;
+
+    @PostConstruct
+    private void start() {
+        if (environment.acceptsProfiles(Profiles.of("collector")) || "local".equalsIgnoreCase(brokerMode)) {
+            publishExecutor.scheduleAtFixedRate(this::publish, publishMillis, publishMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    private void stop() {
+        publishExecutor.shutdown();
+    }
+
+    private void publish() {
+        try {
+            long version = tickerService.getVersion();
+            if (version == publishedVersion) {
+                return;
+            }
+            publishedVersion = version;
+            messagingTemplate.convertAndSend(DESTINATION, new ArrayList<>(tickerService.getAll()));
+        } catch (Exception e) {
+            // Không để exception làm dừng scheduleAtFixedRate
+            log.warn("Failed to publish ticker frame: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.priceservice.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * /queue/** chỉ dùng qua /user/queue/** (được đổi thành queue riêng của session). SUBSCRIBE / SEND thẳng
+ * /queue/alerts-user{sessionId} sẽ đọc hoặc giả alert của session khác nên bị từ chối.
+ */
+@Component
+public class UserQueueInterceptor implements ChannelInterceptor {
+    private static final String QUEUE_PREFIX = "/queue/";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE || accessor.getCommand() == StompCommand.SEND) {
+            String destination = accessor.getDestination();
+            if (destination != null && destination.startsWith(QUEUE_PREFIX)) {
+                throw new MessagingException(message,
+                        "Destination " + destination + " is only reachable through /user" + QUEUE_PREFIX);
+            }
+        }
+        return message;
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.priceservice.alert;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceAlertIndexTest {
+
+    private PriceAlertIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PriceAlertIndex(0.005);
+        index.replaceUser("u1", List.of(
+                new AlertEntry("u1", "BTCUSDT", true, 61_000),
+                new AlertEntry("u1", "BTCUSDT", false, 59_000)));
+        index.replaceUser("u2", List.of(
+                new AlertEntry("u2", "BTCUSDT", true, 62_000),
+                new AlertEntry("u2", "ETHUSDT", true, 3_000)));
+    }
+
+    @Test
+    void onPrice_WhenPriceRises_FiresOnlyAboveAlertsInCrossedRange() {
+        assertThat(index.onPrice("BTCUSDT", 60_000)).isEmpty(); // tick đầu chỉ ghi nhận giá
+
+        List<AlertEntry> fired = index.onPrice("BTCUSDT", 61_500);
+
+        assertThat(fired).extracting(AlertEntry::userId).containsExactly("u1");
+        assertThat(fired.get(0).above()).isTrue();
+    }
+
+    @Test
+    void onPrice_WhenPriceStaysAboveThreshold_DoesNotFireAgain() {
+        index.onPrice("BTCUSDT", 60_000);
+        index.onPrice("BTCUSDT", 61_000);
+
+        assertThat(index.onPrice("BTCUSDT", 61_200)).isEmpty();
+        assertThat(index.onPrice("BTCUSDT", 61_100)).isEmpty();
+    }
+
+    @Test
+    void onPrice_WhenPriceOscillatesAroundThreshold_FiresAgainOnlyAfterRearmBand() {
+        index.onPrice("BTCUSDT", 60_000);
+        assertThat(index.onPrice("BTCUSDT", 61_010)).hasSize(1);
+
+        // dao động quanh ngưỡng trong dải 0.5%: không bắn lại
+        for (int i = 0; i < 10; i++) {
+            assertThat(index.onPrice("BTCUSDT", 60_900)).isEmpty();
+            assertThat(index.onPrice("BTCUSDT", 61_050)).isEmpty();
+        }
+
+        // xuống dưới 61_000 * 0.995 rồi cắt lên lại: bắn lần nữa
+        index.onPrice("BTCUSDT", 60_600);
+        assertThat(index.onPrice("BTCUSDT", 61_100)).extracting(AlertEntry::userId).containsExactly("u1");
+    }
+
+    @Test
+    void copyState_KeepsFiredAlertsDisarmedAfterRebuild() {
+        index.onPrice("BTCUSDT", 60_000);
+        index.onPrice("BTCUSDT", 61_010);
+
+        PriceAlertIndex rebuilt = new PriceAlertIndex(0.005);
+        rebuilt.replaceUser("u1", List.of(
+                new AlertEntry("u1", "BTCUSDT", true, 61_000),
+                new AlertEntry("u1", "BTCUSDT", false, 59_000)));
+        rebuilt.copyState(index);
+
+        assertThat(rebuilt.onPrice("BTCUSDT", 60_900)).isEmpty();
+        assertThat(rebuilt.onPrice("BTCUSDT", 61_050)).isEmpty();
+    }
+
+    @Test
+    void onPrice_WhenPriceFalls_FiresBelowAlertsIncludingExactTarget() {
+        index.onPrice("BTCUSDT", 60_000);
+
+        List<AlertEntry> fired = index.onPrice("BTCUSDT", 59_000);
+
+        assertThat(fired).containsExactly(new AlertEntry("u1", "BTCUSDT", false, 59_000));
+    }
+
+    @Test
+    void replaceUser_ReplacesPreviousAlertsOfThatUserOnly() {
+        index.replaceUser("u1", List.of(new AlertEntry("u1", "BTCUSDT", true, 62_000)));
+        index.onPrice("BTCUSDT", 60_000);
+
+        List<AlertEntry> fired = index.onPrice("BTCUSDT", 63_000);
+
+        assertThat(fired).extracting(AlertEntry::userId).containsExactlyInAnyOrder("u1", "u2");
+        assertThat(index.size()).isEqualTo(3);
+
+        index.replaceUser("u2", List.of());
+        assertThat(index.userCount()).isEqualTo(1);
+        assertThat(index.onPrice("ETHUSDT", 2_900)).isEmpty();
+        assertThat(index.onPrice("ETHUSDT", 3_100)).isEmpty();
+    }
+}
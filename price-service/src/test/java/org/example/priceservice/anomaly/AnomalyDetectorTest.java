@@ -0,0 +1,95 @@
+package org.example.priceservice.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AnomalyDetectorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void onUpdate_WhenFormingCandleJumpsBeyondThreeSigma_FlagsReturnSpikeOncePerCandle() {
+        AnomalyDetector detector = new AnomalyDetector(MINUTE, 60, 30, 3, 4);
+        Random random = new Random(7);
+        double price = 100;
+        for (int i = 0; i < 60; i++) {
+            price *= 1 + random.nextGaussian() * 0.001;
+            assertThat(detector.onUpdate(i * MINUTE, price, 10 + random.nextDouble(), true)).isZero();
+        }
+
+        long openTime = 60 * MINUTE;
+        assertThat(detector.onUpdate(openTime, price * 1.0005, 1, false)).isZero();
+        assertThat(detector.onUpdate(openTime, price * 1.02, 2, false)).isEqualTo(AnomalyDetector.RETURN_SPIKE);
+        assertThat(detector.getLastReturnZ()).isGreaterThan(3);
+        // cùng nến: không báo lại
+        assertThat(detector.onUpdate(openTime, price * 1.03, 3, false)).isZero();
+        assertThat(detector.onUpdate(openTime, price * 1.03, 4, true)).isZero();
+        // nến sau về lại biên độ thường
+        assertThat(detector.onUpdate(openTime + MINUTE, price * 1.0302, 1, false)).isZero();
+    }
+
+    @Test
+    void onUpdate_WhenVolumeBurstsOrHistoryIsShort_FlagsOnlyWithEnoughObservations() {
+        AnomalyDetector detector = new AnomalyDetector(MINUTE, 20, 10, 3, 4);
+        Random random = new Random(3);
+        for (int i = 0; i < 5; i++) {
+            detector.onUpdate(i * MINUTE, 100, 10 + random.nextDouble(), true);
+        }
+        // chưa đủ min-observations: không báo dù volume rất lớn
+        assertThat(detector.onUpdate(5 * MINUTE, 100, 1_000, false)).isZero();
+        detector.onUpdate(5 * MINUTE, 100, 10.5, true);
+        for (int i = 6; i < 40; i++) {
+            detector.onUpdate(i * MINUTE, 100, 10 + random.nextDouble(), true);
+        }
+
+        assertThat(detector.onUpdate(40 * MINUTE, 100, 5, false)).isZero();
+        assertThat(detector.onUpdate(40 * MINUTE, 100, 50, false)).isEqualTo(AnomalyDetector.VOLUME_BURST);
+        assertThat(detector.getLastVolumeZ()).isGreaterThan(4);
+    }
+
+    @Test
+    void onUpdate_WhenCandlesAreNotContiguous_SkipsReturnAcrossGap() {
+        AnomalyDetector detector = new AnomalyDetector(MINUTE, 60, 30, 3, 4);
+        Random random = new Random(5);
+        double price = 100;
+        for (int i = 0; i < 60; i++) {
+            price *= 1 + random.nextGaussian() * 0.001;
+            detector.onUpdate(i * MINUTE, price, 10 + random.nextDouble(), true);
+        }
+
+        // restart sau 2 giờ: giá đã đi xa nhưng đó là lợi suất nhiều kỳ, không phải spike
+        long resumed = 180 * MINUTE;
+        assertThat(detector.onUpdate(resumed, price * 1.05, 1, false)).isZero();
+        assertThat(detector.onUpdate(resumed, price * 1.05, 10, true)).isZero();
+        // nến liền kề tiếp theo được kiểm tra lại bình thường
+        assertThat(detector.onUpdate(resumed + MINUTE, price * 1.05 * 1.02, 1, false))
+                .isEqualTo(AnomalyDetector.RETURN_SPIKE);
+    }
+
+    @Test
+    void rollingStats_AfterEvictions_MatchesDirectComputationOverWindow() {
+        AnomalyDetector.RollingStats stats = new AnomalyDetector.RollingStats(50);
+        Random random = new Random(11);
+        double[] values = new double[1_037];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e4 + random.nextGaussian() * 3;
+            stats.add(values[i]);
+        }
+
+        double mean = 0;
+        for (int i = values.length - 50; i < values.length; i++) {
+            mean += values[i] / 50;
+        }
+        double variance = 0;
+        for (int i = values.length - 50; i < values.length; i++) {
+            variance += (values[i] - mean) * (values[i] - mean) / 49;
+        }
+        assertThat(stats.count).isEqualTo(50);
+        assertThat(stats.mean).isCloseTo(mean, within(1e-9));
+        assertThat(stats.stddev()).isCloseTo(Math.sqrt(variance), within(1e-9));
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.priceservice.arrow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArrowStreamWriterTest {
+
+    private static final List<ArrowStreamWriter.Field> FIELDS = List.of(
+            new ArrowStreamWriter.Field("openTime", ArrowStreamWriter.Type.TIMESTAMP_MILLIS, false),
+            new ArrowStreamWriter.Field("close", ArrowStreamWriter.Type.FLOAT64, false),
+            new ArrowStreamWriter.Field("rsi", ArrowStreamWriter.Type.FLOAT64, true));
+
+    @Test
+    void writeSchema_WhenDecoded_ContainsFieldNamesAndTypes() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out, FIELDS);
+        writer.writeSchema();
+        writer.writeEnd();
+        ByteBuffer stream = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(stream.getInt(0)).isEqualTo(0xFFFFFFFF);
+        int metadataLength = stream.getInt(4);
+        assertThat((8 + metadataLength) % 8).isZero();
+
+        Table message = Table.root(slice(stream, 8, metadataLength));
+        assertThat(message.getShort(0)).isEqualTo((short) 4);
+        assertThat(message.getByte(1)).isEqualTo((byte) 1);
+        assertThat(message.getLong(3)).isZero();
+
+        Table schema = message.getTable(2);
+        List<Table> fields = schema.getTableVector(1);
+        assertThat(fields).hasSize(3);
+        assertThat(fields.stream().map(f -> f.getString(0))).containsExactly("openTime", "close", "rsi");
+        assertThat(fields.stream().map(f -> f.getByte(2))).containsExactly((byte) 10, (byte) 3, (byte) 3);
+        assertThat(fields.get(2).getByte(1)).isEqualTo((byte) 1);
+        assertThat(fields.get(0).getTable(3).getString(1)).isEqualTo("UTC");
+        assertThat(fields.get(0).getTableVector(5)).isEmpty();
+
+        // marker kết thúc stream
+        int end = 8 + metadataLength;
+        assertThat(stream.getInt(end)).isEqualTo(0xFFFFFFFF);
+        assertThat(stream.getInt(end + 4)).isZero();
+        assertThat(stream.limit()).isEqualTo(end + 8);
+    }
+
+    @Test
+    void writeBatch_WhenNullableColumnHasNaN_WritesValidityBitmapAndAlignedBuffers() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out, FIELDS);
+        writer.writeSchema();
+        int schemaLength = out.size();
+        // mảng dài hơn rowCount: chỉ 3 dòng đầu được ghi
+        writer.writeBatch(3, List.of(new long[]{1000, 2000, 3000, 0},
+                new double[]{1.5, 2.5, 3.5, 0}, new double[]{Double.NaN, 40, 50, 0}));
+        writer.writeEnd();
+        ByteBuffer stream = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        int metadataLength = stream.getInt(schemaLength + 4);
+        Table message = Table.root(slice(stream, schemaLength + 8, metadataLength));
+        assertThat(message.getByte(1)).isEqualTo((byte) 3);
+        long bodyLength = message.getLong(3);
+
+        Table batch = message.getTable(2);
+        assertThat(batch.getLong(0)).isEqualTo(3);
+        long[] nodes = batch.getLongPairs(1);
+        assertThat(nodes).containsExactly(3, 0, 3, 0, 3, 1);
+        long[] buffers = batch.getLongPairs(2);
+        // (offset, length) của validity + data cho từng cột
+        assertThat(buffers).containsExactly(0, 0, 0, 24, 24, 0, 24, 24, 48, 8, 56, 24);
+        assertThat(bodyLength).isEqualTo(80);
+
+        int body = schemaLength + 8 + metadataLength;
+        assertThat(body % 8).isZero();
+        assertThat(stream.getLong(body + 8)).isEqualTo(2000);
+        assertThat(stream.getDouble(body + 24 + 16)).isEqualTo(3.5);
+        assertThat(stream.get(body + 48)).isEqualTo((byte) 0b110);
+        assertThat(stream.getDouble(body + 56 + 8)).isEqualTo(40);
+        assertThat(stream.getInt(body + (int) bodyLength)).isEqualTo(0xFFFFFFFF);
+    }
+
+    private static ByteBuffer slice(ByteBuffer stream, int offset, int length) {
+        return stream.duplicate().position(offset).limit(offset + length).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Đọc flatbuffer tối thiểu để kiểm tra metadata đã ghi
+     */
+    private record Table(ByteBuffer bb, int position) {
+
+        static Table root(ByteBuffer bb) {
+            return new Table(bb, bb.getInt(0));
+        }
+
+        int field(int id) {
+            int vtable = position - bb.getInt(position);
+            int vtableLength = bb.getShort(vtable);
+            int entry = 4 + 2 * id;
+            return entry < vtableLength ? bb.getShort(vtable + entry) : 0;
+        }
+
+        byte getByte(int id) {
+            return bb.get(position + field(id));
+        }
+
+        short getShort(int id) {
+            return bb.getShort(position + field(id));
+        }
+
+        long getLong(int id) {
+            return bb.getLong(position + field(id));
+        }
+
+        int indirect(int id) {
+            int at = position + field(id);
+            return at + bb.getInt(at);
+        }
+
+        Table getTable(int id) {
+            return new Table(bb, indirect(id));
+        }
+
+        String getString(int id) {
+            int at = indirect(id);
+            byte[] bytes = new byte[bb.getInt(at)];
+            bb.get(at + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<Table> getTableVector(int id) {
+            int at = indirect(id);
+            List<Table> tables = new ArrayList<>();
+            for (int i = 0; i < bb.getInt(at); i++) {
+                int element = at + 4 + 4 * i;
+                tables.add(new Table(bb, element + bb.getInt(element)));
+            }
+            return tables;
+        }
+
+        long[] getLongPairs(int id) {
+            int at = indirect(id);
+            assertThat((at + 4) % 8).as("struct alignment").isZero();
+            long[] values = new long[2 * bb.getInt(at)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = bb.getLong(at + 4 + 8 * i);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.priceservice.audit;
+
+import org.example.priceservice.entity.PriceCandle;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeriesAuditorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void accept_FindsGapsDuplicatesAndInconsistentCandles() {
+        SeriesAuditor auditor = new SeriesAuditor(MINUTE, 0);
+        auditor.accept(candle("a", 0, 10, 12, 9, 11));
+        auditor.accept(candle("b", MINUTE, 11, 12, 10, 11));
+        auditor.accept(candle("dup", MINUTE, 11, 12, 10, 11));
+        // thiếu slot 2, 3
+        auditor.accept(candle("c", 4 * MINUTE, 11, 10, 9, 11)); // high < open
+        auditor.accept(candle("d", 5 * MINUTE, 11, 12, 10, 11));
+        auditor.finish(8 * MINUTE); // thiếu 6, 7
+
+        assertThat(auditor.getScanned()).isEqualTo(5);
+        assertThat(auditor.getDuplicateIds()).containsExactly("dup");
+        assertThat(auditor.getMissing()).isEqualTo(4);
+        assertThat(auditor.getInconsistent()).isEqualTo(1);
+        // slot 2-3 (thiếu) và 4 (sai) được gộp thành một khoảng
+        assertThat(auditor.getRepairRanges()).containsExactly(
+                new long[] { 2 * MINUTE, 5 * MINUTE }, new long[] { 6 * MINUTE, 8 * MINUTE });
+    }
+
+    @Test
+    void accept_WhenSlotHasDuplicates_KeepsSameRowRegardlessOfCursorOrder() {
+        PriceCandle old = candle("old", MINUTE, 11, 12, 10, 11);
+        old.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        PriceCandle newest = candle("newest", MINUTE, 11, 12, 10, 11);
+        newest.setCreatedAt(LocalDateTime.of(2024, 6, 1, 0, 0));
+        PriceCandle broken = candle("broken", MINUTE, 11, 10, 9, 11); // high < open
+        broken.setCreatedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+        for (List<PriceCandle> order : List.of(List.of(old, newest, broken), List.of(broken, newest, old),
+                List.of(newest, broken, old))) {
+            SeriesAuditor auditor = new SeriesAuditor(MINUTE, MINUTE);
+            order.forEach(auditor::accept);
+            auditor.finish(2 * MINUTE);
+
+            assertThat(auditor.getDuplicateIds()).containsExactlyInAnyOrder("old", "broken");
+            assertThat(auditor.getInconsistent()).isZero();
+            assertThat(auditor.getRepairRanges()).isEmpty();
+        }
+    }
+
+    @Test
+    void accept_WhenSeriesIsEmpty_ReportsWholeRangeMissing() {
+        SeriesAuditor auditor = new SeriesAuditor(MINUTE, 10 * MINUTE);
+        auditor.finish(20 * MINUTE);
+
+        assertThat(auditor.getMissing()).isEqualTo(10);
+        assertThat(auditor.getRepairRanges()).containsExactly(new long[] { 10 * MINUTE, 20 * MINUTE });
+    }
+
+    private static PriceCandle candle(String id, long openTime, double open, double high, double low, double close) {
+        return PriceCandle.builder()
+                .id(id)
+                .openTime(Instant.ofEpochMilli(openTime))
+                .closeTime(Instant.ofEpochMilli(openTime + MINUTE - 1))
+                .open(BigDecimal.valueOf(open))
+                .high(BigDecimal.valueOf(high))
+                .low(BigDecimal.valueOf(low))
+                .close(BigDecimal.valueOf(close))
+                .volume(BigDecimal.ONE)
+                .build();
+    }
+}
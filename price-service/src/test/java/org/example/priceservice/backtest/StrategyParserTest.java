@@ -0,0 +1,80 @@
+package org.example.priceservice.backtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class StrategyParserTest {
+
+    private final double[] close = { 10, 11, 12, 11, 9 };
+    private final double[] fast = { 9, 10, 13, 12, 8 };
+    private final SeriesSource source = (name, period) -> switch (name) {
+        case "close" -> close;
+        case "sma" -> period == 2 ? fast : close;
+        default -> new double[close.length];
+    };
+
+    @Test
+    void parse_EvaluatesArithmeticComparisonsAndCrosses() {
+        Expr cross = StrategyParser.parse("crossover(sma($fast), close)", Map.of("fast", 2.0), source);
+        Expr under = StrategyParser.parse("crossunder(sma(2), close)", Map.of(), source);
+        Expr combined = StrategyParser.parse("close * 2 - 1 >= 21 and not (close > 11.5)", Map.of(), source);
+
+        assertThat(new double[] { cross.at(0), cross.at(1), cross.at(2), cross.at(3), cross.at(4) })
+                .containsExactly(0, 0, 1, 0, 0);
+        assertThat(under.at(4)).isEqualTo(1);
+        assertThat(combined.at(1)).isEqualTo(1); // 21 >= 21, 11 <= 11.5
+        assertThat(combined.at(2)).isEqualTo(0);
+    }
+
+    @Test
+    void parse_WhenExpressionIsUnsafeOrInvalid_Throws() {
+        assertThatThrownBy(() -> StrategyParser.parse("System.exit(0)", Map.of(), source))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StrategyParser.parse("sma($slow) > close", Map.of(), source))
+                .hasMessageContaining("$slow");
+        assertThatThrownBy(() -> StrategyParser.parse("sma(2.5) > close", Map.of(), source))
+                .hasMessageContaining("Period");
+        assertThatThrownBy(() -> StrategyParser.parse("close > 1;", Map.of(), source))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StrategyParser.parse("close" + " + close".repeat(60), Map.of(), source))
+                .hasMessageContaining("too complex");
+    }
+
+    @Test
+    void parse_WhenCrossoversAreDeeplyNested_EvaluatesInBoundedTime() {
+        String nested = "close";
+        while (nested.length() + "crossover(, 1)".length() <= StrategyParser.MAX_LENGTH) {
+            nested = "crossover(" + nested + ", 1)";
+        }
+        String expression = nested;
+
+        // Trước đây mỗi cấp nhân đôi số lần đánh giá: ~2^35 lần mỗi nến
+        Expr expr = assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> StrategyParser.parse(expression, Map.of(), source));
+
+        assertThat(expr.at(close.length - 1)).isZero();
+    }
+
+    @Test
+    void simulator_TracksTradesReturnAndDrawdown() {
+        double[] prices = { 100, 100, 110, 99, 120 };
+        Expr entry = i -> i == 1 || i == 3 ? 1 : 0;
+        Expr exit = i -> i == 2 ? 1 : 0;
+
+        BacktestSimulator.Metrics metrics = BacktestSimulator.run(prices, 0, entry, exit, 0, () -> false);
+
+        // 100 -> 110 (+10%), 99 -> 120 đóng ở nến cuối
+        assertThat(metrics.trades()).isEqualTo(2);
+        assertThat(metrics.winRate()).isEqualTo(1.0);
+        assertThat(metrics.totalReturnPercent()).isCloseTo((1.1 * 120 / 99 - 1) * 100, offset(1e-9));
+        assertThat(metrics.buyAndHoldReturnPercent()).isCloseTo(20, offset(1e-9));
+        assertThat(BacktestSimulator.run(prices, 0, entry, exit, 0, () -> true)).isNull();
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.priceservice.bar;
+
+import org.example.priceservice.dto.CandleDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BarBuilderTest {
+
+    @Test
+    void onTrade_WhenTradeCrossesTimeBoundary_ClosesAlignedTimeBar() {
+        BarBuilder builder = new BarBuilder.Time("BTCUSDT", "5s", 5_000);
+        assertThat(builder.onTrade(100, 1, 10_200)).isNull();
+        assertThat(builder.onTrade(105, 2, 12_000)).isNull();
+        assertThat(builder.onTrade(98, 1, 14_999)).isNull();
+
+        CandleDto closed = builder.onTrade(101, 1, 15_000);
+        assertThat(closed.isClosed()).isTrue();
+        assertThat(closed.getOpenTime()).isEqualTo(10_000);
+        assertThat(closed.getCloseTime()).isEqualTo(14_999);
+        assertThat(closed.getOpen().doubleValue()).isEqualTo(100);
+        assertThat(closed.getHigh().doubleValue()).isEqualTo(105);
+        assertThat(closed.getLow().doubleValue()).isEqualTo(98);
+        assertThat(closed.getClose().doubleValue()).isEqualTo(98);
+        assertThat(closed.getVolume().doubleValue()).isEqualTo(4);
+    }
+
+    @Test
+    void closeExpired_WhenNoTradeAfterBoundary_ClosesTimeBarOnce() {
+        BarBuilder time = new BarBuilder.Time("BTCUSDT", "5s", 5_000);
+        BarBuilder tick = new BarBuilder.Tick("BTCUSDT", 100);
+        BarAggregator aggregator = new BarAggregator(List.of(time, tick), Long.MAX_VALUE);
+        List<CandleDto> published = new ArrayList<>();
+        aggregator.onTrade(100, 1, 10_200, 10_200, published::add);
+        aggregator.onTrade(102, 1, 11_000, 11_000, published::add);
+        published.clear();
+
+        aggregator.closeExpired(14_999, published::add);
+        assertThat(published).isEmpty();
+
+        aggregator.closeExpired(15_000, published::add);
+        aggregator.closeExpired(16_000, published::add);
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).isClosed()).isTrue();
+        assertThat(published.get(0).getInterval()).isEqualTo("5s");
+        assertThat(published.get(0).getCloseTime()).isEqualTo(14_999);
+        assertThat(published.get(0).getClose().doubleValue()).isEqualTo(102);
+
+        // Giao dịch trễ của bar đã đóng: gộp vào bar kế tiếp, không đóng lại bar cũ
+        published.clear();
+        aggregator.onTrade(101, 1, 14_500, 16_000, published::add);
+        aggregator.closeExpired(20_000, published::add);
+        assertThat(published).singleElement().extracting(CandleDto::getOpenTime).isEqualTo(15_000L);
+    }
+
+    @Test
+    void onTrade_ClosesTickAndVolumeBarsOnTheTradeThatReachesThreshold() {
+        BarBuilder tick = new BarBuilder.Tick("BTCUSDT", 3);
+        BarBuilder volume = new BarBuilder.Volume("BTCUSDT", 2.5);
+        List<CandleDto> tickBars = new ArrayList<>();
+        List<CandleDto> volumeBars = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            CandleDto t = tick.onTrade(100 + i, 1, i * 10L);
+            CandleDto v = volume.onTrade(100 + i, 1, i * 10L);
+            if (t != null) tickBars.add(t);
+            if (v != null) volumeBars.add(v);
+        }
+
+        assertThat(tickBars).extracting(CandleDto::getOpenTime).containsExactly(0L, 30L);
+        assertThat(tickBars.get(1).getCloseTime()).isEqualTo(50);
+        assertThat(tick.getName()).isEqualTo("tick3");
+        // 2.5 -> đóng ở giao dịch thứ 3 (volume 3), rồi thứ 6
+        assertThat(volumeBars).extracting(c -> c.getVolume().doubleValue()).containsExactly(3.0, 3.0);
+    }
+
+    @Test
+    void snapshot_KeepsOnlyRecentBarsAndAppendsNewerFormingBar() {
+        RecentBarBuffer buffer = new RecentBarBuffer(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(bar(i * 1000L, true));
+        }
+        buffer.add(bar(10_000, false));
+
+        List<CandleDto> recent = buffer.snapshot(100);
+        // Dung lượng 4, một slot chừa cho writer
+        assertThat(recent).extracting(CandleDto::getOpenTime).containsExactly(7000L, 8000L, 9000L, 10_000L);
+        assertThat(recent.get(3).isClosed()).isFalse();
+
+        buffer.add(bar(10_000, true));
+        assertThat(buffer.snapshot(2)).extracting(CandleDto::getOpenTime).containsExactly(9000L, 10_000L);
+    }
+
+    private static CandleDto bar(long openTime, boolean closed) {
+        CandleDto dto = new CandleDto();
+        dto.setSymbol("BTCUSDT");
+        dto.setInterval("1s");
+        dto.setOpenTime(openTime);
+        dto.setClosed(closed);
+        return dto;
+    }
+}
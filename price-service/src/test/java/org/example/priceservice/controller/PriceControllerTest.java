@@ -0,0 +1,120 @@
+package org.example.priceservice.controller;
+
+import org.example.priceservice.bar.BarStore;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.CandleTile;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.repository.PriceCandleRepository;
+import org.example.priceservice.service.BatchIndicatorService;
+import org.example.priceservice.service.CandleDownsampleService;
+import org.example.priceservice.service.CandleTileService;
+import org.example.priceservice.service.CorrelationService;
+import org.example.priceservice.service.IndicatorService;
+import org.example.priceservice.service.LatestPriceSnapshotService;
+import org.example.priceservice.service.LiveCandleStore;
+import org.example.priceservice.service.PriceCandleCacheService;
+import org.example.priceservice.service.PriceCandleService;
+import org.example.priceservice.service.TickerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PriceControllerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private LiveCandleStore liveStore;
+    private PriceCandleRepository repository;
+    private PriceController controller;
+
+    @BeforeEach
+    void setUp() {
+        PriceCandleService candleService = mock(PriceCandleService.class);
+        liveStore = new LiveCandleStore();
+        PriceCandle closed = PriceCandle.builder()
+                .symbol("BTCUSDT").interval("1m")
+                .openTime(Instant.ofEpochMilli(0)).closeTime(Instant.ofEpochMilli(MINUTE - 1))
+                .close(BigDecimal.TEN)
+                .build();
+        when(candleService.getCandles(anyString(), anyString(), anyInt())).thenReturn(List.of(closed));
+        when(candleService.toValidator(any())).thenCallRealMethod();
+        when(candleService.mergeLive(any(), anyString(), anyString(), anyInt())).thenReturn(List.of(closed));
+        repository = mock(PriceCandleRepository.class);
+        CandleTileService tileService = new CandleTileService(repository, mock(PriceCandleCacheService.class));
+        ReflectionTestUtils.setField(tileService, "pageSize", 500);
+        controller = new PriceController(candleService, tileService, liveStore,
+                mock(IndicatorService.class), mock(BatchIndicatorService.class), mock(TickerService.class),
+                mock(BarStore.class), mock(CandleDownsampleService.class), mock(LatestPriceSnapshotService.class),
+                mock(CorrelationService.class));
+    }
+
+    @Test
+    void getHistoricalCandles_WhenFormingCandleTicks_ChangesETag() {
+        liveStore.onCandle(forming(MINUTE + 1_000));
+        String first = get(null).getHeaders().getETag();
+
+        // Cùng ETag, chưa có tick mới -> 304
+        assertThat(get(first).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        liveStore.onCandle(forming(MINUTE + 2_000));
+        ResponseEntity<List<PriceCandle>> afterTick = get(first);
+
+        assertThat(afterTick.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterTick.getHeaders().getETag()).isNotEqualTo(first).startsWith("W/");
+        assertThat(afterTick.getHeaders().getLastModified()).isEqualTo(MINUTE + 2_000);
+    }
+
+    @Test
+    void getCandleTile_WhenIntervalIsNotStored_ReturnsBadRequestWithoutQuery() {
+        for (String interval : List.of("2h", "4h", "1d", "1w")) {
+            ResponseEntity<CandleTile> response = controller.getCandleTile("BTCUSDT", interval, null, webRequest(null));
+            assertThat(response.getStatusCode()).as(interval).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+        verifyNoInteractions(repository);
+
+        assertThat(controller.getCandleTile("BTCUSDT", "1h", null, webRequest(null)).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<List<PriceCandle>> get(String ifNoneMatch) {
+        return controller.getHistoricalCandles("BTCUSDT", "1m", 100, null, null, null,
+                CandleDownsampleService.MODE_OHLC, webRequest(ifNoneMatch));
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/prices");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private CandleDto forming(long eventTime) {
+        CandleDto dto = new CandleDto();
+        dto.setSymbol("BTCUSDT");
+        dto.setInterval("1m");
+        dto.setOpenTime(MINUTE);
+        dto.setCloseTime(2 * MINUTE - 1);
+        dto.setClose(BigDecimal.valueOf(eventTime));
+        dto.setEventTime(eventTime);
+        return dto;
+    }
+}
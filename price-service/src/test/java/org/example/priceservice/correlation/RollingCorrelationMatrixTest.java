@@ -0,0 +1,72 @@
+package org.example.priceservice.correlation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RollingCorrelationMatrixTest {
+
+    @Test
+    void correlation_MatchesTwoPassComputationAcrossManyWindowLaps() {
+        int symbols = 4;
+        int[] windows = { 10, 37 };
+        RollingCorrelationMatrix matrix = new RollingCorrelationMatrix(symbols, windows);
+        Random random = new Random(11);
+        double[][] history = new double[500][symbols];
+        for (int k = 0; k < history.length; k++) {
+            double market = random.nextGaussian();
+            for (int i = 0; i < symbols; i++) {
+                history[k][i] = 0.01 * (market * (i + 1) * 0.3 + random.nextGaussian());
+            }
+            matrix.addRow(history[k]);
+
+            for (int w = 0; w < windows.length; w++) {
+                int n = Math.min(k + 1, windows[w]);
+                assertThat(matrix.observations(w)).isEqualTo(n);
+                if (n < 2) {
+                    continue;
+                }
+                for (int i = 0; i < symbols; i++) {
+                    for (int j = 0; j < symbols; j++) {
+                        assertThat(matrix.correlation(w, i, j))
+                                .isCloseTo(twoPass(history, k + 1 - n, k + 1, i, j), within(1e-9));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void correlation_WhenSeriesIsConstant_ReturnsNaN() {
+        RollingCorrelationMatrix matrix = new RollingCorrelationMatrix(2, new int[] { 3 });
+        matrix.addRow(new double[] { 0.01, 0 });
+        matrix.addRow(new double[] { 0.02, 0 });
+        matrix.addRow(new double[] { -0.01, 0 });
+
+        assertThat(matrix.correlation(0, 0, 0)).isEqualTo(1.0);
+        assertThat(matrix.correlation(0, 0, 1)).isNaN();
+    }
+
+    private static double twoPass(double[][] rows, int from, int to, int i, int j) {
+        double meanI = 0;
+        double meanJ = 0;
+        for (int k = from; k < to; k++) {
+            meanI += rows[k][i];
+            meanJ += rows[k][j];
+        }
+        meanI /= to - from;
+        meanJ /= to - from;
+        double covariance = 0;
+        double varianceI = 0;
+        double varianceJ = 0;
+        for (int k = from; k < to; k++) {
+            covariance += (rows[k][i] - meanI) * (rows[k][j] - meanJ);
+            varianceI += (rows[k][i] - meanI) * (rows[k][i] - meanI);
+            varianceJ += (rows[k][j] - meanJ) * (rows[k][j] - meanJ);
+        }
+        return covariance / Math.sqrt(varianceI * varianceJ);
+    }
+}
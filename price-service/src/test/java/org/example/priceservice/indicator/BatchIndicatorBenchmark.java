@@ -0,0 +1,87 @@
+package org.example.priceservice.indicator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * So sánh thời gian tính 6 chỉ báo trên 50k nến: từng nến qua IndicatorSet, kernel dạng cột tuần tự,
+ * và kernel song song theo chỉ báo trên ForkJoinPool.
+ * Chạy thủ công: mvn test -Dtest=BatchIndicatorBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchIndicatorBenchmark {
+
+    private static final int CANDLES = 50_000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 200;
+
+    private final IndicatorParameters p = IndicatorParameters.defaults();
+    private final CandleColumns columns = BatchIndicatorKernelsTest.randomColumns(CANDLES);
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    // Chống JIT loại bỏ code không dùng kết quả
+    private double sink;
+
+    @Test
+    void compareIncrementalAndBatch() {
+        report("incremental", this::incremental);
+        report("batch", this::batchSequential);
+        report("batch-fj", this::batchParallel);
+        System.out.println("sink=" + sink);
+    }
+
+    private void incremental() {
+        IndicatorSet set = new IndicatorSet(p);
+        for (int i = 0; i < CANDLES; i++) {
+            set.commit(columns.openTime()[i], columns.high()[i], columns.low()[i], columns.close()[i]);
+            sink += set.closedValues().hashCode();
+        }
+    }
+
+    private void batchSequential() {
+        for (Supplier<Object> kernel : kernels()) {
+            sink += kernel.get().hashCode();
+        }
+    }
+
+    private void batchParallel() {
+        Supplier<Object>[] kernels = kernels();
+        @SuppressWarnings("unchecked")
+        ForkJoinTask<Object>[] tasks = new ForkJoinTask[kernels.length];
+        for (int i = 0; i < kernels.length; i++) {
+            tasks[i] = pool.submit(kernels[i]::get);
+        }
+        for (ForkJoinTask<Object> task : tasks) {
+            sink += task.join().hashCode();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<Object>[] kernels() {
+        double[] close = columns.close();
+        return new Supplier[] {
+                () -> BatchIndicatorKernels.sma(close, p.smaPeriod()),
+                () -> BatchIndicatorKernels.ema(close, p.emaPeriod()),
+                () -> BatchIndicatorKernels.rsi(close, p.rsiPeriod()),
+                () -> BatchIndicatorKernels.macd(close, p.macdFast(), p.macdSlow(), p.macdSignal()),
+                () -> BatchIndicatorKernels.bollinger(close, p.bollingerPeriod(), p.bollingerMultiplier()),
+                () -> BatchIndicatorKernels.atr(columns.high(), columns.low(), close, p.atrPeriod())
+        };
+    }
+
+    private void report(String name, Runnable body) {
+        for (int i = 0; i < WARMUP; i++) {
+            body.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            body.run();
+        }
+        double averageMs = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+        System.out.printf("%-12s %d candles x 6 indicators: %.2f ms/op%n", name, CANDLES, averageMs);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.priceservice.indicator;
+
+import org.example.priceservice.dto.IndicatorValues;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BatchIndicatorKernelsTest {
+
+    private static final int SIZE = 2_000;
+    private static final double EPS = 1e-6;
+
+    @Test
+    void kernels_MatchIncrementalIndicatorsAtEveryCandle() {
+        CandleColumns columns = randomColumns();
+        IndicatorParameters p = IndicatorParameters.defaults();
+        double[] close = columns.close();
+
+        double[] sma = BatchIndicatorKernels.sma(close, p.smaPeriod());
+        double[] ema = BatchIndicatorKernels.ema(close, p.emaPeriod());
+        double[] rsi = BatchIndicatorKernels.rsi(close, p.rsiPeriod());
+        double[][] macd = BatchIndicatorKernels.macd(close, p.macdFast(), p.macdSlow(), p.macdSignal());
+        double[][] bands = BatchIndicatorKernels.bollinger(close, p.bollingerPeriod(), p.bollingerMultiplier());
+        double[] atr = BatchIndicatorKernels.atr(columns.high(), columns.low(), close, p.atrPeriod());
+
+        IndicatorSet incremental = new IndicatorSet(p);
+        for (int i = 0; i < SIZE; i++) {
+            incremental.commit(columns.openTime()[i], columns.high()[i], columns.low()[i], close[i]);
+            IndicatorValues expected = incremental.closedValues();
+
+            assertSame(sma[i], expected, IndicatorValues::getSma);
+            assertSame(ema[i], expected, IndicatorValues::getEma);
+            assertSame(rsi[i], expected, IndicatorValues::getRsi);
+            assertSame(macd[0][i], expected, IndicatorValues::getMacd);
+            assertSame(macd[1][i], expected, IndicatorValues::getMacdSignal);
+            assertSame(bands[1][i], expected, IndicatorValues::getBollingerUpper);
+            assertSame(bands[2][i], expected, IndicatorValues::getBollingerLower);
+            assertSame(atr[i], expected, IndicatorValues::getAtr);
+        }
+    }
+
+    @Test
+    void kernels_WhenSeriesShorterThanPeriod_ReturnAllNaN() {
+        double[] close = { 1, 2, 3 };
+
+        assertThat(BatchIndicatorKernels.sma(close, 5)).containsOnly(Double.NaN);
+        assertThat(BatchIndicatorKernels.rsi(close, 14)).containsOnly(Double.NaN);
+        assertThat(BatchIndicatorKernels.bollinger(close, 20, 2.0)[0]).containsOnly(Double.NaN);
+    }
+
+    private static void assertSame(double actual, IndicatorValues expected, Function<IndicatorValues, Double> getter) {
+        Double value = getter.apply(expected);
+        if (value == null) {
+            assertThat(actual).isNaN();
+        } else {
+            assertThat(actual).isCloseTo(value, within(EPS));
+        }
+    }
+
+    static CandleColumns randomColumns() {
+        return randomColumns(SIZE);
+    }
+
+    static CandleColumns randomColumns(int size) {
+        Random random = new Random(7);
+        long[] openTime = new long[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        double price = 60_000;
+        for (int i = 0; i < size; i++) {
+            price += random.nextGaussian() * 40;
+            openTime[i] = i * 60_000L;
+            close[i] = price;
+            high[i] = price + random.nextDouble() * 30;
+            low[i] = price - random.nextDouble() * 30;
+        }
+        return new CandleColumns(openTime, high, low, close);
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.priceservice.indicator;
+
+import org.example.priceservice.dto.IndicatorValues;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IndicatorSetTest {
+
+    private static final double EPS = 1e-6;
+
+    @Test
+    void closedValues_MatchNaiveSmaEmaAndBollinger() {
+        double[] closes = randomCloses(200);
+        IndicatorSet set = new IndicatorSet(IndicatorParameters.defaults());
+        for (int i = 0; i < closes.length; i++) {
+            set.commit(i, closes[i] + 1, closes[i] - 1, closes[i]);
+        }
+
+        IndicatorValues values = set.closedValues();
+
+        double mean = 0;
+        for (int i = closes.length - 20; i < closes.length; i++) {
+            mean += closes[i] / 20;
+        }
+        double variance = 0;
+        for (int i = closes.length - 20; i < closes.length; i++) {
+            variance += (closes[i] - mean) * (closes[i] - mean) / 20;
+        }
+        assertThat(values.getSma()).isCloseTo(mean, within(EPS));
+        assertThat(values.getBollingerMiddle()).isCloseTo(mean, within(EPS));
+        assertThat(values.getBollingerUpper()).isCloseTo(mean + 2 * Math.sqrt(variance), within(EPS));
+        assertThat(values.getEma()).isCloseTo(naiveEma(closes, 20), within(EPS));
+        assertThat(values.getMacd()).isCloseTo(naiveEma(closes, 12) - naiveEma(closes, 26), within(EPS));
+    }
+
+    @Test
+    void closedValues_WhenNotEnoughCandles_LeavesIndicatorsNull() {
+        IndicatorSet set = new IndicatorSet(IndicatorParameters.defaults());
+        for (int i = 0; i < 10; i++) {
+            set.commit(i, 101, 99, 100);
+        }
+
+        IndicatorValues values = set.closedValues();
+
+        assertThat(values.getSma()).isNull();
+        assertThat(values.getRsi()).isNull();
+        assertThat(values.getMacd()).isNull();
+        assertThat(values.getBollingerUpper()).isNull();
+    }
+
+    @Test
+    void rsi_WhenPriceOnlyRises_Is100() {
+        IndicatorSet set = new IndicatorSet(IndicatorParameters.defaults());
+        for (int i = 0; i < 30; i++) {
+            set.commit(i, 101 + i, 99 + i, 100 + i);
+        }
+
+        assertThat(set.closedValues().getRsi()).isEqualTo(100.0);
+        assertThat(set.closedValues().getAtr()).isCloseTo(2.0, within(EPS));
+    }
+
+    @Test
+    void previewValues_EqualsCommittedResultAndDoesNotChangeState() {
+        double[] closes = randomCloses(100);
+        IndicatorSet set = new IndicatorSet(IndicatorParameters.defaults());
+        IndicatorSet reference = new IndicatorSet(IndicatorParameters.defaults());
+        for (int i = 0; i < closes.length - 1; i++) {
+            set.commit(i, closes[i] + 1, closes[i] - 1, closes[i]);
+            reference.commit(i, closes[i] + 1, closes[i] - 1, closes[i]);
+        }
+        double last = closes[closes.length - 1];
+
+        // Nhiều tick của cùng nến đang hình thành
+        set.previewValues(99, last + 5, last - 5, last + 3);
+        IndicatorValues preview = set.previewValues(99, last + 1, last - 1, last);
+        reference.commit(99, last + 1, last - 1, last);
+        IndicatorValues committed = reference.closedValues();
+
+        assertThat(preview.getClosed()).isFalse();
+        assertThat(preview.getSma()).isCloseTo(committed.getSma(), within(EPS));
+        assertThat(preview.getEma()).isCloseTo(committed.getEma(), within(EPS));
+        assertThat(preview.getRsi()).isCloseTo(committed.getRsi(), within(EPS));
+        assertThat(preview.getMacdSignal()).isCloseTo(committed.getMacdSignal(), within(EPS));
+        assertThat(preview.getBollingerLower()).isCloseTo(committed.getBollingerLower(), within(EPS));
+        assertThat(preview.getAtr()).isCloseTo(committed.getAtr(), within(EPS));
+        assertThat(set.getLastClosedOpenTime()).isEqualTo(98);
+    }
+
+    @Test
+    void commit_WhenCandleAlreadyCommitted_IsIgnored() {
+        IndicatorSet set = new IndicatorSet(IndicatorParameters.defaults());
+
+        assertThat(set.commit(1, 101, 99, 100)).isTrue();
+        assertThat(set.commit(1, 101, 99, 100)).isFalse();
+        assertThat(set.commit(0, 101, 99, 100)).isFalse();
+    }
+
+    private static double naiveEma(double[] values, int period) {
+        double ema = 0;
+        for (int i = 0; i < period; i++) {
+            ema += values[i] / period;
+        }
+        double alpha = 2.0 / (period + 1);
+        for (int i = period; i < values.length; i++) {
+            ema = alpha * values[i] + (1 - alpha) * ema;
+        }
+        return ema;
+    }
+
+    private static double[] randomCloses(int count) {
+        Random random = new Random(42);
+        double[] closes = new double[count];
+        double price = 60_000;
+        for (int i = 0; i < count; i++) {
+            price += random.nextGaussian() * 50;
+            closes[i] = price;
+        }
+        return closes;
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.anomaly.AnomalyDetector;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.messaging.AnomalyEventPublisher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chi phí mỗi tick của phát hiện bất thường: detector primitive đơn thuần và cả đường onCandle của service
+ * (tra detector theo symbol, BigDecimal -> double, synchronized). Mục tiêu: dưới 1 µs / tick.
+ * Chạy thủ công: mvn test -Dtest=AnomalyDetectionBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AnomalyDetectionBenchmark {
+
+    private static final long MINUTE = 60_000L;
+    private static final int SYMBOLS = 20;
+    private static final int TICKS_PER_CANDLE = 50;
+    private static final int TICKS = 2_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private final CandleDto[] ticks = ticks();
+
+    // Chống JIT loại bỏ code không dùng kết quả
+    private long sink;
+
+    @Test
+    void perTickOverhead() {
+        double[] close = new double[TICKS];
+        double[] volume = new double[TICKS];
+        for (int i = 0; i < TICKS; i++) {
+            close[i] = ticks[i].getClose().doubleValue();
+            volume[i] = ticks[i].getVolume().doubleValue();
+        }
+        double detectorNs = measure(() -> {
+            AnomalyDetector[] detectors = new AnomalyDetector[SYMBOLS];
+            for (int i = 0; i < SYMBOLS; i++) {
+                detectors[i] = new AnomalyDetector(MINUTE, 60, 30, 3, 4);
+            }
+            return () -> {
+                for (int i = 0; i < TICKS; i++) {
+                    sink += detectors[i % SYMBOLS].onUpdate(ticks[i].getOpenTime(), close[i], volume[i],
+                            ticks[i].isClosed());
+                }
+            };
+        });
+
+        double serviceNs = measure(() -> {
+            AnomalyDetectionService service = newService();
+            return () -> {
+                for (CandleDto tick : ticks) {
+                    service.onCandle(tick);
+                }
+            };
+        });
+
+        System.out.printf("detector  %.1f ns/tick%n", detectorNs);
+        System.out.printf("service   %.1f ns/tick%n", serviceNs);
+        System.out.println("sink=" + sink);
+        assertThat(serviceNs).isLessThan(1_000);
+    }
+
+    private AnomalyDetectionService newService() {
+        PriceCandleService candleService = mock(PriceCandleService.class);
+        when(candleService.loadFromDatabase(anyString(), anyString(), anyInt())).thenReturn(List.of());
+        AnomalyDetectionService service = new AnomalyDetectionService(candleService, mock(AnomalyEventPublisher.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "interval", "1m");
+        ReflectionTestUtils.setField(service, "window", 60);
+        ReflectionTestUtils.setField(service, "minObservations", 30);
+        ReflectionTestUtils.setField(service, "returnSigma", 3.0);
+        ReflectionTestUtils.setField(service, "volumeSigma", 4.0);
+        // nạp detector (bất đồng bộ) trước khi đo, nến mồi liền trước chuỗi tick
+        for (int i = 0; i < SYMBOLS; i++) {
+            CandleDto prime = new CandleDto();
+            prime.setSymbol(ticks[i].getSymbol());
+            prime.setInterval("1m");
+            prime.setOpenTime(-MINUTE);
+            prime.setCloseTime(-1);
+            prime.setClose(ticks[i].getClose());
+            prime.setVolume(ticks[i].getVolume());
+            prime.setClosed(true);
+            service.onCandle(prime);
+        }
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> IntStream.range(0, SYMBOLS).allMatch(i -> service.isReady(ticks[i].getSymbol())));
+        return service;
+    }
+
+    /**
+     * State mới cho mỗi lượt (chuỗi tick có openTime tăng dần, chạy lại trên state cũ sẽ bị bỏ qua)
+     */
+    private double measure(Supplier<Runnable> freshRun) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            freshRun.get().run();
+        }
+        Runnable run = freshRun.get();
+        long start = System.nanoTime();
+        run.run();
+        return (double) (System.nanoTime() - start) / TICKS;
+    }
+
+    /**
+     * Tick xen kẽ SYMBOLS symbol, mỗi nến 1m nhận TICKS_PER_CANDLE cập nhật, cập nhật cuối là nến đóng
+     */
+    private static CandleDto[] ticks() {
+        Random random = new Random(42);
+        double[] price = new double[SYMBOLS];
+        double[] volume = new double[SYMBOLS];
+        Arrays.fill(price, 100);
+        CandleDto[] ticks = new CandleDto[TICKS];
+        for (int i = 0; i < TICKS; i++) {
+            int symbol = i % SYMBOLS;
+            int update = i / SYMBOLS;
+            long openTime = (update / TICKS_PER_CANDLE) * MINUTE;
+            boolean closed = update % TICKS_PER_CANDLE == TICKS_PER_CANDLE - 1;
+            if (update % TICKS_PER_CANDLE == 0) {
+                volume[symbol] = 0;
+            }
+            price[symbol] *= 1 + random.nextGaussian() * 0.0002;
+            volume[symbol] += random.nextDouble();
+
+            CandleDto tick = new CandleDto();
+            tick.setSymbol("SYM" + symbol + "USDT");
+            tick.setInterval("1m");
+            tick.setOpenTime(openTime);
+            tick.setCloseTime(openTime + MINUTE - 1);
+            // Như new BigDecimal("65000.12000000") từ payload Binance: 8 chữ số thập phân
+            tick.setClose(BigDecimal.valueOf(Math.round(price[symbol] * 1e8), 8));
+            tick.setVolume(BigDecimal.valueOf(Math.round(volume[symbol] * 1e8), 8));
+            tick.setClosed(closed);
+            ticks[i] = tick;
+        }
+        return ticks;
+    }
+}
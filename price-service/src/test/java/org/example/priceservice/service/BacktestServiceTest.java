@@ -0,0 +1,137 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.backtest.BacktestJob;
+import org.example.priceservice.dto.BacktestJobStatus;
+import org.example.priceservice.dto.BacktestRequest;
+import org.example.priceservice.entity.PriceCandle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BacktestServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BacktestService service = new BacktestService(mongoTemplate, 2);
+
+    BacktestServiceTest() {
+        ReflectionTestUtils.setField(service, "maxConcurrentJobs", 2);
+        ReflectionTestUtils.setField(service, "maxJobsPerUser", 1);
+        ReflectionTestUtils.setField(service, "maxRuns", 2000);
+        ReflectionTestUtils.setField(service, "maxSymbols", 20);
+        ReflectionTestUtils.setField(service, "maxJobMemoryMb", 256L);
+        ReflectionTestUtils.setField(service, "retentionMinutes", 30L);
+        ReflectionTestUtils.setField(service, "warmupCandles", 300);
+        ReflectionTestUtils.setField(service, "cursorBatchSize", 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void submit_RunsEveryParameterCombinationForEverySymbol() {
+        when(mongoTemplate.stream(any(Query.class), eq(PriceCandle.class))).thenAnswer(invocation -> candles(5_000).stream());
+
+        BacktestJob job = service.submit(request(Map.of("fast", List.of(5.0, 10.0), "slow", List.of(30.0, 50.0, 100.0))), "user-1");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> job.getStatus() != BacktestJob.Status.RUNNING);
+        BacktestJobStatus status = job.toStatus();
+        assertThat(status.getStatus()).isEqualTo("COMPLETED");
+        assertThat(status.getTotalRuns()).isEqualTo(12);
+        assertThat(status.getProgress()).isEqualTo(1.0);
+        assertThat(status.getResults()).hasSize(12)
+                .isSortedAccordingTo((a, b) -> Double.compare(b.getTotalReturnPercent(), a.getTotalReturnPercent()));
+        assertThat(status.getResults()).allMatch(r -> r.getTrades() > 0);
+    }
+
+    @Test
+    void submit_WhenEstimatedMemoryExceedsLimit_RejectsBeforeLoading() {
+        ReflectionTestUtils.setField(service, "maxJobMemoryMb", 1L);
+        BacktestRequest request = request(Map.of("fast", List.of(5.0, 10.0, 20.0)));
+        request.setEndTime(200_000 * HOUR);
+
+        assertThatThrownBy(() -> service.submit(request, "user-1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("MB");
+    }
+
+    @Test
+    void cancel_StopsRunningJob() {
+        when(mongoTemplate.stream(any(Query.class), eq(PriceCandle.class))).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return candles(5_000).stream();
+        });
+        BacktestJob job = service.submit(request(Map.of("fast", List.of(5.0), "slow", List.of(30.0))), "user-1");
+
+        assertThat(service.cancel(job.getId(), "user-2")).isNull();
+        service.cancel(job.getId(), "user-1");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> job.getStatus() != BacktestJob.Status.RUNNING);
+        assertThat(job.getStatus()).isEqualTo(BacktestJob.Status.CANCELLED);
+        assertThat(job.toStatus().getCompletedRuns()).isLessThan(2);
+    }
+
+    @Test
+    void submit_WhenUserAlreadyHasRunningJob_RejectsAndHidesJobFromOtherUsers() {
+        when(mongoTemplate.stream(any(Query.class), eq(PriceCandle.class))).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return candles(5_000).stream();
+        });
+        BacktestJob job = service.submit(request(Map.of("fast", List.of(5.0), "slow", List.of(30.0))), "user-1");
+
+        assertThatThrownBy(() -> service.submit(request(Map.of("fast", List.of(5.0), "slow", List.of(30.0))), "user-1"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(service.get(job.getId(), "user-2")).isNull();
+        assertThat(service.get(job.getId(), "user-1")).isSameAs(job);
+        service.cancel(job.getId(), "user-1");
+    }
+
+    private static BacktestRequest request(Map<String, List<Double>> parameters) {
+        BacktestRequest request = new BacktestRequest();
+        request.setSymbols(List.of("btcusdt", "ethusdt"));
+        request.setInterval("1h");
+        request.setStartTime(300 * HOUR);
+        request.setEndTime(5_000 * HOUR);
+        request.setEntry("crossover(sma($fast), sma(" + (parameters.containsKey("slow") ? "$slow" : "30") + "))");
+        request.setExit("crossunder(sma($fast), sma(" + (parameters.containsKey("slow") ? "$slow" : "30") + "))");
+        request.setParameters(parameters);
+        return request;
+    }
+
+    private static List<PriceCandle> candles(int count) {
+        Random random = new Random(3);
+        List<PriceCandle> candles = new ArrayList<>(count);
+        double price = 100;
+        for (int i = 0; i < count; i++) {
+            price = Math.max(1, price + random.nextGaussian());
+            candles.add(PriceCandle.builder()
+                    .openTime(Instant.ofEpochMilli(i * HOUR))
+                    .high(BigDecimal.valueOf(price + 1))
+                    .low(BigDecimal.valueOf(price - 1))
+                    .close(BigDecimal.valueOf(price))
+                    .build());
+        }
+        return candles;
+    }
+}
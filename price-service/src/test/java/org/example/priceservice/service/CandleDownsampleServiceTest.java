@@ -0,0 +1,107 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.entity.PriceCandle;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandleDownsampleServiceTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final int CANDLES = 100_000;
+
+    @Test
+    void ohlcReducer_KeepsExtremesAndTotalVolumeWithinMaxPoints() {
+        CandleDownsampleService.OhlcBucketReducer reducer = new CandleDownsampleService.OhlcBucketReducer(
+                "BTCUSDT", "1m", 0, CANDLES * MINUTE, 1000, MINUTE);
+        Random random = new Random(7);
+        double high = Double.MIN_VALUE;
+        double low = Double.MAX_VALUE;
+        double price = 100;
+        for (int i = 0; i < CANDLES; i++) {
+            price += random.nextGaussian();
+            PriceCandle candle = candle(i * MINUTE, price);
+            high = Math.max(high, candle.getHigh().doubleValue());
+            low = Math.min(low, candle.getLow().doubleValue());
+            reducer.accept(candle);
+        }
+
+        List<PriceCandle> result = reducer.finish();
+        assertThat(result).hasSizeLessThanOrEqualTo(1000).hasSizeGreaterThan(900);
+        assertThat(result.get(0).getOpenTime().toEpochMilli()).isZero();
+        assertThat(result.stream().mapToDouble(c -> c.getHigh().doubleValue()).max().orElseThrow()).isEqualTo(high);
+        assertThat(result.stream().mapToDouble(c -> c.getLow().doubleValue()).min().orElseThrow()).isEqualTo(low);
+        assertThat(result.stream().map(PriceCandle::getVolume).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(BigDecimal.valueOf(CANDLES));
+    }
+
+    @Test
+    void lttbReducer_KeepsEndpointsAndSpikesWithinMaxPoints() {
+        CandleDownsampleService.LttbReducer reducer = new CandleDownsampleService.LttbReducer(0, CANDLES * MINUTE, 500);
+        // Đường phẳng với một đỉnh nhọn duy nhất
+        List<PriceCandle> candles = new ArrayList<>(CANDLES);
+        for (int i = 0; i < CANDLES; i++) {
+            candles.add(candle(i * MINUTE, i == 54_321 ? 500 : 100));
+        }
+        candles.forEach(reducer::prepass);
+        reducer.endPrepass();
+        candles.forEach(reducer::accept);
+
+        List<PriceCandle> result = reducer.finish();
+        assertThat(result).hasSizeLessThanOrEqualTo(500).hasSizeGreaterThan(400);
+        assertThat(result.get(0).getOpenTime().toEpochMilli()).isZero();
+        assertThat(result.get(result.size() - 1).getOpenTime().toEpochMilli()).isEqualTo((CANDLES - 1) * MINUTE);
+        assertThat(result).anyMatch(c -> c.getClose().doubleValue() == 500);
+        assertThat(result).isSortedAccordingTo((a, b) -> a.getOpenTime().compareTo(b.getOpenTime()));
+    }
+
+    @Test
+    void ohlcReducer_AlignsBucketsToIntervalGridRegardlessOfStartTime() {
+        long end = 9_900 * MINUTE;
+        List<PriceCandle> fromGrid = reduce(0, end);
+        List<PriceCandle> shifted = reduce(7 * MINUTE + 30_000, end);
+
+        long width = fromGrid.get(1).getOpenTime().toEpochMilli() - fromGrid.get(0).getOpenTime().toEpochMilli();
+        assertThat(width % MINUTE).isZero();
+        assertThat(shifted).hasSizeLessThanOrEqualTo(100)
+                .allMatch(c -> c.getOpenTime().toEpochMilli() % width == 0);
+        // Bucket đầy đủ (trừ bucket đầu bị cắt) trùng với kết quả từ đầu lưới
+        assertThat(shifted.subList(1, shifted.size())).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(fromGrid.subList(1, shifted.size()));
+    }
+
+    private static List<PriceCandle> reduce(long startTime, long endTime) {
+        CandleDownsampleService.OhlcBucketReducer reducer = new CandleDownsampleService.OhlcBucketReducer(
+                "BTCUSDT", "1m", startTime, endTime, 100, MINUTE);
+        Random random = new Random(11);
+        double price = 100;
+        for (long t = 0; t < endTime; t += MINUTE) {
+            price += random.nextGaussian();
+            if (t >= startTime) {
+                reducer.accept(candle(t, price));
+            }
+        }
+        return reducer.finish();
+    }
+
+    private static PriceCandle candle(long openTime, double close) {
+        return PriceCandle.builder()
+                .symbol("BTCUSDT")
+                .interval("1m")
+                .openTime(Instant.ofEpochMilli(openTime))
+                .closeTime(Instant.ofEpochMilli(openTime + MINUTE - 1))
+                .open(BigDecimal.valueOf(close))
+                .high(BigDecimal.valueOf(close + 1))
+                .low(BigDecimal.valueOf(close - 1))
+                .close(BigDecimal.valueOf(close))
+                .volume(BigDecimal.ONE)
+                .trades(1)
+                .build();
+    }
+}
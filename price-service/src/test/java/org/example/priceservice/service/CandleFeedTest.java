@@ -0,0 +1,76 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.dto.CandleDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class CandleFeedTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<CandleDto> received = new CopyOnWriteArrayList<>();
+    private CandleFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        feed.shutdown();
+    }
+
+    @Test
+    void publish_DoesNotWaitForSlowListenerAndPassesCopy() {
+        feed = new CandleFeed(List.of(this::awaitReleaseThenRecord), 10);
+        CandleDto candle = candle(1, false);
+
+        long start = System.nanoTime();
+        feed.publish(candle);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+
+        candle.setClose(BigDecimal.ONE);
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 1);
+        assertThat(received.get(0)).isNotSameAs(candle);
+        assertThat(received.get(0).getClose()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void publish_WhenQueueIsFull_DropsFormingUpdatesAndKeepsOrder() {
+        feed = new CandleFeed(List.of(this::awaitReleaseThenRecord), 2);
+
+        for (int i = 1; i <= 10; i++) {
+            feed.publish(candle(i, false));
+        }
+        release.countDown();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> feed.getDroppedUpdates() > 0 && received.size() >= 2);
+        assertThat(received).extracting(CandleDto::getOpenTime).isSorted();
+        assertThat(received.size() + feed.getDroppedUpdates()).isEqualTo(10);
+    }
+
+    private void awaitReleaseThenRecord(CandleDto candle) {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        received.add(candle);
+    }
+
+    private static CandleDto candle(long openTime, boolean closed) {
+        CandleDto candle = new CandleDto();
+        candle.setSymbol("BTCUSDT");
+        candle.setInterval("1m");
+        candle.setOpenTime(openTime);
+        candle.setClose(BigDecimal.valueOf(100));
+        candle.setClosed(closed);
+        return candle;
+    }
+}
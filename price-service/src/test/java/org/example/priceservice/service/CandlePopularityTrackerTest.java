@@ -0,0 +1,105 @@
+package org.example.priceservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CandlePopularityTrackerTest {
+
+    private CandlePopularityTracker tracker;
+    private final List<String> evicted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tracker = new CandlePopularityTracker(1024);
+        ReflectionTestUtils.setField(tracker, "maxKeys", 2);
+        ReflectionTestUtils.setField(tracker, "topK", 1);
+    }
+
+    @Test
+    void admit_WhenCapacityAvailable_AdmitsWithoutEviction() {
+        assertThat(tracker.admit("candles:BTCUSDT:1m:100", Duration.ofMinutes(5), evicted::add)).isTrue();
+        assertThat(evicted).isEmpty();
+    }
+
+    @Test
+    void admit_WhenFull_RejectsColderCandidate() {
+        record("candles:BTCUSDT:1m:100", 5);
+        record("candles:ETHUSDT:1m:100", 3);
+        tracker.admit("candles:BTCUSDT:1m:100", Duration.ofMinutes(5), evicted::add);
+        tracker.admit("candles:ETHUSDT:1m:100", Duration.ofMinutes(5), evicted::add);
+
+        record("candles:BNBUSDT:1h:1000", 1);
+
+        assertThat(tracker.admit("candles:BNBUSDT:1h:1000", Duration.ofMinutes(5), evicted::add)).isFalse();
+        assertThat(evicted).isEmpty();
+    }
+
+    @Test
+    void admit_WhenFull_EvictsColdestUnpinnedKey() {
+        record("candles:BTCUSDT:1m:100", 10);
+        record("candles:ETHUSDT:1m:100", 1);
+        tracker.admit("candles:BTCUSDT:1m:100", Duration.ofMinutes(5), evicted::add);
+        tracker.admit("candles:ETHUSDT:1m:100", Duration.ofMinutes(5), evicted::add);
+
+        record("candles:BNBUSDT:1h:1000", 4);
+
+        assertThat(tracker.admit("candles:BNBUSDT:1h:1000", Duration.ofMinutes(5), evicted::add)).isTrue();
+        assertThat(evicted).containsExactly("candles:ETHUSDT:1m:100");
+    }
+
+    @Test
+    void record_PinsMostFrequentKey() {
+        record("candles:ETHUSDT:1m:100", 2);
+        record("candles:BTCUSDT:1m:100", 8);
+
+        assertThat(tracker.isPinned("candles:BTCUSDT:1m:100")).isTrue();
+        assertThat(tracker.isPinned("candles:ETHUSDT:1m:100")).isFalse();
+    }
+
+    @Test
+    void invalidate_FreesSlotsOfInvalidatedKeys() {
+        record("candles:BTCUSDT:1m:100", 10);
+        record("candles:ETHUSDT:1m:100", 10);
+        tracker.admit("candles:BTCUSDT:1m:100", Duration.ofMinutes(5), evicted::add);
+        tracker.admit("candles:ETHUSDT:1m:100", Duration.ofMinutes(5), evicted::add);
+
+        tracker.invalidate("candles:ETHUSDT:1m:");
+
+        // Key lạnh vẫn được nhận vì slot của key đã invalidate được trả lại, không cần loại ai
+        assertThat(tracker.admit("candles:BNBUSDT:1h:1000", Duration.ofMinutes(5), evicted::add)).isTrue();
+        assertThat(evicted).isEmpty();
+    }
+
+    @Test
+    void record_FromManyThreads_KeepsHottestKeyPinned() throws InterruptedException {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    tracker.record("candles:BTCUSDT:1m:100");
+                    tracker.record("candles:T" + id + "USDT:1m:" + (i % 50));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(tracker.isPinned("candles:BTCUSDT:1m:100")).isTrue();
+    }
+
+    private void record(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.repository.PriceCandleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CandleResampleServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void intervalHelpers_PickLargestDividingBaseAndAlignWeeksToMonday() {
+        assertThat(CandleResampleService.baseInterval(CandleResampleService.intervalMillis("4h"))).isEqualTo("1h");
+        assertThat(CandleResampleService.baseInterval(CandleResampleService.intervalMillis("45m"))).isEqualTo("15m");
+        assertThat(CandleResampleService.baseInterval(CandleResampleService.intervalMillis("7m"))).isEqualTo("1m");
+        assertThatThrownBy(() -> CandleResampleService.intervalMillis("1s")).isInstanceOf(IllegalArgumentException.class);
+        for (String alias : new String[]{"+4h", "04h", "5w", "9999w"}) {
+            assertThatThrownBy(() -> CandleResampleService.intervalMillis(alias)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        long week = CandleResampleService.intervalMillis("1w");
+        // 2024-01-10 (thứ Tư) -> 2024-01-08 00:00 UTC (thứ Hai)
+        long wednesday = Instant.parse("2024-01-10T13:00:00Z").toEpochMilli();
+        assertThat(CandleResampleService.bucketOpen(wednesday, week, CandleResampleService.bucketOffset(week)))
+                .isEqualTo(Instant.parse("2024-01-08T00:00:00Z").toEpochMilli());
+    }
+
+    @Test
+    void resample_WhenRangeIsSmall_AggregatesBaseCandlesInMemory() {
+        PriceCandleRepository repository = mock(PriceCandleRepository.class);
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        CandleResampleService service = new CandleResampleService(repository, mongoTemplate);
+        ReflectionTestUtils.setField(service, "inMemoryMaxCandles", 5000);
+
+        long currentBucket = System.currentTimeMillis() / (4 * HOUR) * (4 * HOUR);
+        List<PriceCandle> hours = new ArrayList<>();
+        // Bucket trước: đủ 4 nến 1h; bucket hiện tại: 1 nến
+        for (int i = 0; i < 5; i++) {
+            hours.add(candle(currentBucket - 4 * HOUR + i * HOUR, 100 + i, 110 + i, 90 - i, 105 + i));
+        }
+        when(repository.findRange(eq("BTCUSDT"), eq("1h"), any(), any(), any())).thenReturn(hours);
+
+        List<PriceCandle> result = service.resample("BTCUSDT", "4h", 2);
+
+        assertThat(result).hasSize(2);
+        PriceCandle first = result.get(0);
+        assertThat(first.getOpenTime().toEpochMilli()).isEqualTo(currentBucket - 4 * HOUR);
+        assertThat(first.getCloseTime().toEpochMilli()).isEqualTo(currentBucket - 1);
+        assertThat(first.getOpen()).isEqualByComparingTo("100");
+        assertThat(first.getHigh()).isEqualByComparingTo("113");
+        assertThat(first.getLow()).isEqualByComparingTo("87");
+        assertThat(first.getClose()).isEqualByComparingTo("108");
+        assertThat(first.getVolume()).isEqualByComparingTo("4");
+        assertThat(first.getTrades()).isEqualTo(40);
+        assertThat(result.get(1).getOpenTime().toEpochMilli()).isEqualTo(currentBucket);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static PriceCandle candle(long openTime, double open, double high, double low, double close) {
+        return PriceCandle.builder()
+                .symbol("BTCUSDT")
+                .interval("1h")
+                .openTime(Instant.ofEpochMilli(openTime))
+                .closeTime(Instant.ofEpochMilli(openTime + HOUR - 1))
+                .open(BigDecimal.valueOf(open))
+                .high(BigDecimal.valueOf(high))
+                .low(BigDecimal.valueOf(low))
+                .close(BigDecimal.valueOf(close))
+                .volume(BigDecimal.ONE)
+                .trades(10)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.CorrelationMatrix;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CorrelationServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private final CorrelationService service = newService();
+
+    @Test
+    void onCandle_WhenCandlesResumeAfterGap_SkipsMultiPeriodReturn() {
+        double[] moves = {0.01, -0.02, 0.015, -0.005, 0.02};
+        double btc = 100;
+        double eth = 10;
+        close(0, btc, eth);
+        for (int i = 0; i < moves.length; i++) {
+            btc *= 1 + moves[i];
+            eth *= 1 + moves[i];
+            close(i + 1, btc, eth);
+        }
+        assertThat(matrix().getObservations()).isEqualTo(5);
+        assertThat(matrix().getMatrix()[0][1]).isCloseTo(1.0, within(1e-9));
+
+        // restart sau 5 giờ, giá đi ngược chiều nhau: lợi suất qua khoảng trống không được tính
+        close(10, btc * 1.5, eth * 0.5);
+        assertThat(matrix().getObservations()).isEqualTo(5);
+        assertThat(matrix().getLastOpenTime()).isEqualTo(5 * HOUR);
+
+        close(11, btc * 1.5 * 1.01, eth * 0.5 * 1.01);
+        assertThat(matrix().getObservations()).isEqualTo(6);
+        assertThat(matrix().getMatrix()[0][1]).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void onCandle_WhenSymbolMissesCandle_DropsIncompleteRows() {
+        close(0, 100, 10);
+        close(1, 101, 10.1);
+
+        // giờ 2 chỉ có BTC: hàng 2 bị bỏ khi nến giờ 3 tới, không điền 0 cho ETH
+        onCandle("BTCUSDT", 2, 103);
+        onCandle("BTCUSDT", 3, 102);
+        onCandle("ETHUSDT", 3, 10.3);
+        assertThat(matrix().getObservations()).isEqualTo(1);
+        assertThat(matrix().getLastOpenTime()).isEqualTo(HOUR);
+
+        close(4, 104, 10.4);
+        assertThat(matrix().getObservations()).isEqualTo(2);
+        assertThat(matrix().getLastOpenTime()).isEqualTo(4 * HOUR);
+    }
+
+    private CorrelationMatrix matrix() {
+        return service.getMatrix(24);
+    }
+
+    private void close(int hour, double btc, double eth) {
+        onCandle("BTCUSDT", hour, btc);
+        onCandle("ETHUSDT", hour, eth);
+    }
+
+    private void onCandle(String symbol, int hour, double close) {
+        CandleDto candle = new CandleDto();
+        candle.setSymbol(symbol);
+        candle.setInterval("1h");
+        candle.setOpenTime(hour * HOUR);
+        candle.setCloseTime((hour + 1) * HOUR - 1);
+        candle.setClose(BigDecimal.valueOf(close));
+        candle.setClosed(true);
+        service.onCandle(candle);
+    }
+
+    private static CorrelationService newService() {
+        PriceCandleService candleService = mock(PriceCandleService.class);
+        when(candleService.loadFromDatabase(anyString(), anyString(), anyInt())).thenReturn(List.of());
+        return new CorrelationService(candleService, "btcusdt,ethusdt", "1h", new int[]{24});
+    }
+}
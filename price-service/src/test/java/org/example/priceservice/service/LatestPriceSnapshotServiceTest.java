@@ -0,0 +1,63 @@
+package org.example.priceservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.priceservice.dto.CandleDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestPriceSnapshotServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void onCandle_KeepsNewestOneMinuteTickPerSymbol() {
+        LatestPriceSnapshotService service = new LatestPriceSnapshotService(objectMapper);
+        service.onCandle(candle("BTCUSDT", "1m", 60_000, 2_000, "101"));
+        service.onCandle(candle("BTCUSDT", "1m", 60_000, 1_000, "99")); // đến trễ
+        service.onCandle(candle("BTCUSDT", "5m", 0, 3_000, "150")); // không phải nguồn 1m
+        service.onCandle(candle("ethusdt", "1m", 60_000, 2_000, "2000"));
+
+        assertThat(service.getPrices()).containsOnlyKeys("BTCUSDT", "ETHUSDT");
+        assertThat(service.getPrices().get("BTCUSDT").getPrice()).isEqualByComparingTo("101");
+    }
+
+    @Test
+    void getSerialized_RebuildsAtMostOncePerInterval() throws Exception {
+        LatestPriceSnapshotService service = new LatestPriceSnapshotService(objectMapper);
+        ReflectionTestUtils.setField(service, "rebuildMillis", 60_000L);
+
+        service.onCandle(candle("BTCUSDT", "1m", 60_000, 1_000, "100"));
+        byte[] first = service.getSerialized();
+        JsonNode prices = objectMapper.readTree(first).get("prices");
+        assertThat(prices).hasSize(1);
+        assertThat(prices.get(0).get("symbol").asText()).isEqualTo("BTCUSDT");
+
+        // Trong cửa sổ rebuild: vẫn trả đúng mảng byte cũ
+        service.onCandle(candle("BTCUSDT", "1m", 60_000, 2_000, "105"));
+        assertThat(service.getSerialized()).isSameAs(first);
+
+        ReflectionTestUtils.setField(service, "rebuildMillis", 0L);
+        JsonNode rebuilt = objectMapper.readTree(service.getSerialized()).get("prices");
+        assertThat(rebuilt.get(0).get("price").decimalValue()).isEqualByComparingTo("105");
+    }
+
+    private static CandleDto candle(String symbol, String interval, long openTime, long eventTime, String close) {
+        CandleDto dto = new CandleDto();
+        dto.setSymbol(symbol);
+        dto.setInterval(interval);
+        dto.setOpenTime(openTime);
+        dto.setCloseTime(openTime + 59_999);
+        dto.setEventTime(eventTime);
+        dto.setOpen(new BigDecimal(close));
+        dto.setHigh(new BigDecimal(close));
+        dto.setLow(new BigDecimal(close));
+        dto.setClose(new BigDecimal(close));
+        dto.setVolume(BigDecimal.ONE);
+        return dto;
+    }
+}
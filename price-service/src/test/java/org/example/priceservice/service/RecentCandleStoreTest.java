@@ -0,0 +1,75 @@
+package org.example.priceservice.service;
+
+import org.example.priceservice.dto.CandleDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentCandleStoreTest {
+
+    private LiveCandleStore liveStore;
+    private RecentCandleStore store;
+
+    @BeforeEach
+    void setUp() {
+        liveStore = new LiveCandleStore();
+        store = new RecentCandleStore(liveStore);
+        ReflectionTestUtils.setField(store, "capacity", 3);
+    }
+
+    @Test
+    void snapshot_ReturnsClosedCandlesThenFormingCandle() {
+        publish(candle(0, true));
+        publish(candle(60_000, true));
+        publish(candle(120_000, false));
+
+        List<CandleDto> snapshot = store.snapshot("BTCUSDT", "1m", 10);
+
+        assertThat(snapshot).extracting(CandleDto::getOpenTime).containsExactly(0L, 60_000L, 120_000L);
+        assertThat(snapshot.get(2).isClosed()).isFalse();
+    }
+
+    @Test
+    void onCandle_WhenFormingCandleCloses_ReplacesFormingAndTrimsToCapacity() {
+        for (long i = 0; i < 4; i++) {
+            publish(candle(i * 60_000, false));
+            publish(candle(i * 60_000, true));
+        }
+
+        List<CandleDto> snapshot = store.snapshot("btcusdt", "1m", 10);
+
+        assertThat(snapshot).extracting(CandleDto::getOpenTime).containsExactly(60_000L, 120_000L, 180_000L);
+        assertThat(snapshot).allMatch(CandleDto::isClosed);
+    }
+
+    @Test
+    void seed_PrependsOnlyOlderClosedCandles() {
+        publish(candle(120_000, true));
+
+        store.seed("BTCUSDT", "1m", List.of(candle(0, true), candle(60_000, true), candle(120_000, true)));
+
+        assertThat(store.snapshot("BTCUSDT", "1m", 10))
+                .extracting(CandleDto::getOpenTime)
+                .containsExactly(0L, 60_000L, 120_000L);
+    }
+
+    private void publish(CandleDto candle) {
+        liveStore.onCandle(candle);
+        store.onCandle(candle);
+    }
+
+    private CandleDto candle(long openTime, boolean closed) {
+        CandleDto dto = new CandleDto();
+        dto.setSymbol("BTCUSDT");
+        dto.setInterval("1m");
+        dto.setOpenTime(openTime);
+        dto.setCloseTime(openTime + 59_999);
+        dto.setClosed(closed);
+        dto.setEventTime(openTime + (closed ? 59_999 : 1_000));
+        return dto;
+    }
+}
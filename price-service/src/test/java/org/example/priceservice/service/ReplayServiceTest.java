@@ -0,0 +1,171 @@
+package org.example.priceservice.service;
+
+import org.bson.Document;
+import org.example.priceservice.dto.CandleDto;
+import org.example.priceservice.dto.ReplayRequest;
+import org.example.priceservice.entity.PriceCandle;
+import org.example.priceservice.replay.ReplaySession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplayServiceTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final ReplayService service = new ReplayService(mongoTemplate, messagingTemplate, 2, 2);
+    private final List<PriceCandle> stored = new ArrayList<>();
+    private final List<String> destinations = Collections.synchronizedList(new ArrayList<>());
+    private final List<CandleDto> published = Collections.synchronizedList(new ArrayList<>());
+
+    ReplayServiceTest() {
+        ReflectionTestUtils.setField(service, "topicPrefix", "replay");
+        ReflectionTestUtils.setField(service, "maxSessions", 5);
+        ReflectionTestUtils.setField(service, "maxSessionsPerUser", 2);
+        ReflectionTestUtils.setField(service, "maxSymbols", 20);
+        ReflectionTestUtils.setField(service, "maxSpeed", 1000.0);
+        // buffer nhỏ để phiên phải đọc nhiều trang
+        ReflectionTestUtils.setField(service, "readAhead", 4);
+        ReflectionTestUtils.setField(service, "maxBurst", 500);
+        ReflectionTestUtils.setField(service, "retentionMinutes", 30L);
+
+        when(mongoTemplate.find(any(Query.class), eq(PriceCandle.class))).thenAnswer(invocation -> find(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            Object payload = invocation.getArgument(1);
+            if (payload instanceof CandleDto candle) {
+                destinations.add(invocation.getArgument(0));
+                published.add(candle);
+            }
+            return null;
+        }).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void start_WhenAccelerated_PublishesEveryCandleOnceInOrderOnIsolatedTopic() {
+        for (int i = 0; i < 20; i++) {
+            stored.add(candle("BTCUSDT", i * MINUTE));
+            stored.add(candle("ETHUSDT", i * MINUTE));
+        }
+
+        long started = System.nanoTime();
+        // 20 phút thị trường ở 1000x ~ 1.2 giây
+        ReplaySession session = service.start(request(0, 20 * MINUTE, 1000), "u1");
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> !session.isActive());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        assertThat(session.getStatus()).isEqualTo(ReplaySession.Status.COMPLETED);
+        assertThat(session.toStatus().getPublishedCandles()).isEqualTo(40);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(1_100);
+
+        assertThat(published).hasSize(40);
+        Set<String> keys = new HashSet<>();
+        long previousOpenTime = -1;
+        for (CandleDto candle : published) {
+            assertThat(keys.add(candle.getSymbol() + candle.getOpenTime())).isTrue();
+            assertThat(candle.getOpenTime()).isGreaterThanOrEqualTo(previousOpenTime);
+            previousOpenTime = candle.getOpenTime();
+        }
+        assertThat(destinations).allMatch(d -> d.startsWith("/topic/replay." + session.getId() + ".candles.1m."));
+        assertThat(destinations).contains("/topic/replay." + session.getId() + ".candles.1m.ethusdt");
+    }
+
+    @Test
+    void start_WhenSpeedOrRangeIsInvalid_Throws() {
+        assertThatThrownBy(() -> service.start(request(0, 20 * MINUTE, 5000), "u1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.start(request(20 * MINUTE, 0, 10), "u1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cancel_StopsPublishing() {
+        for (int i = 0; i < 20; i++) {
+            stored.add(candle("BTCUSDT", i * MINUTE));
+        }
+        // 1x: nến đầu tiên chỉ đến hạn sau 1 phút
+        ReplaySession session = service.start(request(0, 20 * MINUTE, 1), "u1");
+
+        // Phiên của user khác: không thấy, không dừng được
+        assertThat(service.cancel(session.getId(), "u2")).isNull();
+        ReplaySession cancelled = service.cancel(session.getId(), "u1");
+
+        assertThat(cancelled.getStatus()).isEqualTo(ReplaySession.Status.CANCELLED);
+        assertThat(cancelled.getFinishedAt()).isNotNull();
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void start_WhenUserHasMaxRunningSessions_Throws() {
+        stored.add(candle("BTCUSDT", 0));
+        service.start(request(0, 20 * MINUTE, 1), "u1");
+        service.start(request(0, 20 * MINUTE, 1), "u1");
+
+        assertThatThrownBy(() -> service.start(request(0, 20 * MINUTE, 1), "u1"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(service.start(request(0, 20 * MINUTE, 1), "u2").isActive()).isTrue();
+    }
+
+    private List<PriceCandle> find(Query query) {
+        Document criteria = query.getQueryObject();
+        List<?> symbols = (List<?>) ((Document) criteria.get("symbol")).get("$in");
+        Document openTime = (Document) criteria.get("openTime");
+        long from = ((Instant) openTime.get("$gte")).toEpochMilli();
+        long to = ((Instant) openTime.get("$lt")).toEpochMilli();
+        return stored.stream()
+                .filter(c -> symbols.contains(c.getSymbol()))
+                .filter(c -> c.getOpenTime().toEpochMilli() >= from && c.getOpenTime().toEpochMilli() < to)
+                .sorted((a, b) -> a.getOpenTime().compareTo(b.getOpenTime()))
+                .limit(query.getLimit())
+                .toList();
+    }
+
+    private static ReplayRequest request(long startTime, long endTime, double speed) {
+        ReplayRequest request = new ReplayRequest();
+        request.setSymbols(List.of("btcusdt", "ETHUSDT"));
+        request.setStartTime(startTime);
+        request.setEndTime(endTime);
+        request.setSpeed(speed);
+        return request;
+    }
+
+    private static PriceCandle candle(String symbol, long openTime) {
+        BigDecimal price = BigDecimal.valueOf(100 + openTime / MINUTE);
+        return PriceCandle.builder()
+                .symbol(symbol)
+                .interval("1m")
+                .openTime(Instant.ofEpochMilli(openTime))
+                .closeTime(Instant.ofEpochMilli(openTime + MINUTE - 1))
+                .open(price).high(price).low(price).close(price)
+                .volume(BigDecimal.ONE)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.priceservice.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserAccessServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final UserAccessService service = new UserAccessService(mongoTemplate, "admin-1, admin-2");
+
+    @Test
+    void authorities_WhenVipSubscriptionIsActive_GrantsVipRole() {
+        givenUser(new Document("subscriptionType", "VIP")
+                .append("subscriptionEndDate", new Date(System.currentTimeMillis() + 60_000)));
+
+        assertThat(service.authorities("u1")).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_VIP");
+    }
+
+    @Test
+    void authorities_WhenVipExpiredOrUserMissing_GrantsOnlyUserRole() {
+        givenUser(new Document("subscriptionType", "VIP")
+                .append("subscriptionEndDate", new Date(System.currentTimeMillis() - 60_000)));
+        assertThat(service.authorities("u1")).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+
+        givenUser(null);
+        assertThat(service.authorities("u1")).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void authorities_WhenUserIsConfiguredAdmin_GrantsAdminRole() {
+        givenUser(null);
+
+        assertThat(service.authorities("admin-2")).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(service.authorities("u1")).extracting(GrantedAuthority::getAuthority)
+                .doesNotContain("ROLE_ADMIN");
+    }
+
+    private void givenUser(Document user) {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("users"))).thenReturn(user);
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.priceservice.ticker;
+
+import org.example.priceservice.dto.TickerStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RollingTickerWindowTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void stats_WhenOldCandlesSlideOut_DropsTheirHighLowAndVolume() {
+        // Cửa sổ 3 phút
+        RollingTickerWindow window = new RollingTickerWindow(3 * MINUTE, MINUTE);
+        window.addClosed(0, 100, 150, 90, 110, 1);
+        window.addClosed(MINUTE, 110, 120, 50, 115, 2);
+        window.addClosed(2 * MINUTE, 115, 118, 100, 117, 3);
+
+        TickerStats full = window.stats("BTCUSDT");
+        assertThat(full.getHighPrice()).isEqualTo(150);
+        assertThat(full.getLowPrice()).isEqualTo(50);
+        assertThat(full.getVolume()).isEqualTo(6);
+
+        window.addClosed(3 * MINUTE, 117, 119, 105, 108, 4);
+        TickerStats slid = window.stats("BTCUSDT");
+        assertThat(slid.getOpenPrice()).isEqualTo(110);
+        assertThat(slid.getHighPrice()).isEqualTo(120);
+        assertThat(slid.getLowPrice()).isEqualTo(50);
+        assertThat(slid.getVolume()).isEqualTo(9);
+        assertThat(slid.getPriceChange()).isCloseTo(-2, within(1e-9));
+    }
+
+    @Test
+    void stats_IncludesFormingCandleAndEvictsByTimeAcrossGaps() {
+        RollingTickerWindow window = new RollingTickerWindow(3 * MINUTE, MINUTE);
+        window.addClosed(0, 100, 150, 90, 110, 1);
+        window.addClosed(MINUTE, 110, 120, 95, 115, 2);
+
+        // Mất dữ liệu 2 phút: nến mới đẩy cả hai nến cũ ra khỏi cửa sổ 3 phút
+        window.updateForming(4 * MINUTE, 115, 130, 112, 125, 5);
+        TickerStats stats = window.stats("BTCUSDT");
+
+        assertThat(stats.getCandleCount()).isEqualTo(1);
+        assertThat(stats.getOpenPrice()).isEqualTo(115);
+        assertThat(stats.getLastPrice()).isEqualTo(125);
+        assertThat(stats.getHighPrice()).isEqualTo(130);
+        assertThat(stats.getVolume()).isEqualTo(5);
+    }
+
+    @Test
+    void stats_WhenWindowMissesCandles_ReportsPartialUntilFull() {
+        RollingTickerWindow window = new RollingTickerWindow(3 * MINUTE, MINUTE);
+        window.addClosed(0, 100, 110, 90, 105, 1);
+        window.updateForming(2 * MINUTE, 105, 106, 104, 105, 1);
+        assertThat(window.stats("BTCUSDT").isPartial()).isTrue();
+
+        window.addClosed(2 * MINUTE, 105, 106, 104, 105, 1);
+        window.updateForming(3 * MINUTE, 105, 107, 104, 106, 1);
+        assertThat(window.stats("BTCUSDT").isPartial()).isTrue();
+
+        window.addClosed(3 * MINUTE, 105, 107, 104, 106, 1);
+        window.updateForming(4 * MINUTE, 106, 108, 105, 107, 1);
+        assertThat(window.stats("BTCUSDT").getCandleCount()).isEqualTo(3);
+        assertThat(window.stats("BTCUSDT").isPartial()).isFalse();
+    }
+
+    @Test
+    void stats_MatchesNaiveScanOverLongRandomStream() {
+        int windowCandles = 1440;
+        RollingTickerWindow window = new RollingTickerWindow(windowCandles * MINUTE, MINUTE);
+        Random random = new Random(3);
+        int total = 5_000;
+        double[] highs = new double[total];
+        double[] lows = new double[total];
+        double[] volumes = new double[total];
+        double price = 60_000;
+        for (int i = 0; i < total; i++) {
+            price += random.nextGaussian() * 20;
+            highs[i] = price + random.nextDouble() * 10;
+            lows[i] = price - random.nextDouble() * 10;
+            volumes[i] = random.nextDouble() * 5;
+            window.addClosed(i * MINUTE, price, highs[i], lows[i], price, volumes[i]);
+        }
+
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        double volume = 0;
+        for (int i = total - windowCandles; i < total; i++) {
+            high = Math.max(high, highs[i]);
+            low = Math.min(low, lows[i]);
+            volume += volumes[i];
+        }
+        TickerStats stats = window.stats("BTCUSDT");
+        assertThat(stats.getCandleCount()).isEqualTo(windowCandles);
+        assertThat(stats.getHighPrice()).isEqualTo(high);
+        assertThat(stats.getLowPrice()).isEqualTo(low);
+        assertThat(stats.getVolume()).isCloseTo(volume, within(1e-6));
+    }
+}
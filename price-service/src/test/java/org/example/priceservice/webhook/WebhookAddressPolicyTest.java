@@ -0,0 +1,33 @@
+package org.example.priceservice.webhook;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookAddressPolicyTest {
+
+    @Test
+    void isPublic_RejectsLoopbackLinkLocalSiteLocalAnyLocalAndMulticast() throws UnknownHostException {
+        for (String address : new String[]{"127.0.0.1", "::1", "169.254.169.254", "fe80::1", "10.1.2.3",
+                "172.16.0.1", "192.168.1.1", "0.0.0.0", "::", "224.0.0.1", "ff02::1", "fd00::1", "::ffff:127.0.0.1"}) {
+            assertThat(WebhookAddressPolicy.isPublic(InetAddress.getByName(address))).as(address).isFalse();
+        }
+        assertThat(WebhookAddressPolicy.isPublic(InetAddress.getByName("93.184.216.34"))).isTrue();
+        assertThat(WebhookAddressPolicy.isPublic(InetAddress.getByName("2606:2800:220:1::1"))).isTrue();
+    }
+
+    @Test
+    void isAllowedUrl_RejectsInternalLiteralsAndRequiresHttp() {
+        assertThat(WebhookAddressPolicy.isAllowedUrl("https://93.184.216.34/hook")).isTrue();
+        assertThat(WebhookAddressPolicy.isAllowedUrl("http://localhost:8080/hook")).isFalse();
+        assertThat(WebhookAddressPolicy.isAllowedUrl("http://[::1]/hook")).isFalse();
+        assertThat(WebhookAddressPolicy.isAllowedUrl("http://169.254.169.254/latest/meta-data")).isFalse();
+        assertThat(WebhookAddressPolicy.isAllowedUrl("ftp://93.184.216.34/hook")).isFalse();
+        assertThat(WebhookAddressPolicy.isAllowedUrl("not a url")).isFalse();
+        // Hostname không được resolve lúc đăng ký (kiểm tra lúc gửi), kể cả khi DNS lỗi
+        assertThat(WebhookAddressPolicy.isAllowedUrl("https://hooks.example.invalid/hook")).isTrue();
+    }
+}
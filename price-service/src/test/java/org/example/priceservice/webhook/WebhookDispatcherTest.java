@@ -0,0 +1,177 @@
+package org.example.priceservice.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.example.priceservice.dto.WebhookEvent;
+import org.example.priceservice.entity.WebhookDeadLetter;
+import org.example.priceservice.repository.WebhookDeadLetterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class WebhookDispatcherTest {
+
+    private HttpServer server;
+    private String url;
+    private final List<String> receivedBodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+    private volatile int failureStatus = 500;
+
+    private WebhookDeadLetterRepository deadLetterRepository;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            receivedBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            int status = failuresBeforeSuccess.getAndDecrement() > 0 ? failureStatus : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+
+        deadLetterRepository = mock(WebhookDeadLetterRepository.class);
+        // batch 10, linger 100ms, tối đa 3 lần gửi, backoff 20-80ms; server test chạy trên loopback
+        dispatcher = new WebhookDispatcher(deadLetterRepository, new ObjectMapper(), 2, 2_000, 10, 100, 100, 3, 20, 80, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void enqueue_BatchesEventsOfSameEndpointIntoOneRequest() {
+        for (int i = 0; i < 5; i++) {
+            dispatcher.enqueue(url, event(i));
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> dispatcher.getDeliveredEvents() == 5);
+        assertThat(receivedBodies).hasSize(1);
+        assertThat(receivedBodies.get(0)).contains("\"events\"").contains("\"userId\":\"u4\"");
+    }
+
+    @Test
+    void enqueue_WhenEndpointFailsTransiently_RetriesUntilDelivered() {
+        failuresBeforeSuccess.set(2);
+
+        dispatcher.enqueue(url, event(1));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> dispatcher.getDeliveredEvents() == 1);
+        assertThat(receivedBodies).hasSize(3);
+        assertThat(dispatcher.getRetries()).isEqualTo(2);
+        verify(deadLetterRepository, never()).save(any());
+    }
+
+    @Test
+    void enqueue_WhenRetriesExhausted_PersistsDeadLetter() {
+        failuresBeforeSuccess.set(Integer.MAX_VALUE);
+
+        dispatcher.enqueue(url, event(1));
+
+        ArgumentCaptor<WebhookDeadLetter> captor = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+        verify(deadLetterRepository, timeout(5_000)).save(captor.capture());
+        assertThat(captor.getValue().getAttempts()).isEqualTo(3);
+        assertThat(captor.getValue().getLastError()).isEqualTo("HTTP 500");
+        assertThat(captor.getValue().getPayload()).contains("\"userId\":\"u1\"");
+        assertThat(receivedBodies).hasSize(3);
+    }
+
+    @Test
+    void enqueue_WhenClientErrorIsNotRetryable_DeadLettersImmediately() {
+        failureStatus = 400;
+        failuresBeforeSuccess.set(Integer.MAX_VALUE);
+
+        dispatcher.enqueue(url, event(1));
+
+        verify(deadLetterRepository, timeout(5_000)).save(any());
+        assertThat(receivedBodies).hasSize(1);
+        assertThat(dispatcher.getRetries()).isZero();
+    }
+
+    @Test
+    void enqueue_WhenHostIsNotPublic_DeadLettersWithoutConnecting() {
+        WebhookDispatcher guarded = new WebhookDispatcher(deadLetterRepository, new ObjectMapper(), 2, 2_000, 10, 100, 100, 3, 20, 80, false);
+        try {
+            guarded.enqueue(url, event(1));
+
+            ArgumentCaptor<WebhookDeadLetter> captor = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+            verify(deadLetterRepository, timeout(5_000)).save(captor.capture());
+            assertThat(captor.getValue().getAttempts()).isEqualTo(1);
+            assertThat(captor.getValue().getLastError()).contains("non-public address");
+            assertThat(receivedBodies).isEmpty();
+        } finally {
+            guarded.shutdown();
+        }
+    }
+
+    @Test
+    void enqueue_WhenQueueIsFull_DeadLettersOverflowOncePerBatch() {
+        WebhookDispatcher small = new WebhookDispatcher(deadLetterRepository, new ObjectMapper(), 2, 2_000, 10, 100, 1, 3, 20, 80, true);
+        try {
+            for (int i = 0; i < 25; i++) {
+                small.enqueue(url, event(i));
+            }
+
+            // 1 sự kiện vào hàng đợi, 24 sự kiện tràn -> 3 dead-letter (10 + 10 + 4)
+            ArgumentCaptor<WebhookDeadLetter> captor = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+            verify(deadLetterRepository, timeout(5_000).times(3)).save(captor.capture());
+            assertThat(captor.getAllValues()).extracting(WebhookDeadLetter::getEventCount).containsExactly(10, 10, 4);
+            await().atMost(Duration.ofSeconds(5)).until(() -> small.getDeliveredEvents() == 1);
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void evict_RemovesEndpointAndDeadLettersPendingEvents() {
+        for (int i = 0; i < 3; i++) {
+            dispatcher.enqueue(url, event(i));
+        }
+        assertThat(dispatcher.getEndpointCount()).isEqualTo(1);
+
+        // Trong cửa sổ linger: chưa gửi batch nào
+        dispatcher.evict(url);
+
+        assertThat(dispatcher.getEndpointCount()).isZero();
+        ArgumentCaptor<WebhookDeadLetter> captor = ArgumentCaptor.forClass(WebhookDeadLetter.class);
+        verify(deadLetterRepository, timeout(5_000)).save(captor.capture());
+        assertThat(captor.getValue().getEventCount()).isEqualTo(3);
+        assertThat(captor.getValue().getLastError()).isEqualTo("endpoint unregistered");
+        assertThat(receivedBodies).isEmpty();
+    }
+
+    @Test
+    void backoffMillis_GrowsExponentiallyWithinJitterAndCap() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(dispatcher.backoffMillis(1)).isBetween(10L, 20L);
+            assertThat(dispatcher.backoffMillis(2)).isBetween(20L, 40L);
+            assertThat(dispatcher.backoffMillis(10)).isBetween(40L, 80L);
+        }
+    }
+
+    private static WebhookEvent event(int i) {
+        return new WebhookEvent("price.alert", "u" + i, Map.of("price", 60_000 + i), System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.priceservice.webhook;
+
+import org.example.priceservice.entity.UserNotificationSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WebhookSubscriptionRegistryTest {
+
+    private static final String PUBLIC_URL = "https://93.184.216.34/hook";
+    private static final String OTHER_PUBLIC_URL = "https://93.184.216.35/hook";
+
+    private final WebhookDispatcher dispatcher = mock(WebhookDispatcher.class);
+    private final WebhookSubscriptionRegistry registry = new WebhookSubscriptionRegistry(dispatcher, false);
+
+    @Test
+    void apply_DropsUrlsPointingToInternalAddresses() {
+        registry.apply(settings("u1", List.of("http://127.0.0.1:8080/hook", "http://169.254.169.254/latest",
+                "http://10.0.0.5/hook", "http://[::1]/hook", "http://0.0.0.0/hook", "http://224.0.0.1/hook", PUBLIC_URL)));
+
+        assertThat(registry.urlsOf("u1")).containsExactly(PUBLIC_URL);
+    }
+
+    @Test
+    void apply_WhenUrlIsNoLongerRegistered_EvictsItFromDispatcher() {
+        registry.apply(settings("u1", List.of(PUBLIC_URL)));
+        registry.apply(settings("u2", List.of(PUBLIC_URL)));
+
+        registry.apply(settings("u1", List.of(OTHER_PUBLIC_URL)));
+        verify(dispatcher, never()).evict(PUBLIC_URL);
+
+        registry.apply(settings("u2", List.of()));
+        verify(dispatcher).evict(PUBLIC_URL);
+    }
+
+    @Test
+    void endRebuild_EvictsUrlsMissingFromRebuiltSnapshot() {
+        registry.apply(settings("u1", List.of(PUBLIC_URL)));
+
+        registry.beginRebuild();
+        registry.apply(settings("u1", List.of(OTHER_PUBLIC_URL)));
+        registry.endRebuild(true);
+
+        verify(dispatcher).evict(PUBLIC_URL);
+        assertThat(registry.urlsOf("u1")).containsExactly(OTHER_PUBLIC_URL);
+    }
+
+    private static UserNotificationSettings settings(String userId, List<String> urls) {
+        UserNotificationSettings settings = new UserNotificationSettings();
+        settings.setUserId(userId);
+        settings.setWebhookUrls(urls);
+        settings.setFavoriteSymbols(List.of("BTCUSDT"));
+        return settings;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.priceservice.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * So sánh độ trễ fan-out của broker in-process với 10k subscriber trên một topic nóng, và thời gian
+ * 10k session cùng SUBSCRIBE (reconnect storm): IndexedSubscriptionRegistry vs DefaultSubscriptionRegistry của Spring.
+ * Chạy thủ công: mvn test -Dtest=BrokerFanOutBenchmark -Dbenchmark=true
+ * (phía relay cần RabbitMQ thật, đo bằng client STOMP ngoài test này)
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BrokerFanOutBenchmark {
+
+    private static final int SUBSCRIBERS = 10_000;
+    private static final int OTHER_TOPICS = 100;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 1_000;
+    private static final String HOT = "/topic/candles.1m.btcusdt";
+
+    @Test
+    void fanOut_10kSubscribers() {
+        report("default", run("default", new DefaultSubscriptionRegistry()));
+        report("indexed", run("indexed", new IndexedSubscriptionRegistry()));
+    }
+
+    private long[] run(String name, SubscriptionRegistry registry) {
+        AtomicLong delivered = new AtomicLong();
+        MessageChannel outbound = (message, timeout) -> {
+            delivered.incrementAndGet();
+            return true;
+        };
+        SimpleBrokerMessageHandler broker = new SimpleBrokerMessageHandler(
+                new ExecutorSubscribableChannel(), outbound, new ExecutorSubscribableChannel(), List.of("/topic"));
+        broker.setSubscriptionRegistry(registry);
+        broker.start();
+
+        long subscribeStart = System.nanoTime();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            broker.handleMessage(connect("s" + i));
+            broker.handleMessage(IndexedSubscriptionRegistryTest.subscribe("s" + i, "hot", HOT));
+            // Mỗi session còn theo dõi một topic khác, để registry có nhiều destination như thực tế
+            broker.handleMessage(IndexedSubscriptionRegistryTest.subscribe(
+                    "s" + i, "other", "/topic/candles.1m.sym" + (i % OTHER_TOPICS)));
+        }
+        System.out.printf("%-8s subscribe storm: %d sessions in %.1f ms%n",
+                name, SUBSCRIBERS, (System.nanoTime() - subscribeStart) / 1e6);
+
+        Message<byte[]> tick = IndexedSubscriptionRegistryTest.message(HOT);
+        for (int i = 0; i < WARMUP; i++) {
+            broker.handleMessage(tick);
+        }
+        delivered.set(0);
+
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            broker.handleMessage(tick);
+            samples[i] = System.nanoTime() - start;
+        }
+        broker.stop();
+
+        assertThat(delivered.get()).isEqualTo((long) SUBSCRIBERS * ITERATIONS);
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private Message<byte[]> connect(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private void report(String name, long[] sorted) {
+        System.out.printf("%-8s fan-out to %d sessions: p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                name, SUBSCRIBERS,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) (sorted.length * 0.99)] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+}
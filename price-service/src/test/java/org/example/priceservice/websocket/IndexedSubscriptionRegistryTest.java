@@ -0,0 +1,82 @@
+package org.example.priceservice.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexedSubscriptionRegistryTest {
+
+    private static final String BTC_1M = "/topic/candles.1m.btcusdt";
+
+    private IndexedSubscriptionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new IndexedSubscriptionRegistry();
+    }
+
+    @Test
+    void findSubscriptions_ReturnsOnlySessionsOfExactDestination() {
+        registry.registerSubscription(subscribe("s1", "sub-1", BTC_1M));
+        registry.registerSubscription(subscribe("s1", "sub-2", BTC_1M));
+        registry.registerSubscription(subscribe("s2", "sub-1", BTC_1M));
+        registry.registerSubscription(subscribe("s3", "sub-1", "/topic/candles.1m.ethusdt"));
+
+        MultiValueMap<String, String> result = registry.findSubscriptions(message(BTC_1M));
+
+        assertThat(result).containsOnlyKeys("s1", "s2");
+        assertThat(result.get("s1")).containsExactly("sub-1", "sub-2");
+    }
+
+    @Test
+    void unregisterSubscription_RemovesSubscriptionAndEmptyDestination() {
+        registry.registerSubscription(subscribe("s1", "sub-1", BTC_1M));
+        registry.registerSubscription(subscribe("s2", "sub-1", BTC_1M));
+
+        registry.unregisterSubscription(unsubscribe("s1", "sub-1"));
+        assertThat(registry.findSubscriptions(message(BTC_1M))).containsOnlyKeys("s2");
+
+        registry.unregisterSubscription(unsubscribe("s2", "sub-1"));
+        assertThat(registry.findSubscriptions(message(BTC_1M))).isEmpty();
+    }
+
+    @Test
+    void unregisterAllSubscriptions_WhenSessionDisconnects_RemovesItFromEveryDestination() {
+        registry.registerSubscription(subscribe("s1", "sub-1", BTC_1M));
+        registry.registerSubscription(subscribe("s1", "sub-2", "/topic/candles.5m.btcusdt"));
+        registry.registerSubscription(subscribe("s2", "sub-1", BTC_1M));
+
+        registry.unregisterAllSubscriptions("s1");
+
+        assertThat(registry.findSubscriptions(message(BTC_1M))).containsOnlyKeys("s2");
+        assertThat(registry.findSubscriptions(message("/topic/candles.5m.btcusdt"))).isEmpty();
+        assertThat(registry.getSessionCount()).isEqualTo(1);
+    }
+
+    static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    static Message<byte[]> unsubscribe(String sessionId, String subscriptionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    static Message<byte[]> message(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}